@@ -0,0 +1,182 @@
+import argparse
+import concurrent.futures
+import datetime
+import json
+import random
+import sys
+import threading
+import time
+import urllib.error
+import urllib.request
+
+
+def percentile(sorted_values, p):
+    """
+    Nearest rank percentile of an already sorted list, 0.0 when the list is empty.
+    """
+    if not sorted_values:
+        return 0.0
+    rank = max(0, min(len(sorted_values) - 1, int(round(p / 100.0 * len(sorted_values) + 0.5)) - 1))
+    return sorted_values[rank]
+
+
+def request_for(route: str, base_url: str, area: int):
+    """
+    Builds one HTTP request for the given GridCellEndpoint route, using random
+    cells inside an area x area square around 0x0 ("RxC" ids, row is y).
+
+    Routes:
+    - update-status:  PUT /grid-cell/update-status with a random color
+    - batch-update:   PUT /grid-cell/batch-update with 100 random cells
+    - paginated-list: GET /grid-cell/paginated-list for a 50 x 50 viewport
+    - view-row:       GET /grid-cell/view-row-by-id for a random cell
+    - entity:         GET /grid-cell/entity-by-id for a random cell
+    """
+    def random_cell():
+        x = random.randint(-area // 2, area // 2)
+        y = random.randint(-area // 2, area // 2)
+        return x, y, f"{y}x{x}"
+
+    def json_put(path, body):
+        return urllib.request.Request(
+            f"{base_url}{path}",
+            data=json.dumps(body).encode("utf-8"),
+            headers={"Content-Type": "application/json"},
+            method="PUT")
+
+    now = datetime.datetime.now(datetime.timezone.utc).isoformat().replace("+00:00", "Z")
+    colors = ["red", "green", "blue", "orange"]
+
+    if route == "update-status":
+        x, y, cell_id = random_cell()
+        return json_put("/grid-cell/update-status", {
+            "id": cell_id, "status": random.choice(colors), "clientAt": now,
+            "centerX": x, "centerY": y, "radius": 0})
+    if route == "batch-update":
+        updates = []
+        for _ in range(100):
+            _, _, cell_id = random_cell()
+            updates.append({"id": cell_id, "status": random.choice(colors), "clientAt": now})
+        return json_put("/grid-cell/batch-update", {"updates": updates})
+    if route == "paginated-list":
+        x, y, _ = random_cell()
+        return urllib.request.Request(f"{base_url}/grid-cell/paginated-list/{x}/{y}/{x + 49}/{y + 49}/start")
+    if route == "view-row":
+        _, _, cell_id = random_cell()
+        return urllib.request.Request(f"{base_url}/grid-cell/view-row-by-id/{cell_id}")
+    if route == "entity":
+        _, _, cell_id = random_cell()
+        return urllib.request.Request(f"{base_url}/grid-cell/entity-by-id/{cell_id}")
+    raise ValueError(f"Unknown route {route}")
+
+
+def run_load(base_url: str, route: str, concurrency: int, duration_s: float, warmup_s: float, area: int):
+    """
+    Runs `concurrency` closed loop workers against one route for warmup + duration
+    seconds and returns the requests per second and latency percentiles of the
+    measured period. Each worker sends its next request as soon as the previous
+    one completes, so the reported throughput is what the service sustains at that
+    level of concurrency.
+    """
+    latencies_ms = []
+    errors = {}
+    lock = threading.Lock()
+    started = time.monotonic()
+    measure_from = started + warmup_s
+    stop_at = measure_from + duration_s
+
+    def worker():
+        local_latencies = []
+        local_errors = {}
+        while True:
+            begin = time.monotonic()
+            if begin >= stop_at:
+                break
+            try:
+                with urllib.request.urlopen(request_for(route, base_url, area), timeout=30) as response:
+                    response.read()
+                    outcome = None
+            except urllib.error.HTTPError as e:
+                outcome = f"HTTP {e.code}"
+            except Exception as e:  # connection errors and timeouts
+                outcome = type(e).__name__
+            end = time.monotonic()
+            if begin >= measure_from:
+                if outcome is None:
+                    local_latencies.append((end - begin) * 1000.0)
+                else:
+                    local_errors[outcome] = local_errors.get(outcome, 0) + 1
+        with lock:
+            latencies_ms.extend(local_latencies)
+            for key, count in local_errors.items():
+                errors[key] = errors.get(key, 0) + count
+
+    with concurrent.futures.ThreadPoolExecutor(max_workers=concurrency) as executor:
+        for _ in range(concurrency):
+            executor.submit(worker)
+
+    latencies_ms.sort()
+    return {
+        "route": route,
+        "concurrency": concurrency,
+        "durationSeconds": duration_s,
+        "requests": len(latencies_ms),
+        "errors": errors,
+        "requestsPerSecond": len(latencies_ms) / duration_s,
+        "p50Ms": percentile(latencies_ms, 50),
+        "p90Ms": percentile(latencies_ms, 90),
+        "p99Ms": percentile(latencies_ms, 99),
+        "maxMs": latencies_ms[-1] if latencies_ms else 0.0,
+    }
+
+
+def compare(before_path: str, after_path: str):
+    """
+    Prints the before / after requests per second and p99 per route and
+    concurrency from two result files written with --out.
+    """
+    with open(before_path) as f:
+        before = {(r["route"], r["concurrency"]): r for r in json.load(f)}
+    with open(after_path) as f:
+        after = {(r["route"], r["concurrency"]): r for r in json.load(f)}
+
+    print(f"{'route':<16} {'conc':>5} {'rps before':>11} {'rps after':>10} {'p99 before':>11} {'p99 after':>10}")
+    for key in sorted(set(before) & set(after)):
+        b, a = before[key], after[key]
+        print(f"{key[0]:<16} {key[1]:>5} {b['requestsPerSecond']:>11.1f} {a['requestsPerSecond']:>10.1f} "
+              f"{b['p99Ms']:>9.1f}ms {a['p99Ms']:>8.1f}ms")
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Closed loop load test of the GridCellEndpoint routes.")
+    parser.add_argument("--url", default="http://localhost:9000", help="Service base URL")
+    parser.add_argument("--routes", default="update-status,paginated-list,view-row",
+                        help="Comma separated routes: update-status, batch-update, paginated-list, view-row, entity")
+    parser.add_argument("--concurrency", default="16,64,256", help="Comma separated concurrency levels")
+    parser.add_argument("--duration", type=float, default=20.0, help="Measured seconds per run")
+    parser.add_argument("--warmup", type=float, default=5.0, help="Warmup seconds per run, not measured")
+    parser.add_argument("--area", type=int, default=200, help="Side of the square of cells used around 0x0")
+    parser.add_argument("--out", help="Write the results as JSON to this file")
+    parser.add_argument("--compare", nargs=2, metavar=("BEFORE", "AFTER"), help="Compare two result files and exit")
+    args = parser.parse_args()
+
+    if args.compare:
+        compare(*args.compare)
+        return
+
+    results = []
+    for route in args.routes.split(","):
+        for concurrency in [int(c) for c in args.concurrency.split(",")]:
+            result = run_load(args.url, route, concurrency, args.duration, args.warmup, args.area)
+            results.append(result)
+            print(f"{route:<16} concurrency {concurrency:>4}: {result['requestsPerSecond']:>8.1f} req/s, "
+                  f"p50 {result['p50Ms']:.1f}ms, p99 {result['p99Ms']:.1f}ms, errors {result['errors']}")
+            sys.stdout.flush()
+
+    if args.out:
+        with open(args.out, "w") as f:
+            json.dump(results, f, indent=2)
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,129 @@
+import argparse
+import datetime
+import json
+import sys
+import time
+import urllib.request
+
+
+def get_json(url: str):
+    with urllib.request.urlopen(url, timeout=30) as response:
+        return json.loads(response.read())
+
+
+def consumer_metrics(base_url: str, consumer_id: str):
+    """
+    The metrics of one consumer from GET /grid-cell/metrics/consumer, zeros before its first event.
+    """
+    for metrics in get_json(f"{base_url}/grid-cell/metrics/consumer"):
+        if metrics["consumerId"] == consumer_id:
+            return metrics
+    return {"events": 0, "maxConcurrentCalls": 0, "callsFailed": 0}
+
+
+def start_wave(base_url: str, x: int, y: int, radius: int, status: str):
+    """
+    Starts one neighbor wave with PUT /grid-cell/fill-status centered on x, y ("RxC" ids, row is y).
+    """
+    now = datetime.datetime.now(datetime.timezone.utc).isoformat().replace("+00:00", "Z")
+    body = {"id": f"{y}x{x}", "status": status, "clientAt": now, "centerX": x, "centerY": y, "radius": radius}
+    request = urllib.request.Request(
+        f"{base_url}/grid-cell/fill-status",
+        data=json.dumps(body).encode("utf-8"),
+        headers={"Content-Type": "application/json"},
+        method="PUT")
+    with urllib.request.urlopen(request, timeout=30) as response:
+        response.read()
+
+
+def run_waves(base_url: str, consumer_id: str, waves: int, radius: int, spacing: int, idle_s: float, timeout_s: float):
+    """
+    Starts `waves` fill waves side by side, then samples the consumer metrics once a
+    second until no events arrive for `idle_s` seconds. Reports the events the consumer
+    handled, how long the waves took to settle and the events per second over that time.
+    Concurrent calls are those of slices processed in parallel, one event per slice at a
+    time. Run it against a single node, the metrics are node local.
+    """
+    before = consumer_metrics(base_url, consumer_id)
+    started = time.monotonic()
+    statuses = ["red", "green", "blue", "orange"]
+    for wave in range(waves):
+        start_wave(base_url, wave * spacing, 0, radius, statuses[wave % len(statuses)])
+
+    last_events = before["events"]
+    last_change = time.monotonic()
+    peak_per_second = 0.0
+    samples = []
+    while True:
+        time.sleep(1.0)
+        metrics = consumer_metrics(base_url, consumer_id)
+        now = time.monotonic()
+        delta = metrics["events"] - last_events
+        if delta > 0:
+            last_change = now
+            peak_per_second = max(peak_per_second, delta)
+        last_events = metrics["events"]
+        samples.append({"second": round(now - started, 1), "events": delta, "concurrentCalls": metrics.get("concurrentCalls", 0)})
+        if now - last_change >= idle_s or now - started >= timeout_s:
+            break
+
+    after = consumer_metrics(base_url, consumer_id)
+    events = after["events"] - before["events"]
+    settled_s = max(0.001, last_change - started)
+    return {
+        "waves": waves,
+        "radius": radius,
+        "events": events,
+        "settledSeconds": round(settled_s, 1),
+        "eventsPerSecond": events / settled_s,
+        "peakEventsPerSecond": peak_per_second,
+        "maxConcurrentCalls": after["maxConcurrentCalls"],
+        "callsFailed": after["callsFailed"] - before["callsFailed"],
+        "samples": samples,
+    }
+
+
+def compare(before_path: str, after_path: str):
+    """
+    Prints the before / after consumer throughput from two result files written with --out.
+    """
+    with open(before_path) as f:
+        before = json.load(f)
+    with open(after_path) as f:
+        after = json.load(f)
+
+    print(f"{'':<20} {'before':>10} {'after':>10}")
+    for key in ["events", "settledSeconds", "eventsPerSecond", "peakEventsPerSecond", "maxConcurrentCalls", "callsFailed"]:
+        print(f"{key:<20} {before[key]:>10.1f} {after[key]:>10.1f}")
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Consumer throughput of large fill-status neighbor waves.")
+    parser.add_argument("--url", default="http://localhost:9000", help="Service base URL")
+    parser.add_argument("--consumer", default="grid-cell-fill-span-consumer", help="Consumer id to report")
+    parser.add_argument("--waves", type=int, default=4, help="Number of waves started side by side")
+    parser.add_argument("--radius", type=int, default=30, help="Wave radius, the endpoint caps it at 30")
+    parser.add_argument("--spacing", type=int, default=70, help="Distance between wave centers along x")
+    parser.add_argument("--idle", type=float, default=5.0, help="Seconds without events that end the run")
+    parser.add_argument("--timeout", type=float, default=600.0, help="Maximum seconds to wait for the waves")
+    parser.add_argument("--out", help="Write the result as JSON to this file")
+    parser.add_argument("--compare", nargs=2, metavar=("BEFORE", "AFTER"), help="Compare two result files and exit")
+    args = parser.parse_args()
+
+    if args.compare:
+        compare(*args.compare)
+        return
+
+    result = run_waves(args.url, args.consumer, args.waves, args.radius, args.spacing, args.idle, args.timeout)
+    print(f"{result['waves']} waves, radius {result['radius']}: {result['events']} events in {result['settledSeconds']}s, "
+          f"{result['eventsPerSecond']:.1f} events/s, peak {result['peakEventsPerSecond']:.0f} events/s, "
+          f"max {result['maxConcurrentCalls']} concurrent calls, {result['callsFailed']} failed")
+    sys.stdout.flush()
+
+    if args.out:
+        with open(args.out, "w") as f:
+            json.dump(result, f, indent=2)
+
+
+if __name__ == "__main__":
+    main()
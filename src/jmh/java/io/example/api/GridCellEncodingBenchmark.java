@@ -0,0 +1,72 @@
+package io.example.api;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.example.application.GridCellView.GridCellRow;
+import io.example.application.GridCellView.PagedGridCells;
+import io.example.domain.CellKey;
+
+/**
+ * Encode time of a full 1000 row paginated-list page, row per object JSON vs the columnar JSON and binary
+ * {@link GridCellEncoding}s.
+ * <p>
+ * Run with: mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.args="GridCellEncodingBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridCellEncodingBenchmark {
+  static final String[] statuses = { "red", "green", "blue", "orange", "inactive" };
+  static final String[] regions = { "gcp-us-east1", "aws-us-east-2" };
+
+  PagedGridCells page;
+
+  @Setup
+  public void setup() {
+    var random = new Random(42);
+    var now = Instant.parse("2026-01-01T00:00:00Z");
+    var rows = new ArrayList<GridCellRow>();
+    for (int i = 0; i < 1000; i++) {
+      var x = i % 40;
+      var y = i / 40;
+      var clientAt = now.plusMillis(random.nextInt(60_000));
+      var updatedAt = clientAt.plusMillis(random.nextInt(500));
+      rows.add(new GridCellRow(CellKey.id(y, x), statuses[random.nextInt(statuses.length)], x, y, clientAt, clientAt.plusMillis(5),
+          clientAt, updatedAt, updatedAt.plusMillis(20), random.nextInt(1000), regions[random.nextInt(regions.length)],
+          regions[random.nextInt(regions.length)], regions[0], ""));
+    }
+    page = new PagedGridCells(rows, "eyJvZmZzZXQiOjEwMDB9", true);
+  }
+
+  @Benchmark
+  public byte[] json() {
+    return GridCellEncoding.json(page);
+  }
+
+  @Benchmark
+  public byte[] columnar() {
+    return GridCellEncoding.json(GridCellEncoding.columnar(page));
+  }
+
+  @Benchmark
+  public byte[] binary() {
+    return GridCellEncoding.binary(page);
+  }
+}
@@ -0,0 +1,106 @@
+package io.example.domain;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the original "RxC" string handling (split + parseInt, String.format) with {@link CellKey}.
+ * <p>
+ * Run with: mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.args="-prof gc CellKeyBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellKeyBenchmark {
+  String[] ids;
+  int index;
+
+  @Setup
+  public void setup() {
+    var random = ThreadLocalRandom.current();
+    ids = new String[1024];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = (random.nextInt(2000) - 1000) + "x" + (random.nextInt(2000) - 1000);
+    }
+  }
+
+  String nextId() {
+    return ids[index++ & (ids.length - 1)];
+  }
+
+  @Benchmark
+  public void parseSplit(Blackhole blackhole) {
+    var rc = nextId().split("x"); // RxC / YxX
+    blackhole.consume(Integer.parseInt(rc[1]));
+    blackhole.consume(Integer.parseInt(rc[0]));
+  }
+
+  @Benchmark
+  public void parseCellKey(Blackhole blackhole) {
+    var packed = CellKey.parse(nextId());
+    blackhole.consume(CellKey.col(packed));
+    blackhole.consume(CellKey.row(packed));
+  }
+
+  @Benchmark
+  public boolean insideRadiusSplit() {
+    var rc = nextId().split("x"); // RxC / YxX
+    var x = Integer.parseInt(rc[1]);
+    var y = Integer.parseInt(rc[0]);
+    return Math.pow(10 - x, 2) + Math.pow(20 - y, 2) <= Math.pow(Math.min(50, 30), 2);
+  }
+
+  @Benchmark
+  public boolean insideRadiusCellKey() {
+    return CellKey.fromId(nextId()).insideRadius(10, 20, 30);
+  }
+
+  @Benchmark
+  public List<String> neighborIdsFormat() {
+    var rc = nextId().split("x"); // RxC / YxX
+    var x = Integer.parseInt(rc[1]);
+    var y = Integer.parseInt(rc[0]);
+    return List.of(
+        String.format("%dx%d", y - 1, x - 1),
+        String.format("%dx%d", y - 1, x),
+        String.format("%dx%d", y - 1, x + 1),
+        String.format("%dx%d", y, x - 1),
+        String.format("%dx%d", y, x + 1),
+        String.format("%dx%d", y + 1, x - 1),
+        String.format("%dx%d", y + 1, x),
+        String.format("%dx%d", y + 1, x + 1));
+  }
+
+  @Benchmark
+  public List<String> neighborIdsCellKey() {
+    return CellKey.fromId(nextId()).neighborIds();
+  }
+
+  @Benchmark
+  public String pointIdFormatted() {
+    var packed = CellKey.parse(nextId());
+    return "%dx%d".formatted(CellKey.row(packed), CellKey.col(packed));
+  }
+
+  @Benchmark
+  public String pointIdCellKey() {
+    var packed = CellKey.parse(nextId());
+    return CellKey.id(CellKey.row(packed), CellKey.col(packed));
+  }
+}
@@ -0,0 +1,86 @@
+package io.example.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.example.application.GridCellView.GridCellRow;
+
+/**
+ * Long range predator move latency, recomputing the Gaussian vector sum over every prey cell in range on each move
+ * (reference and kernel) vs a lookup in the incrementally maintained {@link ScentField}.
+ * <p>
+ * Run with: mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.args="ScentFieldBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScentFieldBenchmark {
+  static final String[] statuses = { "red", "green", "blue", "orange" };
+
+  @Param({ "10", "100", "1000" })
+  int range;
+
+  @Param({ "0.05" })
+  double density;
+
+  List<GridCellRow> preyInRange;
+  ScentField scentField;
+  Point predator;
+  Random random;
+
+  @Setup
+  public void setup() {
+    random = new Random(42);
+    predator = new Point(0, 0);
+    preyInRange = new ArrayList<>();
+    scentField = new ScentField();
+    for (int y = -range; y <= range; y++) {
+      for (int x = -range; x <= range; x++) {
+        if ((x == 0 && y == 0) || random.nextDouble() >= density) {
+          continue;
+        }
+        var status = statuses[random.nextInt(statuses.length)];
+        preyInRange.add(new GridCellRow(CellKey.id(y, x), status, x, y, null, null, null, null, null, 0, "", "", "", ""));
+        scentField.set(x, y, PreyCells.intensity(status));
+      }
+    }
+  }
+
+  @Benchmark
+  public String moveReference() {
+    return Predator.nextGridCellIdLongRange(predator, preyInRange, range);
+  }
+
+  @Benchmark
+  public String moveKernel() {
+    return PredatorKernel.nextGridCellIdLongRange(predator.x(), predator.y(), PreyCells.from(preyInRange), range);
+  }
+
+  @Benchmark
+  public String moveScentField() {
+    return scentField.nextGridCellIdLongRange(predator.x(), predator.y(), range);
+  }
+
+  // The incremental cost paid per status change instead of per move
+  @Benchmark
+  public void statusUpdateScentField() {
+    scentField.set(random.nextInt(2 * range + 1) - range, random.nextInt(2 * range + 1) - range, 1 + random.nextInt(4));
+  }
+}
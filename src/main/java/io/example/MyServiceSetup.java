@@ -1,25 +1,102 @@
 package io.example;
 
+import java.util.Map;
+
 import akka.javasdk.annotations.Setup;
+import akka.javasdk.DependencyProvider;
 import akka.javasdk.ServiceSetup;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.http.HttpClientProvider;
+import akka.stream.Materializer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.typesafe.config.Config;
 
+import io.example.api.ClockSkewSampler;
+import io.example.api.FillRectangleJobs;
+import io.example.api.GridCellStreamHub;
+import io.example.application.ActiveCellIndex;
+import io.example.application.ClockSkew;
+import io.example.application.ComponentCalls;
+import io.example.application.ConsumerThroughput;
+import io.example.application.GridTileBatcher;
+import io.example.application.ReplicationLatency;
+import io.example.application.StageLatency;
+import io.example.application.WaveLaneCutover;
+import io.example.domain.Predator;
+
 @Setup
 public class MyServiceSetup implements ServiceSetup {
   private final Logger log = LoggerFactory.getLogger(MyServiceSetup.class);
   private final Config config;
+  private final Materializer materializer;
+  private final ActiveCellIndex activeCellIndex;
+  private final FillRectangleJobs fillRectangleJobs;
+  private final GridCellStreamHub streamHub;
+  private final ConsumerThroughput consumerThroughput;
+  private final ReplicationLatency replicationLatency;
+  private final StageLatency stageLatency;
+  private final ClockSkew clockSkew;
+  private final ClockSkewSampler clockSkewSampler;
+  private final ComponentCalls componentCalls;
+  private final GridTileBatcher gridTileBatcher;
+  private final WaveLaneCutover waveLaneCutover;
 
-  public MyServiceSetup(Config config) {
+  public MyServiceSetup(Config config, ComponentClient componentClient, HttpClientProvider httpClientProvider, Materializer materializer) {
     this.config = config;
+    this.materializer = materializer;
+    this.activeCellIndex = new ActiveCellIndex(config);
+    this.componentCalls = new ComponentCalls(config);
+    this.fillRectangleJobs = new FillRectangleJobs(config, componentCalls);
+    this.stageLatency = new StageLatency(config);
+    this.streamHub = new GridCellStreamHub(config, componentClient, materializer, stageLatency, componentCalls);
+    this.consumerThroughput = new ConsumerThroughput();
+    this.gridTileBatcher = new GridTileBatcher(config);
+    this.waveLaneCutover = new WaveLaneCutover(config);
+    this.clockSkew = new ClockSkew(config);
+    this.clockSkewSampler = new ClockSkewSampler(config, clockSkew, httpClientProvider);
+    this.replicationLatency = new ReplicationLatency(config, clockSkew);
   }
 
   @Override
   public void onStartup() {
     log.info("Service started");
     config.entrySet().stream().forEach(entry -> log.info("{} = {}", entry.getKey(), entry.getValue()));
+
+    Predator.engine(Predator.Engine.valueOf(config.getString("grid-cell.predator.engine")));
+    log.info("Predator engine: {}", Predator.engine());
+    log.info("Wave lane cutover: {}", waveLaneCutover.cutover().map(Object::toString).orElse("none"));
+
+    ReplicationLatency.node(replicationLatency);
+    StageLatency.node(stageLatency);
+    clockSkewSampler.start(materializer);
+  }
+
+  @Override
+  public DependencyProvider createDependencyProvider() {
+    var dependencies = Map.<Class<?>, Object>of(
+        ActiveCellIndex.class, activeCellIndex,
+        FillRectangleJobs.class, fillRectangleJobs,
+        GridCellStreamHub.class, streamHub,
+        ConsumerThroughput.class, consumerThroughput,
+        GridTileBatcher.class, gridTileBatcher,
+        ReplicationLatency.class, replicationLatency,
+        StageLatency.class, stageLatency,
+        ClockSkew.class, clockSkew,
+        ComponentCalls.class, componentCalls,
+        WaveLaneCutover.class, waveLaneCutover);
+
+    return new DependencyProvider() {
+      @Override
+      public <T> T getDependency(Class<T> clazz) {
+        var dependency = dependencies.get(clazz);
+        if (dependency == null) {
+          throw new IllegalArgumentException("No dependency provided for " + clazz.getName());
+        }
+        return clazz.cast(dependency);
+      }
+    };
   }
 }
@@ -0,0 +1,138 @@
+package io.example.api;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.typesafe.config.Config;
+
+import akka.javasdk.http.HttpClientProvider;
+import akka.javasdk.http.StrictResponse;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import io.example.application.ClockSkew;
+
+/**
+ * Samples the clocks of the peer regions for {@link ClockSkew} every {@code grid-cell.clock-skew.interval}, one
+ * {@code GET /grid-cell/clock?t0=} per route of {@code multi-region-routes} when {@code sample-routes} is on and the
+ * service is not in dev mode, and one per configured stand-in peer, so the estimator can be tried out locally.
+ */
+public class ClockSkewSampler {
+  private final Logger log = LoggerFactory.getLogger(ClockSkewSampler.class);
+  private final ClockSkew clockSkew;
+  private final List<Peer> peers;
+  private final LongSupplier clock;
+
+  // A route or stand-in that replies to a sample request sent at t0
+  public interface Peer {
+    String route();
+
+    CompletionStage<ClockSkew.Reading> read(long t0);
+  }
+
+  public ClockSkewSampler(Config config, ClockSkew clockSkew, HttpClientProvider httpClientProvider) {
+    this(clockSkew, peers(config, clockSkew.settings(), httpClientProvider), System::currentTimeMillis);
+  }
+
+  ClockSkewSampler(ClockSkew clockSkew, List<Peer> peers, LongSupplier clock) {
+    this.clockSkew = clockSkew;
+    this.peers = List.copyOf(peers);
+    this.clock = clock;
+  }
+
+  public void start(Materializer materializer) {
+    if (peers.isEmpty()) {
+      log.info("No clock skew peers to sample");
+      return;
+    }
+    log.info("Sampling the clocks of {} every {}", peers.stream().map(Peer::route).toList(), clockSkew.settings().interval());
+    Source.tick(clockSkew.settings().interval(), clockSkew.settings().interval(), "tick")
+        .mapAsync(1, __ -> sample())
+        .runWith(Sink.ignore(), materializer);
+  }
+
+  // One sample of each peer, completes when all have replied or failed
+  CompletionStage<Void> sample() {
+    return CompletableFuture.allOf(peers.stream()
+        .map(peer -> sample(peer).toCompletableFuture())
+        .toArray(CompletableFuture[]::new));
+  }
+
+  CompletionStage<Void> sample(Peer peer) {
+    var t0 = clock.getAsLong();
+    return peer.read(t0)
+        .thenAccept(reading -> {
+          var t3 = clock.getAsLong();
+          if (reading.t0() != t0) {
+            throw new IllegalStateException("Clock reading for t0 %d, expected %d".formatted(reading.t0(), t0));
+          }
+          clockSkew.record(reading.region(), peer.route(), new ClockSkew.Sample(t0, reading.receivedAt(), reading.repliedAt(), t3));
+        })
+        .exceptionally(e -> {
+          log.debug("Clock sample of {} failed", peer.route(), e);
+          clockSkew.failed(peer.route());
+          return null;
+        });
+  }
+
+  static List<Peer> peers(Config config, ClockSkew.Settings settings, HttpClientProvider httpClientProvider) {
+    var devMode = config.hasPath("akka.javasdk.dev-mode.enabled") && config.getBoolean("akka.javasdk.dev-mode.enabled");
+    var routes = settings.sampleRoutes() && !devMode
+        ? Stream.of(config.getString("multi-region-routes").split(","))
+            .map(String::trim)
+            .filter(route -> !route.isEmpty())
+            .<Peer>map(route -> routePeer(route, settings, httpClientProvider))
+        : Stream.<Peer>empty();
+    var standIns = settings.standInPeers().stream()
+        .<Peer>map(standIn -> standInPeer(standIn, System::currentTimeMillis));
+    return Stream.concat(routes, standIns).toList();
+  }
+
+  static Peer routePeer(String route, ClockSkew.Settings settings, HttpClientProvider httpClientProvider) {
+    var httpClient = httpClientProvider.httpClientFor("https://" + route);
+    return new Peer() {
+      @Override
+      public String route() {
+        return route;
+      }
+
+      @Override
+      public CompletionStage<ClockSkew.Reading> read(long t0) {
+        return httpClient.GET("/grid-cell/clock?t0=" + t0)
+            .responseBodyAs(ClockSkew.Reading.class)
+            .withTimeout(settings.timeout())
+            .invokeAsync()
+            .thenApply(StrictResponse::body);
+      }
+    };
+  }
+
+  // Replies after half the round trip with the clock offset by the stand-in's offset, the reply arrives half later
+  static Peer standInPeer(ClockSkew.StandInPeer standIn, LongSupplier clock) {
+    var halfRttMs = standIn.rtt().toMillis() / 2;
+    var offsetMs = standIn.offset().toMillis();
+    return new Peer() {
+      @Override
+      public String route() {
+        return "stand-in:" + standIn.region();
+      }
+
+      @Override
+      public CompletionStage<ClockSkew.Reading> read(long t0) {
+        return CompletableFuture
+            .supplyAsync(() -> {
+              var now = clock.getAsLong() + offsetMs;
+              return new ClockSkew.Reading(standIn.region(), t0, now, now);
+            }, CompletableFuture.delayedExecutor(halfRttMs, TimeUnit.MILLISECONDS))
+            .thenApplyAsync(reading -> reading, CompletableFuture.delayedExecutor(halfRttMs, TimeUnit.MILLISECONDS));
+      }
+    };
+  }
+}
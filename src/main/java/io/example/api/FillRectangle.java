@@ -1,152 +1,271 @@
 package io.example.api;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
-import java.util.stream.Stream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import akka.javasdk.client.ComponentClient;
-import io.example.application.GridCellEntity;
+import com.typesafe.config.Config;
+
+import akka.Done;
+import akka.stream.KillSwitches;
+import akka.stream.Materializer;
+import akka.stream.UniqueKillSwitch;
+import akka.stream.javadsl.Keep;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import io.example.application.GridCellEntityCalls;
+import io.example.domain.CellKey;
 import io.example.domain.GridCell;
 
+/**
+ * Fill rectangle job, one UpdateStatus per cell streamed through a throttled, bounded concurrency pipeline.
+ * <p>
+ * Failed cell updates are retried with exponential backoff while the job's shared retry budget lasts, so a struggling
+ * backend sees a bounded amount of extra load. Progress is tracked in counters read by the status endpoint and the job
+ * can be cancelled through its kill switch.
+ */
 class FillRectangle {
   private static final Logger log = LoggerFactory.getLogger(FillRectangle.class);
-  private final ComponentClient componentClient;
-  private final Executor virtualThreadExecutor;
+  private final String jobId;
+  private final Request request;
+  private final Settings settings;
+  private final GridCellEntityCalls gridCells;
+  private final Materializer materializer;
+  private final long totalCells;
+  private final Instant startedAt = Instant.now();
+  private final AtomicLong succeeded = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong retryBudget;
+  private final AtomicReference<State> state = new AtomicReference<>(State.running);
+  private volatile Instant finishedAt;
+  private UniqueKillSwitch killSwitch;
 
-  FillRectangle(ComponentClient componentClient) {
-    this.componentClient = componentClient;
-    virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+  enum State {
+    running,
+    completed,
+    cancelled,
+    failed
   }
 
-  static void fillRectangle(Request request, ComponentClient componentClient) {
-    var width = (int) Math.abs(request.x2() - request.x1()) + 1;
-    var height = (int) Math.abs(request.y2() - request.y1()) + 1;
-    var grid = new Grid(request.x1(), request.y1(), width, height);
-    var fillRectangle = new FillRectangle(componentClient);
+  private FillRectangle(String jobId, Request request, Settings settings, GridCellEntityCalls gridCells, Materializer materializer) {
+    this.jobId = jobId;
+    this.request = request;
+    this.settings = settings;
+    this.gridCells = gridCells;
+    this.materializer = materializer;
+    this.totalCells = request.cellCount();
+    this.retryBudget = new AtomicLong(settings.retryBudget());
+  }
 
-    fillRectangle.processRectangle(grid, request);
+  static FillRectangle start(String jobId, Request request, Settings settings, GridCellEntityCalls gridCells, Materializer materializer) {
+    var job = new FillRectangle(jobId, request, settings, gridCells, materializer);
+    job.run();
+    return job;
   }
 
-  // Recursively processes a rectangle, either subdividing or executing the task
-  void processRectangle(Grid grid, Request request) {
-    if (grid.isSingleCell()) {
-      virtualThreadExecutor.execute(() -> {
-        final int maxRetries = 12;
-        final long initialDelayMs = 100;
-        final long maxDelayMs = 10000; // 10 seconds max delay
-
-        int retryCount = 0;
-        boolean success = false;
-        Exception lastException = null;
-
-        var id = "%dx%d".formatted(grid.y, grid.x); // RxC / YxX
-        var command = new GridCell.Command.UpdateStatus(
-            id,
-            request.status(),
-            request.clientAt(),
-            request.endpointAt(),
-            request.region());
-
-        while (!success && retryCount < maxRetries) {
-          try {
-            if (retryCount > 0) {
-              // Calculate exponential backoff delay with jitter
-              long delayMs = Math.min(
-                  initialDelayMs * (long) Math.pow(2, retryCount - 1) + (long) (Math.random() * 100),
-                  maxDelayMs);
-              log.info("Retrying cell {} after {}ms (attempt {})", id, delayMs, retryCount + 1);
-              Thread.sleep(delayMs);
-            }
-
-            componentClient.forEventSourcedEntity(id)
-                .method(GridCellEntity::updateStatus)
-                .invoke(command);
-
-            success = true;
-            if (retryCount > 0) {
-              log.info("Successfully processed cell {} after {} retries", id, retryCount);
-            }
-          } catch (Exception e) {
-            lastException = e;
-            retryCount++;
-            log.warn("Error processing cell {} (attempt {}/{}): {}", id, retryCount, maxRetries, e.getMessage());
-          }
-        }
+  void run() {
+    log.info("Fill rectangle job {} started, {} cells, {}", jobId, totalCells, request);
 
-        if (!success && lastException != null) {
-          log.error("Failed to process cell {} after {} attempts: {}", id, maxRetries, lastException.getMessage());
-        } else if (!success) {
-          log.error("Failed to process cell {} after {} attempts", id, maxRetries);
-        }
-      });
-    } else {
-      var subAreas = subdivideGrid(grid);
+    var running = Source.fromIterator(() -> cellIds(request))
+        .viaMat(KillSwitches.single(), Keep.right())
+        .throttle(settings.cellsPerSecond(), Duration.ofSeconds(1))
+        .mapAsyncUnordered(settings.parallelism(), id -> updateStatus(id, 0))
+        .toMat(Sink.ignore(), Keep.both())
+        .run(materializer);
 
-      subAreas.forEach(subArea -> {
-        virtualThreadExecutor.execute(() -> processRectangle(subArea, request));
-      });
-    }
+    killSwitch = running.first();
+    running.second().whenComplete(this::onComplete);
   }
 
-  List<Grid> subdivideGrid(Grid grid) {
-    var halfWidth = grid.width / 2;
-    var halfHeight = grid.height / 2;
+  void cancel() {
+    if (state.compareAndSet(State.running, State.cancelled)) {
+      log.info("Fill rectangle job {} cancelled, {}", jobId, status());
+      killSwitch.shutdown();
+    }
+  }
 
-    if (halfWidth == 0 && halfHeight == 0) {
-      return List.of(grid);
+  void onComplete(Done done, Throwable error) {
+    finishedAt = Instant.now();
+    if (error != null) {
+      state.compareAndSet(State.running, State.failed);
+      log.error("Fill rectangle job {} failed, {}", jobId, status(), error);
+    } else {
+      state.compareAndSet(State.running, State.completed);
+      log.info("Fill rectangle job {} finished, {}", jobId, status());
     }
-    if (halfWidth == 0) {
-      // Split only vertically (width=1, height>1)
-      return Stream.of(
-          Optional.of(new Grid(grid.x, grid.y, grid.width, halfHeight)),
-          grid.height - halfHeight > 0
-              ? Optional.of(new Grid(grid.x, grid.y + halfHeight, grid.width, grid.height - halfHeight))
-              : Optional.<Grid>empty())
-          .flatMap(s -> s.stream())
-          .toList();
+  }
+
+  // Completes with true when the cell was updated, retries are scheduled while the shared budget lasts
+  CompletionStage<Boolean> updateStatus(String id, int attempt) {
+    var command = new GridCell.Command.UpdateStatus(
+        id,
+        request.status(),
+        request.clientAt(),
+        request.endpointAt(),
+        request.region(),
+        request.traceId());
+
+    return gridCells.updateStatus(command)
+        .thenApply(__ -> {
+          succeeded.incrementAndGet();
+          return true;
+        })
+        .exceptionallyCompose(error -> {
+          if (state.get() != State.running || attempt + 1 >= settings.maxRetries() || retryBudget.decrementAndGet() < 0) {
+            failed.incrementAndGet();
+            log.warn("Failed to process cell {} after {} attempts: {}", id, attempt + 1, error.getMessage());
+            return CompletableFuture.completedFuture(false);
+          }
+
+          retries.incrementAndGet();
+          var delay = backoff(attempt);
+          log.debug("Retrying cell {} after {}ms (attempt {})", id, delay.toMillis(), attempt + 2);
+          var retry = new CompletableFuture<Boolean>();
+          materializer.scheduleOnce(delay, () -> updateStatus(id, attempt + 1)
+              .whenComplete((result, retryError) -> {
+                if (retryError != null) {
+                  retry.completeExceptionally(retryError);
+                } else {
+                  retry.complete(result);
+                }
+              }));
+          return retry;
+        });
+  }
+
+  // Exponential backoff with jitter
+  Duration backoff(int attempt) {
+    var delayMs = settings.initialBackoff().toMillis() * (1L << Math.min(attempt, 20)) + ThreadLocalRandom.current().nextLong(100);
+    return Duration.ofMillis(Math.min(delayMs, settings.maxBackoff().toMillis()));
+  }
+
+  String jobId() {
+    return jobId;
+  }
+
+  // Cancelled jobs are finished once the in flight updates have drained
+  boolean isFinished() {
+    return finishedAt != null;
+  }
+
+  Instant finishedAt() {
+    return finishedAt;
+  }
+
+  JobStatus status() {
+    var end = finishedAt == null ? Instant.now() : finishedAt;
+    var elapsedMs = Math.max(1, Duration.between(startedAt, end).toMillis());
+    var processed = succeeded.get() + failed.get();
+    return new JobStatus(
+        jobId,
+        state.get().name(),
+        request.x1(),
+        request.y1(),
+        request.x2(),
+        request.y2(),
+        request.status().name(),
+        totalCells,
+        succeeded.get(),
+        failed.get(),
+        retries.get(),
+        Math.max(0, retryBudget.get()),
+        totalCells == 0 ? 100.0 : 100.0 * processed / totalCells,
+        processed * 1000.0 / elapsedMs,
+        startedAt,
+        finishedAt,
+        elapsedMs);
+  }
+
+  // Row by row over the rectangle, generated lazily so large rectangles are not materialized up front
+  static Iterator<String> cellIds(Request request) {
+    var x1 = Math.min(request.x1(), request.x2());
+    var x2 = Math.max(request.x1(), request.x2());
+    var y1 = Math.min(request.y1(), request.y2());
+    var y2 = Math.max(request.y1(), request.y2());
+
+    return new Iterator<>() {
+      int x = x1;
+      int y = y1;
+
+      @Override
+      public boolean hasNext() {
+        return y <= y2;
+      }
+
+      @Override
+      public String next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        var id = CellKey.id(y, x); // RxC / YxX
+        if (++x > x2) {
+          x = x1;
+          y++;
+        }
+        return id;
+      }
+    };
+  }
+
+  record Request(int x1, int y1, int x2, int y2, String region, Instant clientAt, Instant endpointAt, GridCell.Status status,
+      String traceId) {
+    Request withServerFields(String newRegion, Instant newEndpointAt, String newTraceId) {
+      return new Request(x1, y1, x2, y2, newRegion, clientAt, newEndpointAt, status, newTraceId);
     }
-    if (halfHeight == 0) {
-      // Split only horizontally (height=1, width>1)
-      return Stream.of(
-          Optional.of(new Grid(grid.x, grid.y, halfWidth, grid.height)),
-          grid.width - halfWidth > 0
-              ? Optional.of(new Grid(grid.x + halfWidth, grid.y, grid.width - halfWidth, grid.height))
-              : Optional.<Grid>empty())
-          .flatMap(s -> s.stream())
-          .toList();
+
+    long cellCount() {
+      return ((long) Math.abs(x2 - x1) + 1) * ((long) Math.abs(y2 - y1) + 1);
     }
-    // Split both ways (quad split) - creates 4 sub-areas
-    return Stream.of(
-        // Top-left
-        Optional.of(new Grid(grid.x, grid.y, halfWidth, halfHeight)),
-        // Top-right
-        grid.width - halfWidth > 0
-            ? Optional.of(new Grid(grid.x + halfWidth, grid.y, grid.width - halfWidth, halfHeight))
-            : Optional.<Grid>empty(),
-        // Bottom-left
-        grid.height - halfHeight > 0
-            ? Optional.of(new Grid(grid.x, grid.y + halfHeight, halfWidth, grid.height - halfHeight))
-            : Optional.<Grid>empty(),
-        // Bottom-right
-        grid.width - halfWidth > 0 && grid.height - halfHeight > 0
-            ? Optional.of(new Grid(grid.x + halfWidth, grid.y + halfHeight,
-                grid.width - halfWidth, grid.height - halfHeight))
-            : Optional.<Grid>empty())
-        .flatMap(s -> s.stream())
-        .toList();
   }
 
-  record Request(int x1, int y1, int x2, int y2, String region, Instant clientAt, Instant endpointAt, GridCell.Status status) {}
+  record Settings(
+      int parallelism,
+      int cellsPerSecond,
+      int maxRetries,
+      long retryBudget,
+      Duration initialBackoff,
+      Duration maxBackoff,
+      long maxCells) {
 
-  record Grid(int x, int y, int width, int height) {
-    boolean isSingleCell() {
-      return width == 1 && height == 1;
+    static Settings from(Config config) {
+      var fillRectangle = config.getConfig("grid-cell.fill-rectangle");
+      return new Settings(
+          fillRectangle.getInt("parallelism"),
+          fillRectangle.getInt("cells-per-second"),
+          fillRectangle.getInt("max-retries"),
+          fillRectangle.getLong("retry-budget"),
+          fillRectangle.getDuration("initial-backoff"),
+          fillRectangle.getDuration("max-backoff"),
+          fillRectangle.getLong("max-cells"));
     }
   }
+
+  public record JobStatus(
+      String jobId,
+      String state,
+      int x1,
+      int y1,
+      int x2,
+      int y2,
+      String status,
+      long totalCells,
+      long succeeded,
+      long failed,
+      long retries,
+      long retryBudgetRemaining,
+      double percentComplete,
+      double cellsPerSecond,
+      Instant startedAt,
+      Instant finishedAt,
+      long elapsedMs) {}
 }
@@ -0,0 +1,64 @@
+package io.example.api;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.typesafe.config.Config;
+
+import akka.javasdk.client.ComponentClient;
+import akka.stream.Materializer;
+import io.example.application.ComponentCalls;
+import io.example.application.GridCellEntityCalls;
+
+/**
+ * Node local registry of fill rectangle jobs, shared by the endpoint instances so a job started by one request can be
+ * queried and cancelled by later requests. Finished jobs are kept for status queries, up to {@code retain-finished}.
+ */
+public class FillRectangleJobs {
+  private final ConcurrentHashMap<String, FillRectangle> jobs = new ConcurrentHashMap<>();
+  private final FillRectangle.Settings settings;
+  private final ComponentCalls componentCalls;
+  private final int retainFinished;
+
+  public FillRectangleJobs(Config config, ComponentCalls componentCalls) {
+    this.settings = FillRectangle.Settings.from(config);
+    this.componentCalls = componentCalls;
+    this.retainFinished = config.getInt("grid-cell.fill-rectangle.retain-finished");
+  }
+
+  FillRectangle.Settings settings() {
+    return settings;
+  }
+
+  FillRectangle start(FillRectangle.Request request, ComponentClient componentClient, Materializer materializer) {
+    evictFinished();
+    var jobId = UUID.randomUUID().toString();
+    var job = FillRectangle.start(jobId, request, settings, new GridCellEntityCalls(componentClient, componentCalls), materializer);
+    jobs.put(jobId, job);
+    return job;
+  }
+
+  Optional<FillRectangle> get(String jobId) {
+    return Optional.ofNullable(jobs.get(jobId));
+  }
+
+  List<FillRectangle.JobStatus> statuses() {
+    return jobs.values().stream()
+        .map(FillRectangle::status)
+        .sorted(Comparator.comparing(FillRectangle.JobStatus::startedAt).reversed())
+        .toList();
+  }
+
+  void evictFinished() {
+    var finished = jobs.values().stream()
+        .filter(FillRectangle::isFinished)
+        .sorted(Comparator.comparing(FillRectangle::finishedAt).reversed())
+        .toList();
+    finished.stream()
+        .skip(retainFinished)
+        .forEach(job -> jobs.remove(job.jobId()));
+  }
+}
@@ -0,0 +1,281 @@
+package io.example.api;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import akka.http.javadsl.model.ContentType;
+import akka.http.javadsl.model.ContentTypes;
+import akka.http.javadsl.model.HttpCharsets;
+import akka.http.javadsl.model.MediaTypes;
+import akka.javasdk.JsonSupport;
+import io.example.application.GridCellView.GridCellRow;
+import io.example.application.GridCellView.PagedGridCells;
+import io.example.domain.CellKey;
+import io.example.domain.GridCell;
+
+/**
+ * Wire formats of grid cell pages, picked from the request's Accept header.
+ * <ul>
+ * <li>{@code application/json}, the default, one JSON object per row</li>
+ * <li>{@code application/vnd.grid-cell.columnar+json}, one JSON array per field, see {@link Columnar}</li>
+ * <li>{@code application/vnd.grid-cell.binary}, a little endian layout, see {@link #binary}</li>
+ * </ul>
+ * Both compact formats leave out the id, it is "RxC" of y and x, send statuses as {@link GridCell.Status} ordinals,
+ * timestamps as epoch ms, 0 when missing, and the region strings as indexes into a per page dictionary.
+ */
+public final class GridCellEncoding {
+  public static final String columnarMediaType = "application/vnd.grid-cell.columnar+json";
+  public static final String binaryMediaType = "application/vnd.grid-cell.binary";
+  static final ContentType columnarContentType = ContentTypes.create(
+      MediaTypes.applicationWithFixedCharset("vnd.grid-cell.columnar+json", HttpCharsets.UTF_8));
+  static final ContentType binaryContentType = ContentTypes.create(
+      MediaTypes.applicationBinary("vnd.grid-cell.binary", true));
+  static final byte[] magic = { 'G', 'C' };
+  static final byte version = 1;
+
+  private GridCellEncoding() {}
+
+  public enum Encoding {
+    json,
+    columnar,
+    binary
+  }
+
+  // The first compact format listed in the Accept header and not refused with q=0, json when none is
+  public static Encoding negotiate(Optional<String> accept) {
+    for (var range : accept.orElse("").split(",")) {
+      if (HttpCompression.refused(range)) {
+        continue;
+      }
+      var mediaType = range.split(";")[0].trim();
+      if (mediaType.equalsIgnoreCase(columnarMediaType)) {
+        return Encoding.columnar;
+      }
+      if (mediaType.equalsIgnoreCase(binaryMediaType)) {
+        return Encoding.binary;
+      }
+    }
+    return Encoding.json;
+  }
+
+  static ContentType contentType(Encoding encoding) {
+    return switch (encoding) {
+      case json -> ContentTypes.APPLICATION_JSON;
+      case columnar -> columnarContentType;
+      case binary -> binaryContentType;
+    };
+  }
+
+  // The default json body is the view result as is
+  static byte[] encode(Encoding encoding, PagedGridCells page, Object json) {
+    return switch (encoding) {
+      case json -> json(json);
+      case columnar -> json(columnar(page));
+      case binary -> binary(page);
+    };
+  }
+
+  static byte[] json(Object value) {
+    try {
+      return JsonSupport.getObjectMapper().writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to encode " + value.getClass().getSimpleName(), e);
+    }
+  }
+
+  // ============================================================
+  // Columnar JSON
+  // ============================================================
+  // Row i is x[i], y[i], status[i], ..., created, updated and view index into regions
+  public record Columnar(
+      int count,
+      List<String> regions,
+      int[] x,
+      int[] y,
+      int[] status,
+      long[] clientAt,
+      long[] endpointAt,
+      long[] createdAt,
+      long[] updatedAt,
+      long[] viewAt,
+      int[] elapsedMs,
+      int[] created,
+      int[] updated,
+      int[] view,
+      String nextPageToken,
+      boolean hasMore) {}
+
+  public static Columnar columnar(PagedGridCells page) {
+    var rows = page.gridCells();
+    var count = rows.size();
+    var regions = new Dictionary();
+    var x = new int[count];
+    var y = new int[count];
+    var status = new int[count];
+    var clientAt = new long[count];
+    var endpointAt = new long[count];
+    var createdAt = new long[count];
+    var updatedAt = new long[count];
+    var viewAt = new long[count];
+    var elapsedMs = new int[count];
+    var created = new int[count];
+    var updated = new int[count];
+    var view = new int[count];
+
+    for (int i = 0; i < count; i++) {
+      var row = rows.get(i);
+      x[i] = row.x();
+      y[i] = row.y();
+      status[i] = status(row.status());
+      clientAt[i] = epochMs(row.clientAt());
+      endpointAt[i] = epochMs(row.endpointAt());
+      createdAt[i] = epochMs(row.createdAt());
+      updatedAt[i] = epochMs(row.updatedAt());
+      viewAt[i] = epochMs(row.viewAt());
+      elapsedMs[i] = row.elapsedMs();
+      created[i] = regions.index(row.created());
+      updated[i] = regions.index(row.updated());
+      view[i] = regions.index(row.view());
+    }
+
+    return new Columnar(count, regions.values(), x, y, status, clientAt, endpointAt, createdAt, updatedAt, viewAt, elapsedMs,
+        created, updated, view, page.nextPageToken(), page.hasMore());
+  }
+
+  // ============================================================
+  // Binary
+  // ============================================================
+  /**
+   * Little endian layout, strings are a u16 byte length and UTF-8 bytes:
+   * <pre>
+   * 'G' 'C' version:u8 flags:u8 (bit 0 hasMore)
+   * nextPageToken:string
+   * regionCount:u16 region:string * regionCount
+   * rowCount:u32
+   * per row, 59 bytes:
+   *   x:i32 y:i32 status:u8
+   *   clientAt:i64 endpointAt:i64 createdAt:i64 updatedAt:i64 viewAt:i64 (epoch ms)
+   *   elapsedMs:i32 created:u16 updated:u16 view:u16 (region indexes)
+   * </pre>
+   */
+  public static byte[] binary(PagedGridCells page) {
+    var rows = page.gridCells();
+    var regions = new Dictionary();
+    rows.forEach(row -> {
+      regions.index(row.created());
+      regions.index(row.updated());
+      regions.index(row.view());
+    });
+    var token = utf8(page.nextPageToken());
+    var regionBytes = regions.values().stream().map(GridCellEncoding::utf8).toList();
+
+    var size = 4 + 2 + token.length + 2 + regionBytes.stream().mapToInt(bytes -> 2 + bytes.length).sum() + 4 + rows.size() * 59;
+    var buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.put(magic).put(version).put((byte) (page.hasMore() ? 1 : 0));
+    putString(buffer, token);
+    buffer.putShort((short) regionBytes.size());
+    regionBytes.forEach(bytes -> putString(buffer, bytes));
+    buffer.putInt(rows.size());
+
+    for (var row : rows) {
+      buffer.putInt(row.x())
+          .putInt(row.y())
+          .put((byte) status(row.status()))
+          .putLong(epochMs(row.clientAt()))
+          .putLong(epochMs(row.endpointAt()))
+          .putLong(epochMs(row.createdAt()))
+          .putLong(epochMs(row.updatedAt()))
+          .putLong(epochMs(row.viewAt()))
+          .putInt(row.elapsedMs())
+          .putShort((short) regions.index(row.created()))
+          .putShort((short) regions.index(row.updated()))
+          .putShort((short) regions.index(row.view()));
+    }
+    return buffer.array();
+  }
+
+  public static PagedGridCells fromBinary(byte[] bytes) {
+    var buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.get() != magic[0] || buffer.get() != magic[1] || buffer.get() != version) {
+      throw new IllegalArgumentException("Not a version %d grid cell page".formatted(version));
+    }
+    var hasMore = (buffer.get() & 1) != 0;
+    var nextPageToken = getString(buffer);
+    var regions = new ArrayList<String>();
+    var regionCount = Short.toUnsignedInt(buffer.getShort());
+    for (int i = 0; i < regionCount; i++) {
+      regions.add(getString(buffer));
+    }
+
+    var rowCount = buffer.getInt();
+    var rows = new ArrayList<GridCellRow>(rowCount);
+    for (int i = 0; i < rowCount; i++) {
+      var x = buffer.getInt();
+      var y = buffer.getInt();
+      rows.add(new GridCellRow(
+          CellKey.id(y, x), // RxC / YxX
+          GridCell.Status.values()[buffer.get()].name(),
+          x,
+          y,
+          instant(buffer.getLong()),
+          instant(buffer.getLong()),
+          instant(buffer.getLong()),
+          instant(buffer.getLong()),
+          instant(buffer.getLong()),
+          buffer.getInt(),
+          regions.get(Short.toUnsignedInt(buffer.getShort())),
+          regions.get(Short.toUnsignedInt(buffer.getShort())),
+          regions.get(Short.toUnsignedInt(buffer.getShort())),
+          "")); // The compact encodings leave out the trace id
+    }
+    return new PagedGridCells(rows, nextPageToken, hasMore);
+  }
+
+  static int status(String status) {
+    return GridCell.Status.valueOf(status).ordinal();
+  }
+
+  static long epochMs(Instant instant) {
+    return instant == null ? 0 : instant.toEpochMilli();
+  }
+
+  static Instant instant(long epochMs) {
+    return epochMs == 0 ? null : Instant.ofEpochMilli(epochMs);
+  }
+
+  static byte[] utf8(String value) {
+    return (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+  }
+
+  static void putString(ByteBuffer buffer, byte[] bytes) {
+    buffer.putShort((short) bytes.length).put(bytes);
+  }
+
+  static String getString(ByteBuffer buffer) {
+    var bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  // Region strings in first seen order, a page holds a handful
+  static final class Dictionary {
+    private final Map<String, Integer> indexes = new LinkedHashMap<>();
+
+    int index(String value) {
+      return indexes.computeIfAbsent(value == null ? "" : value, key -> indexes.size());
+    }
+
+    List<String> values() {
+      return List.copyOf(indexes.keySet());
+    }
+  }
+}
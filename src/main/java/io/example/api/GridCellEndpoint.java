@@ -1,11 +1,15 @@
 package io.example.api;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
-import java.util.function.Supplier;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
@@ -14,6 +18,9 @@ import org.slf4j.LoggerFactory;
 import com.typesafe.config.Config;
 
 import akka.Done;
+import akka.http.javadsl.model.ContentType;
+import akka.http.javadsl.model.ContentTypes;
+import akka.http.javadsl.model.HttpHeader;
 import akka.http.javadsl.model.HttpResponse;
 import akka.http.javadsl.model.StatusCodes;
 import akka.javasdk.annotations.Acl;
@@ -24,27 +31,90 @@ import akka.javasdk.client.ComponentClient;
 import akka.javasdk.http.AbstractHttpEndpoint;
 import akka.javasdk.http.HttpException;
 import akka.javasdk.http.HttpResponses;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Sink;
 import akka.stream.javadsl.Source;
-import io.example.application.GridCellEntity;
+import io.example.application.ActiveCellIndex;
+import io.example.application.ActiveGridCells;
+import io.example.application.ClockSkew;
+import io.example.application.ComponentCalls;
+import io.example.application.ConsumerThroughput;
+import io.example.application.GridTileBatcher;
+import io.example.application.GridBlockCalls;
+import io.example.application.GridCellEntityCalls;
+import io.example.application.FlightEvents;
 import io.example.application.GridCellView;
 import io.example.application.GridCellView.GridCellRow;
+import io.example.application.GridCellViewCalls;
+import io.example.application.GridBlockView;
+import io.example.application.GridTileCalls;
+import io.example.application.GridTileView;
+import io.example.application.ReplicationLatency;
+import io.example.application.StageLatency;
+import io.example.domain.FloodFill;
+import io.example.domain.GridBlock;
 import io.example.domain.GridCell;
+import io.example.domain.GridTile;
 import io.example.domain.Predator;
 
 @Acl(allow = @Acl.Matcher(principal = Acl.Principal.INTERNET))
 @HttpEndpoint("/grid-cell")
 public class GridCellEndpoint extends AbstractHttpEndpoint {
+  // The Prometheus text exposition format, a scraper may reject or misparse a plain text/plain body
+  static final ContentType prometheusContentType = ContentTypes.parse("text/plain; version=0.0.4; charset=utf-8");
   private final Logger log = LoggerFactory.getLogger(GridCellEndpoint.class);
   private final ComponentClient componentClient;
   private final Config config;
-
-  public GridCellEndpoint(ComponentClient componentClient, Config config) {
+  private final ActiveCellIndex activeCellIndex;
+  private final FillRectangleJobs fillRectangleJobs;
+  private final GridCellStreamHub streamHub;
+  private final ConsumerThroughput consumerThroughput;
+  private final GridTileBatcher gridTileBatcher;
+  private final ReplicationLatency replicationLatency;
+  private final StageLatency stageLatency;
+  private final ClockSkew clockSkew;
+  private final ComponentCalls componentCalls;
+  private final GridCellEntityCalls gridCells;
+  private final GridCellViewCalls gridCellView;
+  private final GridTileCalls gridTiles;
+  private final GridBlockCalls gridBlocks;
+  private final Materializer materializer;
+  private final int floodFillParallelism;
+  private final int batchUpdateParallelism;
+  private final int batchUpdateMaxCells;
+  private final int tilesMaxTiles;
+  private final int zoomMaxCells;
+  private final int compressionMinBytes;
+
+  public GridCellEndpoint(ComponentClient componentClient, Config config, ActiveCellIndex activeCellIndex, FillRectangleJobs fillRectangleJobs,
+      GridCellStreamHub streamHub, ConsumerThroughput consumerThroughput, GridTileBatcher gridTileBatcher, ReplicationLatency replicationLatency, StageLatency stageLatency, ClockSkew clockSkew,
+      ComponentCalls componentCalls, Materializer materializer) {
     this.componentClient = componentClient;
     this.config = config;
+    this.activeCellIndex = activeCellIndex;
+    this.fillRectangleJobs = fillRectangleJobs;
+    this.streamHub = streamHub;
+    this.consumerThroughput = consumerThroughput;
+    this.gridTileBatcher = gridTileBatcher;
+    this.replicationLatency = replicationLatency;
+    this.stageLatency = stageLatency;
+    this.clockSkew = clockSkew;
+    this.componentCalls = componentCalls;
+    this.gridCells = new GridCellEntityCalls(componentClient, componentCalls);
+    this.gridCellView = new GridCellViewCalls(componentClient, componentCalls);
+    this.gridTiles = new GridTileCalls(componentClient, componentCalls);
+    this.gridBlocks = new GridBlockCalls(componentClient, componentCalls);
+    this.materializer = materializer;
+    this.floodFillParallelism = config.getInt("grid-cell.flood-fill.parallelism");
+    this.batchUpdateParallelism = config.getInt("grid-cell.batch-update.parallelism");
+    this.batchUpdateMaxCells = config.getInt("grid-cell.batch-update.max-cells");
+    this.tilesMaxTiles = config.getInt("grid-cell.tiles.max-tiles");
+    this.zoomMaxCells = config.getInt("grid-cell.zoom.max-cells");
+    this.compressionMinBytes = config.getInt("grid-cell.compression.min-bytes");
   }
 
   @Put("/update-status")
-  public Done updateStatus(UpdateGridCellRequest request) {
+  public CompletionStage<Done> updateStatus(UpdateGridCellRequest request) {
     log.info("Region: {}, {}", region(), request);
 
     var status = GridCell.Status.valueOf(request.status());
@@ -55,20 +125,72 @@ public class GridCellEndpoint extends AbstractHttpEndpoint {
         status,
         clientAt,
         endpointAt,
-        region());
+        region(),
+        traceId());
+
+    return gridCells.updateStatus(command);
+  }
+
+  // Many cell updates in one request, dispatched asynchronously with bounded concurrency, results in request order
+  @Put("/batch-update")
+  public CompletionStage<BatchUpdateResult> batchUpdate(BatchUpdateRequest request) {
+    var updates = request.updates() == null ? List.<UpdateGridCellRequest>of() : request.updates();
+    log.info("Region: {}, batch update of {} cells", region(), updates.size());
+
+    if (updates.size() > batchUpdateMaxCells) {
+      throw HttpException.badRequest("Batch has %d cells, the limit is %d".formatted(updates.size(), batchUpdateMaxCells));
+    }
+
+    var startedAt = System.nanoTime();
+    var endpointAt = Instant.now();
+    var region = region();
+    var traceId = traceId();
+    return Source.from(updates)
+        .mapAsync(batchUpdateParallelism, update -> batchUpdate(update, endpointAt, region, traceId))
+        .runWith(Sink.seq(), materializer)
+        .thenApply(results -> {
+          var updated = (int) results.stream().filter(BatchUpdateCellResult::ok).count();
+          var elapsedMs = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+          return new BatchUpdateResult(updates.size(), updated, updates.size() - updated, elapsedMs, results);
+        });
+  }
 
-    return componentClient.forEventSourcedEntity(command.id())
-        .method(GridCellEntity::updateStatus)
-        .invoke(command);
+  CompletionStage<BatchUpdateCellResult> batchUpdate(UpdateGridCellRequest update, Instant endpointAt, String region, String traceId) {
+    try {
+      var command = new GridCell.Command.UpdateStatus(
+          update.id(),
+          GridCell.Status.valueOf(update.status()),
+          update.clientAt(),
+          endpointAt,
+          region,
+          traceId);
+
+      return gridCells.updateStatus(command)
+          .handle((done, error) -> {
+            if (error != null) {
+              log.warn("Batch update of {} failed", update.id(), error);
+              return new BatchUpdateCellResult(update.id(), false, error.getMessage());
+            }
+            return new BatchUpdateCellResult(update.id(), true, "");
+          });
+    } catch (RuntimeException e) { // Invalid status or id, reported per cell
+      return CompletableFuture.completedFuture(new BatchUpdateCellResult(update.id(), false, e.getMessage()));
+    }
   }
 
   @Put("/span-status")
-  public Done spanStatus(UpdateGridCellRequest request) {
+  public CompletionStage<HttpResponse> spanStatus(UpdateGridCellRequest request) {
     log.info("Region: {}, {}", region(), request);
 
     var status = GridCell.Status.valueOf(request.status());
     var clientAt = request.clientAt();
     var endpointAt = Instant.now();
+    var radius = Math.min(30, request.radius());
+
+    if (request.isEngineMode()) {
+      return floodFill(request, status, radius, GridCell.FloodRule.span).thenApply(HttpResponses::ok);
+    }
+
     var command = new GridCell.Command.SpanStatus(
         request.id(),
         status,
@@ -76,21 +198,27 @@ public class GridCellEndpoint extends AbstractHttpEndpoint {
         endpointAt,
         request.centerX(),
         request.centerY(),
-        Math.min(30, request.radius()),
-        region());
+        radius,
+        region(),
+        traceId());
 
-    return componentClient.forEventSourcedEntity(command.id())
-        .method(GridCellEntity::updateSpanStatus)
-        .invoke(command);
+    return gridCells.updateSpanStatus(command)
+        .thenApply(HttpResponses::ok);
   }
 
   @Put("/fill-status")
-  public Done fillStatus(UpdateGridCellRequest request) {
+  public CompletionStage<HttpResponse> fillStatus(UpdateGridCellRequest request) {
     log.info("Region: {}, {}", region(), request);
 
     var status = GridCell.Status.valueOf(request.status());
     var clientAt = request.clientAt();
     var endpointAt = Instant.now();
+    var radius = Math.min(30, request.radius());
+
+    if (request.isEngineMode()) {
+      return floodFill(request, status, radius, GridCell.FloodRule.fill).thenApply(HttpResponses::ok);
+    }
+
     var command = new GridCell.Command.FillStatus(
         request.id(),
         status,
@@ -98,82 +226,308 @@ public class GridCellEndpoint extends AbstractHttpEndpoint {
         endpointAt,
         request.centerX(),
         request.centerY(),
-        Math.min(30, request.radius()),
-        region());
+        radius,
+        region(),
+        traceId());
+
+    return gridCells.updateFillStatus(command)
+        .thenApply(HttpResponses::ok);
+  }
 
-    return componentClient.forEventSourcedEntity(command.id())
-        .method(GridCellEntity::updateFillStatus)
-        .invoke(command);
+  // Compute the changed cells from a view snapshot, then send one FloodStatus per cell with bounded parallelism. The
+  // snapshot may be behind the entities, each cell applies the rule to its current status, so a cell changed since the
+  // snapshot is not overwritten
+  CompletionStage<FloodFillResult> floodFill(UpdateGridCellRequest request, GridCell.Status status, int radius, GridCell.FloodRule rule) {
+    var startedAt = System.nanoTime();
+    var endpointAt = Instant.now();
+    var region = region();
+    var traceId = traceId();
+    var x1 = request.centerX() - radius;
+    var y1 = request.centerY() - radius;
+    var x2 = request.centerX() + radius;
+    var y2 = request.centerY() + radius;
+
+    return queryGridCellsInArea(x1, y1, x2, y2).thenCompose(activeCells -> {
+      var cellIds = switch (rule) {
+        case fill -> FloodFill.fill(request.id(), status, request.centerX(), request.centerY(), radius, activeCells);
+        case span -> FloodFill.span(request.id(), status, request.centerX(), request.centerY(), radius, activeCells);
+      };
+      var snapshotMs = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+
+      return Source.from(cellIds)
+          .mapAsyncUnordered(floodFillParallelism, id -> gridCells.updateFloodStatus(new GridCell.Command.FloodStatus(id, status, rule, request.clientAt(), endpointAt, region, traceId))
+              .handle((eventsPersisted, error) -> {
+                if (error != null) {
+                  log.warn("Flood fill update of {} failed", id, error);
+                  return FloodFillCounts.cellFailed;
+                }
+                return eventsPersisted == 0 ? FloodFillCounts.cellUnchanged : FloodFillCounts.cellUpdated(eventsPersisted);
+              }))
+          .runFold(FloodFillCounts.zero, FloodFillCounts::plus, materializer)
+          .thenApply(counts -> {
+            var elapsedMs = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+            var waveCost = FloodFill.waveCost(counts.updated());
+            var result = new FloodFillResult(
+                "engine",
+                cellIds.size(),
+                counts.updated(),
+                counts.unchanged(),
+                counts.failed(),
+                activeCells.size(),
+                cellIds.size(),
+                counts.journalEvents(),
+                waveCost.entityCalls(),
+                waveCost.journalEvents(),
+                snapshotMs,
+                elapsedMs);
+            log.info("Region: {}, {}", region, result);
+            return result;
+          });
+    });
   }
 
   @Put("/fill-rectangle")
-  public Done fillRectangle(FillRectangle.Request request) {
+  public FillRectangle.JobStatus fillRectangle(FillRectangle.Request request) {
     log.info("Region: {}, {}", region(), request);
 
-    FillRectangle.fillRectangle(request, componentClient);
+    if (request.cellCount() > fillRectangleJobs.settings().maxCells()) {
+      throw HttpException.badRequest("Rectangle has %d cells, the limit is %d".formatted(request.cellCount(), fillRectangleJobs.settings().maxCells()));
+    }
+
+    return fillRectangleJobs.start(request.withServerFields(region(), Instant.now(), traceId()), componentClient, materializer).status();
+  }
+
+  @Get("/fill-rectangle")
+  public List<FillRectangle.JobStatus> getFillRectangleJobs() {
+    return fillRectangleJobs.statuses();
+  }
+
+  @Get("/fill-rectangle/{jobId}")
+  public FillRectangle.JobStatus getFillRectangleJob(String jobId) {
+    return fillRectangleJob(jobId).status();
+  }
+
+  @Put("/fill-rectangle/{jobId}/cancel")
+  public FillRectangle.JobStatus cancelFillRectangleJob(String jobId) {
+    var job = fillRectangleJob(jobId);
+    job.cancel();
+    return job.status();
+  }
 
-    return Done.done();
+  FillRectangle fillRectangleJob(String jobId) {
+    return fillRectangleJobs.get(jobId)
+        .orElseThrow(() -> HttpException.error(StatusCodes.NOT_FOUND, "Fill rectangle job %s not found".formatted(jobId)));
   }
 
   @Put("/clear-status")
-  public Done clearStatus(UpdateGridCellRequest request) {
+  public CompletionStage<Done> clearStatus(UpdateGridCellRequest request) {
     log.info("Region: {}, {}", region(), request);
 
     var status = GridCell.Status.valueOf(request.status());
     var command = new GridCell.Command.ClearStatus(request.id(), status);
 
-    return componentClient.forEventSourcedEntity(command.id())
-        .method(GridCellEntity::updateClearStatus)
-        .invoke(command);
+    return gridCells.updateClearStatus(command);
   }
 
   @Put("/erase-status")
-  public Done eraseStatus(UpdateGridCellRequest request) {
+  public CompletionStage<Done> eraseStatus(UpdateGridCellRequest request) {
     log.info("Region: {}, {}", region(), request);
 
     var command = new GridCell.Command.EraseStatus(request.id());
 
-    return componentClient.forEventSourcedEntity(command.id())
-        .method(GridCellEntity::updateEraseStatus)
-        .invoke(command);
+    return gridCells.updateEraseStatus(command);
   }
 
   @Get("/entity-by-id/{id}")
-  public GridCell.State getEntityById(String id) {
-    return componentClient.forEventSourcedEntity(id)
-        .method(GridCellEntity::get)
-        .invoke();
+  public CompletionStage<GridCell.State> getEntityById(String id) {
+    return gridCells.get(id);
   }
 
   @Get("/view-row-by-id/{id}")
-  public GridCellView.GridCellRow getViewRowById(String id) {
-    return componentClient.forView()
-        .method(GridCellView::getGridCell)
-        .invoke(id);
+  public CompletionStage<GridCellView.GridCellRow> getViewRowById(String id) {
+    return gridCellView.getGridCell(id);
   }
 
+  // Served by the node's stream hub, one view stream query per tile shared by all clients
+  // ?frames=batched&windowMs=50 opts in to one frame of [id, status, elapsedMs] tuples per window instead of one row per event,
+  // &trace=true adds the trace id to the tuples
+  // Resumes after the Last-Event-ID header, or ?lastEventId= for a client that opens a new EventSource
   @Get("/stream/{x1}/{y1}/{x2}/{y2}")
   public HttpResponse getGridCellsStream(Integer x1, Integer y1, Integer x2, Integer y2) {
+    checkStreamArea(x1, y1, x2, y2);
+    var resumeFrom = streamHub.resumeFrom(lastEventId());
+
+    if (requestContext().queryParams().getString("frames").filter("batched"::equals).isPresent()) {
+      return HttpResponses.serverSentEvents(
+          streamHub.subscribeFrames(x1, y1, x2, y2, frameWindow(), traced(), resumeFrom));
+    }
+
+    return HttpResponses.serverSentEvents(streamHub.subscribe(x1, y1, x2, y2, resumeFrom));
+  }
+
+  // The area's current cells in snapshot frames, a synced marker, then live frames, ?windowMs=, trace and resume as for /stream
+  @Get("/viewport-stream/{x1}/{y1}/{x2}/{y2}")
+  public HttpResponse getViewportStream(Integer x1, Integer y1, Integer x2, Integer y2) {
+    checkStreamArea(x1, y1, x2, y2);
+    var resumeFrom = streamHub.resumeFrom(lastEventId());
+
+    return HttpResponses.serverSentEvents(
+        streamHub.subscribeViewport(x1, y1, x2, y2, frameWindow(), traced(), resumeFrom));
+  }
+
+  // Moves a viewport stream to another area, the stream's first frame has the subscription id, 404 when the stream is
+  // not on this node or has ended, the client opens a new stream then
+  @Put("/viewport-stream/{subscriptionId}")
+  public GridCellStreamHub.Moved moveViewportStream(String subscriptionId, ViewportArea area) {
+    checkStreamArea(area.x1(), area.y1(), area.x2(), area.y2());
+
+    return streamHub.move(subscriptionId, area.x1(), area.y1(), area.x2(), area.y2())
+        .orElseThrow(() -> HttpException.error(StatusCodes.NOT_FOUND, "Viewport stream %s not found".formatted(subscriptionId)));
+  }
+
+  boolean traced() {
+    return requestContext().queryParams().getString("trace").filter("true"::equals).isPresent();
+  }
+
+  Optional<String> lastEventId() {
+    return requestContext().lastSeenSseEventId()
+        .or(() -> requestContext().queryParams().getString("lastEventId"));
+  }
+
+  void checkStreamArea(int x1, int y1, int x2, int y2) {
+    var settings = streamHub.settings();
+    var area = GridCellStreamHub.Area.of(x1, y1, x2, y2);
+    if (area.tileCount() > settings.maxTilesPerSubscriber()) {
+      throw HttpException.badRequest("Area covers %d tiles, the limit is %d".formatted(area.tileCount(), settings.maxTilesPerSubscriber()));
+    }
+  }
+
+  Duration frameWindow() {
+    var settings = streamHub.settings();
+    var window = requestContext().queryParams().getLong("windowMs")
+        .map(Duration::ofMillis)
+        .orElse(settings.frameWindow());
+    if (window.isNegative() || window.isZero() || window.compareTo(settings.maxFrameWindow()) > 0) {
+      throw HttpException.badRequest("windowMs must be between 1 and %d".formatted(settings.maxFrameWindow().toMillis()));
+    }
+    return window;
+  }
+
+  // The tiles that cover the area and have active cells, tiles not returned are all inactive
+  @Get("/tiles/{x1}/{y1}/{x2}/{y2}")
+  public CompletionStage<HttpResponse> getGridTiles(Integer x1, Integer y1, Integer x2, Integer y2) {
+    var tileX1 = GridTile.tileOf(Math.min(x1, x2));
+    var tileY1 = GridTile.tileOf(Math.min(y1, y2));
+    var tileX2 = GridTile.tileOf(Math.max(x1, x2));
+    var tileY2 = GridTile.tileOf(Math.max(y1, y2));
+    var tileCount = (long) (tileX2 - tileX1 + 1) * (tileY2 - tileY1 + 1);
+
+    if (tileCount > tilesMaxTiles) {
+      throw HttpException.badRequest("Area covers %d tiles, the limit is %d".formatted(tileCount, tilesMaxTiles));
+    }
+
+    var gzip = acceptsGzip();
+    return gridTiles.queryGridTiles(new GridTileView.GridTilesRequest(region(), tileX1, tileY1, tileX2, tileY2))
+        .thenApply(tiles -> ok(new GridTilesResponse(GridTile.SIZE, tiles.tiles()), gzip));
+  }
+
+  // Per status counts of the 2^level x 2^level blocks that overlap the area, blocks not returned are all inactive
+  @Get("/zoom/{level}/{x1}/{y1}/{x2}/{y2}")
+  public CompletionStage<HttpResponse> getZoom(Integer level, Integer x1, Integer y1, Integer x2, Integer y2) {
+    var area = zoomArea(level, x1, y1, x2, y2);
+    var gzip = acceptsGzip();
+
+    if (level < GridBlock.TILE_LEVEL) {
+      return gridTiles.queryGridTiles(area.tilesRequest(region()))
+          .thenApply(tiles -> ok(new ZoomResponse(level, 1 << level, tiles.tiles().stream()
+              .flatMap(tile -> area.zoomCells(tile).stream())
+              .toList()), gzip));
+    }
+
+    return gridBlocks.queryGridBlocks(area.blocksRequest(region()))
+        .thenApply(blocks -> ok(new ZoomResponse(level, 1 << level, blocks.blocks().stream()
+            .flatMap(block -> area.zoomCells(block).stream())
+            .toList()), gzip));
+  }
+
+  // Each frame replaces the counts of every block inside its x1, y1 to x2, y2, blocks it does not list are all inactive
+  @Get("/zoom-stream/{level}/{x1}/{y1}/{x2}/{y2}")
+  public HttpResponse getZoomStream(Integer level, Integer x1, Integer y1, Integer x2, Integer y2) {
+    var area = zoomArea(level, x1, y1, x2, y2);
+
+    if (level < GridBlock.TILE_LEVEL) {
+      return HttpResponses.serverSentEvents(
+          componentClient.forView()
+              .stream(GridTileView::streamGridTiles)
+              .source(area.tilesRequest(region()))
+              .map(tile -> new ZoomFrame(
+                  level,
+                  tile.tileX() * GridTile.SIZE,
+                  tile.tileY() * GridTile.SIZE,
+                  tile.tileX() * GridTile.SIZE + GridTile.SIZE - 1,
+                  tile.tileY() * GridTile.SIZE + GridTile.SIZE - 1,
+                  area.zoomCells(tile))));
+    }
+
     return HttpResponses.serverSentEvents(
         componentClient.forView()
-            .stream(GridCellView::getGridCellsStream)
-            .source(new GridCellView.StreamedGridCellsRequest(x1, y1, x2, y2)));
+            .stream(GridBlockView::streamGridBlocks)
+            .source(area.blocksRequest(region()))
+            .map(block -> new ZoomFrame(
+                level,
+                block.blockX() * GridBlock.SIZE,
+                block.blockY() * GridBlock.SIZE,
+                block.blockX() * GridBlock.SIZE + GridBlock.SIZE - 1,
+                block.blockY() * GridBlock.SIZE + GridBlock.SIZE - 1,
+                area.zoomCells(block))));
+  }
+
+  ZoomArea zoomArea(Integer level, Integer x1, Integer y1, Integer x2, Integer y2) {
+    if (level < 1 || level > GridBlock.MAX_LEVEL) {
+      throw HttpException.badRequest("Level %d is not in 1 to %d".formatted(level, GridBlock.MAX_LEVEL));
+    }
+
+    var area = new ZoomArea(level, Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2));
+    if (area.cellCount() > zoomMaxCells) {
+      throw HttpException.badRequest("Area has %d blocks at level %d, the limit is %d".formatted(area.cellCount(), level, zoomMaxCells));
+    }
+    if (level < GridBlock.TILE_LEVEL && area.tileCount() > tilesMaxTiles) {
+      throw HttpException.badRequest("Area covers %d tiles, the limit is %d, use a higher level".formatted(area.tileCount(), tilesMaxTiles));
+    }
+    return area;
   }
 
+  // The list, paginated-list and changed-since responses are GridCellEncoding negotiated from the Accept header, json by default
   @Get("/list")
-  public GridCellView.GridCells getGridCellsList() {
-    return componentClient.forView()
-        .method(GridCellView::getGridCellsList)
-        .invoke();
+  public CompletionStage<HttpResponse> getGridCellsList() {
+    var encoding = encoding();
+    var gzip = acceptsGzip();
+    return gridCellView.getGridCellsList()
+        .thenApply(cells -> ok(encoding, new GridCellView.PagedGridCells(cells.gridCells(), "", false), cells, gzip));
   }
 
   @Get("/paginated-list/{x1}/{y1}/{x2}/{y2}/{pageTokenOffset}")
-  public GridCellView.PagedGridCells getGridCellsPagedList(Integer x1, Integer y1, Integer x2, Integer y2, String pageTokenOffset) {
+  public CompletionStage<HttpResponse> getGridCellsPagedList(Integer x1, Integer y1, Integer x2, Integer y2, String pageTokenOffset) {
+    pageTokenOffset = pageTokenOffset.equals("start") ? "" : pageTokenOffset;
+    var encoding = encoding();
+    var gzip = acceptsGzip();
+    var request = new GridCellView.PagedGridCellsRequest(x1, y1, x2, y2, pageTokenOffset);
+
+    return gridCellView.queryGridCellsPagedList(request)
+        .thenApply(page -> ok(encoding, page, page, gzip));
+  }
+
+  // Cells in the area whose view row changed after sinceMs (epoch ms, server clock), for client resync
+  @Get("/changed-since/{x1}/{y1}/{x2}/{y2}/{sinceMs}/{pageTokenOffset}")
+  public CompletionStage<HttpResponse> getGridCellsChangedSince(Integer x1, Integer y1, Integer x2, Integer y2, Long sinceMs,
+      String pageTokenOffset) {
     pageTokenOffset = pageTokenOffset.equals("start") ? "" : pageTokenOffset;
+    var encoding = encoding();
+    var gzip = acceptsGzip();
+    var request = new GridCellView.ChangedGridCellsRequest(x1, y1, x2, y2, Instant.ofEpochMilli(sinceMs), pageTokenOffset);
 
-    return componentClient.forView()
-        .method(GridCellView::queryGridCellsPagedList)
-        .invoke(new GridCellView.PagedGridCellsRequest(x1, y1, x2, y2, pageTokenOffset));
+    return gridCellView.queryGridCellsChangedSince(request)
+        .thenApply(page -> ok(encoding, page, page, gzip));
   }
 
   @Get("/region")
@@ -189,7 +543,7 @@ public class GridCellEndpoint extends AbstractHttpEndpoint {
     }
     try {
       var routes = config.getString("multi-region-routes");
-      return List.of(routes.split(","));
+      return Stream.of(routes.split(",")).map(String::trim).filter(route -> !route.isEmpty()).toList();
     } catch (Exception e) {
       log.error("Failed to get routes from config", e);
       throw HttpException.error(StatusCodes.INTERNAL_SERVER_ERROR, e.getMessage());
@@ -197,64 +551,134 @@ public class GridCellEndpoint extends AbstractHttpEndpoint {
   }
 
   @Put("/create-predator")
-  public Done createPredator(UpdateGridCellRequest request) {
+  public CompletionStage<Done> createPredator(UpdateGridCellRequest request) {
     log.info("Region: {}, {}", region(), request);
 
+    var region = region();
+    var traceId = traceId();
     var x1 = request.centerX() - request.radius();
     var y1 = request.centerY() - request.radius();
     var x2 = request.centerX() + request.radius();
     var y2 = request.centerY() + request.radius();
-    var pageTokenOffset = "";
 
-    var allGridCells = queryGridCellsInArea(x1, y1, x2, y2, pageTokenOffset);
-    log.info("Found {} grid cells in the rectangle area", allGridCells.size());
+    return activeCellIndex.activeCellsAsync(x1, y1, x2, y2, this::queryGridCellsInArea)
+        .thenCompose(allGridCells -> {
+          log.info("Found {} grid cells in the rectangle area", allGridCells.size());
+
+          String nextGridCellId = FlightEvents.PredatorDecision.nextGridCellId(request.id(), request.radius(),
+              () -> Predator.decide(request.id(), allGridCells, request.radius()));
+          log.info("Predator cell: {}, Next cell: {}", request.id(), nextGridCellId);
+
+          var range = request.radius();
+          var predatorId = Predator.parentId();
+          var command = new GridCell.Command.CreatePredator(
+              request.id(),
+              predatorId,
+              GridCell.Status.predator,
+              request.clientAt(),
+              Instant.now(),
+              range,
+              nextGridCellId,
+              region,
+              traceId);
+
+          return gridCells.createPredator(command);
+        })
+        .thenApply(__ -> Done.done());
+  }
+
+  CompletionStage<List<GridCellRow>> queryGridCellsInArea(int x1, int y1, int x2, int y2) {
+    return ActiveGridCells.queryAsync(gridCellView, x1, y1, x2, y2);
+  }
 
-    String nextGridCellId = Predator.nextGridCellId(request.id(), allGridCells, request.radius());
-    log.info("Predator cell: {}, Next cell: {}", request.id(), nextGridCellId);
+  @Get("/metrics/active-cell-index")
+  public ActiveCellIndex.Metrics getActiveCellIndexMetrics() {
+    return activeCellIndex.metrics();
+  }
 
-    var range = request.radius();
-    var predatorId = Predator.parentId();
-    var command = new GridCell.Command.CreatePredator(
-        request.id(),
-        predatorId,
-        GridCell.Status.predator,
-        request.clientAt(),
-        Instant.now(),
-        range,
-        nextGridCellId,
-        region());
+  @Get("/metrics/stream-hub")
+  public GridCellStreamHub.Metrics getStreamHubMetrics() {
+    return streamHub.metrics();
+  }
+
+  @Get("/metrics/consumer")
+  public List<ConsumerThroughput.Metrics> getConsumerMetrics() {
+    return consumerThroughput.metrics();
+  }
+
+  @Get("/metrics/tile-batches")
+  public GridTileBatcher.Metrics getTileBatchMetrics() {
+    return gridTileBatcher.metrics();
+  }
+
+  // Origin region update to view row latency per region pair and event type, ?windowMs= up to the configured window
+  @Get("/metrics/replication")
+  public List<ReplicationLatency.Metrics> getReplicationMetrics() {
+    return replicationLatency.metrics(replicationWindow());
+  }
 
-    componentClient.forEventSourcedEntity(request.id())
-        .method(GridCellEntity::createPredator)
-        .invoke(command);
+  // The replication metrics every ?intervalMs=, default grid-cell.replication-latency.stream-interval
+  @Get("/metrics/replication-stream")
+  public HttpResponse streamReplicationMetrics() {
+    var window = replicationWindow();
+    var interval = requestContext().queryParams().getLong("intervalMs")
+        .map(Duration::ofMillis)
+        .orElse(replicationLatency.settings().streamInterval());
+    if (interval.toMillis() < 100) {
+      throw HttpException.badRequest("intervalMs must be at least 100");
+    }
 
-    return Done.done();
+    return HttpResponses.serverSentEvents(
+        Source.tick(Duration.ZERO, interval, "tick")
+            .map(__ -> replicationLatency.metrics(window)));
   }
 
-  List<GridCellRow> queryGridCellsInArea(int x1, int y1, int x2, int y2, String pageTokenOffset) {
-    return Stream.generate(new Supplier<GridCellView.PagedGridCells>() {
-      String currentPageToken = pageTokenOffset;
-      boolean hasMore = true;
+  // Click to SSE delivery latency per stage and the recent slow traces, ?windowMs= up to the configured window
+  @Get("/metrics/stages")
+  public StageLatency.Metrics getStageMetrics() {
+    var window = requestContext().queryParams().getLong("windowMs")
+        .map(Duration::ofMillis)
+        .orElse(stageLatency.settings().window());
+    if (window.isNegative() || window.isZero()) {
+      throw HttpException.badRequest("windowMs must be positive");
+    }
+    return stageLatency.metrics(window);
+  }
 
-      @Override
-      public GridCellView.PagedGridCells get() {
-        if (!hasMore) {
-          return null;
-        }
+  // Clock offset estimate of each sampled peer region to this node, see ClockSkewSampler
+  @Get("/metrics/clock-skew")
+  public ClockSkew.Metrics getClockSkewMetrics() {
+    return clockSkew.metrics();
+  }
 
-        var pagedGridCells = componentClient.forView()
-            .method(GridCellView::queryActiveGridCells)
-            .invoke(new GridCellView.PagedGridCellsRequest(x1, y1, x2, y2, currentPageToken));
+  // Component client call counts, errors, calls in flight and latency percentiles in µs per component and method,
+  // ?windowMs= up to the configured window
+  @Get("/metrics/component-calls")
+  public List<ComponentCalls.Metrics> getComponentCallMetrics() {
+    var window = requestContext().queryParams().getLong("windowMs")
+        .map(Duration::ofMillis)
+        .orElse(componentCalls.settings().window());
+    if (window.isNegative() || window.isZero()) {
+      throw HttpException.badRequest("windowMs must be positive");
+    }
+    return componentCalls.metrics(window);
+  }
 
-        currentPageToken = pagedGridCells.nextPageToken();
-        hasMore = pagedGridCells.hasMore();
+  // The component client call totals in the Prometheus text format, for a scrape job
+  @Get("/metrics/prometheus")
+  public HttpResponse getPrometheusMetrics() {
+    var body = componentCalls.prometheus().getBytes(StandardCharsets.UTF_8);
+    return HttpCompression.ok(prometheusContentType, body, acceptsGzip(), compressionMinBytes);
+  }
 
-        return pagedGridCells;
-      }
-    })
-        .takeWhile(pagedGridCells -> pagedGridCells != null)
-        .flatMap(pagedGridCells -> pagedGridCells.gridCells().stream())
-        .toList();
+  Duration replicationWindow() {
+    var window = requestContext().queryParams().getLong("windowMs")
+        .map(Duration::ofMillis)
+        .orElse(replicationLatency.settings().window());
+    if (window.isNegative() || window.isZero()) {
+      throw HttpException.badRequest("windowMs must be positive");
+    }
+    return window;
   }
 
   @Get("/config")
@@ -272,6 +696,15 @@ public class GridCellEndpoint extends AbstractHttpEndpoint {
     return System.getenv();
   }
 
+  // A peer's clock sample request, t0 is the sender's time, echoed back with this node's receive and reply times
+  @Get("/clock")
+  public ClockSkew.Reading getClock() {
+    var receivedAt = System.currentTimeMillis();
+    var t0 = requestContext().queryParams().getLong("t0")
+        .orElseThrow(() -> HttpException.badRequest("t0 is required"));
+    return new ClockSkew.Reading(region(), t0, receivedAt, System.currentTimeMillis());
+  }
+
   @Get("/current-time")
   public HttpResponse streamCurrentTime() {
     return HttpResponses.serverSentEvents(
@@ -279,11 +712,122 @@ public class GridCellEndpoint extends AbstractHttpEndpoint {
             .map(__ -> System.currentTimeMillis()));
   }
 
+  // Request headers are read before the view call, the reply callbacks run outside the request
+  GridCellEncoding.Encoding encoding() {
+    return GridCellEncoding.negotiate(requestContext().requestHeader("Accept").map(HttpHeader::value));
+  }
+
+  boolean acceptsGzip() {
+    return HttpCompression.acceptsGzip(requestContext().requestHeader("Accept-Encoding").map(HttpHeader::value));
+  }
+
+  HttpResponse ok(GridCellEncoding.Encoding encoding, GridCellView.PagedGridCells page, Object json, boolean gzip) {
+    return HttpCompression.ok(GridCellEncoding.contentType(encoding), GridCellEncoding.encode(encoding, page, json), gzip, compressionMinBytes,
+        "Accept, Accept-Encoding");
+  }
+
+  HttpResponse ok(Object json, boolean gzip) {
+    return HttpCompression.ok(ContentTypes.APPLICATION_JSON, GridCellEncoding.json(json), gzip, compressionMinBytes);
+  }
+
   String region() {
     return requestContext().selfRegion().isEmpty() ? "local-development" : requestContext().selfRegion();
   }
 
-  record UpdateGridCellRequest(String id, String status, Instant clientAt, Integer centerX, Integer centerY, Integer radius) {}
+  // The W3C traceparent trace id when the request has one, otherwise a new one, carried by the commands and events into
+  // the view row, see StageLatency
+  String traceId() {
+    return requestContext().requestHeader("traceparent")
+        .map(header -> header.value().split("-"))
+        .filter(parts -> parts.length == 4 && parts[1].matches("[0-9a-f]{32}"))
+        .map(parts -> parts[1])
+        .orElseGet(() -> UUID.randomUUID().toString().replace("-", ""));
+  }
+
+  // mode: "wave" (default) cells propagate to their neighbors, "engine" the endpoint computes and updates the cells
+  record UpdateGridCellRequest(String id, String status, Instant clientAt, Integer centerX, Integer centerY, Integer radius, String mode) {
+    boolean isEngineMode() {
+      return "engine".equals(mode);
+    }
+  }
+
+  record BatchUpdateRequest(List<UpdateGridCellRequest> updates) {}
+
+  record BatchUpdateCellResult(String id, boolean ok, String error) {}
+
+  record BatchUpdateResult(int requested, int updated, int failed, long elapsedMs, List<BatchUpdateCellResult> results) {}
+
+  // Engine mode counts measured from the entity replies: cells sent, updated, left unchanged because they no longer
+  // matched the rule, failed, the entity calls made and the events persisted. The wave counts are estimates of what the
+  // neighbor wave would send and persist to update the same cells, FloodFill.waveCost
+  record FloodFillResult(
+      String mode,
+      int cellsSent,
+      int cellsUpdated,
+      int cellsUnchanged,
+      int cellsFailed,
+      int snapshotCells,
+      long entityCalls,
+      long journalEvents,
+      long estimatedWaveEntityCalls,
+      long estimatedWaveJournalEvents,
+      long snapshotMs,
+      long elapsedMs) {}
+
+  record FloodFillCounts(int updated, int unchanged, int failed, long journalEvents) {
+    static final FloodFillCounts zero = new FloodFillCounts(0, 0, 0, 0);
+    static final FloodFillCounts cellUnchanged = new FloodFillCounts(0, 1, 0, 0);
+    static final FloodFillCounts cellFailed = new FloodFillCounts(0, 0, 1, 0);
+
+    static FloodFillCounts cellUpdated(int eventsPersisted) {
+      return new FloodFillCounts(1, 0, 0, eventsPersisted);
+    }
+
+    FloodFillCounts plus(FloodFillCounts other) {
+      return new FloodFillCounts(updated + other.updated, unchanged + other.unchanged, failed + other.failed, journalEvents + other.journalEvents);
+    }
+  }
+
+  record ViewportArea(int x1, int y1, int x2, int y2) {}
+
+  record GridTilesResponse(int tileSize, List<GridTileView.GridTileRow> tiles) {}
+
+  record ZoomResponse(int level, int blockSize, List<GridBlock.ZoomCell> cells) {}
+
+  record ZoomFrame(int level, int x1, int y1, int x2, int y2, List<GridBlock.ZoomCell> cells) {}
+
+  // Levels 1 to 4 are counted from the tiles, levels 5 to 8 from the blocks
+  record ZoomArea(int level, int x1, int y1, int x2, int y2) {
+    long cellCount() {
+      return (long) (GridBlock.blockOf(x2, level) - GridBlock.blockOf(x1, level) + 1)
+          * (GridBlock.blockOf(y2, level) - GridBlock.blockOf(y1, level) + 1);
+    }
+
+    long tileCount() {
+      return (long) (GridTile.tileOf(x2) - GridTile.tileOf(x1) + 1) * (GridTile.tileOf(y2) - GridTile.tileOf(y1) + 1);
+    }
+
+    GridTileView.GridTilesRequest tilesRequest(String region) {
+      return new GridTileView.GridTilesRequest(region, GridTile.tileOf(x1), GridTile.tileOf(y1), GridTile.tileOf(x2), GridTile.tileOf(y2));
+    }
+
+    GridBlockView.GridBlocksRequest blocksRequest(String region) {
+      return new GridBlockView.GridBlocksRequest(
+          region,
+          GridBlock.blockOf(x1, GridBlock.MAX_LEVEL),
+          GridBlock.blockOf(y1, GridBlock.MAX_LEVEL),
+          GridBlock.blockOf(x2, GridBlock.MAX_LEVEL),
+          GridBlock.blockOf(y2, GridBlock.MAX_LEVEL));
+    }
+
+    List<GridBlock.ZoomCell> zoomCells(GridTileView.GridTileRow tile) {
+      return GridBlock.zoomCells(tile.tileX(), tile.tileY(), tile.statuses(), level, x1, y1, x2, y2);
+    }
+
+    List<GridBlock.ZoomCell> zoomCells(GridBlockView.GridBlockRow block) {
+      return block.toState().zoomCells(level, x1, y1, x2, y2);
+    }
+  }
 
   record ScentCell(int x, int y, int maxIntensity) {}
 
@@ -0,0 +1,74 @@
+package io.example.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import io.example.application.GridCellView.GridCellRow;
+
+/**
+ * The node's most recent grid cell view rows, numbered in the order the stream hub dispatched them, so an SSE client
+ * that reconnects with the last sequence number it saw gets only the rows it missed.
+ * <p>
+ * A ring of the last {@code capacity} rows. Sequence numbers start at 1 and restart with the node, the stream hub tags
+ * its event ids with a node epoch for that reason.
+ */
+final class GridCellJournal {
+  private final Entry[] entries;
+  private long head; // Sequence number of the newest entry, 0 when empty
+
+  GridCellJournal(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Journal capacity must be positive, was %d".formatted(capacity));
+    }
+    this.entries = new Entry[capacity];
+  }
+
+  // live: dispatched by the hub as the row arrived, false for replays of rows held since, a resume or a tile replay
+  record Entry(long seq, GridCellRow row, boolean live) {
+    Entry replayed() {
+      return live ? new Entry(seq, row, false) : this;
+    }
+  }
+
+  // The dispatch runs under the journal lock, so consumers see the entries in sequence order
+  synchronized Entry append(GridCellRow row, Consumer<Entry> dispatch) {
+    var entry = new Entry(++head, row, true);
+    entries[(int) (entry.seq % entries.length)] = entry;
+    dispatch.accept(entry);
+    return entry;
+  }
+
+  synchronized long head() {
+    return head;
+  }
+
+  synchronized long oldest() {
+    return Math.max(1, head - entries.length + 1);
+  }
+
+  // True when every entry after seq is still held
+  synchronized boolean covers(long seq) {
+    return seq >= 0 && seq <= head && seq + 1 >= oldest();
+  }
+
+  // The entries after seq in the area, in sequence order, empty when some of them were already overwritten
+  synchronized Optional<List<Entry>> since(long seq, GridCellStreamHub.Area area) {
+    if (!covers(seq)) {
+      return Optional.empty();
+    }
+    var missed = new ArrayList<Entry>();
+    for (long next = seq + 1; next <= head; next++) {
+      var entry = entries[(int) (next % entries.length)];
+      if (area.contains(entry.row().x(), entry.row().y())) {
+        missed.add(entry.replayed());
+      }
+    }
+    return Optional.of(missed);
+  }
+
+  int capacity() {
+    return entries.length;
+  }
+}
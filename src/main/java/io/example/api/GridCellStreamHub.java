@@ -0,0 +1,653 @@
+package io.example.api;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.typesafe.config.Config;
+
+import akka.NotUsed;
+import akka.http.javadsl.model.sse.ServerSentEvent;
+import akka.japi.Pair;
+import akka.javasdk.client.ComponentClient;
+import akka.stream.BoundedSourceQueue;
+import akka.stream.KillSwitches;
+import akka.stream.Materializer;
+import akka.stream.QueueOfferResult;
+import akka.stream.UniqueKillSwitch;
+import akka.stream.javadsl.Keep;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import io.example.application.ComponentCalls;
+import io.example.application.GridCellView;
+import io.example.application.GridCellView.GridCellRow;
+import io.example.application.GridCellViewCalls;
+import io.example.application.StageLatency;
+import io.example.domain.CellKey;
+import io.example.domain.GridTile;
+
+/**
+ * Node local fan-out of grid cell view updates to the SSE clients, shared by the endpoint instances.
+ * <p>
+ * The hub runs one view stream query per {@link GridTile} that has subscribers, instead of one query per client, and
+ * keeps the latest row of each cell of the tile as the replay buffer, bounded by the tile size, so a client that joins
+ * an already streaming tile starts with its current active rows. Rows are offered to each subscriber whose rectangle holds
+ * the cell. A subscriber's queue is bounded, rows waiting for a slow client are conflated to the latest row per cell
+ * and rows that still do not fit are dropped and counted, the client's changed-since resync picks those up. A tile's
+ * upstream lingers for a while after its last subscriber leaves, so a viewport move does not restart the query.
+ * <p>
+ * Clients get either one event per row, or with frames one event per window holding the compact latest
+ * {@code [id, status, elapsedMs]} of each cell that changed, so a fill wave is a few small frames instead of thousands
+ * of full rows. A viewport subscription starts with the area's current rows from the view, see
+ * {@link #subscribeViewport}.
+ * <p>
+ * Every dispatched row is numbered and kept in the node's {@link GridCellJournal}, and events carry the id
+ * {@code <node epoch>-<sequence number>}. A client that reconnects with a Last-Event-ID this node still covers gets only
+ * the rows it missed, otherwise it starts over with the tile replay, or the snapshot for a viewport subscription.
+ * <p>
+ * A subscription can be moved to another area, see {@link #move}, so a client that pans keeps its stream and gets only
+ * the cells that came into view.
+ */
+public class GridCellStreamHub {
+  private static final Logger log = LoggerFactory.getLogger(GridCellStreamHub.class);
+  private final ConcurrentHashMap<String, TileUpstream> upstreams = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Subscriber> subscribers = new ConcurrentHashMap<>(); // By subscription id
+  private final Settings settings;
+  private final ComponentClient componentClient;
+  private final Materializer materializer;
+  private final StageLatency stageLatency;
+  private final GridCellViewCalls gridCellView;
+  private final GridCellJournal journal;
+  private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+  private final LongAdder rowsIn = new LongAdder();
+  private final LongAdder rowsOut = new LongAdder();
+  private final LongAdder rowsDropped = new LongAdder();
+  private final LongAdder framesOut = new LongAdder();
+  private final LongAdder snapshotRows = new LongAdder();
+  private final LongAdder resumes = new LongAdder();
+  private final LongAdder resumeFallbacks = new LongAdder();
+  private final LongAdder moves = new LongAdder();
+  private final LongAdder movedRows = new LongAdder();
+  private final AtomicLong upstreamStarts = new AtomicLong();
+
+  public GridCellStreamHub(Config config, ComponentClient componentClient, Materializer materializer, StageLatency stageLatency,
+      ComponentCalls componentCalls) {
+    this(Settings.from(config), componentClient, materializer, stageLatency, componentCalls);
+  }
+
+  GridCellStreamHub(Settings settings, ComponentClient componentClient, Materializer materializer, StageLatency stageLatency,
+      ComponentCalls componentCalls) {
+    this.settings = settings;
+    this.componentClient = componentClient;
+    this.materializer = materializer;
+    this.stageLatency = stageLatency;
+    this.gridCellView = new GridCellViewCalls(componentClient, componentCalls);
+    this.journal = new GridCellJournal(settings.journalSize());
+  }
+
+  Settings settings() {
+    return settings;
+  }
+
+  // The sequence number to resume after, empty when the id is not from this node or the journal no longer covers it
+  Optional<Long> resumeFrom(Optional<String> lastEventId) {
+    if (lastEventId.isEmpty()) {
+      return Optional.empty();
+    }
+    var seq = parseEventId(lastEventId.get()).filter(journal::covers);
+    if (seq.isPresent()) {
+      resumes.increment();
+    } else {
+      resumeFallbacks.increment();
+    }
+    return seq;
+  }
+
+  Optional<Long> parseEventId(String eventId) {
+    var separator = eventId.lastIndexOf('-');
+    if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(Long.parseLong(eventId.substring(separator + 1)));
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+
+  String eventId(long seq) {
+    return epoch + "-" + seq;
+  }
+
+  // One SSE event per row
+  Source<ServerSentEvent, NotUsed> subscribe(int x1, int y1, int x2, int y2, Optional<Long> resumeFrom) {
+    return entries(Area.of(x1, y1, x2, y2), resumeFrom, subscriber -> {})
+        .conflateWithSeed(GridCellStreamHub::latestById, GridCellStreamHub::latestById)
+        .mapConcat(latest -> List.copyOf(latest.values()))
+        .map(entry -> event(emitted(entry), entry.seq()));
+  }
+
+  // One SSE event per window, the latest [id, status, elapsedMs] of each cell that changed within the window, traced
+  // frames add the row's trace id
+  Source<ServerSentEvent, NotUsed> subscribeFrames(int x1, int y1, int x2, int y2, Duration window, boolean traced,
+      Optional<Long> resumeFrom) {
+    return entryFrames(Area.of(x1, y1, x2, y2), window, resumeFrom, subscriber -> {})
+        .map(frame -> event(compact(emitted(frame), traced), lastSeq(frame)));
+  }
+
+  /**
+   * A subscribed frame with the subscription id, the area's current view rows in pages, a synced marker, then the live
+   * frames, one stream instead of a paged snapshot fetch racing a separate SSE stream.
+   * <p>
+   * The live rows are subscribed before the snapshot query runs, concat materializes all of its sources up front, and
+   * are conflated per cell until the marker is sent. A live row that is not newer than the cell's snapshot row, the tile
+   * replay and updates the snapshot already holds, is dropped. Snapshot frames have no event id, a client that drops
+   * during the snapshot starts over. The marker's id is the journal position of the live subscription.
+   * <p>
+   * A resumed client already holds a snapshot, it gets the marker and then the rows it missed. A moved subscription's
+   * newly visible cells come as live frames.
+   */
+  Source<ServerSentEvent, NotUsed> subscribeViewport(int x1, int y1, int x2, int y2, Duration window, boolean traced,
+      Optional<Long> resumeFrom) {
+    var area = Area.of(x1, y1, x2, y2);
+    var subscription = new AtomicReference<Subscriber>();
+    var subscribed = Source.lazySingle(() -> ServerSentEvent.create(json(ViewportSubscribed.of(subscription.get()))));
+
+    if (resumeFrom.isPresent()) {
+      return subscribed
+          .concat(Source.single(event(new ViewportFrame("synced", List.of(), 0), resumeFrom.get())))
+          .concat(entryFrames(area, window, resumeFrom, subscription::set)
+              .map(frame -> event(new ViewportFrame("live", compact(emitted(frame), traced), 0), lastSeq(frame))));
+    }
+
+    var snapshotViewAt = new ConcurrentHashMap<String, Instant>();
+    var newestViewAt = new AtomicLong();
+
+    var snapshot = Source.unfoldAsync(Optional.of(""), (Optional<String> pageToken) -> pageToken.isEmpty()
+        ? CompletableFuture.completedFuture(Optional.<Pair<Optional<String>, List<GridCellRow>>>empty())
+        : gridCellView.queryGridCellsPagedList(new GridCellView.PagedGridCellsRequest(area.x1(), area.y1(), area.x2(), area.y2(), pageToken.get()))
+            .thenApply(page -> Optional.of(Pair.create(
+                page.hasMore() ? Optional.of(page.nextPageToken()) : Optional.<String>empty(),
+                page.gridCells()))))
+        .filter(rows -> !rows.isEmpty())
+        .map(rows -> {
+          rows.stream().filter(row -> row.viewAt() != null).forEach(row -> {
+            snapshotViewAt.put(row.id(), row.viewAt());
+            newestViewAt.accumulateAndGet(row.viewAt().toEpochMilli(), Math::max);
+          });
+          snapshotRows.add(rows.size());
+          return ServerSentEvent.create(json(new ViewportFrame("snapshot", compact(rows, traced), 0)));
+        });
+
+    var synced = Source.lazySingle(() -> event(new ViewportFrame("synced", List.of(), newestViewAt.get()), subscription.get().subscribedAt));
+
+    // A cell that comes back into view is replayed as is, its snapshot row no longer holds
+    Consumer<Subscriber> onSubscribed = subscriber -> {
+      subscriber.onMove = to -> snapshotViewAt.keySet().removeIf(id -> !to.contains(CellKey.fromId(id)));
+      subscription.set(subscriber);
+    };
+    var live = entryFrames(area, window, Optional.empty(), onSubscribed)
+        .map(frame -> Pair.create(
+            frame.stream().filter(entry -> newerThanSnapshot(entry.row(), snapshotViewAt)).toList(),
+            lastSeq(frame)))
+        .filter(frame -> !frame.first().isEmpty())
+        .map(frame -> event(new ViewportFrame("live", compact(emitted(frame.first()), traced), 0), frame.second()));
+
+    return subscribed.concat(snapshot).concat(synced).concat(live);
+  }
+
+  /**
+   * Moves a subscription to another area without a new stream. The tiles the new area no longer covers are left and the
+   * ones it newly covers joined. The subscriber holds back its live rows while it moves, then gets the active rows of
+   * the cells outside the previous area from the tiles' replay, then the live rows of the new area. Rows of cells that
+   * are no longer in view stop, a few already queued may still arrive. Empty when this node has no such subscription,
+   * the client opens a new stream then.
+   * <p>
+   * The replay entries carry the journal position read before the move, as for a new subscription, so a client that
+   * resumes the moved area from any event id it saw still gets everything it may not have.
+   */
+  Optional<Moved> move(String subscriptionId, int x1, int y1, int x2, int y2) {
+    var subscriber = subscribers.get(subscriptionId);
+    if (subscriber == null) {
+      return Optional.empty();
+    }
+    var to = Area.of(x1, y1, x2, y2);
+
+    synchronized (subscriber.membership) {
+      if (subscriber.closed) {
+        return Optional.empty();
+      }
+      var from = subscriber.area();
+      var fromTiles = from.tileIds();
+      var toTiles = to.tileIds();
+      var movedAt = journal.head(); // Entries up to here were offered for the previous area, the rest are held back
+      subscriber.hold(to);
+      subscriber.onMove.accept(to);
+
+      var tiles = toTiles.stream()
+          .map(tileId -> fromTiles.contains(tileId) ? upstreams.get(tileId) : subscribe(tileId, subscriber))
+          .filter(Objects::nonNull)
+          .toList();
+      var replay = tiles.stream()
+          .flatMap(tile -> tile.replay(movedAt).stream())
+          .filter(entry -> !from.contains(entry.row().x(), entry.row().y()))
+          .toList();
+      subscriber.start(replay);
+
+      var left = fromTiles.stream().filter(tileId -> !toTiles.contains(tileId)).toList();
+      left.forEach(tileId -> leave(tileId, subscriber));
+
+      moves.increment();
+      movedRows.add(replay.size());
+      return Optional.of(new Moved(subscriptionId, to.x1(), to.y1(), to.x2(), to.y2(), replay.size(),
+          toTiles.size() - (fromTiles.size() - left.size()), left.size()));
+    }
+  }
+
+  // Rows of a cell arrive in view order, once one is newer than the snapshot so are the rest
+  static boolean newerThanSnapshot(GridCellRow row, Map<String, Instant> snapshotViewAt) {
+    var seen = snapshotViewAt.get(row.id());
+    if (seen == null || row.viewAt() == null) {
+      return true;
+    }
+    if (!row.viewAt().isAfter(seen)) {
+      return false;
+    }
+    snapshotViewAt.remove(row.id());
+    return true;
+  }
+
+  // The latest entry of each cell that changed within the window, one list per window, in sequence order
+  Source<List<GridCellJournal.Entry>, NotUsed> entryFrames(Area area, Duration window, Optional<Long> resumeFrom, Consumer<Subscriber> onSubscribed) {
+    return entries(area, resumeFrom, onSubscribed)
+        .conflateWithSeed(GridCellStreamHub::latestById, GridCellStreamHub::latestById)
+        .throttle(1, window)
+        .map(latest -> {
+          framesOut.increment();
+          return List.copyOf(latest.values());
+        });
+  }
+
+  static List<GridCellRow> rows(List<GridCellJournal.Entry> frame) {
+    return frame.stream().map(GridCellJournal.Entry::row).toList();
+  }
+
+  static long lastSeq(List<GridCellJournal.Entry> frame) {
+    return frame.stream().mapToLong(GridCellJournal.Entry::seq).max().orElse(0);
+  }
+
+  static List<List<Object>> compact(List<GridCellRow> rows) {
+    return compact(rows, false);
+  }
+
+  static List<List<Object>> compact(List<GridCellRow> rows, boolean traced) {
+    return rows.stream()
+        .map(row -> traced
+            ? List.<Object>of(row.id(), row.status(), row.elapsedMs(), row.traceId() == null ? "" : row.traceId())
+            : List.<Object>of(row.id(), row.status(), row.elapsedMs()))
+        .toList();
+  }
+
+  // Rows about to be sent, the live ones are recorded for the view to emit stage. Tile replays, resumes and move replays
+  // send rows that may be minutes old, they would inflate the percentiles and crowd out the slow traces
+  GridCellRow emitted(GridCellJournal.Entry entry) {
+    if (entry.live()) {
+      stageLatency.emitted(entry.row(), Instant.now());
+    }
+    return entry.row();
+  }
+
+  List<GridCellRow> emitted(List<GridCellJournal.Entry> entries) {
+    var emittedAt = Instant.now();
+    entries.stream().filter(GridCellJournal.Entry::live).forEach(entry -> stageLatency.emitted(entry.row(), emittedAt));
+    return rows(entries);
+  }
+
+  ServerSentEvent event(Object data, long seq) {
+    return ServerSentEvent.create(json(data), Optional.empty(), Optional.of(eventId(seq)));
+  }
+
+  static String json(Object data) {
+    return new String(GridCellEncoding.json(data), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * The subscriber's entries, the rows missed since resumeFrom from the journal, or without one the active rows of its
+   * tiles, then the live rows. onSubscribed gets the subscriber once its replay is queued, with its id and the journal
+   * position it starts at.
+   * <p>
+   * The subscriber joins its tiles first and holds back their live rows until the replay is queued, so no row falls
+   * between the replay and the live rows. Tile replay entries carry the journal position read before joining, so
+   * resuming from any event id the client saw replays everything it may not have. When the journal was overwritten
+   * between the resume check and the read, the tile replay is used instead.
+   */
+  Source<GridCellJournal.Entry, NotUsed> entries(Area area, Optional<Long> resumeFrom, Consumer<Subscriber> onSubscribed) {
+    return Source.<GridCellJournal.Entry>queue(settings.subscriberBuffer())
+        .mapMaterializedValue(queue -> {
+          var subscriber = new Subscriber(area, queue, journal.head());
+          synchronized (subscriber.membership) {
+            subscribers.put(subscriber.id, subscriber);
+            var tiles = area.tileIds().stream()
+                .map(tileId -> subscribe(tileId, subscriber))
+                .toList();
+            var missed = resumeFrom.flatMap(seq -> journal.since(seq, area));
+            subscriber.start(missed.orElseGet(() -> tiles.stream()
+                .flatMap(tile -> tile.replay(subscriber.subscribedAt).stream())
+                .toList()));
+          }
+          onSubscribed.accept(subscriber);
+          return subscriber;
+        })
+        .watchTermination((subscriber, done) -> {
+          done.whenComplete((__, error) -> unsubscribe(subscriber));
+          return NotUsed.getInstance();
+        });
+  }
+
+  static LinkedHashMap<String, GridCellJournal.Entry> latestById(GridCellJournal.Entry entry) {
+    return latestById(new LinkedHashMap<>(), entry);
+  }
+
+  static LinkedHashMap<String, GridCellJournal.Entry> latestById(LinkedHashMap<String, GridCellJournal.Entry> latest,
+      GridCellJournal.Entry entry) {
+    latest.remove(entry.row().id()); // Latest row goes last
+    latest.put(entry.row().id(), entry);
+    return latest;
+  }
+
+  // Added inside the map update, so a lingering upstream cannot be stopped between lookup and add. A new upstream goes
+  // in as a placeholder and its view stream is started after the update, outside the map's lock, the subscriber keeps
+  // it in use meanwhile
+  TileUpstream subscribe(String tileId, Subscriber subscriber) {
+    var created = new AtomicReference<TileUpstream>();
+    var upstream = upstreams.compute(tileId, (id, current) -> {
+      var joined = current;
+      if (joined == null) {
+        joined = new TileUpstream(id);
+        created.set(joined);
+      }
+      joined.add(subscriber);
+      return joined;
+    });
+    if (upstream == created.get()) {
+      upstream.start();
+    }
+    return upstream;
+  }
+
+  void unsubscribe(Subscriber subscriber) {
+    subscribers.remove(subscriber.id);
+    synchronized (subscriber.membership) {
+      subscriber.closed = true;
+      subscriber.area().tileIds().forEach(tileId -> leave(tileId, subscriber));
+    }
+  }
+
+  void leave(String tileId, Subscriber subscriber) {
+    var upstream = upstreams.get(tileId);
+    if (upstream != null && upstream.remove(subscriber)) {
+      materializer.scheduleOnce(settings.linger(), () -> stopIfUnused(upstream));
+    }
+  }
+
+  void stopIfUnused(TileUpstream upstream) {
+    upstreams.computeIfPresent(upstream.tileId, (id, current) -> {
+      if (current != upstream || !current.isUnused()) {
+        return current;
+      }
+      current.stop();
+      return null;
+    });
+  }
+
+  public Metrics metrics() {
+    var queueDepths = subscribers.values().stream().mapToInt(subscriber -> subscriber.queue.size()).toArray();
+    return new Metrics(
+        subscribers.size(),
+        upstreams.size(),
+        upstreamStarts.get(),
+        rowsIn.sum(),
+        rowsOut.sum(),
+        rowsDropped.sum(),
+        framesOut.sum(),
+        snapshotRows.sum(),
+        resumes.sum(),
+        resumeFallbacks.sum(),
+        moves.sum(),
+        movedRows.sum(),
+        journal.head(),
+        journal.oldest(),
+        Arrays.stream(queueDepths).sum(),
+        Arrays.stream(queueDepths).max().orElse(0));
+  }
+
+  // One view stream query for one tile, the latest row per cell and the subscribers with cells in the tile
+  final class TileUpstream {
+    private final String tileId;
+    private final Area area;
+    private final LinkedHashMap<String, GridCellRow> latest = new LinkedHashMap<>();
+    private final Set<Subscriber> tileSubscribers = new HashSet<>();
+    private UniqueKillSwitch killSwitch;
+    private boolean stopped;
+
+    TileUpstream(String tileId) {
+      var tileKey = CellKey.fromId(tileId); // RxC / YxX of the tile
+      this.tileId = tileId;
+      this.area = new Area(
+          tileKey.x() * GridTile.SIZE,
+          tileKey.y() * GridTile.SIZE,
+          tileKey.x() * GridTile.SIZE + GridTile.SIZE - 1,
+          tileKey.y() * GridTile.SIZE + GridTile.SIZE - 1);
+    }
+
+    synchronized void start() {
+      if (stopped) {
+        return;
+      }
+      upstreamStarts.incrementAndGet();
+      var running = componentClient.forView()
+          .stream(GridCellView::getGridCellsStream)
+          .source(new GridCellView.StreamedGridCellsRequest(area.x1(), area.y1(), area.x2(), area.y2()))
+          .viaMat(KillSwitches.single(), Keep.right())
+          .toMat(Sink.foreach(this::dispatch), Keep.both())
+          .run(materializer);
+      killSwitch = running.first();
+
+      // The view stream may end or fail, restart it while the tile is in use
+      running.second().whenComplete((done, error) -> {
+        if (error != null) {
+          log.warn("Stream hub tile {} upstream failed", tileId, error);
+        }
+        materializer.scheduleOnce(settings.restartDelay(), this::start);
+      });
+    }
+
+    synchronized void stop() {
+      stopped = true;
+      if (killSwitch != null) {
+        killSwitch.shutdown();
+      }
+    }
+
+    synchronized void dispatch(GridCellRow row) {
+      rowsIn.increment();
+      latest.put(row.id(), row);
+      journal.append(row, entry -> tileSubscribers.forEach(subscriber -> subscriber.offer(entry)));
+    }
+
+    synchronized void add(Subscriber subscriber) {
+      tileSubscribers.add(subscriber);
+    }
+
+    // A new client starts with all cells inactive, so only active rows are replayed
+    synchronized List<GridCellJournal.Entry> replay(long seq) {
+      return latest.values().stream()
+          .filter(row -> !row.status().equals("inactive"))
+          .map(row -> new GridCellJournal.Entry(seq, row, false))
+          .toList();
+    }
+
+    // True when the last subscriber left
+    synchronized boolean remove(Subscriber subscriber) {
+      return tileSubscribers.remove(subscriber) && tileSubscribers.isEmpty();
+    }
+
+    synchronized boolean isUnused() {
+      return tileSubscribers.isEmpty();
+    }
+  }
+
+  final class Subscriber {
+    final String id = UUID.randomUUID().toString();
+    final long subscribedAt; // Journal position when subscribed
+    final Object membership = new Object(); // Held while joining or leaving tiles, the area's tiles are the joined ones
+    private final BoundedSourceQueue<GridCellJournal.Entry> queue;
+    private Area area;
+    private List<GridCellJournal.Entry> pending = new ArrayList<>(); // Live entries held back until start
+    boolean closed;
+    volatile Consumer<Area> onMove = to -> {};
+
+    Subscriber(Area area, BoundedSourceQueue<GridCellJournal.Entry> queue, long subscribedAt) {
+      this.area = area;
+      this.queue = queue;
+      this.subscribedAt = subscribedAt;
+    }
+
+    synchronized Area area() {
+      return area;
+    }
+
+    synchronized void offer(GridCellJournal.Entry entry) {
+      if (!area.contains(entry.row().x(), entry.row().y())) {
+        return;
+      }
+      if (pending != null) {
+        pending.add(entry);
+        return;
+      }
+      enqueue(entry);
+    }
+
+    // Holds back the live entries of the new area until the next start
+    synchronized void hold(Area to) {
+      area = to;
+      pending = new ArrayList<>();
+    }
+
+    // The replay, then the held back live entries it does not already hold
+    synchronized void start(List<GridCellJournal.Entry> replay) {
+      var replayedUpTo = replay.stream().mapToLong(GridCellJournal.Entry::seq).max().orElse(0);
+      replay.stream()
+          .filter(entry -> area.contains(entry.row().x(), entry.row().y()))
+          .forEach(this::enqueue);
+      pending.stream()
+          .filter(entry -> entry.seq() > replayedUpTo)
+          .forEach(this::enqueue);
+      pending = null;
+    }
+
+    void enqueue(GridCellJournal.Entry entry) {
+      var result = queue.offer(entry);
+      if (result.isEnqueued()) {
+        rowsOut.increment();
+      } else if (result == QueueOfferResult.dropped()) {
+        rowsDropped.increment();
+      }
+    }
+  }
+
+  record Area(int x1, int y1, int x2, int y2) {
+    static Area of(int x1, int y1, int x2, int y2) {
+      return new Area(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2));
+    }
+
+    boolean contains(int x, int y) {
+      return x >= x1 && x <= x2 && y >= y1 && y <= y2;
+    }
+
+    boolean contains(CellKey cellKey) {
+      return contains(cellKey.x(), cellKey.y());
+    }
+
+    long tileCount() {
+      return (long) (GridTile.tileOf(x2) - GridTile.tileOf(x1) + 1) * (GridTile.tileOf(y2) - GridTile.tileOf(y1) + 1);
+    }
+
+    List<String> tileIds() {
+      var tileIds = new ArrayList<String>();
+      for (int tileY = GridTile.tileOf(y1); tileY <= GridTile.tileOf(y2); tileY++) {
+        for (int tileX = GridTile.tileOf(x1); tileX <= GridTile.tileOf(x2); tileX++) {
+          tileIds.add(GridTile.tileId(tileX, tileY));
+        }
+      }
+      return tileIds;
+    }
+  }
+
+  record Settings(int subscriberBuffer, int maxTilesPerSubscriber, Duration linger, Duration restartDelay, Duration frameWindow,
+      Duration maxFrameWindow, int journalSize) {
+    static Settings from(Config config) {
+      var hub = config.getConfig("grid-cell.stream-hub");
+      return new Settings(
+          hub.getInt("subscriber-buffer"),
+          hub.getInt("max-tiles-per-subscriber"),
+          hub.getDuration("linger"),
+          hub.getDuration("restart-delay"),
+          hub.getDuration("frame-window"),
+          hub.getDuration("max-frame-window"),
+          hub.getInt("journal-size"));
+    }
+  }
+
+  // type: "snapshot" rows of the area's current view, "synced" the snapshot is complete, viewAt is its newest view row
+  // (epoch ms), "live" the latest row of each cell that changed within the frame window
+  public record ViewportFrame(String type, List<List<Object>> cells, long viewAt) {}
+
+  // type: "subscribed", the first frame of a viewport stream, the id moves the subscription, the area is the one subscribed
+  public record ViewportSubscribed(String type, String subscriptionId, int x1, int y1, int x2, int y2) {
+    static ViewportSubscribed of(Subscriber subscriber) {
+      var area = subscriber.area();
+      return new ViewportSubscribed("subscribed", subscriber.id, area.x1(), area.y1(), area.x2(), area.y2());
+    }
+  }
+
+  // The moved subscription's area, the active rows replayed for the cells that came into view, the tiles joined and left
+  public record Moved(String subscriptionId, int x1, int y1, int x2, int y2, int replayedRows, int joinedTiles, int leftTiles) {}
+
+  public record Metrics(
+      int subscribers,
+      int upstreamTiles,
+      long upstreamStarts,
+      long rowsIn,
+      long rowsOut,
+      long rowsDropped,
+      long framesOut,
+      long snapshotRows,
+      long resumes,
+      long resumeFallbacks,
+      long moves,
+      long movedRows,
+      long journalHead,
+      long journalOldest,
+      long queuedRows,
+      int maxQueueDepth) {}
+}
@@ -0,0 +1,71 @@
+package io.example.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import akka.http.javadsl.model.ContentType;
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.StatusCodes;
+import akka.http.javadsl.model.headers.RawHeader;
+
+/**
+ * Negotiated gzip of response bodies. Bodies shorter than the endpoint's min-bytes are sent as is, gzip hardly shrinks
+ * them and costs a round of CPU on both ends.
+ */
+final class HttpCompression {
+
+  private HttpCompression() {}
+
+  // True when the Accept-Encoding header lists gzip, or *, without q=0
+  static boolean acceptsGzip(Optional<String> acceptEncoding) {
+    for (var coding : acceptEncoding.orElse("").split(",")) {
+      var name = coding.split(";")[0].trim();
+      if ((name.equalsIgnoreCase("gzip") || name.equals("*")) && !refused(coding)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // True when an Accept or Accept-Encoding element has q=0, the client does not accept it at all
+  static boolean refused(String element) {
+    var parts = element.split(";");
+    for (int i = 1; i < parts.length; i++) {
+      if (parts[i].trim().replace(" ", "").matches("q=0(\\.0*)?")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static byte[] gzip(byte[] bytes) {
+    var out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (var gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  static HttpResponse ok(ContentType contentType, byte[] body, boolean gzip, int minBytes) {
+    return ok(contentType, body, gzip, minBytes, "Accept-Encoding");
+  }
+
+  // vary lists the request headers the response was negotiated from, so caches keep a copy per negotiated variant
+  static HttpResponse ok(ContentType contentType, byte[] body, boolean gzip, int minBytes, String vary) {
+    var response = HttpResponse.create()
+        .withStatus(StatusCodes.OK)
+        .addHeader(RawHeader.create("Vary", vary));
+
+    if (gzip && body.length >= minBytes) {
+      return response
+          .addHeader(RawHeader.create("Content-Encoding", "gzip"))
+          .withEntity(contentType, gzip(body));
+    }
+    return response.withEntity(contentType, body);
+  }
+}
@@ -0,0 +1,180 @@
+package io.example.api;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import akka.http.javadsl.model.ContentType;
+import akka.http.javadsl.model.ContentTypes;
+import akka.http.javadsl.model.HttpCharsets;
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.MediaTypes;
+import akka.http.javadsl.model.StatusCodes;
+import akka.http.javadsl.model.headers.RawHeader;
+
+/**
+ * The files in static-resources, loaded once per node with their gzipped bytes and a content hash ETag.
+ * <p>
+ * The build gzips the larger text assets and writes their SHA-256 next to them, {@code index.js.gz} and
+ * {@code index.js.sha256}, see the precompress-static-resources execution in pom.xml. An asset without those, an IDE
+ * run, is hashed and gzipped on first use. HTML pages are rewritten on load so their references to other assets carry
+ * {@code ?v=<hash>}, and are then hashed and gzipped in memory. A request with the current {@code ?v=} is cached for a
+ * year, every other request, the HTML pages included, is revalidated with the ETag, so a deploy is picked up on the
+ * next page load and an unchanged asset costs a 304. The gzipped body's ETag ends in {@code -gz}. Brotli is not built,
+ * neither Ant nor the JDK has an encoder.
+ */
+final class StaticAssets {
+  static final String root = "static-resources/";
+  static final String immutable = "public, max-age=31536000, immutable";
+  static final String revalidate = "no-cache";
+  static final Pattern reference = Pattern.compile("(href|src)=\"(/static/)?([A-Za-z0-9_./-]+)\"");
+  private static final ConcurrentHashMap<String, Asset> assets = new ConcurrentHashMap<>(); // Bundled assets only
+
+  private StaticAssets() {}
+
+  record Asset(String path, ContentType contentType, byte[] bytes, byte[] gzipped, String hash) {
+    // The gzipped and identity bodies are different representations, each gets its own ETag
+    String etag(boolean gzip) {
+      return "\"" + hash + (gzip ? "-gz" : "") + "\"";
+    }
+  }
+
+  // Not computeIfAbsent, loading a page loads the assets it references. Misses are not cached, so requests for paths
+  // that do not exist cannot grow the map, it holds at most the files in static-resources
+  static Optional<Asset> get(String path) {
+    if (path.isEmpty() || path.startsWith("/") || path.contains("..") || path.endsWith(".gz") || path.endsWith(".sha256")) {
+      return Optional.empty();
+    }
+    var asset = assets.get(path);
+    if (asset != null) {
+      return Optional.of(asset);
+    }
+    return load(path).map(loaded -> {
+      var cached = assets.putIfAbsent(path, loaded);
+      return cached == null ? loaded : cached;
+    });
+  }
+
+  static int cached() {
+    return assets.size();
+  }
+
+  static HttpResponse response(Asset asset, Optional<String> version, Optional<String> ifNoneMatch, Optional<String> acceptEncoding) {
+    var cacheControl = version.filter(asset.hash()::equals).isPresent() ? immutable : revalidate;
+    var gzip = asset.gzipped() != null && HttpCompression.acceptsGzip(acceptEncoding);
+    var etag = asset.etag(gzip);
+    var response = HttpResponse.create()
+        .addHeader(RawHeader.create("ETag", etag))
+        .addHeader(RawHeader.create("Cache-Control", cacheControl));
+    if (asset.gzipped() != null) {
+      response = response.addHeader(RawHeader.create("Vary", "Accept-Encoding"));
+    }
+
+    if (matches(ifNoneMatch, etag)) {
+      return response.withStatus(StatusCodes.NOT_MODIFIED);
+    }
+    if (gzip) {
+      return response
+          .withStatus(StatusCodes.OK)
+          .addHeader(RawHeader.create("Content-Encoding", "gzip"))
+          .withEntity(asset.contentType(), asset.gzipped());
+    }
+    return response
+        .withStatus(StatusCodes.OK)
+        .withEntity(asset.contentType(), asset.bytes());
+  }
+
+  // If-None-Match is a list of ETags, weak ones included, or *
+  static boolean matches(Optional<String> ifNoneMatch, String etag) {
+    for (var candidate : ifNoneMatch.orElse("").split(",")) {
+      var tag = candidate.trim();
+      if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static Optional<Asset> load(String path) {
+    var bytes = read(path);
+    if (bytes == null) {
+      return Optional.empty();
+    }
+    var contentType = contentType(path);
+
+    if (path.endsWith(".html")) {
+      var html = rewrite(new String(bytes, StandardCharsets.UTF_8), StaticAssets::get).getBytes(StandardCharsets.UTF_8);
+      return Optional.of(new Asset(path, contentType, html, smaller(html, HttpCompression.gzip(html)), hash(html)));
+    }
+
+    var sha256 = read(path + ".sha256");
+    var hash = sha256 == null ? hash(bytes) : new String(sha256, StandardCharsets.US_ASCII).trim().substring(0, 16);
+    var gzipped = read(path + ".gz");
+    if (gzipped == null && compressible(path)) {
+      gzipped = HttpCompression.gzip(bytes);
+    }
+    return Optional.of(new Asset(path, contentType, bytes, smaller(bytes, gzipped), hash));
+  }
+
+  // References to other assets get their ?v=<hash>, page links are left as is, pages are always revalidated
+  static String rewrite(String html, Function<String, Optional<Asset>> assets) {
+    var matcher = reference.matcher(html);
+    var rewritten = new StringBuilder();
+    while (matcher.find()) {
+      var path = matcher.group(3);
+      var replacement = path.endsWith(".html")
+          ? matcher.group()
+          : assets.apply(path)
+              .map(asset -> matcher.group().replace(path + "\"", path + "?v=" + asset.hash() + "\""))
+              .orElse(matcher.group());
+      matcher.appendReplacement(rewritten, Matcher.quoteReplacement(replacement));
+    }
+    matcher.appendTail(rewritten);
+    return rewritten.toString();
+  }
+
+  static byte[] smaller(byte[] bytes, byte[] gzipped) {
+    return gzipped != null && gzipped.length < bytes.length * 9 / 10 ? gzipped : null;
+  }
+
+  static String hash(byte[] bytes) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)).substring(0, 16);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static boolean compressible(String path) {
+    return path.endsWith(".html") || path.endsWith(".js") || path.endsWith(".css") || path.endsWith(".txt") || path.endsWith(".ico");
+  }
+
+  static ContentType contentType(String path) {
+    var extension = path.substring(path.lastIndexOf('.') + 1);
+    return switch (extension) {
+      case "html" -> MediaTypes.TEXT_HTML.toContentType(HttpCharsets.UTF_8);
+      case "js" -> MediaTypes.APPLICATION_JAVASCRIPT.toContentType(HttpCharsets.UTF_8);
+      case "css" -> MediaTypes.TEXT_CSS.toContentType(HttpCharsets.UTF_8);
+      case "txt" -> ContentTypes.TEXT_PLAIN_UTF8;
+      case "png" -> MediaTypes.IMAGE_PNG.toContentType();
+      case "ico" -> MediaTypes.IMAGE_X_ICON.toContentType();
+      default -> ContentTypes.APPLICATION_OCTET_STREAM;
+    };
+  }
+
+  static byte[] read(String path) {
+    try (var in = StaticAssets.class.getClassLoader().getResourceAsStream(root + path)) {
+      return in == null ? null : in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -1,53 +1,66 @@
 package io.example.api;
 
+import akka.http.javadsl.model.HttpHeader;
 import akka.http.javadsl.model.HttpRequest;
 import akka.http.javadsl.model.HttpResponse;
 import akka.javasdk.annotations.Acl;
 import akka.javasdk.annotations.http.Get;
 import akka.javasdk.annotations.http.HttpEndpoint;
+import akka.javasdk.http.AbstractHttpEndpoint;
 import akka.javasdk.http.HttpResponses;
 
+// Served from StaticAssets, gzipped when the client accepts it, with a content hash ETag, see StaticAssets for caching
 @Acl(allow = @Acl.Matcher(principal = Acl.Principal.INTERNET))
 @HttpEndpoint
-public class StaticResourcesEndpoint {
+public class StaticResourcesEndpoint extends AbstractHttpEndpoint {
 
   @Get("/")
   public HttpResponse index() {
-    return HttpResponses.staticResource("index.html");
+    return serve("index.html");
   }
 
   @Get("/index.html")
   public HttpResponse indexHtml() {
-    return HttpResponses.staticResource("index.html");
+    return serve("index.html");
   }
 
   @Get("/favicon.ico")
   public HttpResponse favicon() {
-    return HttpResponses.staticResource("favicon.ico");
+    return serve("favicon.ico");
   }
 
   @Get("/index.js")
   public HttpResponse script() {
-    return HttpResponses.staticResource("index.js");
+    return serve("index.js");
   }
 
   @Get("/index.css")
   public HttpResponse style() {
-    return HttpResponses.staticResource("index.css");
+    return serve("index.css");
   }
 
   @Get("/help.html")
   public HttpResponse help() {
-    return HttpResponses.staticResource("help.html");
+    return serve("help.html");
   }
 
   @Get("/version.txt")
   public HttpResponse version() {
-    return HttpResponses.staticResource("version.txt");
+    return serve("version.txt");
   }
 
   @Get("/static/**") // Serve static files (e.g. HTML, CSS, JS)
   public HttpResponse serveStatic(HttpRequest request) {
-    return HttpResponses.staticResource(request, "/static/");
+    return serve(request.getUri().path().substring("/static/".length()));
+  }
+
+  HttpResponse serve(String path) {
+    return StaticAssets.get(path)
+        .map(asset -> StaticAssets.response(
+            asset,
+            requestContext().queryParams().getString("v"),
+            requestContext().requestHeader("If-None-Match").map(HttpHeader::value),
+            requestContext().requestHeader("Accept-Encoding").map(HttpHeader::value)))
+        .orElseGet(HttpResponses::notFound);
   }
 }
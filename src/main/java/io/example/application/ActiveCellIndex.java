@@ -0,0 +1,369 @@
+package io.example.application;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.typesafe.config.Config;
+
+import io.example.application.GridCellView.GridCellRow;
+import io.example.domain.CellKey;
+import io.example.domain.GridCell;
+import io.example.domain.ScentField;
+
+/**
+ * Node local index of grid cell status, bucketed into fixed size tiles, used to answer the predator's "active cells in
+ * range" question without paging through the view on every move.
+ * <p>
+ * A tile is loaded from a view query of its whole area and is then kept up to date from the StatusUpdated events seen
+ * by the consumer on this node. Events for a tile may also be processed on other nodes, so a tile is only trusted for
+ * {@code fresh-for} after it was loaded. When any tile covering a query is missing or stale the index is cold for that
+ * query and the caller falls back to the view, which in turn reloads the tiles.
+ * <p>
+ * The view lags the consumer, so the rows of a load may miss updates the consumer applied while the view query was in
+ * flight. The updates of the cells of a load in flight are recorded and replayed onto its tiles before they replace the
+ * current ones. At most {@code max-tiles} tiles are kept, the ones loaded longest ago are evicted first.
+ * <p>
+ * The prey {@link ScentField} used for long range hunting is maintained alongside the tiles, from the same loads and
+ * status updates.
+ */
+public class ActiveCellIndex {
+  static final Logger log = LoggerFactory.getLogger(ActiveCellIndex.class);
+  static final int TILE_SHIFT = 5;
+  static final int TILE_SIZE = 1 << TILE_SHIFT; // 32 x 32 cells per tile
+  static final int TILE_MASK = TILE_SIZE - 1;
+  static final GridCell.Status[] statuses = GridCell.Status.values();
+
+  private final ConcurrentHashMap<Long, Tile> tiles = new ConcurrentHashMap<>();
+  private final Set<Load> loads = ConcurrentHashMap.newKeySet(); // In flight
+  private final ScentField scentField = new ScentField();
+  private final long freshForMs;
+  private final int maxTiles;
+  private final int maxTilesPerLoad;
+  private final LongAdder predatorMoves = new LongAdder();
+  private final LongAdder queries = new LongAdder();
+  private final LongAdder viewQueries = new LongAdder();
+  private final LongAdder viewQueriesAvoided = new LongAdder();
+  private final LongAdder eventsApplied = new LongAdder();
+  private final LongAdder tilesLoaded = new LongAdder();
+  private final LongAdder tilesEvicted = new LongAdder();
+  private final LongAdder updatesReplayed = new LongAdder();
+
+  public ActiveCellIndex(Config config) {
+    this(
+        config.getDuration("grid-cell.active-cell-index.fresh-for").toMillis(),
+        config.getInt("grid-cell.active-cell-index.max-tiles"),
+        config.getInt("grid-cell.active-cell-index.max-tiles-per-load"));
+  }
+
+  public ActiveCellIndex(long freshForMs, int maxTiles, int maxTilesPerLoad) {
+    this.freshForMs = freshForMs;
+    this.maxTiles = maxTiles;
+    this.maxTilesPerLoad = maxTilesPerLoad;
+  }
+
+  @FunctionalInterface
+  public interface AreaQuery {
+    CompletionStage<List<GridCellRow>> query(int x1, int y1, int x2, int y2);
+  }
+
+  // Active (not inactive) cells in the rectangle, from the index when warm, otherwise from the view
+  public CompletionStage<List<GridCellRow>> activeCellsAsync(int x1, int y1, int x2, int y2, AreaQuery viewQuery) {
+    queries.increment();
+
+    var indexed = activeCells(x1, y1, x2, y2);
+    if (indexed.isPresent()) {
+      viewQueriesAvoided.increment();
+      return CompletableFuture.completedFuture(indexed.get());
+    }
+
+    viewQueries.increment();
+    var tx1 = tile(x1);
+    var ty1 = tile(y1);
+    var tx2 = tile(x2);
+    var ty2 = tile(y2);
+    if (!loadable(tx1, ty1, tx2, ty2)) {
+      return viewQuery.query(x1, y1, x2, y2);
+    }
+
+    return load(tx1, ty1, tx2, ty2, viewQuery)
+        .thenApply(rows -> inside(rows, x1, y1, x2, y2));
+  }
+
+  // Query the tiles' area from the view and load the tiles, recording the updates seen while the query is in flight
+  CompletionStage<List<GridCellRow>> load(int tx1, int ty1, int tx2, int ty2, AreaQuery viewQuery) {
+    var load = new Load(tx1, ty1, tx2, ty2);
+    loads.add(load);
+    CompletionStage<List<GridCellRow>> rows;
+    try {
+      rows = viewQuery.query(tx1 << TILE_SHIFT, ty1 << TILE_SHIFT, (tx2 << TILE_SHIFT) + TILE_MASK, (ty2 << TILE_SHIFT) + TILE_MASK);
+    } catch (RuntimeException e) {
+      loads.remove(load);
+      throw e;
+    }
+    return rows.whenComplete((loaded, error) -> {
+      if (error != null) {
+        loads.remove(load);
+      } else {
+        load(load, loaded);
+      }
+    });
+  }
+
+  static List<GridCellRow> inside(List<GridCellRow> rows, int x1, int y1, int x2, int y2) {
+    return rows.stream()
+        .filter(row -> row.x() >= x1 && row.x() <= x2 && row.y() >= y1 && row.y() <= y2)
+        .toList();
+  }
+
+  boolean loadable(int tx1, int ty1, int tx2, int ty2) {
+    return (long) (tx2 - tx1 + 1) * (ty2 - ty1 + 1) <= maxTilesPerLoad;
+  }
+
+  // Make sure the tiles covering the rectangle are loaded and fresh, false when the area is too large to load
+  public CompletionStage<Boolean> warmAsync(int x1, int y1, int x2, int y2, AreaQuery viewQuery) {
+    if (fresh(x1, y1, x2, y2)) {
+      return CompletableFuture.completedFuture(true);
+    }
+    var tx1 = tile(x1);
+    var ty1 = tile(y1);
+    var tx2 = tile(x2);
+    var ty2 = tile(y2);
+    if (!loadable(tx1, ty1, tx2, ty2)) {
+      return CompletableFuture.completedFuture(false);
+    }
+
+    viewQueries.increment();
+    return load(tx1, ty1, tx2, ty2, viewQuery).thenApply(rows -> true);
+  }
+
+  public ScentField scentField() {
+    return scentField;
+  }
+
+  boolean fresh(int x1, int y1, int x2, int y2) {
+    var now = System.currentTimeMillis();
+    for (int ty = tile(y1); ty <= tile(y2); ty++) {
+      for (int tx = tile(x1); tx <= tile(x2); tx++) {
+        var tile = tiles.get(CellKey.pack(ty, tx));
+        if (tile == null || now - tile.loadedAt > freshForMs) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  Optional<List<GridCellRow>> activeCells(int x1, int y1, int x2, int y2) {
+    var now = System.currentTimeMillis();
+    var tx1 = tile(x1);
+    var ty1 = tile(y1);
+    var tx2 = tile(x2);
+    var ty2 = tile(y2);
+
+    var covering = new ArrayList<Tile>();
+    for (int ty = ty1; ty <= ty2; ty++) {
+      for (int tx = tx1; tx <= tx2; tx++) {
+        var tile = tiles.get(CellKey.pack(ty, tx));
+        if (tile == null || now - tile.loadedAt > freshForMs) {
+          return Optional.empty();
+        }
+        covering.add(tile);
+      }
+    }
+
+    var cells = new ArrayList<GridCellRow>();
+    for (var tile : covering) {
+      tile.collect(x1, y1, x2, y2, cells);
+    }
+    return Optional.of(cells);
+  }
+
+  public void recordPredatorMove() {
+    predatorMoves.increment();
+  }
+
+  // Apply a status change seen by the consumer, only tiles that have been loaded are tracked. Recorded first by the
+  // loads in flight for the cell, a load that completes after that replays it
+  public void onStatusUpdated(String id, GridCell.Status status) {
+    var packed = CellKey.parse(id);
+    var x = CellKey.col(packed);
+    var y = CellKey.row(packed);
+    for (var load : loads) {
+      load.record(x, y, status);
+    }
+    var tile = tiles.get(CellKey.pack(tile(y), tile(x)));
+    if (tile != null) {
+      tile.set(x, y, status);
+      scentField.set(x, y, status);
+      eventsApplied.increment();
+    }
+  }
+
+  void load(Load load, List<GridCellRow> activeRows) {
+    var now = System.currentTimeMillis();
+    var tx1 = load.tx1;
+    var ty1 = load.ty1;
+    var tx2 = load.tx2;
+    var ty2 = load.ty2;
+    var loaded = new HashMap<Long, Tile>();
+    for (int ty = ty1; ty <= ty2; ty++) {
+      for (int tx = tx1; tx <= tx2; tx++) {
+        loaded.put(CellKey.pack(ty, tx), new Tile(tx, ty, now));
+      }
+    }
+    var scent = scentField.replace(tx1 << TILE_SHIFT, ty1 << TILE_SHIFT, (tx2 << TILE_SHIFT) + TILE_MASK, (ty2 << TILE_SHIFT) + TILE_MASK);
+    for (var row : activeRows) {
+      var tile = loaded.get(CellKey.pack(tile(row.y()), tile(row.x())));
+      if (tile != null) {
+        var status = GridCell.Status.valueOf(row.status());
+        tile.set(row.x(), row.y(), status);
+        scent.set(row.x(), row.y(), status);
+      }
+    }
+
+    // Updates seen while the query was in flight, the rows may not have them yet. Replayed and committed under the
+    // load's lock, a later update is then applied to the loaded tiles by onStatusUpdated
+    synchronized (load) {
+      for (var update : load.updates) {
+        var tile = loaded.get(CellKey.pack(tile(update.y()), tile(update.x())));
+        tile.set(update.x(), update.y(), update.status());
+        scent.set(update.x(), update.y(), update.status());
+      }
+      updatesReplayed.add(load.updates.size());
+      tiles.putAll(loaded);
+      scent.commit();
+      load.updates = null;
+    }
+    loads.remove(load);
+    tilesLoaded.add(loaded.size());
+    evict(loaded.keySet());
+    log.debug("Loaded {} tiles ({}, {}) to ({}, {}) with {} active cells", loaded.size(), tx1, ty1, tx2, ty2, activeRows.size());
+  }
+
+  // Evicts the tiles loaded longest ago until at most max-tiles are left, the ones just loaded are kept
+  void evict(Set<Long> justLoaded) {
+    var excess = tiles.size() - maxTiles;
+    if (excess <= 0) {
+      return;
+    }
+    var oldest = tiles.entrySet().stream()
+        .filter(entry -> !justLoaded.contains(entry.getKey()))
+        .sorted(Comparator.comparingLong(entry -> entry.getValue().loadedAt))
+        .limit(excess)
+        .toList();
+    for (var entry : oldest) {
+      if (tiles.remove(entry.getKey(), entry.getValue())) {
+        clearScent(entry.getValue().tileX, entry.getValue().tileY, entry.getValue().tileX, entry.getValue().tileY);
+        tilesEvicted.increment();
+      }
+    }
+  }
+
+  void clearScent(int tx1, int ty1, int tx2, int ty2) {
+    scentField.clear(tx1 << TILE_SHIFT, ty1 << TILE_SHIFT, (tx2 << TILE_SHIFT) + TILE_MASK, (ty2 << TILE_SHIFT) + TILE_MASK);
+  }
+
+  public Metrics metrics() {
+    var moves = predatorMoves.sum();
+    var avoided = viewQueriesAvoided.sum();
+    return new Metrics(
+        tiles.size(),
+        moves,
+        queries.sum(),
+        viewQueries.sum(),
+        avoided,
+        moves == 0 ? 0.0 : (double) avoided / moves,
+        eventsApplied.sum(),
+        tilesLoaded.sum(),
+        tilesEvicted.sum(),
+        updatesReplayed.sum(),
+        scentField.tiles());
+  }
+
+  static int tile(int xy) {
+    return xy >> TILE_SHIFT; // floor division, also for negative coordinates
+  }
+
+  public record Metrics(
+      int tiles,
+      long predatorMoves,
+      long queries,
+      long viewQueries,
+      long viewQueriesAvoided,
+      double viewQueriesAvoidedPerMove,
+      long eventsApplied,
+      long tilesLoaded,
+      long tilesEvicted,
+      long updatesReplayed,
+      int scentTiles) {}
+
+  record CellUpdate(int x, int y, GridCell.Status status) {}
+
+  // The tiles of a view query in flight and the updates of their cells seen meanwhile, null once loaded
+  static final class Load {
+    final int tx1;
+    final int ty1;
+    final int tx2;
+    final int ty2;
+    List<CellUpdate> updates = new ArrayList<>();
+
+    Load(int tx1, int ty1, int tx2, int ty2) {
+      this.tx1 = tx1;
+      this.ty1 = ty1;
+      this.tx2 = tx2;
+      this.ty2 = ty2;
+    }
+
+    synchronized void record(int x, int y, GridCell.Status status) {
+      var tx = tile(x);
+      var ty = tile(y);
+      if (updates != null && tx >= tx1 && tx <= tx2 && ty >= ty1 && ty <= ty2) {
+        updates.add(new CellUpdate(x, y, status));
+      }
+    }
+  }
+
+  static final class Tile {
+    final int tileX;
+    final int tileY;
+    final long loadedAt;
+    final byte[] status = new byte[TILE_SIZE * TILE_SIZE]; // Status ordinals, 0 is inactive
+
+    Tile(int tileX, int tileY, long loadedAt) {
+      this.tileX = tileX;
+      this.tileY = tileY;
+      this.loadedAt = loadedAt;
+    }
+
+    void set(int x, int y, GridCell.Status newStatus) {
+      status[((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK)] = (byte) newStatus.ordinal();
+    }
+
+    void collect(int x1, int y1, int x2, int y2, List<GridCellRow> cells) {
+      var originX = tileX << TILE_SHIFT;
+      var originY = tileY << TILE_SHIFT;
+      for (int i = 0; i < status.length; i++) {
+        if (status[i] == 0) {
+          continue;
+        }
+        var x = originX + (i & TILE_MASK);
+        var y = originY + (i >> TILE_SHIFT);
+        if (x >= x1 && x <= x2 && y >= y1 && y <= y2) {
+          cells.add(new GridCellRow(CellKey.id(y, x), statuses[status[i]].toString(), x, y,
+              null, null, null, null, null, 0, "", "", "", ""));
+        }
+      }
+    }
+  }
+}
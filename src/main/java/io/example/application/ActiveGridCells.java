@@ -0,0 +1,32 @@
+package io.example.application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import io.example.application.GridCellView.GridCellRow;
+
+/**
+ * Non-blocking paging through {@link GridCellView#queryActiveGridCells}, each page is requested when the previous one
+ * completes, so no thread is held while the view answers.
+ */
+public final class ActiveGridCells {
+
+  private ActiveGridCells() {}
+
+  public static CompletionStage<List<GridCellRow>> queryAsync(GridCellViewCalls gridCellView, int x1, int y1, int x2, int y2) {
+    return queryAsync(gridCellView, x1, y1, x2, y2, "", new ArrayList<>());
+  }
+
+  static CompletionStage<List<GridCellRow>> queryAsync(GridCellViewCalls gridCellView,
+      int x1, int y1, int x2, int y2, String pageToken, List<GridCellRow> gridCells) {
+    return gridCellView.queryActiveGridCells(new GridCellView.PagedGridCellsRequest(x1, y1, x2, y2, pageToken))
+        .thenCompose(pagedGridCells -> {
+          gridCells.addAll(pagedGridCells.gridCells());
+          return pagedGridCells.hasMore()
+              ? queryAsync(gridCellView, x1, y1, x2, y2, pagedGridCells.nextPageToken(), gridCells)
+              : CompletableFuture.completedFuture(gridCells);
+        });
+  }
+}
@@ -0,0 +1,174 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import com.typesafe.config.Config;
+
+/**
+ * Node local estimates of the clock offset of the other regions to this node's clock, so the latencies between a time
+ * stamped in one region and a time stamped in another can be corrected for clock skew.
+ * <p>
+ * NTP style, each sample is a request to a peer and its reply: t0 sent here, t1 received and t2 replied by the peer, t3
+ * received here. The sample's offset, peer clock minus this clock, is ((t1 - t0) + (t2 - t3)) / 2, exact when both
+ * legs take as long, its round trip (t3 - t0) - (t2 - t1). The estimate is the offset of the sample with the shortest
+ * round trip of the last {@code samples} of the peer, the one queuing and asymmetric routes distorted least, within
+ * half its round trip of the true offset.
+ */
+public class ClockSkew {
+  private final ConcurrentHashMap<String, Peer> peers = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, LongAdder> failures = new ConcurrentHashMap<>();
+  private final Settings settings;
+
+  public ClockSkew(Config config) {
+    this(Settings.from(config));
+  }
+
+  public ClockSkew(Settings settings) {
+    this.settings = settings;
+  }
+
+  public Settings settings() {
+    return settings;
+  }
+
+  public void record(String region, String route, Sample sample) {
+    peers.computeIfAbsent(region, Peer::new).add(route, sample, settings.samples());
+  }
+
+  // A sample that got no reply, by the route or stand-in asked
+  public void failed(String route) {
+    failures.computeIfAbsent(route, r -> new LongAdder()).increment();
+  }
+
+  // Peer clock minus this clock in ms, empty until the region has been sampled
+  public OptionalLong offsetMs(String region) {
+    var peer = region == null ? null : peers.get(region);
+    return peer == null ? OptionalLong.empty() : peer.offsetMs();
+  }
+
+  // The latency from a time stamped in the origin region to one stamped here, corrected by the origin's offset
+  public long corrected(String originRegion, String selfRegion, long latencyMs) {
+    if (originRegion == null || originRegion.equals(selfRegion)) {
+      return latencyMs;
+    }
+    return latencyMs + offsetMs(originRegion).orElse(0);
+  }
+
+  public Metrics metrics() {
+    var estimates = peers.values().stream()
+        .map(Peer::estimate)
+        .sorted(Comparator.comparing(Estimate::region))
+        .toList();
+    var failed = failures.entrySet().stream()
+        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+    return new Metrics(estimates, failed);
+  }
+
+  // Epoch ms, t0 and t3 on this clock, t1 and t2 on the peer's
+  public record Sample(long t0, long t1, long t2, long t3) {
+    public long offsetMs() {
+      return Math.floorDiv((t1 - t0) + (t2 - t3), 2);
+    }
+
+    public long rttMs() {
+      return Math.max(0, (t3 - t0) - (t2 - t1));
+    }
+  }
+
+  // A peer's reply to a sample request, t0 echoed back
+  public record Reading(String region, long t0, long receivedAt, long repliedAt) {}
+
+  static final class Peer {
+    private final String region;
+    private final ArrayDeque<Sample> samples = new ArrayDeque<>();
+    private final LongAdder count = new LongAdder();
+    private String route = "";
+
+    Peer(String region) {
+      this.region = region;
+    }
+
+    synchronized void add(String route, Sample sample, int keep) {
+      if (samples.size() >= keep) {
+        samples.removeFirst();
+      }
+      samples.addLast(sample);
+      count.increment();
+      this.route = route;
+    }
+
+    synchronized OptionalLong offsetMs() {
+      return samples.stream()
+          .min(Comparator.comparingLong(Sample::rttMs))
+          .map(best -> OptionalLong.of(best.offsetMs()))
+          .orElse(OptionalLong.empty());
+    }
+
+    synchronized Estimate estimate() {
+      var best = samples.stream().min(Comparator.comparingLong(Sample::rttMs)).orElseThrow();
+      var last = samples.getLast();
+      return new Estimate(
+          region,
+          route,
+          best.offsetMs(),
+          best.rttMs(),
+          (best.rttMs() + 1) / 2,
+          last.offsetMs(),
+          last.rttMs(),
+          samples.size(),
+          count.sum(),
+          Instant.ofEpochMilli(last.t3()));
+    }
+  }
+
+  // interval between the samples of each peer, samples kept per peer for the estimate
+  // Stand-in peers answer in this node with their region's clock offset after half the round trip each way
+  public record Settings(boolean sampleRoutes, Duration interval, Duration timeout, int samples, List<StandInPeer> standInPeers) {
+    static final Settings defaults = new Settings(false, Duration.ofSeconds(5), Duration.ofSeconds(2), 8, List.of());
+
+    static Settings from(Config config) {
+      var skew = config.getConfig("grid-cell.clock-skew");
+      var standIns = skew.getObject("stand-in-peers").keySet().stream()
+          .sorted()
+          .map(region -> StandInPeer.from(region, skew.getConfig("stand-in-peers." + region)))
+          .toList();
+      return new Settings(
+          skew.getBoolean("sample-routes"),
+          skew.getDuration("interval"),
+          skew.getDuration("timeout"),
+          skew.getInt("samples"),
+          standIns);
+    }
+  }
+
+  public record StandInPeer(String region, Duration offset, Duration rtt) {
+    static StandInPeer from(String region, Config config) {
+      return new StandInPeer(region, config.getDuration("offset"), config.getDuration("rtt"));
+    }
+  }
+
+  // offsetMs and rttMs of the estimate's sample, errorMs the most the offset may be off, the last sample's for comparison
+  public record Estimate(
+      String region,
+      String route,
+      long offsetMs,
+      long rttMs,
+      long errorMs,
+      long lastOffsetMs,
+      long lastRttMs,
+      int samples,
+      long totalSamples,
+      Instant sampledAt) {}
+
+  // Failed samples per route or stand-in
+  public record Metrics(List<Estimate> peers, Map<String, Long> failures) {}
+}
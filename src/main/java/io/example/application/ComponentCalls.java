@@ -0,0 +1,200 @@
+package io.example.application;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.typesafe.config.Config;
+
+/**
+ * Node local metrics of the component client calls, per component and method: calls, errors, calls in flight and the
+ * call latency in microseconds, so entity writes and view queries can be told apart under load.
+ * <p>
+ * The endpoint, the fill rectangle jobs, the stream hub and the consumers start their calls through {@link #call}, by
+ * way of the per component helpers such as {@link GridCellEntityCalls} that hold the component and method labels.
+ * Counters are striped {@link LongAdder}s and the latencies lock free {@link LatencyHistogram}s, one for the totals and
+ * a {@link LatencyWindow} for the recent percentiles, so recording does not contend under load. {@link #prometheus()}
+ * renders the totals in the Prometheus text format.
+ */
+public class ComponentCalls {
+  // Prometheus histogram bucket bounds in seconds, entity writes are a few ms, view queries up to seconds
+  static final double[] BUCKETS = { 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+  private final ConcurrentHashMap<Key, Recorder> recorders = new ConcurrentHashMap<>();
+  private final Settings settings;
+
+  public ComponentCalls(Config config) {
+    this(Settings.from(config));
+  }
+
+  public ComponentCalls(Settings settings) {
+    this.settings = settings;
+  }
+
+  public Settings settings() {
+    return settings;
+  }
+
+  // Starts the call, a call that throws instead of returning a stage is counted as failed
+  public <T> CompletionStage<T> call(String component, String method, Supplier<CompletionStage<T>> call) {
+    var recorder = recorders.computeIfAbsent(new Key(component, method), key -> new Recorder(new LatencyWindow(settings.slot(), settings.slots())));
+    recorder.started();
+    var startedAt = System.nanoTime();
+    CompletionStage<T> started;
+    try {
+      started = call.get();
+    } catch (RuntimeException e) {
+      started = CompletableFuture.failedFuture(e);
+    }
+    return started.whenComplete((result, error) -> recorder.completed((System.nanoTime() - startedAt) / 1000, error != null));
+  }
+
+  // Each method's percentiles over the last window, clamped to the configured window
+  public List<Metrics> metrics(Duration window) {
+    var clamped = window.compareTo(settings.window()) > 0 ? settings.window() : window;
+    return recorders.entrySet().stream()
+        .map(entry -> entry.getValue().metrics(entry.getKey(), clamped))
+        .sorted(Comparator.comparing(Metrics::component).thenComparing(Metrics::method))
+        .toList();
+  }
+
+  // Totals since the node started in the Prometheus text exposition format, version 0.0.4
+  public String prometheus() {
+    var keys = recorders.keySet().stream()
+        .sorted(Comparator.comparing(Key::component).thenComparing(Key::method))
+        .toList();
+    var text = new StringBuilder(256 + keys.size() * 1024);
+
+    metric(text, "component_client_calls_total", "counter", "Component client calls started");
+    keys.forEach(key -> sample(text, "component_client_calls_total", key, "", recorders.get(key).calls.sum()));
+    metric(text, "component_client_call_errors_total", "counter", "Component client calls that failed");
+    keys.forEach(key -> sample(text, "component_client_call_errors_total", key, "", recorders.get(key).errors.sum()));
+    metric(text, "component_client_calls_in_flight", "gauge", "Component client calls started and not yet completed");
+    keys.forEach(key -> sample(text, "component_client_calls_in_flight", key, "", recorders.get(key).inFlight.get()));
+
+    metric(text, "component_client_call_duration_seconds", "histogram", "Component client call latency");
+    keys.forEach(key -> {
+      var recorder = recorders.get(key);
+      var snapshot = recorder.total.snapshot();
+      var bucket = 0;
+      var cumulative = 0L;
+      for (var le : BUCKETS) { // A latency bucket across a bound is counted in the next bound, within about 3%
+        var leUs = Math.round(le * 1_000_000);
+        while (bucket < LatencyHistogram.BUCKETS && LatencyHistogram.highestValue(bucket) <= leUs) {
+          cumulative += snapshot.counts()[bucket++];
+        }
+        sample(text, "component_client_call_duration_seconds_bucket", key, ",le=\"" + number(le) + "\"", cumulative);
+      }
+      sample(text, "component_client_call_duration_seconds_bucket", key, ",le=\"+Inf\"", snapshot.count());
+      text.append("component_client_call_duration_seconds_sum").append(labels(key, ""))
+          .append(' ').append(number(recorder.sumUs.sum() / 1_000_000.0)).append('\n');
+      sample(text, "component_client_call_duration_seconds_count", key, "", snapshot.count());
+    });
+    return text.toString();
+  }
+
+  static void metric(StringBuilder text, String name, String type, String help) {
+    text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  static void sample(StringBuilder text, String name, Key key, String extraLabels, long value) {
+    text.append(name).append(labels(key, extraLabels)).append(' ').append(value).append('\n');
+  }
+
+  static String labels(Key key, String extraLabels) {
+    return "{component=\"" + escape(key.component()) + "\",method=\"" + escape(key.method()) + "\"" + extraLabels + "}";
+  }
+
+  static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  static String number(double value) {
+    return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+  }
+
+  record Key(String component, String method) {}
+
+  // The total histogram is not reset, the window's slots are reused as it slides
+  static final class Recorder {
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder sumUs = new LongAdder();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong maxInFlight = new AtomicLong();
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final LatencyWindow window;
+
+    Recorder(LatencyWindow window) {
+      this.window = window;
+    }
+
+    void started() {
+      calls.increment();
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    }
+
+    void completed(long latencyUs, boolean failed) {
+      inFlight.decrementAndGet();
+      if (failed) {
+        errors.increment();
+      }
+      sumUs.add(latencyUs);
+      total.record(latencyUs);
+      window.record(latencyUs);
+    }
+
+    Metrics metrics(Key key, Duration clamped) {
+      var snapshot = window.snapshot(clamped);
+      return new Metrics(
+          key.component(),
+          key.method(),
+          calls.sum(),
+          errors.sum(),
+          inFlight.get(),
+          maxInFlight.get(),
+          clamped.toMillis(),
+          snapshot.count(),
+          snapshot.percentile(0.50),
+          snapshot.percentile(0.95),
+          snapshot.percentile(0.99),
+          snapshot.max(),
+          window.max());
+    }
+  }
+
+  // slot x slots is the longest window of the percentiles
+  public record Settings(Duration slot, int slots) {
+    static Settings from(Config config) {
+      var calls = config.getConfig("grid-cell.component-calls");
+      return new Settings(calls.getDuration("slot"), calls.getInt("slots"));
+    }
+
+    public Duration window() {
+      return slot.multipliedBy(slots);
+    }
+  }
+
+  // Counts since the node started, latencies in microseconds over windowMs, maxUs since the node started
+  public record Metrics(
+      String component,
+      String method,
+      long calls,
+      long errors,
+      long inFlight,
+      long maxInFlight,
+      long windowMs,
+      long windowCount,
+      long p50Us,
+      long p95Us,
+      long p99Us,
+      long windowMaxUs,
+      long maxUs) {}
+}
@@ -0,0 +1,144 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Node local throughput meters for the consumers, one per consumer id.
+ * <p>
+ * Counts the events each consumer handles and its component calls running at the same time, with a per second event
+ * rate over the last {@link Meter#WINDOW_SECONDS} seconds, so a fill wave can be compared before and after a change, and
+ * how far behind the event time each consumer lane is.
+ * <p>
+ * Metering only, every event is handled, wave and predator steps are chains that must not break. The consumer's
+ * {@code asyncDone} effect holds the next event until the calls of the current one complete, so calls of one consumer
+ * only run at the same time for events of different slices the node processes in parallel, never for consecutive
+ * events of one slice.
+ */
+public class ConsumerThroughput {
+  private final ConcurrentHashMap<String, Meter> meters = new ConcurrentHashMap<>();
+
+  public Meter meter(String consumerId) {
+    return meters.computeIfAbsent(consumerId, Meter::new);
+  }
+
+  public List<Metrics> metrics() {
+    return meters.values().stream()
+        .map(Meter::metrics)
+        .sorted(Comparator.comparing(Metrics::consumerId))
+        .toList();
+  }
+
+  public static final class Meter {
+    static final int WINDOW_SECONDS = 10;
+    private final String consumerId;
+    private final LongAdder events = new LongAdder();
+    private final LongAdder callsCompleted = new LongAdder();
+    private final LongAdder callsFailed = new LongAdder();
+    private final AtomicLong concurrentCalls = new AtomicLong();
+    private final AtomicLong maxConcurrentCalls = new AtomicLong();
+    private final AtomicLong peakEventsPerSecond = new AtomicLong();
+    private final AtomicLong lagMs = new AtomicLong();
+    private final AtomicLong maxLagMs = new AtomicLong();
+    // Ring of per second event counts, seconds[i % size] holds the epoch second counts[i % size] was counted for
+    private final AtomicLongArray seconds = new AtomicLongArray(WINDOW_SECONDS + 1);
+    private final AtomicLongArray counts = new AtomicLongArray(WINDOW_SECONDS + 1);
+
+    Meter(String consumerId) {
+      this.consumerId = consumerId;
+    }
+
+    public String consumerId() {
+      return consumerId;
+    }
+
+    public void event() {
+      events.increment();
+
+      var second = System.currentTimeMillis() / 1000;
+      var slot = (int) (second % seconds.length());
+      var slotSecond = seconds.get(slot);
+      if (slotSecond != second && seconds.compareAndSet(slot, slotSecond, second)) {
+        peakEventsPerSecond.accumulateAndGet(counts.getAndSet(slot, 0), Math::max);
+      }
+      counts.incrementAndGet(slot);
+    }
+
+    // Records how far behind the event time the consumer is
+    public void lag(Optional<Instant> eventTime) {
+      if (eventTime.isPresent()) {
+        var lag = Math.max(0, Duration.between(eventTime.get(), Instant.now()).toMillis());
+        lagMs.set(lag);
+        maxLagMs.accumulateAndGet(lag, Math::max);
+      }
+    }
+
+    // Starts the call and tracks it, a call that throws instead of returning a stage is counted as failed
+    public <T> CompletionStage<T> call(Supplier<CompletionStage<T>> call) {
+      CompletionStage<T> started;
+      try {
+        started = call.get();
+      } catch (RuntimeException e) {
+        started = CompletableFuture.failedFuture(e);
+      }
+      return track(started);
+    }
+
+    // Counts the call as concurrent until it completes
+    public <T> CompletionStage<T> track(CompletionStage<T> call) {
+      maxConcurrentCalls.accumulateAndGet(concurrentCalls.incrementAndGet(), Math::max);
+      return call.whenComplete((result, error) -> {
+        concurrentCalls.decrementAndGet();
+        if (error == null) {
+          callsCompleted.increment();
+        } else {
+          callsFailed.increment();
+        }
+      });
+    }
+
+    public Metrics metrics() {
+      var now = System.currentTimeMillis() / 1000;
+      var windowEvents = 0L;
+      for (int slot = 0; slot < seconds.length(); slot++) {
+        var second = seconds.get(slot);
+        if (second < now && second >= now - WINDOW_SECONDS) { // Complete seconds only
+          windowEvents += counts.get(slot);
+        }
+      }
+      return new Metrics(
+          consumerId,
+          events.sum(),
+          (double) windowEvents / WINDOW_SECONDS,
+          peakEventsPerSecond.get(),
+          concurrentCalls.get(),
+          maxConcurrentCalls.get(),
+          callsCompleted.sum(),
+          callsFailed.sum(),
+          lagMs.get(),
+          maxLagMs.get());
+    }
+  }
+
+  public record Metrics(
+      String consumerId,
+      long events,
+      double eventsPerSecond,
+      long peakEventsPerSecond,
+      long concurrentCalls,
+      long maxConcurrentCalls,
+      long callsCompleted,
+      long callsFailed,
+      long lagMs,
+      long maxLagMs) {}
+}
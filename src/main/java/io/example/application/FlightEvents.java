@@ -0,0 +1,223 @@
+package io.example.application;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import io.example.domain.GridCell;
+import io.example.domain.Predator;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the grid cell domain, so a recording under load shows entity commands, view updates,
+ * consumer calls and predator decisions next to the Akka internals, in the {@code Grid Cell} category.
+ * <p>
+ * Each event is created and begun where its work starts and committed where it ends. The entity command and consumer
+ * call events are held by the reply and completion callbacks, so they escape and would be allocated for every command
+ * and call. Those are only created when their {@link EventType} is enabled in a running recording, otherwise
+ * {@code start} returns a shared event whose {@code commit} does nothing. The fields are only set when
+ * {@link Event#shouldCommit()} holds. Stack traces are off, the events are frequent.
+ */
+public final class FlightEvents {
+
+  private FlightEvents() {}
+
+  @Name("io.example.EntityCommand")
+  @Label("Grid Cell Entity Command")
+  @Category({ "Grid Cell", "Entity" })
+  @Description("A grid cell entity command from its handler to its events persisted, a command whose persist fails is not recorded")
+  @StackTrace(false)
+  public static class EntityCommand extends Event {
+    @Label("Entity Id")
+    String entityId;
+
+    @Label("Command")
+    String command;
+
+    @Label("Events Persisted")
+    int eventsPersisted;
+
+    @Label("Event Types")
+    String eventTypes;
+
+    @Label("Region")
+    String region;
+
+    private static final EventType type = EventType.getEventType(EntityCommand.class);
+    private static final EntityCommand disabled = new EntityCommand();
+
+    public static EntityCommand start(String entityId) {
+      if (!type.isEnabled()) {
+        return disabled;
+      }
+      var event = new EntityCommand();
+      event.entityId = entityId;
+      event.begin();
+      return event;
+    }
+
+    public void commit(GridCell.Command command, List<GridCell.Event> events, String region) {
+      if (this == disabled) {
+        return;
+      }
+      end();
+      if (shouldCommit()) {
+        this.command = command.getClass().getSimpleName();
+        this.eventsPersisted = events.size();
+        this.eventTypes = String.join(",", events.stream().map(e -> e.getClass().getSimpleName()).toList());
+        this.region = region;
+        commit();
+      }
+    }
+  }
+
+  @Name("io.example.ViewUpdate")
+  @Label("Grid Cell View Update")
+  @Category({ "Grid Cell", "View" })
+  @Description("A grid cell view row update, elapsedMs from the cell update in its origin region to the row")
+  @StackTrace(false)
+  public static class ViewUpdate extends Event {
+    @Label("Cell Id")
+    String cellId;
+
+    @Label("Status")
+    String status;
+
+    @Label("Elapsed ms")
+    @Description("View row time minus the cell's update time, clocks of two regions for a replicated update")
+    int elapsedMs;
+
+    @Label("Origin Region")
+    String originRegion;
+
+    @Label("View Region")
+    String viewRegion;
+
+    @Label("Trace Id")
+    String traceId;
+
+    public static ViewUpdate start() {
+      var event = new ViewUpdate();
+      event.begin();
+      return event;
+    }
+
+    public void commit(GridCellView.GridCellRow row) {
+      end();
+      if (shouldCommit()) {
+        this.cellId = row.id();
+        this.status = row.status();
+        this.elapsedMs = row.elapsedMs();
+        this.originRegion = row.updated();
+        this.viewRegion = row.view();
+        this.traceId = row.traceId();
+        commit();
+      }
+    }
+  }
+
+  @Name("io.example.ConsumerCall")
+  @Label("Grid Cell Consumer Call")
+  @Category({ "Grid Cell", "Consumer" })
+  @Description("The entity call a consumer starts for one event, from the event to the call's completion, a predator move includes its view queries for the next cell")
+  @StackTrace(false)
+  public static class ConsumerCall extends Event {
+    @Label("Consumer Id")
+    String consumerId;
+
+    @Label("Event Type")
+    String eventType;
+
+    @Label("Cell Id")
+    String cellId;
+
+    @Label("Failed")
+    boolean failed;
+
+    private static final EventType type = EventType.getEventType(ConsumerCall.class);
+    private static final ConsumerCall disabled = new ConsumerCall();
+
+    public static ConsumerCall start(String consumerId) {
+      if (!type.isEnabled()) {
+        return disabled;
+      }
+      var event = new ConsumerCall();
+      event.consumerId = consumerId;
+      event.begin();
+      return event;
+    }
+
+    // Called when the call completes, on the thread that completes it
+    public void commit(GridCell.Event event, String cellId, Throwable error) {
+      if (this == disabled) {
+        return;
+      }
+      end();
+      if (shouldCommit()) {
+        this.eventType = event.getClass().getSimpleName();
+        this.cellId = cellId;
+        this.failed = error != null;
+        commit();
+      }
+    }
+  }
+
+  @Name("io.example.PredatorDecision")
+  @Label("Predator Decision")
+  @Category({ "Grid Cell", "Predator" })
+  @Description("A predator's choice of its next cell and the time it took to compute")
+  @StackTrace(false)
+  public static class PredatorDecision extends Event {
+    @Label("Predator Cell Id")
+    String predatorCellId;
+
+    @Label("Engine")
+    @Description("reference, kernel, scent, or scent-cold when the scent engine decided without the scent field")
+    String engine;
+
+    @Label("Range")
+    int range;
+
+    @Label("Cells Scanned")
+    @Description("View rows the decision was computed from")
+    int cellsScanned;
+
+    @Label("Found By")
+    @Description("short, long or none, the range search that found the next cell")
+    String foundBy;
+
+    @Label("Next Cell Id")
+    String nextCellId;
+
+    public static PredatorDecision start() {
+      var event = new PredatorDecision();
+      event.begin();
+      return event;
+    }
+
+    // Times the decision and records it, the predator's next cell
+    public static String nextGridCellId(String predatorCellId, int range, Supplier<Predator.Decision> decide) {
+      var event = start();
+      return event.commit(predatorCellId, range, decide.get());
+    }
+
+    public String commit(String predatorCellId, int range, Predator.Decision decision) {
+      end();
+      if (shouldCommit()) {
+        this.predatorCellId = predatorCellId;
+        this.engine = decision.engine();
+        this.range = range;
+        this.cellsScanned = decision.cellsScanned();
+        this.foundBy = decision.foundBy();
+        this.nextCellId = decision.nextGridCellId();
+        commit();
+      }
+      return decision.nextGridCellId();
+    }
+  }
+}
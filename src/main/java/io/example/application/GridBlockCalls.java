@@ -0,0 +1,35 @@
+package io.example.application;
+
+import java.util.concurrent.CompletionStage;
+
+import akka.Done;
+import akka.javasdk.client.ComponentClient;
+import io.example.domain.GridBlock;
+
+/**
+ * The {@link GridBlockEntity} and {@link GridBlockView} methods called through {@link ComponentCalls}, labelled here
+ * once, so a call site names only the method it calls.
+ */
+public class GridBlockCalls {
+  static final String ENTITY = "GridBlockEntity";
+  static final String VIEW = "GridBlockView";
+  private final ComponentClient componentClient;
+  private final ComponentCalls componentCalls;
+
+  public GridBlockCalls(ComponentClient componentClient, ComponentCalls componentCalls) {
+    this.componentClient = componentClient;
+    this.componentCalls = componentCalls;
+  }
+
+  public CompletionStage<Done> updateTile(String blockId, GridBlock.Command.UpdateTile command) {
+    return componentCalls.call(ENTITY, "updateTile", () -> componentClient.forKeyValueEntity(blockId)
+        .method(GridBlockEntity::updateTile)
+        .invokeAsync(command));
+  }
+
+  public CompletionStage<GridBlockView.GridBlocks> queryGridBlocks(GridBlockView.GridBlocksRequest request) {
+    return componentCalls.call(VIEW, "queryGridBlocks", () -> componentClient.forView()
+        .method(GridBlockView::queryGridBlocks)
+        .invokeAsync(request));
+  }
+}
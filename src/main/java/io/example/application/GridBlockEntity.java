@@ -0,0 +1,46 @@
+package io.example.application;
+
+import static akka.Done.done;
+
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import akka.javasdk.keyvalueentity.KeyValueEntityContext;
+import io.example.domain.CellKey;
+import io.example.domain.GridBlock;
+import io.example.domain.GridTile;
+
+@ComponentId("grid-block-entity")
+public class GridBlockEntity extends KeyValueEntity<GridBlock.State> {
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final String entityId;
+  private final String selfRegion;
+
+  public GridBlockEntity(KeyValueEntityContext context) {
+    this.entityId = context.entityId();
+    this.selfRegion = context.selfRegion().isEmpty() ? "local-development" : context.selfRegion();
+  }
+
+  @Override
+  public GridBlock.State emptyState() {
+    var blockKey = CellKey.fromId(GridTile.idOfEntityId(entityId)); // RxC / YxX of the block
+    return GridBlock.State.empty(GridTile.regionOfEntityId(entityId), blockKey.x(), blockKey.y());
+  }
+
+  public Effect<Done> updateTile(GridBlock.Command.UpdateTile command) {
+    log.info("Region: {}, EntityId: {}\n_State: {}\n_Command: {}", selfRegion, entityId, currentState(), command);
+
+    return effects()
+        .updateState(currentState().onCommand(command, Instant.now()))
+        .thenReply(done());
+  }
+
+  public ReadOnlyEffect<GridBlock.State> get() {
+    return effects().reply(currentState());
+  }
+}
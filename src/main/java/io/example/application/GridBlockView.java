@@ -0,0 +1,71 @@
+package io.example.application;
+
+import java.time.Instant;
+import java.util.List;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.domain.GridBlock;
+
+// One row per GridBlock copy of each region, the 256 x 256 cell blocks of the zoom pyramid with their per tile status
+// counts, queries return the copies of the region asked for
+@ComponentId("grid-block-view")
+public class GridBlockView extends View {
+
+  @Query("""
+      SELECT * as blocks
+        FROM grid_block_view
+        WHERE region = :region
+        AND blockX >= :blockX1 AND blockX <= :blockX2 AND blockY >= :blockY1 AND blockY <= :blockY2
+        AND activeCells > 0
+          """)
+  public QueryEffect<GridBlocks> queryGridBlocks(GridBlocksRequest request) {
+    return queryResult();
+  }
+
+  @Query(value = """
+      SELECT *
+        FROM grid_block_view
+        WHERE region = :region
+        AND blockX >= :blockX1 AND blockX <= :blockX2 AND blockY >= :blockY1 AND blockY <= :blockY2
+          """, streamUpdates = true)
+  public QueryStreamEffect<GridBlockRow> streamGridBlocks(GridBlocksRequest request) {
+    return queryStreamResult();
+  }
+
+  @Consume.FromKeyValueEntity(GridBlockEntity.class)
+  public static class GridBlocksByArea extends TableUpdater<GridBlockRow> {
+
+    public Effect<GridBlockRow> onUpdate(GridBlock.State state) {
+      return effects().updateRow(new GridBlockRow(
+          state.id(),
+          state.region(),
+          state.blockX(),
+          state.blockY(),
+          state.tileCounts(),
+          state.activeCells(),
+          state.updatedAt()));
+    }
+  }
+
+  public record GridBlockRow(
+      String id,
+      String region,
+      int blockX,
+      int blockY,
+      List<Integer> tileCounts,
+      int activeCells,
+      Instant updatedAt) {
+
+    public GridBlock.State toState() {
+      return new GridBlock.State(id, region, blockX, blockY, tileCounts, activeCells, updatedAt);
+    }
+  }
+
+  public record GridBlocks(List<GridBlockRow> blocks) {}
+
+  public record GridBlocksRequest(String region, Integer blockX1, Integer blockY1, Integer blockX2, Integer blockY2) {}
+}
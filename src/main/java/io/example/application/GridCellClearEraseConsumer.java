@@ -0,0 +1,92 @@
+package io.example.application;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.domain.GridCell;
+
+// Clear and erase wave lane, each wave event is forwarded to the neighbor cell it names
+@ComponentId("grid-cell-clear-erase-consumer")
+@Consume.FromEventSourcedEntity(GridCellEntity.class)
+public class GridCellClearEraseConsumer extends Consumer {
+  final Logger log = LoggerFactory.getLogger(getClass());
+  final ConsumerThroughput.Meter meter;
+  final GridCellEntityCalls gridCells;
+  final WaveLaneCutover cutover;
+
+  public GridCellClearEraseConsumer(ComponentClient componentClient, ConsumerThroughput consumerThroughput, ComponentCalls componentCalls, WaveLaneCutover cutover) {
+    this.meter = consumerThroughput.meter("grid-cell-clear-erase-consumer");
+    this.gridCells = new GridCellEntityCalls(componentClient, componentCalls);
+    this.cutover = cutover;
+  }
+
+  public Effect onEvent(GridCell.Event event) {
+    if (!(event instanceof GridCell.Event.ClearToNeighbor || event instanceof GridCell.Event.EraseToNeighbor)) {
+      return effects().ignore();
+    }
+
+    if (!messageContext().hasLocalOrigin()) {
+      log.info("Ignore event: {}\n_HasLocalOrigin: {}, OriginRegion: {}, SelfRegion: {}",
+          event,
+          messageContext().hasLocalOrigin(),
+          messageContext().originRegion(),
+          messageContext().selfRegion());
+      return effects().ignore();
+    }
+
+    // Forwarded by grid-cell-to-grid-cell-consumer when stamped before the lane cutover, or when there is none
+    var eventTime = eventTime();
+    if (!cutover.lanesHandle(eventTime)) {
+      log.debug("Ignore event before lane cutover {}: {}", cutover.cutover().map(Object::toString).orElse("(none)"), event);
+      return effects().ignore();
+    }
+
+    meter.event();
+    meter.lag(eventTime);
+
+    return switch (event) {
+      case GridCell.Event.ClearToNeighbor e -> onEvent(e);
+      case GridCell.Event.EraseToNeighbor e -> onEvent(e);
+      default -> effects().ignore();
+    };
+  }
+
+  Effect onEvent(GridCell.Event.ClearToNeighbor event) {
+    log.info("Region: {}, Event: {}", region(), event);
+
+    var flight = FlightEvents.ConsumerCall.start(meter.consumerId());
+    var command = new GridCell.Command.ClearStatus(
+        event.id(),
+        event.status());
+    var cleared = meter.call(() -> gridCells.updateClearStatus(command));
+
+    return effects().asyncDone(cleared.whenComplete((done, error) -> flight.commit(event, event.id(), error)));
+  }
+
+  Effect onEvent(GridCell.Event.EraseToNeighbor event) {
+    log.info("Region: {}, Event: {}", region(), event);
+
+    var flight = FlightEvents.ConsumerCall.start(meter.consumerId());
+    var command = new GridCell.Command.EraseStatus(event.id());
+    var erased = meter.call(() -> gridCells.updateEraseStatus(command));
+
+    return effects().asyncDone(erased.whenComplete((done, error) -> flight.commit(event, event.id(), error)));
+  }
+
+  Optional<Instant> eventTime() {
+    return messageContext().metadata().asCloudEvent().time().map(ZonedDateTime::toInstant);
+  }
+
+  String region() {
+    var region = messageContext().selfRegion();
+    return region.isEmpty() ? "local-development" : region;
+  }
+}
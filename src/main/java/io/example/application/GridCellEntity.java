@@ -2,6 +2,8 @@ package io.example.application;
 
 import static akka.Done.done;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,65 +32,71 @@ public class GridCellEntity extends EventSourcedEntity<GridCell.State, GridCell.
   public Effect<Done> updateStatus(GridCell.Command.UpdateStatus command) {
     log.info("Region: {}, EntityId: {}\n_State: {}\n_Command: {}", selfRegion, entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command.withRegion(selfRegion)).stream().toList())
-        .thenReply(newState -> done());
+    var flight = FlightEvents.EntityCommand.start(entityId);
+    return persist(flight, command, currentState().onCommand(command.withRegion(selfRegion)).stream().toList());
   }
 
   public Effect<Done> createPredator(GridCell.Command.CreatePredator command) {
     log.info("Region: {}, EntityId: {}\n_State: {}\n_Command: {}", selfRegion, entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command.withRegion(selfRegion)).stream().toList())
-        .thenReply(newState -> done());
+    var flight = FlightEvents.EntityCommand.start(entityId);
+    return persist(flight, command, currentState().onCommand(command.withRegion(selfRegion)).stream().toList());
   }
 
   public Effect<Done> movePredator(GridCell.Command.MovePredator command) {
     log.info("Region: {}, EntityId: {}\n_State: {}\n_Command: {}", selfRegion, entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command.withRegion(selfRegion)).stream().toList())
-        .thenReply(newState -> done());
+    var flight = FlightEvents.EntityCommand.start(entityId);
+    return persist(flight, command, currentState().onCommand(command.withRegion(selfRegion)).stream().toList());
   }
 
   public Effect<Done> updatePredator(GridCell.Command.UpdatePredator command) {
     log.info("Region: {}, EntityId: {}\n_State: {}\n_Command: {}", selfRegion, entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command.withRegion(selfRegion)).stream().toList())
-        .thenReply(newState -> done());
+    var flight = FlightEvents.EntityCommand.start(entityId);
+    return persist(flight, command, currentState().onCommand(command.withRegion(selfRegion)).stream().toList());
   }
 
   public Effect<Done> updateSpanStatus(GridCell.Command.SpanStatus command) {
     log.info("Region: {}, EntityId: {}\n_State: {}\n_Command: {}", selfRegion, entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command.withRegion(selfRegion)).stream().toList())
-        .thenReply(newState -> done());
+    var flight = FlightEvents.EntityCommand.start(entityId);
+    return persist(flight, command, currentState().onCommand(command.withRegion(selfRegion)).stream().toList());
   }
 
   public Effect<Done> updateFillStatus(GridCell.Command.FillStatus command) {
     log.info("Region: {}, EntityId: {}\n_State: {}\n_Command: {}", selfRegion, entityId, currentState(), command);
 
+    var flight = FlightEvents.EntityCommand.start(entityId);
+    return persist(flight, command, currentState().onCommand(command.withRegion(selfRegion)).stream().toList());
+  }
+
+  // Replies with the number of events persisted, 0 when the cell no longer matches the fill or span rule
+  public Effect<Integer> updateFloodStatus(GridCell.Command.FloodStatus command) {
+    log.info("Region: {}, EntityId: {}\n_State: {}\n_Command: {}", selfRegion, entityId, currentState(), command);
+
+    var flight = FlightEvents.EntityCommand.start(entityId);
+    var events = currentState().onCommand(command.withRegion(selfRegion)).stream().toList();
     return effects()
-        .persistAll(currentState().onCommand(command.withRegion(selfRegion)).stream().toList())
-        .thenReply(newState -> done());
+        .persistAll(events)
+        .thenReply(newState -> {
+          flight.commit(command, events, selfRegion);
+          return events.size();
+        });
   }
 
   public Effect<Done> updateClearStatus(GridCell.Command.ClearStatus command) {
     log.info("Region: {}, EntityId: {}\n_State: {}\n_Command: {}", selfRegion, entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command.withRegion(selfRegion)).stream().toList())
-        .thenReply(newState -> done());
+    var flight = FlightEvents.EntityCommand.start(entityId);
+    return persist(flight, command, currentState().onCommand(command.withRegion(selfRegion)).stream().toList());
   }
 
   public Effect<Done> updateEraseStatus(GridCell.Command.EraseStatus command) {
     log.info("Region: {}, EntityId: {}\n_State: {}\n_Command: {}", selfRegion, entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command.withRegion(selfRegion)).stream().toList())
-        .thenReply(newState -> done());
+    var flight = FlightEvents.EntityCommand.start(entityId);
+    return persist(flight, command, currentState().onCommand(command.withRegion(selfRegion)).stream().toList());
   }
 
   public ReadOnlyEffect<GridCell.State> get() {
@@ -100,6 +108,16 @@ public class GridCellEntity extends EventSourcedEntity<GridCell.State, GridCell.
     return effects().reply(currentState());
   }
 
+  // The flight event ends once the events are persisted, a failed persist fails the command and is not recorded
+  Effect<Done> persist(FlightEvents.EntityCommand flight, GridCell.Command command, List<GridCell.Event> events) {
+    return effects()
+        .persistAll(events)
+        .thenReply(newState -> {
+          flight.commit(command, events, selfRegion);
+          return done();
+        });
+  }
+
   @Override
   public GridCell.State applyEvent(GridCell.Event event) {
     log.info("Region: {}, EntityId: {}\n_State: {}\n_Event: {}", selfRegion, entityId, currentState(), event);
@@ -0,0 +1,82 @@
+package io.example.application;
+
+import java.util.concurrent.CompletionStage;
+
+import akka.Done;
+import akka.javasdk.client.ComponentClient;
+import io.example.domain.GridCell;
+
+/**
+ * The {@link GridCellEntity} methods called through {@link ComponentCalls}, labelled here once, so a call site names
+ * only the method it calls.
+ */
+public class GridCellEntityCalls {
+  static final String COMPONENT = "GridCellEntity";
+  private final ComponentClient componentClient;
+  private final ComponentCalls componentCalls;
+
+  public GridCellEntityCalls(ComponentClient componentClient, ComponentCalls componentCalls) {
+    this.componentClient = componentClient;
+    this.componentCalls = componentCalls;
+  }
+
+  public CompletionStage<Done> updateStatus(GridCell.Command.UpdateStatus command) {
+    return componentCalls.call(COMPONENT, "updateStatus", () -> componentClient.forEventSourcedEntity(command.id())
+        .method(GridCellEntity::updateStatus)
+        .invokeAsync(command));
+  }
+
+  public CompletionStage<Done> createPredator(GridCell.Command.CreatePredator command) {
+    return componentCalls.call(COMPONENT, "createPredator", () -> componentClient.forEventSourcedEntity(command.id())
+        .method(GridCellEntity::createPredator)
+        .invokeAsync(command));
+  }
+
+  public CompletionStage<Done> movePredator(GridCell.Command.MovePredator command) {
+    return componentCalls.call(COMPONENT, "movePredator", () -> componentClient.forEventSourcedEntity(command.id())
+        .method(GridCellEntity::movePredator)
+        .invokeAsync(command));
+  }
+
+  public CompletionStage<Done> updatePredator(GridCell.Command.UpdatePredator command) {
+    return componentCalls.call(COMPONENT, "updatePredator", () -> componentClient.forEventSourcedEntity(command.id())
+        .method(GridCellEntity::updatePredator)
+        .invokeAsync(command));
+  }
+
+  public CompletionStage<Done> updateSpanStatus(GridCell.Command.SpanStatus command) {
+    return componentCalls.call(COMPONENT, "updateSpanStatus", () -> componentClient.forEventSourcedEntity(command.id())
+        .method(GridCellEntity::updateSpanStatus)
+        .invokeAsync(command));
+  }
+
+  public CompletionStage<Done> updateFillStatus(GridCell.Command.FillStatus command) {
+    return componentCalls.call(COMPONENT, "updateFillStatus", () -> componentClient.forEventSourcedEntity(command.id())
+        .method(GridCellEntity::updateFillStatus)
+        .invokeAsync(command));
+  }
+
+  public CompletionStage<Integer> updateFloodStatus(GridCell.Command.FloodStatus command) {
+    return componentCalls.call(COMPONENT, "updateFloodStatus", () -> componentClient.forEventSourcedEntity(command.id())
+        .method(GridCellEntity::updateFloodStatus)
+        .invokeAsync(command));
+  }
+
+  public CompletionStage<Done> updateClearStatus(GridCell.Command.ClearStatus command) {
+    return componentCalls.call(COMPONENT, "updateClearStatus", () -> componentClient.forEventSourcedEntity(command.id())
+        .method(GridCellEntity::updateClearStatus)
+        .invokeAsync(command));
+  }
+
+  public CompletionStage<Done> updateEraseStatus(GridCell.Command.EraseStatus command) {
+    return componentCalls.call(COMPONENT, "updateEraseStatus", () -> componentClient.forEventSourcedEntity(command.id())
+        .method(GridCellEntity::updateEraseStatus)
+        .invokeAsync(command));
+  }
+
+  public CompletionStage<GridCell.State> get(String id) {
+    return componentCalls.call(COMPONENT, "get", () -> componentClient.forEventSourcedEntity(id)
+        .method(GridCellEntity::get)
+        .invokeAsync());
+  }
+}
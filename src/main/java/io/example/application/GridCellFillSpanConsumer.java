@@ -0,0 +1,117 @@
+package io.example.application;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.domain.GridCell;
+
+// Fill and span wave lane, each wave event is forwarded to the neighbor cell it names
+@ComponentId("grid-cell-fill-span-consumer")
+@Consume.FromEventSourcedEntity(GridCellEntity.class)
+public class GridCellFillSpanConsumer extends Consumer {
+  final Logger log = LoggerFactory.getLogger(getClass());
+  final ConsumerThroughput.Meter meter;
+  final GridCellEntityCalls gridCells;
+  final WaveLaneCutover cutover;
+
+  public GridCellFillSpanConsumer(ComponentClient componentClient, ConsumerThroughput consumerThroughput, ComponentCalls componentCalls, WaveLaneCutover cutover) {
+    this.meter = consumerThroughput.meter("grid-cell-fill-span-consumer");
+    this.gridCells = new GridCellEntityCalls(componentClient, componentCalls);
+    this.cutover = cutover;
+  }
+
+  public Effect onEvent(GridCell.Event event) {
+    if (!(event instanceof GridCell.Event.SpanToNeighbor || event instanceof GridCell.Event.FillToNeighbor)) {
+      return effects().ignore();
+    }
+
+    if (!messageContext().hasLocalOrigin()) {
+      log.info("Ignore event: {}\n_HasLocalOrigin: {}, OriginRegion: {}, SelfRegion: {}",
+          event,
+          messageContext().hasLocalOrigin(),
+          messageContext().originRegion(),
+          messageContext().selfRegion());
+      return effects().ignore();
+    }
+
+    // Forwarded by grid-cell-to-grid-cell-consumer when stamped before the lane cutover, or when there is none
+    var eventTime = eventTime();
+    if (!cutover.lanesHandle(eventTime)) {
+      log.debug("Ignore event before lane cutover {}: {}", cutover.cutover().map(Object::toString).orElse("(none)"), event);
+      return effects().ignore();
+    }
+
+    meter.event();
+    meter.lag(eventTime);
+
+    return switch (event) {
+      case GridCell.Event.SpanToNeighbor e -> onEvent(e);
+      case GridCell.Event.FillToNeighbor e -> onEvent(e);
+      default -> effects().ignore();
+    };
+  }
+
+  Effect onEvent(GridCell.Event.SpanToNeighbor event) {
+    log.info("Region: {}, Event: {}", region(), event);
+
+    var flight = FlightEvents.ConsumerCall.start(meter.consumerId());
+    var command = spanStatus(event, region());
+    var spanned = meter.call(() -> gridCells.updateSpanStatus(command));
+
+    return effects().asyncDone(spanned.whenComplete((done, error) -> flight.commit(event, event.id(), error)));
+  }
+
+  Effect onEvent(GridCell.Event.FillToNeighbor event) {
+    log.info("Region: {}, Event: {}", region(), event);
+
+    var flight = FlightEvents.ConsumerCall.start(meter.consumerId());
+    var command = fillStatus(event, region());
+    var filled = meter.call(() -> gridCells.updateFillStatus(command));
+
+    return effects().asyncDone(filled.whenComplete((done, error) -> flight.commit(event, event.id(), error)));
+  }
+
+  // The commands a wave event sends to the neighbor it names, also used by grid-cell-to-grid-cell-consumer before the cutover
+  static GridCell.Command.SpanStatus spanStatus(GridCell.Event.SpanToNeighbor event, String region) {
+    return new GridCell.Command.SpanStatus(
+        event.id(),
+        event.status(),
+        event.clientAt(),
+        event.endpointAt(),
+        event.centerX(),
+        event.centerY(),
+        event.radius(),
+        region,
+        event.traceId());
+  }
+
+  static GridCell.Command.FillStatus fillStatus(GridCell.Event.FillToNeighbor event, String region) {
+    return new GridCell.Command.FillStatus(
+        event.id(),
+        event.status(),
+        event.clientAt(),
+        event.endpointAt(),
+        event.centerX(),
+        event.centerY(),
+        event.radius(),
+        region,
+        event.traceId());
+  }
+
+  Optional<Instant> eventTime() {
+    return messageContext().metadata().asCloudEvent().time().map(ZonedDateTime::toInstant);
+  }
+
+  String region() {
+    var region = messageContext().selfRegion();
+    return region.isEmpty() ? "local-development" : region;
+  }
+}
@@ -1,32 +1,54 @@
 package io.example.application;
 
+import java.time.Instant;
+import java.time.ZonedDateTime;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.function.Supplier;
-
 import akka.javasdk.annotations.ComponentId;
 import akka.javasdk.annotations.Consume;
 import akka.javasdk.client.ComponentClient;
 import akka.javasdk.consumer.Consumer;
 import io.example.application.GridCellView.GridCellRow;
+import io.example.domain.CellKey;
 import io.example.domain.GridCell;
 import io.example.domain.Predator;
+import io.example.domain.ScentField;
 
+// Predator lane, keeps the original consumer id so its offsets carry over, fill/span and clear/erase waves have their own
+// lanes, GridCellFillSpanConsumer and GridCellClearEraseConsumer, so a predator swarm does not hold up user driven waves.
+// Wave events stamped before the lane cutover, or all of them without one, are still forwarded here, see WaveLaneCutover
 @ComponentId("grid-cell-to-grid-cell-consumer")
 @Consume.FromEventSourcedEntity(GridCellEntity.class)
 public class GridCellToGridCellConsumer extends Consumer {
   final Logger log = LoggerFactory.getLogger(getClass());
-  final ComponentClient componentClient;
-
-  public GridCellToGridCellConsumer(ComponentClient componentClient) {
-    this.componentClient = componentClient;
+  final ActiveCellIndex activeCellIndex;
+  final ConsumerThroughput.Meter meter;
+  final GridCellEntityCalls gridCells;
+  final GridCellViewCalls gridCellView;
+  final WaveLaneCutover cutover;
+
+  public GridCellToGridCellConsumer(ComponentClient componentClient, ActiveCellIndex activeCellIndex, ConsumerThroughput consumerThroughput, ComponentCalls componentCalls,
+      WaveLaneCutover cutover) {
+    this.activeCellIndex = activeCellIndex;
+    this.meter = consumerThroughput.meter("grid-cell-to-grid-cell-consumer");
+    this.gridCells = new GridCellEntityCalls(componentClient, componentCalls);
+    this.gridCellView = new GridCellViewCalls(componentClient, componentCalls);
+    this.cutover = cutover;
   }
 
+  // Each handler starts its calls without blocking a thread, asyncDone holds the slice's next event until they complete
   public Effect onEvent(GridCell.Event event) {
+    // Keep the active cell index current with updates from all regions, this is what the local view sees
+    if (event instanceof GridCell.Event.StatusUpdated e) {
+      activeCellIndex.onStatusUpdated(e.id(), e.status());
+    }
+
     if (!messageContext().hasLocalOrigin()) {
       log.info("Ignore event: {}\n_HasLocalOrigin: {}, OriginRegion: {}, SelfRegion: {}",
           event,
@@ -36,117 +58,94 @@ public class GridCellToGridCellConsumer extends Consumer {
       return effects().ignore();
     }
 
+    var eventTime = eventTime();
+    var isWave = event instanceof GridCell.Event.SpanToNeighbor || event instanceof GridCell.Event.FillToNeighbor
+        || event instanceof GridCell.Event.ClearToNeighbor || event instanceof GridCell.Event.EraseToNeighbor;
+    if (isWave && cutover.lanesHandle(eventTime)) {
+      return effects().ignore();
+    }
+    if (!isWave && !(event instanceof GridCell.Event.PredatorMoved || event instanceof GridCell.Event.PredatorUpdated)) {
+      return effects().ignore();
+    }
+
+    meter.event();
+    meter.lag(eventTime);
+
     return switch (event) {
       case GridCell.Event.PredatorMoved e -> onEvent(e);
       case GridCell.Event.PredatorUpdated e -> onEvent(e);
-      case GridCell.Event.SpanToNeighbor e -> onEvent(e);
-      case GridCell.Event.FillToNeighbor e -> onEvent(e);
-      case GridCell.Event.ClearToNeighbor e -> onEvent(e);
-      case GridCell.Event.EraseToNeighbor e -> onEvent(e);
-      default -> effects().ignore();
+      default -> onWaveEvent(event);
     };
   }
 
-  Effect onEvent(GridCell.Event.PredatorMoved event) {
-    log.info("Region: {}, Event: {}", region(), event);
-
-    var gridCellsInRange = queryGridCellsInRange(event.id(), event.range());
-    var nextGridCellId = Predator.nextGridCellId(event.id(), gridCellsInRange, event.range());
-
-    var command = new GridCell.Command.MovePredator(
-        event.id(),
-        event.predatorId(),
-        event.status(),
-        event.clientAt(),
-        event.endpointAt(),
-        event.range(),
-        nextGridCellId,
-        event.tail(),
-        region());
-    componentClient.forEventSourcedEntity(event.id())
-        .method(GridCellEntity::movePredator)
-        .invoke(command);
-
-    return effects().done();
-  }
-
-  Effect onEvent(GridCell.Event.PredatorUpdated event) {
+  // A wave event stamped before the lane cutover, sent to its neighbor as the wave lane would
+  Effect onWaveEvent(GridCell.Event event) {
     log.info("Region: {}, Event: {}", region(), event);
 
-    var command = new GridCell.Command.UpdatePredator(
-        event.id(),
-        event.predatorId(),
-        event.status(),
-        event.clientAt(),
-        event.endpointAt(),
-        region());
-    componentClient.forEventSourcedEntity(event.id())
-        .method(GridCellEntity::updatePredator)
-        .invoke(command);
-
-    return effects().done();
+    var flight = FlightEvents.ConsumerCall.start(meter.consumerId());
+    var region = region();
+    var id = switch (event) {
+      case GridCell.Event.SpanToNeighbor e -> e.id();
+      case GridCell.Event.FillToNeighbor e -> e.id();
+      case GridCell.Event.ClearToNeighbor e -> e.id();
+      case GridCell.Event.EraseToNeighbor e -> e.id();
+      default -> throw new IllegalArgumentException("Not a wave event: " + event);
+    };
+    var forwarded = meter.call(() -> switch (event) {
+      case GridCell.Event.SpanToNeighbor e -> gridCells.updateSpanStatus(GridCellFillSpanConsumer.spanStatus(e, region));
+      case GridCell.Event.FillToNeighbor e -> gridCells.updateFillStatus(GridCellFillSpanConsumer.fillStatus(e, region));
+      case GridCell.Event.ClearToNeighbor e -> gridCells.updateClearStatus(new GridCell.Command.ClearStatus(e.id(), e.status()));
+      case GridCell.Event.EraseToNeighbor e -> gridCells.updateEraseStatus(new GridCell.Command.EraseStatus(e.id()));
+      default -> throw new IllegalArgumentException("Not a wave event: " + event);
+    });
+
+    return effects().asyncDone(forwarded.whenComplete((done, error) -> flight.commit(event, id, error)));
   }
 
-  Effect onEvent(GridCell.Event.SpanToNeighbor event) {
+  Effect onEvent(GridCell.Event.PredatorMoved event) {
     log.info("Region: {}, Event: {}", region(), event);
 
-    var command = new GridCell.Command.SpanStatus(
-        event.id(),
-        event.status(),
-        event.clientAt(),
-        event.endpointAt(),
-        event.centerX(),
-        event.centerY(),
-        event.radius(),
-        region());
-    componentClient.forEventSourcedEntity(event.id())
-        .method(GridCellEntity::updateSpanStatus)
-        .invoke(command);
-
-    return effects().done();
+    var flight = FlightEvents.ConsumerCall.start(meter.consumerId());
+    activeCellIndex.recordPredatorMove();
+    var region = region();
+    var moved = nextGridCellId(event.id(), event.range())
+        .thenCompose(nextGridCellId -> {
+          var command = new GridCell.Command.MovePredator(
+              event.id(),
+              event.predatorId(),
+              event.status(),
+              event.clientAt(),
+              event.endpointAt(),
+              event.range(),
+              nextGridCellId,
+              event.tail(),
+              region,
+              event.traceId());
+          return meter.call(() -> gridCells.movePredator(command));
+        });
+
+    return effects().asyncDone(moved.whenComplete((done, error) -> flight.commit(event, event.id(), error)));
   }
 
-  Effect onEvent(GridCell.Event.FillToNeighbor event) {
+  Effect onEvent(GridCell.Event.PredatorUpdated event) {
     log.info("Region: {}, Event: {}", region(), event);
 
-    var command = new GridCell.Command.FillStatus(
+    var flight = FlightEvents.ConsumerCall.start(meter.consumerId());
+    var command = new GridCell.Command.UpdatePredator(
         event.id(),
+        event.predatorId(),
         event.status(),
         event.clientAt(),
         event.endpointAt(),
-        event.centerX(),
-        event.centerY(),
-        event.radius(),
-        region());
-    componentClient.forEventSourcedEntity(event.id())
-        .method(GridCellEntity::updateFillStatus)
-        .invoke(command);
-
-    return effects().done();
-  }
-
-  Effect onEvent(GridCell.Event.ClearToNeighbor event) {
-    log.info("Region: {}, Event: {}", region(), event);
-
-    var command = new GridCell.Command.ClearStatus(
-        event.id(),
-        event.status());
-    componentClient.forEventSourcedEntity(event.id())
-        .method(GridCellEntity::updateClearStatus)
-        .invoke(command);
+        region(),
+        event.traceId());
+    var updated = meter.call(() -> gridCells.updatePredator(command));
 
-    return effects().done();
+    return effects().asyncDone(updated.whenComplete((done, error) -> flight.commit(event, event.id(), error)));
   }
 
-  Effect onEvent(GridCell.Event.EraseToNeighbor event) {
-    log.info("Region: {}, Event: {}", region(), event);
-
-    var command = new GridCell.Command.EraseStatus(event.id());
-    componentClient.forEventSourcedEntity(event.id())
-        .method(GridCellEntity::updateEraseStatus)
-        .invoke(command);
-
-    return effects().done();
+  Optional<Instant> eventTime() {
+    return messageContext().metadata().asCloudEvent().time().map(ZonedDateTime::toInstant);
   }
 
   String region() {
@@ -154,61 +153,60 @@ public class GridCellToGridCellConsumer extends Consumer {
     return region.isEmpty() ? "local-development" : region;
   }
 
-  List<GridCellRow> queryGridCellsInRange(String id, int range) {
-    var s = id.split("x"); // RxC, YxX
-    var x = Integer.parseInt(s[1]);
-    var y = Integer.parseInt(s[0]);
+  CompletionStage<String> nextGridCellId(String id, int range) {
+    if (Predator.engine() == Predator.Engine.scent) {
+      var cellKey = CellKey.fromId(id); // RxC, YxX
+      var x = cellKey.x();
+      var y = cellKey.y();
+
+      // Prey beyond the scent reach has no influence, when that area is in the index the long range is a scent lookup
+      var reach = ScentField.reach(range);
+      return activeCellIndex.warmAsync(x - reach, y - reach, x + reach, y + reach, this::queryGridCellsInRange)
+          .thenCompose(warm -> {
+            if (!warm) {
+              return queryGridCellsInRange(id, range)
+                  .thenApply(gridCellsInRange -> FlightEvents.PredatorDecision.nextGridCellId(id, range, () -> Predator.decide(id, gridCellsInRange, range)));
+            }
+            var shortRange = Math.min(range, Predator.shortRange);
+            return queryActiveGridCells(x - shortRange, y - shortRange, x + shortRange, y + shortRange)
+                .thenApply(cells -> FlightEvents.PredatorDecision.nextGridCellId(id, range,
+                    () -> Predator.decide(id, withoutPredators(cells), activeCellIndex.scentField(), range)));
+          });
+    }
+
+    return queryGridCellsInRange(id, range)
+        .thenApply(gridCellsInRange -> FlightEvents.PredatorDecision.nextGridCellId(id, range, () -> Predator.decide(id, gridCellsInRange, range)));
+  }
+
+  CompletionStage<List<GridCellRow>> queryGridCellsInRange(String id, int range) {
+    var cellKey = CellKey.fromId(id); // RxC, YxX
+    var x = cellKey.x();
+    var y = cellKey.y();
 
     // Try a short range query first for nearby grid cells
     if (range > 32) {
       var shortRange = 24;
-      var x1 = x - shortRange;
-      var y1 = y - shortRange;
-      var x2 = x + shortRange;
-      var y2 = y + shortRange;
-      var gridCellsInRange = queryGridCellsInRange(x1, y1, x2, y2, "").stream()
-          .filter(cell -> !cell.status().equals("predator"))
-          .toList();
-
-      if (!gridCellsInRange.isEmpty()) {
-        return gridCellsInRange;
-      }
+      return queryActiveGridCells(x - shortRange, y - shortRange, x + shortRange, y + shortRange)
+          .thenCompose(gridCellsInRange -> gridCellsInRange.isEmpty()
+              ? queryActiveGridCells(x - range, y - range, x + range, y + range)
+              : CompletableFuture.completedFuture(gridCellsInRange));
     }
 
-    var x1 = x - range;
-    var y1 = y - range;
-    var x2 = x + range;
-    var y2 = y + range;
-    var gridCellsInRange = queryGridCellsInRange(x1, y1, x2, y2, "").stream()
-        .filter(cell -> !cell.status().equals("predator"))
-        .toList();
+    return queryActiveGridCells(x - range, y - range, x + range, y + range);
+  }
 
-    return gridCellsInRange;
+  CompletionStage<List<GridCellRow>> queryActiveGridCells(int x1, int y1, int x2, int y2) {
+    return activeCellIndex.activeCellsAsync(x1, y1, x2, y2, this::queryGridCellsInRange)
+        .thenApply(GridCellToGridCellConsumer::withoutPredators);
   }
 
-  List<GridCellRow> queryGridCellsInRange(int x1, int y1, int x2, int y2, String pageTokenOffset) {
-    return Stream.generate(new Supplier<GridCellView.PagedGridCells>() {
-      String currentPageToken = pageTokenOffset;
-      boolean hasMore = true;
-
-      @Override
-      public GridCellView.PagedGridCells get() {
-        if (!hasMore) {
-          return null;
-        }
-
-        var pagedGridCells = componentClient.forView()
-            .method(GridCellView::queryActiveGridCells)
-            .invoke(new GridCellView.PagedGridCellsRequest(x1, y1, x2, y2, currentPageToken));
-
-        currentPageToken = pagedGridCells.nextPageToken();
-        hasMore = pagedGridCells.hasMore();
-
-        return pagedGridCells;
-      }
-    })
-        .takeWhile(pagedGridCells -> pagedGridCells != null)
-        .flatMap(pagedGridCells -> pagedGridCells.gridCells().stream())
+  CompletionStage<List<GridCellRow>> queryGridCellsInRange(int x1, int y1, int x2, int y2) {
+    return ActiveGridCells.queryAsync(gridCellView, x1, y1, x2, y2);
+  }
+
+  static List<GridCellRow> withoutPredators(List<GridCellRow> gridCells) {
+    return gridCells.stream()
+        .filter(cell -> !cell.status().equals("predator"))
         .toList();
   }
 }
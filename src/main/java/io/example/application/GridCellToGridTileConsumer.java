@@ -0,0 +1,53 @@
+package io.example.application;
+
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.domain.GridCell;
+import io.example.domain.GridTile;
+
+// Folds each cell status update, local and replicated, into this region's copy of the tile that holds the cell, so no
+// two regions write the same tile. Batched per tile by GridTileBatcher so a wave writes a tile once per batch window,
+// an event is acknowledged once the batch holding its cell is written.
+// A new consumer id from grid-cell-to-grid-tile-consumer, whose tiles were written by the update's origin region only,
+// so the region copies are built from the start of the journal
+@ComponentId("grid-cell-to-region-tile-consumer")
+@Consume.FromEventSourcedEntity(GridCellEntity.class)
+public class GridCellToGridTileConsumer extends Consumer {
+  final Logger log = LoggerFactory.getLogger(getClass());
+  final ConsumerThroughput.Meter meter;
+  final GridTileCalls gridTiles;
+  final GridTileBatcher gridTileBatcher;
+
+  public GridCellToGridTileConsumer(ComponentClient componentClient, ConsumerThroughput consumerThroughput, ComponentCalls componentCalls,
+      GridTileBatcher gridTileBatcher) {
+    this.meter = consumerThroughput.meter("grid-cell-to-region-tile-consumer");
+    this.gridTiles = new GridTileCalls(componentClient, componentCalls);
+    this.gridTileBatcher = gridTileBatcher;
+  }
+
+  public Effect onEvent(GridCell.Event event) {
+    if (!(event instanceof GridCell.Event.StatusUpdated statusUpdated)) {
+      return effects().ignore();
+    }
+
+    meter.event();
+    var region = region();
+    var command = new GridTile.Command.UpdateCell(statusUpdated.id(), statusUpdated.status(), statusUpdated.updatedAt(), Instant.now());
+    var updated = meter.call(() -> gridTileBatcher.update(command,
+        (tileId, cells) -> gridTiles.updateCells(GridTile.entityId(region, tileId), cells)));
+
+    return effects().asyncDone(updated);
+  }
+
+  String region() {
+    var region = messageContext().selfRegion();
+    return region.isEmpty() ? "local-development" : region;
+  }
+}
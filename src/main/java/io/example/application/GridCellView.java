@@ -12,6 +12,7 @@ import akka.javasdk.annotations.Query;
 import akka.javasdk.view.TableUpdater;
 import akka.javasdk.view.UpdateContext;
 import akka.javasdk.view.View;
+import io.example.domain.CellKey;
 import io.example.domain.GridCell;
 
 @ComponentId("grid-cell-view")
@@ -68,6 +69,19 @@ public class GridCellView extends View {
     return queryResult();
   }
 
+  // Rows the view updated after since, inactive rows included so cleared cells are resynced too
+  @Query("""
+      SELECT * as gridCells, next_page_token() AS nextPageToken, has_more() AS hasMore
+        FROM grid_cell_view
+        WHERE x >= :x1 AND x <= :x2 AND y >= :y1 AND y <= :y2
+        AND viewAt > :since
+        LIMIT 1000
+        OFFSET page_token_offset(:pageTokenOffset)
+          """)
+  public QueryEffect<PagedGridCells> queryGridCellsChangedSince(ChangedGridCellsRequest request) {
+    return queryResult();
+  }
+
   @Consume.FromEventSourcedEntity(GridCellEntity.class)
   public static class GridCellsByStatus extends TableUpdater<GridCellRow> {
 
@@ -81,15 +95,18 @@ public class GridCellView extends View {
     private GridCellRow onEvent(GridCell.Event.StatusUpdated event) {
       log.info("Region: {}, Event: {}\n_State: {}", region(updateContext()), event, rowState());
 
-      var rc = event.id().split("x"); // RxC / YxX
+      var flight = FlightEvents.ViewUpdate.start();
+      var cellKey = CellKey.fromId(event.id()); // RxC / YxX
       var viewAt = Instant.now();
       var elapsedMs = (int) (viewAt.toEpochMilli() - event.updatedAt().toEpochMilli());
+      var region = region(updateContext());
+      ReplicationLatency.node().record(event.updated(), region, "status-updated", event.updatedAt(), elapsedMs);
 
-      return new GridCellRow(
+      var row = new GridCellRow(
           event.id(),
           event.status().toString(),
-          Integer.parseInt(rc[1]),
-          Integer.parseInt(rc[0]),
+          cellKey.x(),
+          cellKey.y(),
           event.clientAt(),
           event.endpointAt(),
           event.createdAt(),
@@ -98,7 +115,14 @@ public class GridCellView extends View {
           elapsedMs,
           event.created(),
           event.updated(),
-          region(updateContext()));
+          region,
+          event.traceId() == null ? "" : event.traceId()); // Empty for events from before trace ids
+
+      if (region.equals(event.updated())) {
+        StageLatency.node().viewed(row);
+      }
+      flight.commit(row);
+      return row;
     }
 
     String region(UpdateContext updateContext) {
@@ -120,7 +144,8 @@ public class GridCellView extends View {
       int elapsedMs,
       String created,
       String updated,
-      String view) {}
+      String view,
+      String traceId) {}
 
   public record GridCells(List<GridCellRow> gridCells) {}
 
@@ -128,5 +153,7 @@ public class GridCellView extends View {
 
   public record PagedGridCellsRequest(Integer x1, Integer y1, Integer x2, Integer y2, String pageTokenOffset) {}
 
+  public record ChangedGridCellsRequest(Integer x1, Integer y1, Integer x2, Integer y2, Instant since, String pageTokenOffset) {}
+
   public record PagedGridCells(List<GridCellRow> gridCells, String nextPageToken, boolean hasMore) {}
 }
@@ -0,0 +1,50 @@
+package io.example.application;
+
+import java.util.concurrent.CompletionStage;
+
+import akka.javasdk.client.ComponentClient;
+
+/**
+ * The {@link GridCellView} queries called through {@link ComponentCalls}, labelled here once, so a call site names only
+ * the query it calls.
+ */
+public class GridCellViewCalls {
+  static final String COMPONENT = "GridCellView";
+  private final ComponentClient componentClient;
+  private final ComponentCalls componentCalls;
+
+  public GridCellViewCalls(ComponentClient componentClient, ComponentCalls componentCalls) {
+    this.componentClient = componentClient;
+    this.componentCalls = componentCalls;
+  }
+
+  public CompletionStage<GridCellView.GridCellRow> getGridCell(String id) {
+    return componentCalls.call(COMPONENT, "getGridCell", () -> componentClient.forView()
+        .method(GridCellView::getGridCell)
+        .invokeAsync(id));
+  }
+
+  public CompletionStage<GridCellView.GridCells> getGridCellsList() {
+    return componentCalls.call(COMPONENT, "getGridCellsList", () -> componentClient.forView()
+        .method(GridCellView::getGridCellsList)
+        .invokeAsync());
+  }
+
+  public CompletionStage<GridCellView.PagedGridCells> queryGridCellsPagedList(GridCellView.PagedGridCellsRequest request) {
+    return componentCalls.call(COMPONENT, "queryGridCellsPagedList", () -> componentClient.forView()
+        .method(GridCellView::queryGridCellsPagedList)
+        .invokeAsync(request));
+  }
+
+  public CompletionStage<GridCellView.PagedGridCells> queryActiveGridCells(GridCellView.PagedGridCellsRequest request) {
+    return componentCalls.call(COMPONENT, "queryActiveGridCells", () -> componentClient.forView()
+        .method(GridCellView::queryActiveGridCells)
+        .invokeAsync(request));
+  }
+
+  public CompletionStage<GridCellView.PagedGridCells> queryGridCellsChangedSince(GridCellView.ChangedGridCellsRequest request) {
+    return componentCalls.call(COMPONENT, "queryGridCellsChangedSince", () -> componentClient.forView()
+        .method(GridCellView::queryGridCellsChangedSince)
+        .invokeAsync(request));
+  }
+}
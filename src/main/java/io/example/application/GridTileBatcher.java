@@ -0,0 +1,205 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.typesafe.config.Config;
+
+import akka.Done;
+import io.example.domain.GridTile;
+
+/**
+ * Node local batches of tile cell updates, so a fill wave writes each {@link GridTileEntity} once per
+ * {@code batch-window} with all the cells that changed in it, instead of rewriting the whole tile for every cell event.
+ * <p>
+ * The first update of a tile opens its batch and schedules the write, later updates join it until the window ends or
+ * it holds {@code batch-max-cells}. An update completes when its batch is written, so the consumer acknowledges an
+ * event only once its cell is in the tile, a batch collects the cells of the consumer's concurrent slices. When more
+ * than {@code batch-max-queued-cells} cells are queued on the node the batch an update joins is written without waiting
+ * for the window, so the queue drains.
+ * <p>
+ * A tile has at most one batch write in flight, the next batch is written after it, so the updates of a cell reach the
+ * tile in order. A failed write is retried up to {@code batch-write-retries} times a batch window apart, then the
+ * batch's updates fail and the consumer delivers their events again.
+ */
+public class GridTileBatcher {
+  private static final Logger log = LoggerFactory.getLogger(GridTileBatcher.class);
+  private final ConcurrentHashMap<String, Batch> pending = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, CompletableFuture<Done>> lastWrites = new ConcurrentHashMap<>();
+  private final Duration window;
+  private final int maxCells;
+  private final int maxQueuedCells;
+  private final int writeRetries;
+  private final AtomicLong queuedCells = new AtomicLong();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder cells = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder failedBatches = new LongAdder();
+  private final AtomicLong maxBatchCells = new AtomicLong();
+
+  public GridTileBatcher(Config config) {
+    this(
+        config.getDuration("grid-cell.tiles.batch-window"),
+        config.getInt("grid-cell.tiles.batch-max-cells"),
+        config.getInt("grid-cell.tiles.batch-max-queued-cells"),
+        config.getInt("grid-cell.tiles.batch-write-retries"));
+  }
+
+  public GridTileBatcher(Duration window, int maxCells, int maxQueuedCells, int writeRetries) {
+    this.window = window;
+    this.maxCells = maxCells;
+    this.maxQueuedCells = maxQueuedCells;
+    this.writeRetries = writeRetries;
+  }
+
+  @FunctionalInterface
+  public interface TileWrite {
+    CompletionStage<Done> write(String tileId, GridTile.Command.UpdateCells command);
+  }
+
+  // Adds the cell to its tile's open batch, the first write given for a batch writes it, completes when it is written
+  public CompletionStage<Done> update(GridTile.Command.UpdateCell cell, TileWrite write) {
+    var tileId = GridTile.tileIdOfCell(cell.id());
+    while (true) {
+      var batch = pending.computeIfAbsent(tileId, id -> new Batch(id, write));
+      var added = batch.add(cell, maxCells);
+      if (added == Added.closed) {
+        continue; // Flushed since it was looked up, the next lookup opens a new batch
+      }
+      var queued = queuedCells.incrementAndGet();
+      if (added == Added.opened) {
+        CompletableFuture.delayedExecutor(window.toMillis(), TimeUnit.MILLISECONDS).execute(() -> flush(batch));
+      }
+      if (added == Added.full || queued > maxQueuedCells) {
+        flush(batch);
+      }
+      return batch.written;
+    }
+  }
+
+  void flush(Batch batch) {
+    var cellsOfBatch = batch.close();
+    if (cellsOfBatch == null) {
+      return;
+    }
+    batches.increment();
+    cells.add(cellsOfBatch.size());
+    maxBatchCells.accumulateAndGet(cellsOfBatch.size(), Math::max);
+
+    // Chained before the batch leaves pending, a later batch of the tile can only be flushed after it and is written after it
+    var lastWrite = new CompletableFuture<Done>();
+    var previous = lastWrites.put(batch.tileId, lastWrite);
+    pending.remove(batch.tileId, batch);
+
+    var command = new GridTile.Command.UpdateCells(cellsOfBatch);
+    var after = previous == null ? CompletableFuture.completedFuture(Done.getInstance()) : previous;
+    after.thenCompose(done -> write(batch, command, writeRetries))
+        .whenComplete((done, error) -> {
+          queuedCells.addAndGet(-cellsOfBatch.size());
+          if (error == null) {
+            batch.written.complete(done);
+          } else {
+            failedBatches.increment();
+            log.warn("Tile {} batch of {} cells not written", batch.tileId, cellsOfBatch.size(), error);
+            batch.written.completeExceptionally(error);
+          }
+          lastWrites.remove(batch.tileId, lastWrite);
+          lastWrite.complete(Done.getInstance());
+        });
+  }
+
+  CompletionStage<Done> write(Batch batch, GridTile.Command.UpdateCells command, int retriesLeft) {
+    CompletionStage<Done> written;
+    try {
+      written = batch.write.write(batch.tileId, command);
+    } catch (RuntimeException e) {
+      written = CompletableFuture.failedFuture(e);
+    }
+    if (retriesLeft == 0) {
+      return written;
+    }
+    return written
+        .handle((done, error) -> {
+          if (error == null) {
+            return CompletableFuture.completedFuture(done);
+          }
+          retries.increment();
+          var retry = CompletableFuture.delayedExecutor(window.toMillis(), TimeUnit.MILLISECONDS);
+          return CompletableFuture.supplyAsync(() -> write(batch, command, retriesLeft - 1), retry).thenCompose(stage -> stage);
+        })
+        .thenCompose(stage -> stage);
+  }
+
+  public Metrics metrics() {
+    var batchCount = batches.sum();
+    var cellCount = cells.sum();
+    return new Metrics(
+        pending.size(),
+        queuedCells.get(),
+        batchCount,
+        cellCount,
+        batchCount == 0 ? 0.0 : (double) cellCount / batchCount,
+        maxBatchCells.get(),
+        retries.sum(),
+        failedBatches.sum());
+  }
+
+  enum Added {
+    opened,
+    added,
+    full,
+    closed
+  }
+
+  static final class Batch {
+    final String tileId;
+    final TileWrite write;
+    final CompletableFuture<Done> written = new CompletableFuture<>();
+    private List<GridTile.Command.UpdateCell> cells = new ArrayList<>();
+
+    Batch(String tileId, TileWrite write) {
+      this.tileId = tileId;
+      this.write = write;
+    }
+
+    synchronized Added add(GridTile.Command.UpdateCell cell, int maxCells) {
+      if (cells == null) {
+        return Added.closed;
+      }
+      cells.add(cell);
+      if (cells.size() >= maxCells) {
+        return Added.full;
+      }
+      return cells.size() == 1 ? Added.opened : Added.added;
+    }
+
+    // The batch's cells the first time, null once closed
+    synchronized List<GridTile.Command.UpdateCell> close() {
+      var closed = cells;
+      cells = null;
+      return closed;
+    }
+  }
+
+  // Tiles with an open batch, cells queued and not yet written, batches written and the cells in them, write retries
+  // and batches given up since the node started
+  public record Metrics(
+      int openBatches,
+      long queuedCells,
+      long batches,
+      long cells,
+      double cellsPerBatch,
+      long maxBatchCells,
+      long retries,
+      long failedBatches) {}
+}
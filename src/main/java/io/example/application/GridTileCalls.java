@@ -0,0 +1,35 @@
+package io.example.application;
+
+import java.util.concurrent.CompletionStage;
+
+import akka.Done;
+import akka.javasdk.client.ComponentClient;
+import io.example.domain.GridTile;
+
+/**
+ * The {@link GridTileEntity} and {@link GridTileView} methods called through {@link ComponentCalls}, labelled here
+ * once, so a call site names only the method it calls.
+ */
+public class GridTileCalls {
+  static final String ENTITY = "GridTileEntity";
+  static final String VIEW = "GridTileView";
+  private final ComponentClient componentClient;
+  private final ComponentCalls componentCalls;
+
+  public GridTileCalls(ComponentClient componentClient, ComponentCalls componentCalls) {
+    this.componentClient = componentClient;
+    this.componentCalls = componentCalls;
+  }
+
+  public CompletionStage<Done> updateCells(String tileId, GridTile.Command.UpdateCells command) {
+    return componentCalls.call(ENTITY, "updateCells", () -> componentClient.forKeyValueEntity(tileId)
+        .method(GridTileEntity::updateCells)
+        .invokeAsync(command));
+  }
+
+  public CompletionStage<GridTileView.GridTiles> queryGridTiles(GridTileView.GridTilesRequest request) {
+    return componentCalls.call(VIEW, "queryGridTiles", () -> componentClient.forView()
+        .method(GridTileView::queryGridTiles)
+        .invokeAsync(request));
+  }
+}
@@ -0,0 +1,53 @@
+package io.example.application;
+
+import static akka.Done.done;
+
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import akka.javasdk.keyvalueentity.KeyValueEntityContext;
+import io.example.domain.CellKey;
+import io.example.domain.GridTile;
+
+@ComponentId("grid-tile-entity")
+public class GridTileEntity extends KeyValueEntity<GridTile.State> {
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final String entityId;
+  private final String selfRegion;
+
+  public GridTileEntity(KeyValueEntityContext context) {
+    this.entityId = context.entityId();
+    this.selfRegion = context.selfRegion().isEmpty() ? "local-development" : context.selfRegion();
+  }
+
+  @Override
+  public GridTile.State emptyState() {
+    var tileKey = CellKey.fromId(GridTile.idOfEntityId(entityId)); // RxC / YxX of the tile
+    return GridTile.State.empty(GridTile.regionOfEntityId(entityId), tileKey.x(), tileKey.y());
+  }
+
+  public Effect<Done> updateCell(GridTile.Command.UpdateCell command) {
+    log.info("Region: {}, EntityId: {}\n_State: {}\n_Command: {}", selfRegion, entityId, currentState(), command);
+
+    return effects()
+        .updateState(currentState().onCommand(command, Instant.now()))
+        .thenReply(done());
+  }
+
+  public Effect<Done> updateCells(GridTile.Command.UpdateCells command) {
+    log.info("Region: {}, EntityId: {}\n_State: {}\n_Command: {} cells", selfRegion, entityId, currentState(), command.cells().size());
+
+    return effects()
+        .updateState(currentState().onCommand(command, Instant.now()))
+        .thenReply(done());
+  }
+
+  public ReadOnlyEffect<GridTile.State> get() {
+    return effects().reply(currentState());
+  }
+}
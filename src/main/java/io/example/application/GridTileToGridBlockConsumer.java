@@ -0,0 +1,38 @@
+package io.example.application;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.domain.GridBlock;
+import io.example.domain.GridTile;
+
+// Replaces the tile's status counts in the region's copy of the block that holds the tile, the upper levels of the zoom
+// pyramid. Each region writes the blocks of its own tile copies, tiles without a region are from before the copies
+@ComponentId("grid-tile-to-grid-block-consumer")
+@Consume.FromKeyValueEntity(GridTileEntity.class)
+public class GridTileToGridBlockConsumer extends Consumer {
+  final ConsumerThroughput.Meter meter;
+  final GridBlockCalls gridBlocks;
+
+  public GridTileToGridBlockConsumer(ComponentClient componentClient, ConsumerThroughput consumerThroughput, ComponentCalls componentCalls) {
+    this.meter = consumerThroughput.meter("grid-tile-to-grid-block-consumer");
+    this.gridBlocks = new GridBlockCalls(componentClient, componentCalls);
+  }
+
+  public Effect onChange(GridTile.State tile) {
+    if (!messageContext().hasLocalOrigin() || tile.region() == null) {
+      return effects().ignore();
+    }
+
+    meter.event();
+    var command = new GridBlock.Command.UpdateTile(tile.tileX(), tile.tileY(), GridBlock.counts(tile.statuses()));
+    var updated = meter.call(() -> gridBlocks.updateTile(blockEntityId(tile), command));
+
+    return effects().asyncDone(updated);
+  }
+
+  static String blockEntityId(GridTile.State tile) {
+    return GridBlock.entityId(tile.region(), GridBlock.blockIdOfTile(tile.tileX(), tile.tileY()));
+  }
+}
@@ -0,0 +1,68 @@
+package io.example.application;
+
+import java.time.Instant;
+import java.util.List;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.domain.GridTile;
+
+// One row per GridTile copy of each region, queries return the copies of the region asked for, see GridTile for the
+// packed statuses and elapsedMs layout
+@ComponentId("grid-tile-view")
+public class GridTileView extends View {
+
+  @Query("""
+      SELECT * as tiles
+        FROM grid_tile_view
+        WHERE region = :region
+        AND tileX >= :tileX1 AND tileX <= :tileX2 AND tileY >= :tileY1 AND tileY <= :tileY2
+        AND activeCells > 0
+          """)
+  public QueryEffect<GridTiles> queryGridTiles(GridTilesRequest request) {
+    return queryResult();
+  }
+
+  @Query(value = """
+      SELECT *
+        FROM grid_tile_view
+        WHERE region = :region
+        AND tileX >= :tileX1 AND tileX <= :tileX2 AND tileY >= :tileY1 AND tileY <= :tileY2
+          """, streamUpdates = true)
+  public QueryStreamEffect<GridTileRow> streamGridTiles(GridTilesRequest request) {
+    return queryStreamResult();
+  }
+
+  @Consume.FromKeyValueEntity(GridTileEntity.class)
+  public static class GridTilesByArea extends TableUpdater<GridTileRow> {
+
+    public Effect<GridTileRow> onUpdate(GridTile.State state) {
+      return effects().updateRow(new GridTileRow(
+          state.id(),
+          state.region(),
+          state.tileX(),
+          state.tileY(),
+          state.statuses(),
+          state.elapsedMs(),
+          state.activeCells(),
+          state.updatedAt()));
+    }
+  }
+
+  public record GridTileRow(
+      String id,
+      String region,
+      int tileX,
+      int tileY,
+      String statuses,
+      String elapsedMs,
+      int activeCells,
+      Instant updatedAt) {}
+
+  public record GridTiles(List<GridTileRow> tiles) {}
+
+  public record GridTilesRequest(String region, Integer tileX1, Integer tileY1, Integer tileX2, Integer tileY2) {}
+}
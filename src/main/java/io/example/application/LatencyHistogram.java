@@ -0,0 +1,92 @@
+package io.example.application;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free latency histogram with log-linear buckets, HdrHistogram style: values below {@link #SUB_BUCKETS} have a
+ * bucket each, above that every power of two is split into {@link #SUB_BUCKETS} buckets, so a percentile is within
+ * about 3% of the recorded value. Values are clamped to 0 and {@link #MAX_VALUE}.
+ * <p>
+ * Recording is one array increment, the percentiles are computed from a {@link Snapshot} when read.
+ */
+public final class LatencyHistogram {
+  static final int SUB_BUCKET_BITS = 5;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  static final int MAX_EXPONENT = 36; // 2^36 ms is a couple of years
+  static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+  static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong max = new AtomicLong();
+
+  public void record(long value) {
+    var clamped = Math.max(0, Math.min(MAX_VALUE, value));
+    counts.incrementAndGet(bucket(clamped));
+    max.accumulateAndGet(clamped, Math::max);
+  }
+
+  // Values recorded while resetting may be lost or kept, callers reset a slot that is no longer recorded to
+  void reset() {
+    for (int i = 0; i < counts.length(); i++) {
+      counts.set(i, 0);
+    }
+    max.set(0);
+  }
+
+  public Snapshot snapshot() {
+    return Snapshot.empty().merge(this);
+  }
+
+  static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    var exponent = 63 - Long.numberOfLeadingZeros(value);
+    var subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  // The highest value that falls in the bucket
+  static long highestValue(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    var exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    var subBucket = bucket % SUB_BUCKETS;
+    var shift = exponent - SUB_BUCKET_BITS;
+    return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+  }
+
+  // Counts copied out of one or more histograms
+  public record Snapshot(long[] counts, long count, long max) {
+    static Snapshot empty() {
+      return new Snapshot(new long[BUCKETS], 0, 0);
+    }
+
+    Snapshot merge(LatencyHistogram histogram) {
+      var count = this.count;
+      for (int i = 0; i < BUCKETS; i++) {
+        var bucketCount = histogram.counts.get(i);
+        counts[i] += bucketCount;
+        count += bucketCount;
+      }
+      return new Snapshot(counts, count, Math.max(max, histogram.max.get()));
+    }
+
+    // The value at or below which the quantile of the values fall, never above the max, 0 when empty
+    public long percentile(double quantile) {
+      if (count == 0) {
+        return 0;
+      }
+      var rank = Math.max(1, (long) Math.ceil(quantile * count));
+      var seen = 0L;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.min(max, highestValue(i));
+        }
+      }
+      return max;
+    }
+  }
+}
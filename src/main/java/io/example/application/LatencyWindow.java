@@ -0,0 +1,81 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * A sliding window of latency histograms, one {@link LatencyHistogram} per slot of {@code slot} length in a ring of
+ * {@code slots} + 1, so the last {@code slots} slots, the current one included, can be read while the next one is
+ * cleared. Recording is one histogram increment, a slot is cleared by the first value recorded in it.
+ * <p>
+ * Like the consumer throughput ring, a value recorded at a slot boundary may land in the slot being cleared, which is
+ * fine for a latency overview.
+ */
+public final class LatencyWindow {
+  private final long slotMs;
+  private final LongSupplier clock;
+  private final LatencyHistogram[] histograms;
+  private final AtomicLongArray slotEpochs; // slotEpochs[i] is the slot, epoch ms / slotMs, histograms[i] holds
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  public LatencyWindow(Duration slot, int slots) {
+    this(slot, slots, System::currentTimeMillis);
+  }
+
+  LatencyWindow(Duration slot, int slots, LongSupplier clock) {
+    if (slot.toMillis() < 1 || slots < 1) {
+      throw new IllegalArgumentException("Latency window needs a slot of at least 1ms and 1 slot, was %s x %d".formatted(slot, slots));
+    }
+    this.slotMs = slot.toMillis();
+    this.clock = clock;
+    this.histograms = new LatencyHistogram[slots + 1];
+    this.slotEpochs = new AtomicLongArray(slots + 1);
+    for (int i = 0; i < histograms.length; i++) {
+      histograms[i] = new LatencyHistogram();
+      slotEpochs.set(i, -1);
+    }
+  }
+
+  public void record(long value) {
+    var epoch = clock.getAsLong() / slotMs;
+    var index = (int) (epoch % histograms.length);
+    var slotEpoch = slotEpochs.get(index);
+    if (slotEpoch != epoch && slotEpochs.compareAndSet(index, slotEpoch, epoch)) {
+      histograms[index].reset();
+    }
+    histograms[index].record(value);
+    count.incrementAndGet();
+    max.accumulateAndGet(value, Math::max);
+  }
+
+  // The last slots of the window that cover the duration, at least the current slot, at most all of them
+  public LatencyHistogram.Snapshot snapshot(Duration window) {
+    var slots = (int) Math.max(1, Math.min(histograms.length - 1, (window.toMillis() + slotMs - 1) / slotMs));
+    var epoch = clock.getAsLong() / slotMs;
+    var snapshot = LatencyHistogram.Snapshot.empty();
+    for (int i = 0; i < histograms.length; i++) {
+      var slotEpoch = slotEpochs.get(i);
+      if (slotEpoch <= epoch && slotEpoch > epoch - slots) {
+        snapshot = snapshot.merge(histograms[i]);
+      }
+    }
+    return snapshot;
+  }
+
+  public Duration window() {
+    return Duration.ofMillis(slotMs * (histograms.length - 1));
+  }
+
+  // Values recorded since start
+  public long count() {
+    return count.get();
+  }
+
+  // Largest value recorded since start, not clamped
+  public long max() {
+    return max.get();
+  }
+}
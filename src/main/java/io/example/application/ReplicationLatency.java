@@ -0,0 +1,173 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.typesafe.config.Config;
+
+/**
+ * Node local latency from an event's update in its origin region to the view row in this region, the view's
+ * {@code elapsedMs}, per origin region, self region and event type, over a sliding window.
+ * <p>
+ * The grid cell view records each row it writes. Views are not given dependencies, so the view records to the node's
+ * instance, set by the service setup on startup. A negative latency, the origin's clock ahead of this one, is counted
+ * and recorded as 0. A row whose update is older than the node is counted as replayed and not recorded, it is a row of
+ * a view rebuild or replay, or of the backlog the view catches up on after a restart, its latency is the time the node
+ * or the view was down. A row updated while the node runs is always recorded, however long its lag, so the replication
+ * lag of a partition shows in the max and p99.
+ * <p>
+ * Each latency is recorded raw and corrected by the origin region's {@link ClockSkew} offset estimate at the time, so
+ * the skew between the regions' clocks can be told apart from the replication delay.
+ */
+public class ReplicationLatency {
+  private static volatile ReplicationLatency node = new ReplicationLatency(Settings.defaults);
+  private final ConcurrentHashMap<Key, Recorder> recorders = new ConcurrentHashMap<>();
+  private final Settings settings;
+  private final ClockSkew clockSkew;
+  private final Instant startedAt;
+
+  public ReplicationLatency(Config config, ClockSkew clockSkew) {
+    this(Settings.from(config), clockSkew, Instant.now());
+  }
+
+  ReplicationLatency(Settings settings) {
+    this(settings, new ClockSkew(ClockSkew.Settings.defaults), Instant.now());
+  }
+
+  ReplicationLatency(Settings settings, ClockSkew clockSkew) {
+    this(settings, clockSkew, Instant.now());
+  }
+
+  ReplicationLatency(Settings settings, ClockSkew clockSkew, Instant startedAt) {
+    this.settings = settings;
+    this.clockSkew = clockSkew;
+    this.startedAt = startedAt;
+  }
+
+  public static ReplicationLatency node() {
+    return node;
+  }
+
+  public static void node(ReplicationLatency replicationLatency) {
+    node = replicationLatency;
+  }
+
+  public Settings settings() {
+    return settings;
+  }
+
+  public void record(String originRegion, String selfRegion, String eventType, Instant updatedAt, long latencyMs) {
+    var key = new Key(originRegion == null || originRegion.isEmpty() ? "unknown" : originRegion, selfRegion, eventType);
+    var recorder = recorders.computeIfAbsent(key, k -> new Recorder(
+        new LatencyWindow(settings.slot(), settings.slots()),
+        new LatencyWindow(settings.slot(), settings.slots())));
+    if (updatedAt.isBefore(startedAt)) {
+      recorder.replayed.increment();
+      return;
+    }
+    if (latencyMs < 0) {
+      recorder.negative.increment();
+    }
+    recorder.window.record(Math.max(0, latencyMs));
+
+    var correctedMs = clockSkew.corrected(key.originRegion(), selfRegion, latencyMs);
+    if (correctedMs < 0) {
+      recorder.correctedNegative.increment();
+    }
+    recorder.corrected.record(Math.max(0, correctedMs));
+  }
+
+  // Each key's percentiles over the last window, clamped to the configured window
+  public List<Metrics> metrics(Duration window) {
+    return recorders.entrySet().stream()
+        .map(entry -> entry.getValue().metrics(entry.getKey(), window, offsetMs(entry.getKey())))
+        .sorted(Comparator.comparing(Metrics::originRegion).thenComparing(Metrics::selfRegion).thenComparing(Metrics::eventType))
+        .toList();
+  }
+
+  public List<Metrics> metrics() {
+    return metrics(settings.window());
+  }
+
+  long offsetMs(Key key) {
+    return clockSkew.corrected(key.originRegion(), key.selfRegion(), 0);
+  }
+
+  record Key(String originRegion, String selfRegion, String eventType) {}
+
+  record Recorder(LatencyWindow window, LongAdder negative, LongAdder replayed, LatencyWindow corrected, LongAdder correctedNegative) {
+    Recorder(LatencyWindow window, LatencyWindow corrected) {
+      this(window, new LongAdder(), new LongAdder(), corrected, new LongAdder());
+    }
+
+    Metrics metrics(Key key, Duration window, long offsetMs) {
+      var clamped = window.compareTo(this.window.window()) > 0 ? this.window.window() : window;
+      var snapshot = this.window.snapshot(clamped);
+      var correctedSnapshot = corrected.snapshot(clamped);
+      return new Metrics(
+          key.originRegion(),
+          key.selfRegion(),
+          key.eventType(),
+          clamped.toMillis(),
+          snapshot.count(),
+          snapshot.percentile(0.50),
+          snapshot.percentile(0.95),
+          snapshot.percentile(0.99),
+          snapshot.max(),
+          this.window.count(),
+          this.window.max(),
+          negative.sum(),
+          replayed.sum(),
+          offsetMs,
+          correctedSnapshot.percentile(0.50),
+          correctedSnapshot.percentile(0.95),
+          correctedSnapshot.percentile(0.99),
+          correctedSnapshot.max(),
+          corrected.max(),
+          correctedNegative.sum());
+    }
+  }
+
+  // slot x slots is the longest window, streamInterval the period of the SSE feed
+  public record Settings(Duration slot, int slots, Duration streamInterval) {
+    static final Settings defaults = new Settings(Duration.ofSeconds(5), 12, Duration.ofSeconds(5));
+
+    static Settings from(Config config) {
+      var latency = config.getConfig("grid-cell.replication-latency");
+      return new Settings(latency.getDuration("slot"), latency.getInt("slots"), latency.getDuration("stream-interval"));
+    }
+
+    public Duration window() {
+      return slot.multipliedBy(slots);
+    }
+  }
+
+  // Latencies in ms, the window ones over windowMs, total and max since the node started, replayedCount the rows of
+  // updates from before the node started that were not recorded
+  // The corrected ones by the origin's clock offset estimate when recorded, offsetMs the current one, 0 before a sample
+  public record Metrics(
+      String originRegion,
+      String selfRegion,
+      String eventType,
+      long windowMs,
+      long windowCount,
+      long p50Ms,
+      long p95Ms,
+      long p99Ms,
+      long windowMaxMs,
+      long totalCount,
+      long maxMs,
+      long negativeCount,
+      long replayedCount,
+      long offsetMs,
+      long correctedP50Ms,
+      long correctedP95Ms,
+      long correctedP99Ms,
+      long correctedWindowMaxMs,
+      long correctedMaxMs,
+      long correctedNegativeCount) {}
+}
@@ -0,0 +1,213 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.typesafe.config.Config;
+
+import io.example.application.GridCellView.GridCellRow;
+
+/**
+ * Node local latency of the stages from a click to its SSE delivery, so a slow cell can be put down to the network, the
+ * journal, the projection or the stream fan-out:
+ * <ul>
+ * <li>{@code clientToEndpoint}, clientAt to endpointAt, includes the client's clock offset</li>
+ * <li>{@code endpointToPersist}, endpointAt to updatedAt, for a span, fill or predator cell also the consumer hops from
+ * the clicked cell</li>
+ * <li>{@code persistToView}, updatedAt to viewAt</li>
+ * <li>{@code viewToEmit}, viewAt to the SSE event holding the row, per delivered row, frame windows included</li>
+ * </ul>
+ * The grid cell view records the first three for the traced rows updated in this region, replicated rows are in
+ * {@link ReplicationLatency}. The stream hub records the last one and keeps the most recent traces whose whole path
+ * took longer than the slow threshold, with each stage, by the trace id the endpoint gave the update.
+ * <p>
+ * Views are not given dependencies, the view records to the node's instance, set by the service setup on startup. A row
+ * whose update is older than the window when the view writes it is from a view rebuild or replay, it is counted as
+ * stale and its stages are neither recorded nor kept as a slow trace.
+ */
+public class StageLatency {
+  private static volatile StageLatency node = new StageLatency(Settings.defaults);
+  private final Map<Stage, LatencyWindow> windows = new EnumMap<>(Stage.class);
+  private final Map<Stage, LongAdder> negative = new EnumMap<>(Stage.class);
+  private final ArrayDeque<Trace> slowTraces = new ArrayDeque<>();
+  private final LongAdder staleRows = new LongAdder();
+  private final Settings settings;
+
+  public enum Stage {
+    clientToEndpoint,
+    endpointToPersist,
+    persistToView,
+    viewToEmit
+  }
+
+  public StageLatency(Config config) {
+    this(Settings.from(config));
+  }
+
+  StageLatency(Settings settings) {
+    this.settings = settings;
+    Arrays.stream(Stage.values()).forEach(stage -> {
+      windows.put(stage, new LatencyWindow(settings.slot(), settings.slots()));
+      negative.put(stage, new LongAdder());
+    });
+  }
+
+  public static StageLatency node() {
+    return node;
+  }
+
+  public static void node(StageLatency stageLatency) {
+    node = stageLatency;
+  }
+
+  public Settings settings() {
+    return settings;
+  }
+
+  public void record(Stage stage, long latencyMs) {
+    if (latencyMs < 0) {
+      negative.get(stage).increment();
+    }
+    windows.get(stage).record(Math.max(0, latencyMs));
+  }
+
+  // The view's stages of a row it wrote, untraced rows only have a reliable persistToView
+  public void viewed(GridCellRow row) {
+    if (row.viewAt() == null || row.updatedAt() == null) {
+      return;
+    }
+    if (isStale(row)) {
+      staleRows.increment();
+      return;
+    }
+    if (isTraced(row)) {
+      record(Stage.clientToEndpoint, millis(row.clientAt(), row.endpointAt()));
+      record(Stage.endpointToPersist, millis(row.endpointAt(), row.updatedAt()));
+    }
+    record(Stage.persistToView, millis(row.updatedAt(), row.viewAt()));
+  }
+
+  // A row sent to an SSE client
+  public void emitted(GridCellRow row, Instant emittedAt) {
+    if (row.viewAt() == null) {
+      return;
+    }
+    var viewToEmitMs = millis(row.viewAt(), emittedAt);
+    record(Stage.viewToEmit, viewToEmitMs);
+
+    if (isTraced(row) && !isStale(row) && millis(row.clientAt(), emittedAt) >= settings.slowThreshold().toMillis()) {
+      slow(new Trace(
+          row.traceId(),
+          row.id(),
+          row.status(),
+          row.view(),
+          millis(row.clientAt(), row.endpointAt()),
+          millis(row.endpointAt(), row.updatedAt()),
+          millis(row.updatedAt(), row.viewAt()),
+          viewToEmitMs,
+          millis(row.clientAt(), emittedAt),
+          emittedAt));
+    }
+  }
+
+  // A row is sent to each of its subscribers, it is kept once
+  synchronized void slow(Trace trace) {
+    if (slowTraces.stream().anyMatch(slow -> slow.traceId().equals(trace.traceId()) && slow.cellId().equals(trace.cellId()))) {
+      return;
+    }
+    if (slowTraces.size() >= settings.slowTraces()) {
+      slowTraces.removeFirst();
+    }
+    slowTraces.addLast(trace);
+  }
+
+  public Metrics metrics(Duration window) {
+    var clamped = window.compareTo(settings.window()) > 0 ? settings.window() : window;
+    var stages = Arrays.stream(Stage.values())
+        .map(stage -> {
+          var latency = windows.get(stage);
+          var snapshot = latency.snapshot(clamped);
+          return new StageMetrics(
+              stage,
+              clamped.toMillis(),
+              snapshot.count(),
+              snapshot.percentile(0.50),
+              snapshot.percentile(0.95),
+              snapshot.percentile(0.99),
+              snapshot.max(),
+              latency.count(),
+              latency.max(),
+              negative.get(stage).sum());
+        })
+        .toList();
+    synchronized (this) {
+      return new Metrics(stages, staleRows.sum(), List.copyOf(slowTraces).reversed());
+    }
+  }
+
+  static boolean isTraced(GridCellRow row) {
+    return row.traceId() != null && !row.traceId().isEmpty() && row.clientAt() != null && row.endpointAt() != null
+        && row.updatedAt() != null && row.viewAt() != null;
+  }
+
+  boolean isStale(GridCellRow row) {
+    return millis(row.updatedAt(), row.viewAt()) > settings.window().toMillis();
+  }
+
+  static long millis(Instant from, Instant to) {
+    return to.toEpochMilli() - from.toEpochMilli();
+  }
+
+  // slot x slots is the longest window, slowThreshold the click to delivery time from which a trace is kept
+  public record Settings(Duration slot, int slots, Duration slowThreshold, int slowTraces) {
+    static final Settings defaults = new Settings(Duration.ofSeconds(5), 12, Duration.ofSeconds(1), 64);
+
+    static Settings from(Config config) {
+      var stages = config.getConfig("grid-cell.stage-latency");
+      return new Settings(
+          stages.getDuration("slot"),
+          stages.getInt("slots"),
+          stages.getDuration("slow-threshold"),
+          stages.getInt("slow-traces"));
+    }
+
+    public Duration window() {
+      return slot.multipliedBy(slots);
+    }
+  }
+
+  // Latencies in ms, the window ones over windowMs, total and max since the node started
+  public record StageMetrics(
+      Stage stage,
+      long windowMs,
+      long windowCount,
+      long p50Ms,
+      long p95Ms,
+      long p99Ms,
+      long windowMaxMs,
+      long totalCount,
+      long maxMs,
+      long negativeCount) {}
+
+  // One delivered row of a slow update, region is the region of the view that wrote the row
+  public record Trace(
+      String traceId,
+      String cellId,
+      String status,
+      String region,
+      long clientToEndpointMs,
+      long endpointToPersistMs,
+      long persistToViewMs,
+      long viewToEmitMs,
+      long totalMs,
+      Instant emittedAt) {}
+
+  // Slow traces newest first, staleRows the view rows older than the window that were not recorded
+  public record Metrics(List<StageMetrics> stages, long staleRows, List<Trace> slowTraces) {}
+}
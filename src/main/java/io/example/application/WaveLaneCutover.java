@@ -0,0 +1,42 @@
+package io.example.application;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import com.typesafe.config.Config;
+
+/**
+ * Event time at which the fill/span and clear/erase wave lanes take over the wave events from
+ * {@code grid-cell-to-grid-cell-consumer}, {@code grid-cell.wave-lanes.cutover}.
+ * <p>
+ * The lanes were split off the original consumer under new consumer ids, and a new consumer id reads the journal from
+ * its beginning. Each wave event goes to exactly one side by its own event time, not by when a consumer reaches it: the
+ * original consumer forwards the wave events stamped before the cutover, the lanes those stamped at or after it. Old
+ * waves are not run again by the lanes, and wave events the original consumer had not reached at the rollout are still
+ * forwarded by it. Without a cutover the lanes are off and the original consumer forwards every wave event, as before
+ * the split, so a missing setting cannot replay history.
+ */
+public class WaveLaneCutover {
+  private final Optional<Instant> cutover;
+
+  public WaveLaneCutover(Config config) {
+    this(parse(config.getString("grid-cell.wave-lanes.cutover")));
+  }
+
+  WaveLaneCutover(Optional<Instant> cutover) {
+    this.cutover = cutover;
+  }
+
+  public Optional<Instant> cutover() {
+    return cutover;
+  }
+
+  // True when a wave lane forwards the event, events without an event time go to the lanes once they are on
+  public boolean lanesHandle(Optional<Instant> eventTime) {
+    return cutover.isPresent() && (eventTime.isEmpty() || !eventTime.get().isBefore(cutover.get()));
+  }
+
+  static Optional<Instant> parse(String cutover) {
+    return cutover.isBlank() ? Optional.empty() : Optional.of(Instant.parse(cutover.trim()));
+  }
+}
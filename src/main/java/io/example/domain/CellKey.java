@@ -0,0 +1,154 @@
+package io.example.domain;
+
+import java.util.List;
+
+/**
+ * Grid cell coordinates packed into a single long, with the canonical "RxC" (row x column, YxX) id cached on first use.
+ * <p>
+ * Ids are parsed with a hand rolled scanner instead of {@code String.split("x")} + {@code Integer.parseInt}, and
+ * rebuilt with plain string concatenation instead of {@code String.format}, so the hot paths (flood fill neighbor
+ * fan-out, predator moves, view updates) do not allocate regex and formatter garbage per cell.
+ */
+public final class CellKey {
+  private final long packed;
+  private String id;
+
+  private CellKey(long packed, String id) {
+    this.packed = packed;
+    this.id = id;
+  }
+
+  public static CellKey of(int row, int col) {
+    return new CellKey(pack(row, col), null);
+  }
+
+  public static CellKey fromXy(int x, int y) {
+    return new CellKey(pack(y, x), null); // RxC / YxX
+  }
+
+  public static CellKey fromPacked(long packed) {
+    return new CellKey(packed, null);
+  }
+
+  public static CellKey fromId(String id) {
+    return new CellKey(parse(id), id);
+  }
+
+  public int row() {
+    return row(packed);
+  }
+
+  public int col() {
+    return col(packed);
+  }
+
+  public int x() {
+    return col(packed);
+  }
+
+  public int y() {
+    return row(packed);
+  }
+
+  public long packed() {
+    return packed;
+  }
+
+  public String id() {
+    var cached = id;
+    if (cached == null) {
+      cached = id(row(), col());
+      id = cached;
+    }
+    return cached;
+  }
+
+  public CellKey offset(int dx, int dy) {
+    return of(row() + dy, col() + dx);
+  }
+
+  public boolean isNeighborOf(CellKey other) {
+    var dx = Math.abs(x() - other.x());
+    var dy = Math.abs(y() - other.y());
+    return (dx | dy) != 0 && dx <= 1 && dy <= 1;
+  }
+
+  public boolean insideRadius(int centerX, int centerY, int radius) {
+    return insideRadius(x(), y(), centerX, centerY, radius);
+  }
+
+  // The eight surrounding cells, in row major order
+  public List<String> neighborIds() {
+    var row = row();
+    var col = col();
+    return List.of(
+        id(row - 1, col - 1),
+        id(row - 1, col),
+        id(row - 1, col + 1),
+        id(row, col - 1),
+        id(row, col + 1),
+        id(row + 1, col - 1),
+        id(row + 1, col),
+        id(row + 1, col + 1));
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof CellKey key && key.packed == packed;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(packed);
+  }
+
+  @Override
+  public String toString() {
+    return id();
+  }
+
+  // ============================================================
+  // Primitive helpers, for callers that keep coordinates in longs
+  // ============================================================
+  public static long pack(int row, int col) {
+    return ((long) row << 32) | (col & 0xFFFFFFFFL);
+  }
+
+  public static int row(long packed) {
+    return (int) (packed >> 32);
+  }
+
+  public static int col(long packed) {
+    return (int) packed;
+  }
+
+  public static String id(int row, int col) {
+    return row + "x" + col; // RxC / YxX
+  }
+
+  public static int x(String id) {
+    return col(parse(id));
+  }
+
+  public static int y(String id) {
+    return row(parse(id));
+  }
+
+  // Squared distance comparison, radius is limited to min(50, radius)
+  public static boolean insideRadius(int x, int y, int centerX, int centerY, int radius) {
+    var dx = (long) centerX - x;
+    var dy = (long) centerY - y;
+    var r = (long) Math.min(50, radius);
+    return dx * dx + dy * dy <= r * r;
+  }
+
+  public static long parse(String id) {
+    var separator = id.indexOf('x');
+    if (separator <= 0 || separator == id.length() - 1) {
+      throw new IllegalArgumentException("Invalid grid cell id '%s', expected RxC".formatted(id));
+    }
+    var row = Integer.parseInt(id, 0, separator, 10);
+    var col = Integer.parseInt(id, separator + 1, id.length(), 10);
+    return pack(row, col);
+  }
+}
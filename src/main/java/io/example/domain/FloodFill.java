@@ -0,0 +1,91 @@
+package io.example.domain;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import io.example.application.GridCellView.GridCellRow;
+
+/**
+ * Computes the cells changed by a fill or span status command in one pass over a snapshot of the area, instead of
+ * letting each visited cell send FillToNeighbor / SpanToNeighbor events to its eight neighbors.
+ * <p>
+ * The cell rules are the same as {@link GridCell.State#onCommand(GridCell.Command.FillStatus)} and
+ * {@link GridCell.State#onCommand(GridCell.Command.SpanStatus)}: the wave spreads through 8-connected neighbors inside
+ * the radius, fill through empty or inactive cells, span through active cells that do not already have the new status.
+ */
+public final class FloodFill {
+
+  private FloodFill() {}
+
+  // Cell ids to set to the new status, the snapshot holds the active (not inactive) cells of the radius area
+  public static List<String> fill(String startId, GridCell.Status status, int centerX, int centerY, int radius, List<GridCellRow> activeCells) {
+    if (status == GridCell.Status.inactive) {
+      return List.of(); // An empty cell already has the inactive status
+    }
+    var snapshot = snapshot(activeCells);
+    return flood(startId, centerX, centerY, radius, packed -> !snapshot.containsKey(packed));
+  }
+
+  public static List<String> span(String startId, GridCell.Status status, int centerX, int centerY, int radius, List<GridCellRow> activeCells) {
+    var snapshot = snapshot(activeCells);
+    return flood(startId, centerX, centerY, radius, packed -> {
+      var cellStatus = snapshot.get(packed);
+      return cellStatus != null && cellStatus != status;
+    });
+  }
+
+  // Estimated events and entity calls the neighbor wave needs to change the same cells, each changed cell persists its
+  // update and one event per neighbor, each neighbor event is one entity call, the start cell's is the request
+  public static WaveCost waveCost(int changedCells) {
+    var neighborEvents = 8L * changedCells;
+    return new WaveCost(changedCells + neighborEvents, 1 + neighborEvents);
+  }
+
+  public record WaveCost(long journalEvents, long entityCalls) {}
+
+  static List<String> flood(String startId, int centerX, int centerY, int radius, Predicate<Long> canChange) {
+    var start = CellKey.parse(startId);
+    var cells = new ArrayList<String>();
+    var visited = new HashSet<Long>();
+    var queue = new ArrayDeque<Long>();
+
+    visited.add(start);
+    queue.add(start);
+    while (!queue.isEmpty()) {
+      var packed = queue.poll();
+      var x = CellKey.col(packed);
+      var y = CellKey.row(packed);
+      if (!CellKey.insideRadius(x, y, centerX, centerY, radius) || !canChange.test(packed)) {
+        continue;
+      }
+      cells.add(CellKey.id(y, x));
+
+      for (int dy = -1; dy <= 1; dy++) {
+        for (int dx = -1; dx <= 1; dx++) {
+          var neighbor = CellKey.pack(y + dy, x + dx);
+          if ((dx != 0 || dy != 0) && visited.add(neighbor)) {
+            queue.add(neighbor);
+          }
+        }
+      }
+    }
+
+    return cells;
+  }
+
+  static Map<Long, GridCell.Status> snapshot(List<GridCellRow> activeCells) {
+    var snapshot = new HashMap<Long, GridCell.Status>(activeCells.size() * 2);
+    for (var cell : activeCells) {
+      var status = GridCell.Status.valueOf(cell.status());
+      if (status != GridCell.Status.inactive) {
+        snapshot.put(CellKey.pack(cell.y(), cell.x()), status);
+      }
+    }
+    return snapshot;
+  }
+}
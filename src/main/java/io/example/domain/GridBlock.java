@@ -0,0 +1,232 @@
+package io.example.domain;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Level of detail pyramid over the grid, per status counts of the cells in 2^k x 2^k blocks for k = 1..{@link #MAX_LEVEL}.
+ * <p>
+ * A GridBlock covers {@link #SIZE} x {@link #SIZE} cells, the level 8 block, and keeps the counts of each of its
+ * {@link #TILES} x {@link #TILES} tiles, the level 5 blocks. Levels 6 to 8 are sums of those, levels 1 to 4 are counted
+ * from the tile statuses. A tile's counts are replaced as a whole on every tile change, so replaying a tile update is
+ * harmless. Block ids follow the cell id convention, "RxC" of the block coordinates. Like its tiles each region keeps
+ * its own copy of a block, the entity id is {@link #entityId}.
+ * <p>
+ * Counts are kept for the active statuses only, red, green, blue, orange and predator in {@link GridCell.Status}
+ * order, inactive is the rest of the block.
+ */
+public interface GridBlock {
+  int MAX_LEVEL = 8;
+  int TILE_LEVEL = 5;
+  int SIZE = 1 << MAX_LEVEL;
+  int TILES = SIZE / GridTile.SIZE;
+  int STATUSES = GridCell.Status.values().length - 1;
+
+  static int blockOf(int coordinate, int level) {
+    return coordinate >> level; // floor division by 2^level
+  }
+
+  static String blockId(int blockX, int blockY) {
+    return CellKey.id(blockY, blockX); // RxC / YxX
+  }
+
+  // "RxC@region", the region's copy of the block
+  static String entityId(String region, String blockId) {
+    return GridTile.entityId(region, blockId);
+  }
+
+  static String blockIdOfTile(int tileX, int tileY) {
+    return blockId(Math.floorDiv(tileX, TILES), Math.floorDiv(tileY, TILES));
+  }
+
+  // Active status counts of a tile, from its packed statuses
+  static List<Integer> counts(String statuses) {
+    var counts = new int[STATUSES];
+    for (int i = 0; i < statuses.length(); i++) {
+      var status = statuses.charAt(i) - '0';
+      if (status > 0) {
+        counts[status - 1]++;
+      }
+    }
+    return Arrays.stream(counts).boxed().toList();
+  }
+
+  // The non-empty level 1 to 5 blocks of one tile that overlap the area x1, y1 to x2, y2
+  static List<ZoomCell> zoomCells(int tileX, int tileY, String statuses, int level, int x1, int y1, int x2, int y2) {
+    if (level < 1 || level > TILE_LEVEL) {
+      throw new IllegalArgumentException("Level %d is not within a tile".formatted(level));
+    }
+    var perSide = GridTile.SIZE >> level;
+    var counts = new int[perSide * perSide][];
+    var tileX1 = tileX * GridTile.SIZE;
+    var tileY1 = tileY * GridTile.SIZE;
+
+    for (int i = 0; i < statuses.length(); i++) {
+      var status = statuses.charAt(i) - '0';
+      if (status == 0) {
+        continue;
+      }
+      var dx = i % GridTile.SIZE;
+      var dy = i / GridTile.SIZE;
+      var block = (dy >> level) * perSide + (dx >> level);
+      if (counts[block] == null) {
+        counts[block] = new int[STATUSES];
+      }
+      counts[block][status - 1]++;
+    }
+
+    var zoomCells = new ArrayList<ZoomCell>();
+    for (int block = 0; block < counts.length; block++) {
+      if (counts[block] == null) {
+        continue;
+      }
+      var zoomX = blockOf(tileX1, level) + block % perSide;
+      var zoomY = blockOf(tileY1, level) + block / perSide;
+      if (overlaps(zoomX, zoomY, level, x1, y1, x2, y2)) {
+        zoomCells.add(new ZoomCell(zoomX, zoomY, counts[block]));
+      }
+    }
+    return zoomCells;
+  }
+
+  static boolean overlaps(int blockX, int blockY, int level, int x1, int y1, int x2, int y2) {
+    return blockX >= blockOf(x1, level) && blockX <= blockOf(x2, level)
+        && blockY >= blockOf(y1, level) && blockY <= blockOf(y2, level);
+  }
+
+  // One aggregate cell of the pyramid, block (blockX, blockY) at the level covers 2^level x 2^level cells
+  public record ZoomCell(int blockX, int blockY, int[] counts) {
+
+    public int activeCells() {
+      return Arrays.stream(counts).sum();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof ZoomCell cell
+          && cell.blockX == blockX
+          && cell.blockY == blockY
+          && Arrays.equals(cell.counts, counts);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * blockX + blockY) + Arrays.hashCode(counts);
+    }
+
+    @Override
+    public String toString() {
+      return "ZoomCell[blockX=%d, blockY=%d, counts=%s]".formatted(blockX, blockY, Arrays.toString(counts));
+    }
+  }
+
+  // ============================================================
+  // State
+  // ============================================================
+  // tileCounts holds STATUSES counts per tile, tiles in row major order within the block
+  public record State(
+      String id,
+      String region,
+      int blockX,
+      int blockY,
+      List<Integer> tileCounts,
+      int activeCells,
+      Instant updatedAt) {
+
+    public static State empty() {
+      return new State("", "", 0, 0, zeroCounts(), 0, Instant.EPOCH);
+    }
+
+    public static State empty(String region, int blockX, int blockY) {
+      return new State(blockId(blockX, blockY), region, blockX, blockY, zeroCounts(), 0, Instant.EPOCH);
+    }
+
+    static List<Integer> zeroCounts() {
+      return Collections.nCopies(TILES * TILES * STATUSES, 0);
+    }
+
+    public boolean isEmpty() {
+      return this.id.isEmpty();
+    }
+
+    // ============================================================
+    // Command.UpdateTile
+    // ============================================================
+    public State onCommand(Command.UpdateTile command, Instant now) {
+      var block = isEmpty()
+          ? empty(region, Math.floorDiv(command.tileX(), TILES), Math.floorDiv(command.tileY(), TILES))
+          : this;
+      var dx = command.tileX() - block.blockX * TILES;
+      var dy = command.tileY() - block.blockY * TILES;
+      if (dx < 0 || dx >= TILES || dy < 0 || dy >= TILES) {
+        throw new IllegalArgumentException("Tile %dx%d is not in block %s".formatted(command.tileY(), command.tileX(), block.id));
+      }
+
+      var offset = (dy * TILES + dx) * STATUSES;
+      var newTileCounts = new ArrayList<>(block.tileCounts);
+      var newActiveCells = block.activeCells;
+      for (int status = 0; status < STATUSES; status++) {
+        newActiveCells += command.counts().get(status) - newTileCounts.get(offset + status);
+        newTileCounts.set(offset + status, command.counts().get(status));
+      }
+
+      return new State(block.id, block.region, block.blockX, block.blockY, List.copyOf(newTileCounts), newActiveCells, now);
+    }
+
+    // The non-empty level 5 to 8 blocks of this block that overlap the area x1, y1 to x2, y2
+    public List<ZoomCell> zoomCells(int level, int x1, int y1, int x2, int y2) {
+      if (level < TILE_LEVEL || level > MAX_LEVEL) {
+        throw new IllegalArgumentException("Level %d is not a tile or block level".formatted(level));
+      }
+      var tilesPerCell = 1 << (level - TILE_LEVEL);
+      var perSide = TILES / tilesPerCell;
+      var counts = new int[perSide * perSide][];
+
+      for (int tile = 0; tile < TILES * TILES; tile++) {
+        var cell = (tile / TILES / tilesPerCell) * perSide + (tile % TILES / tilesPerCell);
+        for (int status = 0; status < STATUSES; status++) {
+          var count = tileCounts.get(tile * STATUSES + status);
+          if (count == 0) {
+            continue;
+          }
+          if (counts[cell] == null) {
+            counts[cell] = new int[STATUSES];
+          }
+          counts[cell][status] += count;
+        }
+      }
+
+      var zoomCells = new ArrayList<ZoomCell>();
+      for (int cell = 0; cell < counts.length; cell++) {
+        if (counts[cell] == null) {
+          continue;
+        }
+        var zoomX = blockOf(blockX * SIZE, level) + cell % perSide;
+        var zoomY = blockOf(blockY * SIZE, level) + cell / perSide;
+        if (overlaps(zoomX, zoomY, level, x1, y1, x2, y2)) {
+          zoomCells.add(new ZoomCell(zoomX, zoomY, counts[cell]));
+        }
+      }
+      return zoomCells;
+    }
+
+    // The per tile counts are left out of log lines
+    @Override
+    public String toString() {
+      return "State[id=%s, region=%s, activeCells=%d, updatedAt=%s]".formatted(id, region, activeCells, updatedAt);
+    }
+  }
+
+  // ============================================================
+  // Commands
+  // ============================================================
+  public sealed interface Command {
+    public record UpdateTile(
+        int tileX,
+        int tileY,
+        List<Integer> counts) implements Command {}
+  }
+}
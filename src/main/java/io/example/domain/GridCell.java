@@ -20,6 +20,12 @@ public interface GridCell {
     predator
   }
 
+  // The cell rule of an engine mode wave, fill changes empty or inactive cells, span active cells
+  public enum FloodRule {
+    fill,
+    span
+  }
+
   // ============================================================
   // State
   // ============================================================
@@ -31,10 +37,11 @@ public interface GridCell {
       Instant clientAt,
       Instant endpointAt,
       String created,
-      String updated) {
+      String updated,
+      String traceId) {
 
     public static State empty() {
-      return new State("", Status.inactive, Instant.EPOCH, Instant.EPOCH, Instant.EPOCH, Instant.EPOCH, "", "");
+      return new State("", Status.inactive, Instant.EPOCH, Instant.EPOCH, Instant.EPOCH, Instant.EPOCH, "", "", "");
     }
 
     public boolean isEmpty() {
@@ -60,7 +67,8 @@ public interface GridCell {
           command.clientAt,
           command.endpointAt,
           newCreated,
-          command.region));
+          command.region,
+          command.traceId));
     }
 
     // ============================================================
@@ -93,7 +101,8 @@ public interface GridCell {
             command.clientAt,
             command.endpointAt,
             newCreated,
-            command.region));
+            command.region,
+            command.traceId));
       }
 
       var movedToCellId = command.nextCellId;
@@ -109,7 +118,8 @@ public interface GridCell {
               command.clientAt,
               command.endpointAt,
               newCreated,
-              command.region),
+              command.region,
+              command.traceId),
           new Event.PredatorMoved(
               movedToCellId,
               command.predatorId,
@@ -122,7 +132,8 @@ public interface GridCell {
               command.range,
               newLastCellId,
               tail,
-              command.region));
+              command.region,
+              command.traceId));
     }
 
     // ============================================================
@@ -150,7 +161,8 @@ public interface GridCell {
                 newUpdatedAt,
                 command.clientAt,
                 command.endpointAt,
-                command.region))
+                command.region,
+                command.traceId))
             .toList();
         return Stream.concat(
             Stream.<Event>of(new Event.StatusUpdated(
@@ -161,7 +173,8 @@ public interface GridCell {
                 command.clientAt,
                 command.endpointAt,
                 newCreated,
-                command.region)),
+                command.region,
+                command.traceId)),
             tailEvents.stream()).toList();
       }
 
@@ -183,7 +196,8 @@ public interface GridCell {
               command.clientAt,
               command.endpointAt,
               newCreated,
-              command.region)),
+              command.region,
+              command.traceId)),
           Optional.<Event>of(new Event.PredatorMoved(
               movedToCellId,
               command.predatorId,
@@ -196,7 +210,8 @@ public interface GridCell {
               newRange > 2 * childMinRange ? newRange - childMinRange : newRange,
               newLastCellId,
               tail,
-              command.region)),
+              command.region,
+              command.traceId)),
           tailTooLong
               ? Optional.<Event>of(new Event.PredatorUpdated(
                   tailEndId,
@@ -205,7 +220,8 @@ public interface GridCell {
                   newUpdatedAt,
                   command.clientAt,
                   command.endpointAt,
-                  command.region))
+                  command.region,
+                  command.traceId))
               : Optional.<Event>empty(),
           newRange > 2 * childMinRange // Spawn child predator
               ? Optional.<Event>of(new Event.PredatorMoved(
@@ -220,7 +236,8 @@ public interface GridCell {
                   childMinRange,
                   newLastCellId,
                   tail,
-                  command.region))
+                  command.region,
+                  command.traceId))
               : Optional.<Event>empty())
           .stream()
           .flatMap(Optional::stream)
@@ -247,7 +264,8 @@ public interface GridCell {
           command.clientAt,
           command.endpointAt,
           created,
-          command.region);
+          command.region,
+          command.traceId);
 
       return Optional.of(updateStatusEvent);
     }
@@ -277,7 +295,8 @@ public interface GridCell {
           command.clientAt,
           command.endpointAt,
           newCreated,
-          command.region);
+          command.region,
+          command.traceId);
 
       var neighborSpanStatusUpdatedEvents = neighborIds(command.id).stream()
           .map(id -> new Event.SpanToNeighbor(
@@ -289,7 +308,8 @@ public interface GridCell {
               command.centerY,
               command.radius,
               newCreated,
-              command.region))
+              command.region,
+              command.traceId))
           .toList();
 
       return Stream.<Event>concat(Stream.of(statusUpdatedEvent), neighborSpanStatusUpdatedEvents.stream()).toList();
@@ -320,7 +340,8 @@ public interface GridCell {
           command.clientAt,
           command.endpointAt,
           newCreated,
-          command.region);
+          command.region,
+          command.traceId);
 
       var neighborFillEvents = neighborIds(command.id).stream()
           .map(id -> new Event.FillToNeighbor(
@@ -332,12 +353,40 @@ public interface GridCell {
               command.centerY,
               command.radius,
               newCreated,
-              command.region))
+              command.region,
+              command.traceId))
           .toList();
 
       return Stream.<Event>concat(Stream.of(updateStatusEvent), neighborFillEvents.stream()).toList();
     }
 
+    // ============================================================
+    // Command.FloodStatus
+    // ============================================================
+    public Optional<Event> onCommand(Command.FloodStatus command) {
+      var canChange = switch (command.rule) {
+        case fill -> isEmpty() || status.equals(Status.inactive);
+        case span -> !isEmpty() && !status.equals(Status.inactive);
+      };
+      if (!canChange || status.equals(command.status)) {
+        return Optional.empty();
+      }
+
+      var newCreatedAt = isEmpty() ? Instant.now() : createdAt;
+      var newUpdatedAt = Instant.now();
+      var newCreated = isEmpty() ? command.region : created;
+      return Optional.of(new Event.StatusUpdated(
+          command.id,
+          command.status,
+          newCreatedAt,
+          newUpdatedAt,
+          command.clientAt,
+          command.endpointAt,
+          newCreated,
+          command.region,
+          command.traceId));
+    }
+
     // ============================================================
     // Command.ClearStatus
     // ============================================================
@@ -358,7 +407,8 @@ public interface GridCell {
           clientAt,
           endpointAt,
           created,
-          updated);
+          updated,
+          ""); // Not traced, the client and endpoint times are the cell's last update
 
       var neighborClearEvents = neighborIds(command.id).stream()
           .map(id -> new Event.ClearToNeighbor(id, command.status))
@@ -384,7 +434,8 @@ public interface GridCell {
           clientAt,
           endpointAt,
           created,
-          updated);
+          updated,
+          ""); // Not traced, the client and endpoint times are the cell's last update
 
       var neighborEraseEvents = neighborIds(command.id).stream()
           .map(id -> new Event.EraseToNeighbor(id))
@@ -405,7 +456,8 @@ public interface GridCell {
           event.clientAt,
           event.endpointAt,
           event.created,
-          event.updated);
+          event.updated,
+          event.traceId);
     }
 
     public State onEvent(Event.PredatorMoved event) {
@@ -434,25 +486,11 @@ public interface GridCell {
 
     // Radius is limited to min(50, radius)
     static boolean insideRadius(String id, int centerX, int centerY, int radius) {
-      var rc = id.split("x"); // RxC / YxX
-      var x = Integer.parseInt(rc[1]);
-      var y = Integer.parseInt(rc[0]);
-      return Math.pow(centerX - x, 2) + Math.pow(centerY - y, 2) <= Math.pow(Math.min(50, radius), 2);
+      return CellKey.fromId(id).insideRadius(centerX, centerY, radius);
     }
 
     static List<String> neighborIds(String centerId) {
-      var rc = centerId.split("x"); // RxC / YxX
-      var x = Integer.parseInt(rc[1]);
-      var y = Integer.parseInt(rc[0]);
-      return List.of(
-          String.format("%dx%d", y - 1, x - 1),
-          String.format("%dx%d", y - 1, x),
-          String.format("%dx%d", y - 1, x + 1),
-          String.format("%dx%d", y, x - 1),
-          String.format("%dx%d", y, x + 1),
-          String.format("%dx%d", y + 1, x - 1),
-          String.format("%dx%d", y + 1, x),
-          String.format("%dx%d", y + 1, x + 1));
+      return CellKey.fromId(centerId).neighborIds();
     }
   }
 
@@ -465,10 +503,11 @@ public interface GridCell {
         Status status,
         Instant clientAt,
         Instant endpointAt,
-        String region) implements Command {
+        String region,
+        String traceId) implements Command {
 
       public UpdateStatus withRegion(String newRegion) {
-        return new UpdateStatus(id, status, clientAt, endpointAt, newRegion);
+        return new UpdateStatus(id, status, clientAt, endpointAt, newRegion, traceId);
       }
     }
 
@@ -480,10 +519,11 @@ public interface GridCell {
         Instant endpointAt,
         Integer range,
         String nextCellId,
-        String region) implements Command {
+        String region,
+        String traceId) implements Command {
 
       public CreatePredator withRegion(String newRegion) {
-        return new CreatePredator(id, predatorId, status, clientAt, endpointAt, range, nextCellId, newRegion);
+        return new CreatePredator(id, predatorId, status, clientAt, endpointAt, range, nextCellId, newRegion, traceId);
       }
     }
 
@@ -496,10 +536,11 @@ public interface GridCell {
         Integer range,
         String nextCellId,
         Queue<String> tail,
-        String region) implements Command {
+        String region,
+        String traceId) implements Command {
 
       public MovePredator withRegion(String newRegion) {
-        return new MovePredator(id, predatorId, status, clientAt, endpointAt, range, nextCellId, tail, newRegion);
+        return new MovePredator(id, predatorId, status, clientAt, endpointAt, range, nextCellId, tail, newRegion, traceId);
       }
     }
 
@@ -509,10 +550,11 @@ public interface GridCell {
         Status status,
         Instant clientAt,
         Instant endpointAt,
-        String region) implements Command {
+        String region,
+        String traceId) implements Command {
 
       public UpdatePredator withRegion(String newRegion) {
-        return new UpdatePredator(id, predatorId, status, clientAt, endpointAt, newRegion);
+        return new UpdatePredator(id, predatorId, status, clientAt, endpointAt, newRegion, traceId);
       }
     }
 
@@ -524,10 +566,11 @@ public interface GridCell {
         Integer centerX,
         Integer centerY,
         Integer radius,
-        String region) implements Command {
+        String region,
+        String traceId) implements Command {
 
       public SpanStatus withRegion(String newRegion) {
-        return new SpanStatus(id, status, clientAt, endpointAt, centerX, centerY, radius, newRegion);
+        return new SpanStatus(id, status, clientAt, endpointAt, centerX, centerY, radius, newRegion, traceId);
       }
     }
 
@@ -539,10 +582,27 @@ public interface GridCell {
         Integer centerX,
         Integer centerY,
         Integer radius,
-        String region) implements Command {
+        String region,
+        String traceId) implements Command {
 
       public FillStatus withRegion(String newRegion) {
-        return new FillStatus(id, status, clientAt, endpointAt, centerX, centerY, radius, newRegion);
+        return new FillStatus(id, status, clientAt, endpointAt, centerX, centerY, radius, newRegion, traceId);
+      }
+    }
+
+    // One cell of an engine mode fill or span, changed only when the rule still holds for the cell's current status,
+    // the endpoint picks the cells from a view snapshot that may be behind the entity
+    public record FloodStatus(
+        String id,
+        Status status,
+        FloodRule rule,
+        Instant clientAt,
+        Instant endpointAt,
+        String region,
+        String traceId) implements Command {
+
+      public FloodStatus withRegion(String newRegion) {
+        return new FloodStatus(id, status, rule, clientAt, endpointAt, newRegion, traceId);
       }
     }
 
@@ -577,7 +637,8 @@ public interface GridCell {
         Instant clientAt,
         Instant endpointAt,
         String created,
-        String updated) implements Event {}
+        String updated,
+        String traceId) implements Event {}
 
     @TypeName("predator-moved")
     public record PredatorMoved(
@@ -592,7 +653,8 @@ public interface GridCell {
         Integer range,
         String lastCellId,
         Queue<String> tail,
-        String updated) implements Event {}
+        String updated,
+        String traceId) implements Event {}
 
     @TypeName("predator-updated")
     public record PredatorUpdated(
@@ -602,7 +664,8 @@ public interface GridCell {
         Instant updatedAt,
         Instant clientAt,
         Instant endpointAt,
-        String updated) implements Event {}
+        String updated,
+        String traceId) implements Event {}
 
     @TypeName("span-to-neighbor")
     public record SpanToNeighbor(
@@ -614,7 +677,8 @@ public interface GridCell {
         Integer centerY,
         Integer radius,
         String created,
-        String updated) implements Event {}
+        String updated,
+        String traceId) implements Event {}
 
     @TypeName("fill-to-neighbor")
     public record FillToNeighbor(
@@ -626,7 +690,8 @@ public interface GridCell {
         Integer centerY,
         Integer radius,
         String created,
-        String updated) implements Event {}
+        String updated,
+        String traceId) implements Event {}
 
     @TypeName("clear-to-neighbor")
     public record ClearToNeighbor(
@@ -14,11 +14,11 @@ public class GridCellDistance {
      * @return The Euclidean distance from the cell to the center point
      */
     public static double calculateDistance(String cellId, int centerX, int centerY) {
-        String[] rc = cellId.split("x"); // RxC / YxX
-        int x = Integer.parseInt(rc[1]);
-        int y = Integer.parseInt(rc[0]);
+        long packed = CellKey.parse(cellId);
+        int dx = centerX - CellKey.col(packed);
+        int dy = centerY - CellKey.row(packed);
 
-        return Math.sqrt(Math.pow(centerX - x, 2) + Math.pow(centerY - y, 2));
+        return Math.sqrt((double) dx * dx + (double) dy * dy);
     }
 
     /**
@@ -44,10 +44,8 @@ public class GridCellDistance {
      * @return The Manhattan distance from the cell to the center point
      */
     public static int calculateManhattanDistance(String cellId, int centerX, int centerY) {
-        String[] rc = cellId.split("x"); // RxC / YxX
-        int x = Integer.parseInt(rc[1]);
-        int y = Integer.parseInt(rc[0]);
+        long packed = CellKey.parse(cellId);
 
-        return Math.abs(centerX - x) + Math.abs(centerY - y);
+        return Math.abs(centerX - CellKey.col(packed)) + Math.abs(centerY - CellKey.row(packed));
     }
 }
@@ -0,0 +1,175 @@
+package io.example.domain;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * A fixed size square of grid cells, {@link #SIZE} x {@link #SIZE}, kept as one row so a viewport loads a handful of
+ * tiles instead of thousands of cell rows.
+ * <p>
+ * Tile ids follow the cell id convention, "RxC" of the tile coordinates, tile (tileX, tileY) covers the cells
+ * x in [tileX * SIZE, tileX * SIZE + SIZE - 1] and y in [tileY * SIZE, tileY * SIZE + SIZE - 1].
+ * <p>
+ * Each region builds its own copy of a tile from the cell events it sees, local and replicated, with the entity id
+ * {@link #entityId}. No two regions write the same tile, so replication cannot drop the cells of a concurrent update.
+ * <p>
+ * Cells are packed in row major order, cell (x, y) is at index (y - y1) * SIZE + (x - x1):
+ * <ul>
+ * <li>{@code statuses}, one character per cell, the {@link GridCell.Status} ordinal as a digit, '0' is inactive</li>
+ * <li>{@code elapsedMs}, base64 of one unsigned 16 bit little endian value per cell, the ms from the cell update to the
+ * tile consumer of this region seeing it, measured like the cell view's elapsedMs, saturated at 65535</li>
+ * </ul>
+ */
+public interface GridTile {
+  int SIZE = 32;
+  int CELLS = SIZE * SIZE;
+  int MAX_ELAPSED_MS = 0xFFFF;
+
+  static int tileOf(int coordinate) {
+    return Math.floorDiv(coordinate, SIZE);
+  }
+
+  static String tileId(int tileX, int tileY) {
+    return CellKey.id(tileY, tileX); // RxC / YxX
+  }
+
+  // "RxC@region", the region's copy of the tile
+  static String entityId(String region, String tileId) {
+    return tileId + "@" + region;
+  }
+
+  static String regionOfEntityId(String entityId) {
+    return entityId.substring(entityId.lastIndexOf('@') + 1);
+  }
+
+  static String idOfEntityId(String entityId) {
+    return entityId.substring(0, entityId.lastIndexOf('@'));
+  }
+
+  // The id of the tile that holds the cell
+  static String tileIdOfCell(String cellId) {
+    var packed = CellKey.parse(cellId);
+    return tileId(tileOf(CellKey.col(packed)), tileOf(CellKey.row(packed)));
+  }
+
+  // ============================================================
+  // State
+  // ============================================================
+  public record State(
+      String id,
+      String region,
+      int tileX,
+      int tileY,
+      String statuses,
+      String elapsedMs,
+      int activeCells,
+      Instant updatedAt) {
+
+    static final String inactiveStatuses = "0".repeat(CELLS);
+    static final String zeroElapsedMs = Base64.getEncoder().encodeToString(new byte[CELLS * 2]);
+
+    public static State empty() {
+      return new State("", "", 0, 0, inactiveStatuses, zeroElapsedMs, 0, Instant.EPOCH);
+    }
+
+    public static State empty(String region, int tileX, int tileY) {
+      return new State(tileId(tileX, tileY), region, tileX, tileY, inactiveStatuses, zeroElapsedMs, 0, Instant.EPOCH);
+    }
+
+    public boolean isEmpty() {
+      return this.id.isEmpty();
+    }
+
+    public GridCell.Status status(int x, int y) {
+      return GridCell.Status.values()[statuses.charAt(index(x, y)) - '0'];
+    }
+
+    // Decodes only the base64 quanta that hold the cell's two bytes
+    public int elapsedMs(int x, int y) {
+      var i = index(x, y) * 2;
+      var from = i / 3 * 4;
+      var to = (i + 1) / 3 * 4 + 4;
+      var bytes = Base64.getDecoder().decode(elapsedMs.substring(from, to));
+      var offset = i % 3;
+      return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8;
+    }
+
+    // ============================================================
+    // Command.UpdateCell
+    // ============================================================
+    public State onCommand(Command.UpdateCell command, Instant now) {
+      return onCommand(new Command.UpdateCells(List.of(command)), now);
+    }
+
+    // ============================================================
+    // Command.UpdateCells
+    // ============================================================
+    // The packed arrays are decoded and encoded once per batch, the cells applied in order
+    public State onCommand(Command.UpdateCells command, Instant now) {
+      if (command.cells().isEmpty()) {
+        return this;
+      }
+      var firstKey = CellKey.fromId(command.cells().get(0).id()); // RxC / YxX
+      var tile = isEmpty() ? empty(region, tileOf(firstKey.x()), tileOf(firstKey.y())) : this;
+
+      var newStatuses = tile.statuses.toCharArray();
+      var newElapsedMs = Base64.getDecoder().decode(tile.elapsedMs);
+      var newActiveCells = tile.activeCells;
+      for (var cell : command.cells()) {
+        var cellKey = CellKey.fromId(cell.id());
+        var index = tile.index(cellKey.x(), cellKey.y());
+
+        var oldStatus = newStatuses[index];
+        var newStatus = (char) ('0' + cell.status().ordinal());
+        newStatuses[index] = newStatus;
+
+        var elapsed = (int) Math.max(0, Math.min(MAX_ELAPSED_MS, cell.seenAt().toEpochMilli() - cell.updatedAt().toEpochMilli()));
+        newElapsedMs[index * 2] = (byte) elapsed;
+        newElapsedMs[index * 2 + 1] = (byte) (elapsed >> 8);
+
+        newActiveCells += (oldStatus == '0' ? 0 : -1) + (newStatus == '0' ? 0 : 1);
+      }
+
+      return new State(
+          tile.id,
+          tile.region,
+          tile.tileX,
+          tile.tileY,
+          new String(newStatuses),
+          Base64.getEncoder().encodeToString(newElapsedMs),
+          newActiveCells,
+          now);
+    }
+
+    int index(int x, int y) {
+      var dx = x - tileX * SIZE;
+      var dy = y - tileY * SIZE;
+      if (dx < 0 || dx >= SIZE || dy < 0 || dy >= SIZE) {
+        throw new IllegalArgumentException("Cell %dx%d is not in tile %s".formatted(y, x, id));
+      }
+      return dy * SIZE + dx;
+    }
+
+    // The packed arrays are left out of log lines
+    @Override
+    public String toString() {
+      return "State[id=%s, region=%s, activeCells=%d, updatedAt=%s]".formatted(id, region, activeCells, updatedAt);
+    }
+  }
+
+  // ============================================================
+  // Commands
+  // ============================================================
+  public sealed interface Command {
+    // seenAt, when the tile consumer of this region saw the update, the tile write may come a batch window later
+    public record UpdateCell(
+        String id,
+        GridCell.Status status,
+        Instant updatedAt,
+        Instant seenAt) implements Command {}
+
+    // Cells of one tile updated in one write
+    public record UpdateCells(List<UpdateCell> cells) implements Command {}
+  }
+}
@@ -3,6 +3,7 @@ package io.example.domain;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,8 +14,59 @@ import io.example.application.GridCellView.GridCellRow;
 public class Predator {
   static final Logger log = LoggerFactory.getLogger(Predator.class);
 
+  // reference: the original stream based implementation and the default, kernel: the allocation free PredatorKernel,
+  // scent: PredatorKernel for short range and the incrementally maintained ScentField for long range, opt-in, its long
+  // range step follows the scent gradient with far tiles pulled from their centroid, so predators move differently
+  public enum Engine {
+    reference,
+    kernel,
+    scent
+  }
+
+  public static final int shortRange = 10;
+  // The decision's engine when the scent engine is on but the cell is decided without the scent field, from the view
+  // rows of a predator created by the endpoint or of a move whose area the index does not hold yet
+  public static final String scentCold = "scent-cold";
+
+  private static volatile Engine engine = Engine.reference;
+
+  public static void engine(Engine newEngine) {
+    engine = newEngine;
+  }
+
+  public static Engine engine() {
+    return engine;
+  }
+
+  // The next cell and how it was decided, the engine, the view rows scanned and the range search that found the cell,
+  // short, long or none
+  public record Decision(String engine, int cellsScanned, String foundBy, String nextGridCellId) {}
+
   // Try to find the next grid cell nearby, progressively increasing the range
   static public String nextGridCellId(String predatorGridCellId, List<GridCellView.GridCellRow> allGridCells, int predatorRange) {
+    return decide(predatorGridCellId, allGridCells, predatorRange).nextGridCellId();
+  }
+
+  static public Decision decide(String predatorGridCellId, List<GridCellView.GridCellRow> allGridCells, int predatorRange) {
+    var engine = Predator.engine;
+    if (engine != Engine.reference) {
+      // PredatorKernel.nextGridCellId in its two steps, so the decision tells which range found the cell
+      var packed = CellKey.parse(predatorGridCellId);
+      var preyCells = PreyCells.from(allGridCells);
+      var foundBy = "short";
+      var nextGridCellId = preyCells.size == 0
+          ? ""
+          : PredatorKernel.nextGridCellIdShortRange(CellKey.col(packed), CellKey.row(packed), preyCells, predatorRange, ThreadLocalRandom.current());
+      if (nextGridCellId.isEmpty() && preyCells.size > 0) {
+        foundBy = "long";
+        nextGridCellId = PredatorKernel.nextGridCellIdLongRange(CellKey.col(packed), CellKey.row(packed), preyCells, predatorRange);
+      }
+      log.info("Next cell (kernel): {}, predator: {}, predatorRange: {}, cells: {}",
+          nextGridCellId.isEmpty() ? "(empty)" : nextGridCellId, predatorGridCellId, predatorRange, allGridCells.size());
+      return new Decision(engine == Engine.scent ? scentCold : engine.name(), allGridCells.size(),
+          nextGridCellId.isEmpty() ? "none" : foundBy, nextGridCellId);
+    }
+
     var predatorGridCellXy = Point.fromId(predatorGridCellId);
 
     log.info("Hunting prey: predator: {}, predatorRange: {}, predatorX: {}, predatorY: {}",
@@ -22,27 +74,52 @@ public class Predator {
 
     if (allGridCells.isEmpty()) {
       log.info("Next cell: (empty), predator: {}, No prey cells in predatorRange {}", predatorGridCellXy.id(), predatorRange);
-      return "";
+      return new Decision(Engine.reference.name(), 0, "none", "");
     }
 
     {
       var nextGridCellId = nextGridCellIdShortRange(predatorGridCellXy, allGridCells, predatorRange);
       if (!nextGridCellId.isEmpty()) {
         log.info("Next cell (short range): {}, predator: {}", nextGridCellId, predatorGridCellXy.id());
-        return nextGridCellId;
+        return new Decision(Engine.reference.name(), allGridCells.size(), "short", nextGridCellId);
       }
     }
 
     var nextGridCellId = nextGridCellIdLongRange(predatorGridCellXy, allGridCells, predatorRange);
     log.info("Next cell (long range): {}, predator: {}", nextGridCellId.isEmpty() ? "(empty)" : nextGridCellId, predatorGridCellXy.id());
-    return nextGridCellId;
+    return new Decision(Engine.reference.name(), allGridCells.size(), nextGridCellId.isEmpty() ? "none" : "long", nextGridCellId);
+  }
+
+  // Short range from the given cells, long range from the scent field, so the cost does not depend on the range
+  static public String nextGridCellId(String predatorGridCellId, List<GridCellView.GridCellRow> shortRangeGridCells, ScentField scentField, int predatorRange) {
+    return decide(predatorGridCellId, shortRangeGridCells, scentField, predatorRange).nextGridCellId();
+  }
+
+  static public Decision decide(String predatorGridCellId, List<GridCellView.GridCellRow> shortRangeGridCells, ScentField scentField, int predatorRange) {
+    if (engine != Engine.scent) {
+      return decide(predatorGridCellId, shortRangeGridCells, predatorRange);
+    }
+
+    var packed = CellKey.parse(predatorGridCellId);
+    var predatorX = CellKey.col(packed);
+    var predatorY = CellKey.row(packed);
+    var foundBy = "short";
+    var nextGridCellId = PredatorKernel.nextGridCellIdShortRange(predatorX, predatorY, PreyCells.from(shortRangeGridCells), predatorRange,
+        ThreadLocalRandom.current());
+    if (nextGridCellId.isEmpty()) {
+      foundBy = "long";
+      nextGridCellId = scentField.nextGridCellIdLongRange(predatorX, predatorY, predatorRange);
+    }
+    log.info("Next cell (scent): {}, predator: {}, predatorRange: {}, cells: {}",
+        nextGridCellId.isEmpty() ? "(empty)" : nextGridCellId, predatorGridCellId, predatorRange, shortRangeGridCells.size());
+    return new Decision(Engine.scent.name(), shortRangeGridCells.size(), nextGridCellId.isEmpty() ? "none" : foundBy, nextGridCellId);
   }
 
   // ==================================================
   // Short range
   // ==================================================
   static public String nextGridCellIdShortRange(Point predatorGridCellXy, List<GridCellView.GridCellRow> allGridCells, int predatorRange) {
-    var range = Math.min(predatorRange, 10);
+    var range = Math.min(predatorRange, shortRange);
     var gridCellsInCircle = getGridCellsInCircle(allGridCells, predatorGridCellXy.x(), predatorGridCellXy.y(), range);
     log.info("Found {} grid cells in the circle range {} (filtered from {} in rectangle)", gridCellsInCircle.size(), range, allGridCells.size());
 
@@ -236,7 +313,7 @@ public class Predator {
     }
 
     // Format the next grid cell ID as "RxC"
-    var nextGridCell = nextRow + "x" + nextCol;
+    var nextGridCell = CellKey.id(nextRow, nextCol);
 
     return nextGridCell;
   }
@@ -258,8 +335,8 @@ record PreyVector(double x, double y, double distance, double intensity) {}
 
 record Point(int x, int y) {
   public static Point fromId(String id) {
-    var rc = id.split("x"); // RxC, YxX
-    return new Point(Integer.parseInt(rc[1]), Integer.parseInt(rc[0]));
+    var packed = CellKey.parse(id); // RxC, YxX
+    return new Point(CellKey.col(packed), CellKey.row(packed));
   }
 
   public static Point fromRowCol(int rowY, int colX) {
@@ -275,7 +352,7 @@ record Point(int x, int y) {
   }
 
   public String id() {
-    return "%dx%d".formatted(y, x);
+    return CellKey.id(y, x);
   }
 
   public int row() {
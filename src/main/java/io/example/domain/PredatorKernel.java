@@ -0,0 +1,149 @@
+package io.example.domain;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Allocation free version of the {@link Predator} hunting rules, working over {@link PreyCells} arrays.
+ * <p>
+ * Distances are compared squared, the top intensity prey is selected in a single pass instead of sorting, and the
+ * Gaussian decay is read from a table indexed by squared distance, so the per cell work is a few integer operations
+ * and one table lookup.
+ */
+final class PredatorKernel {
+  static final double sigma = 20.0;
+  static final double minIntensity = 0.000001;
+  static final int maxIntensity = 4;
+
+  // gaussian[d2] = exp(-d2 / (2 * sigma^2)), scaled[d2] = gaussian[d2] / sqrt(d2)
+  // Beyond the table even a max intensity cell is below minIntensity, so it never contributes
+  static final double[] gaussian;
+  static final double[] scaled;
+
+  static {
+    var size = 0;
+    while (maxIntensity * Math.exp(-size / (2 * sigma * sigma)) > minIntensity) {
+      size++;
+    }
+    gaussian = new double[size];
+    scaled = new double[size];
+    for (int d2 = 0; d2 < size; d2++) {
+      gaussian[d2] = Math.exp(-d2 / (2 * sigma * sigma));
+      scaled[d2] = d2 == 0 ? 0.0 : gaussian[d2] / Math.sqrt(d2);
+    }
+  }
+
+  private PredatorKernel() {}
+
+  static String nextGridCellId(int predatorX, int predatorY, PreyCells preyCells, int predatorRange) {
+    return nextGridCellId(predatorX, predatorY, preyCells, predatorRange, ThreadLocalRandom.current());
+  }
+
+  static String nextGridCellId(int predatorX, int predatorY, PreyCells preyCells, int predatorRange, RandomGenerator random) {
+    if (preyCells.size == 0) {
+      return "";
+    }
+
+    var nextGridCellId = nextGridCellIdShortRange(predatorX, predatorY, preyCells, predatorRange, random);
+    if (!nextGridCellId.isEmpty()) {
+      return nextGridCellId;
+    }
+
+    return nextGridCellIdLongRange(predatorX, predatorY, preyCells, predatorRange);
+  }
+
+  // ==================================================
+  // Short range
+  // ==================================================
+  static String nextGridCellIdShortRange(int predatorX, int predatorY, PreyCells preyCells, int predatorRange, RandomGenerator random) {
+    var range = Math.min(predatorRange, Predator.shortRange);
+    if (range < 0) {
+      return "";
+    }
+    var rangeSquared = (long) range * range;
+    var px = preyCells.x;
+    var py = preyCells.y;
+    var pi = preyCells.intensity;
+
+    // Highest intensity first, then nearest, then first seen
+    var bestIndex = -1;
+    var bestIntensity = 0;
+    var bestDistance = Long.MAX_VALUE;
+
+    // Neighbor cells per intensity, at most 8 neighbors
+    var neighborCounts = new int[maxIntensity + 1];
+    var neighborIndexes = new int[(maxIntensity + 1) * 8];
+
+    for (int i = 0, n = preyCells.size; i < n; i++) {
+      var dx = (long) px[i] - predatorX;
+      var dy = (long) py[i] - predatorY;
+      var d2 = dx * dx + dy * dy;
+      if (d2 > rangeSquared) {
+        continue;
+      }
+      var intensity = pi[i];
+      if (intensity > bestIntensity || (intensity == bestIntensity && d2 < bestDistance)) {
+        bestIndex = i;
+        bestIntensity = intensity;
+        bestDistance = d2;
+      }
+      if (d2 != 0 && dx >= -1 && dx <= 1 && dy >= -1 && dy <= 1) {
+        neighborIndexes[intensity * 8 + neighborCounts[intensity]++] = i;
+      }
+    }
+
+    if (bestIndex < 0) {
+      return "";
+    }
+
+    // Randomly select one of the neighbors with the top intensity to move more non-deterministically
+    var neighborCount = neighborCounts[bestIntensity];
+    if (neighborCount > 0) {
+      var neighbor = neighborIndexes[bestIntensity * 8 + random.nextInt(neighborCount)];
+      return CellKey.id(py[neighbor], px[neighbor]);
+    }
+
+    return Predator.nextGridCellId(Point.fromXy(predatorX, predatorY),
+        new DirectionVector(px[bestIndex] - predatorX, py[bestIndex] - predatorY));
+  }
+
+  // ==================================================
+  // Long range
+  // ==================================================
+  static String nextGridCellIdLongRange(int predatorX, int predatorY, PreyCells preyCells, int predatorRange) {
+    if (predatorRange < 0) {
+      return "";
+    }
+    var rangeSquared = (long) predatorRange * predatorRange;
+    var px = preyCells.x;
+    var py = preyCells.y;
+    var pi = preyCells.intensity;
+
+    var sumX = 0.0;
+    var sumY = 0.0;
+    var vectors = 0;
+
+    for (int i = 0, n = preyCells.size; i < n; i++) {
+      var dx = (long) px[i] - predatorX;
+      var dy = (long) py[i] - predatorY;
+      var d2 = dx * dx + dy * dy;
+      if (d2 > rangeSquared || d2 >= gaussian.length) {
+        continue;
+      }
+      var intensity = pi[i];
+      if (intensity * gaussian[(int) d2] <= minIntensity) {
+        continue;
+      }
+      var scale = intensity * scaled[(int) d2];
+      sumX += dx * scale;
+      sumY += dy * scale;
+      vectors++;
+    }
+
+    if (vectors == 0) {
+      return "";
+    }
+
+    return Predator.nextGridCellId(Point.fromXy(predatorX, predatorY), new DirectionVector(sumX, sumY));
+  }
+}
@@ -0,0 +1,89 @@
+package io.example.domain;
+
+import java.util.Arrays;
+import java.util.List;
+
+import io.example.application.GridCellView.GridCellRow;
+
+/**
+ * Struct of arrays holding prey cell coordinates and intensity (red 1, orange 2, green 3, blue 4).
+ * <p>
+ * Instances are reused per thread via {@link #scratch()} so the hunting kernel does not allocate per cell.
+ */
+public final class PreyCells {
+  private static final ThreadLocal<PreyCells> scratch = ThreadLocal.withInitial(() -> new PreyCells(1024));
+
+  int[] x;
+  int[] y;
+  byte[] intensity;
+  int size;
+
+  public PreyCells(int capacity) {
+    x = new int[capacity];
+    y = new int[capacity];
+    intensity = new byte[capacity];
+  }
+
+  // Cleared, per thread instance
+  public static PreyCells scratch() {
+    return scratch.get().clear();
+  }
+
+  public static PreyCells from(List<GridCellRow> gridCells) {
+    return scratch().addAll(gridCells);
+  }
+
+  public PreyCells clear() {
+    size = 0;
+    return this;
+  }
+
+  public PreyCells addAll(List<GridCellRow> gridCells) {
+    for (int i = 0, n = gridCells.size(); i < n; i++) {
+      var cell = gridCells.get(i);
+      add(cell.x(), cell.y(), intensity(cell.status()));
+    }
+    return this;
+  }
+
+  // Cells that are not prey (intensity 0) are skipped
+  public void add(int cellX, int cellY, int cellIntensity) {
+    if (cellIntensity <= 0) {
+      return;
+    }
+    if (size == x.length) {
+      var capacity = size * 2;
+      x = Arrays.copyOf(x, capacity);
+      y = Arrays.copyOf(y, capacity);
+      intensity = Arrays.copyOf(intensity, capacity);
+    }
+    x[size] = cellX;
+    y[size] = cellY;
+    intensity[size] = (byte) cellIntensity;
+    size++;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public static int intensity(String status) {
+    return switch (status.toLowerCase()) {
+      case "red" -> 1;
+      case "orange" -> 2;
+      case "green" -> 3;
+      case "blue" -> 4;
+      default -> 0;
+    };
+  }
+
+  public static int intensity(GridCell.Status status) {
+    return switch (status) {
+      case red -> 1;
+      case orange -> 2;
+      case green -> 3;
+      case blue -> 4;
+      default -> 0;
+    };
+  }
+}
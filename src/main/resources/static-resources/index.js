@@ -14,12 +14,21 @@ document.addEventListener('DOMContentLoaded', () => {
   // Use the current origin for API calls and SSE stream
   const origin = window.location.origin; // Gets the protocol, hostname, and port
   const viewStreamUrl = `${origin}/grid-cell/stream`; // SSE URL
+  const viewportStreamUrl = `${origin}/grid-cell/viewport-stream`; // SSE URL, snapshot then live frames
+  // The viewport stream's snapshot is the full load, unless the page is opened with ?frames=rows
+  const viewportStream = new URLSearchParams(window.location.search).get('frames') !== 'rows';
   const viewListUrl = `${origin}/grid-cell/list`; // SSE URL
 
   // --- State ---
   let hoveredCellId = null; // ID of the currently hovered cell ('cell-R-C')
   let eventSource = null; // EventSource instance
+  let lastEventId = ''; // Id of the last stream event, a new EventSource for the same viewport resumes after it
+  let subscriptionId = ''; // Viewport stream subscription, a pan moves it instead of opening a new stream
   let gridCellListInterval = null; // Interval timer for fetching grid cell list
+  let viewportLoaded = false; // Set after a full viewport load, later syncs only fetch the changed cells
+  let lastViewAt = 0; // Newest server side viewAt (epoch ms) seen, the next changed-since query starts from it
+  let syncInProgress = false;
+  const resyncMarginMs = 2000; // Changes that reach the view slightly out of order are fetched again, not missed
 
   // Selection state
   let selectionMode = false;
@@ -313,6 +322,22 @@ document.addEventListener('DOMContentLoaded', () => {
    * Generates the grid cells dynamically.
    */
   function createGrid() {
+    // A viewport stream is moved, the cells still in view keep their state and the stream sends the ones that came into view
+    const moving = viewportStream && subscriptionId !== '' && eventSource !== null;
+    const retained = new Map();
+    if (moving) {
+      Array.from(gridContainer.children).forEach((cell) => {
+        const status = getCellStatus(cell);
+        if (cell.id.startsWith('cell-') && status !== 'inactive') {
+          retained.set(cell.id.substring('cell-'.length), { status, elapsedMs: cell.textContent ? Number(cell.textContent) : undefined });
+        }
+      });
+    } else {
+      // A new grid has no cells set, the next sync loads the whole viewport
+      viewportLoaded = false;
+      lastViewAt = 0;
+    }
+
     // Remove any lingering overlay from previous grid
     removeGridCellOverlay();
     // Calculate grid dimensions based on current viewport
@@ -405,6 +430,7 @@ document.addEventListener('DOMContentLoaded', () => {
 
     // Update the grid summary display
     updateGridSummary();
+    retained.forEach((cell, id) => applyGridCell({ id, ...cell }));
 
     // Create axes after grid is populated
     setTimeout(() => {
@@ -412,8 +438,12 @@ document.addEventListener('DOMContentLoaded', () => {
       createBottomAxis();
     }, 0);
 
-    closeStream();
-    connectToStream();
+    if (moving) {
+      moveStream();
+    } else {
+      closeStream();
+      connectToStream();
+    }
   }
 
   /**
@@ -580,61 +610,292 @@ document.addEventListener('DOMContentLoaded', () => {
     return true;
   }
 
+  // Single cell updates are batched, painting many cells in a burst sends one batch-update request per flush
+  const batchUpdateFlushDelay = 50; // ms
+  const batchUpdateMaxCells = 500;
+  let pendingCellUpdates = new Map(); // id -> update, a later update of the same cell replaces the earlier one
+  let batchUpdateTimeout = null;
+
+  function queueCellUpdate(id, colorChar) {
+    const statusMap = { r: 'red', g: 'green', b: 'blue', o: 'orange', p: 'predator', d: 'inactive' };
+    pendingCellUpdates.set(id, { id: id, status: statusMap[colorChar], clientAt: new Date().toISOString() });
+
+    if (pendingCellUpdates.size >= batchUpdateMaxCells) {
+      flushCellUpdates();
+    } else if (!batchUpdateTimeout) {
+      batchUpdateTimeout = setTimeout(flushCellUpdates, batchUpdateFlushDelay);
+    }
+  }
+
+  function flushCellUpdates() {
+    clearTimeout(batchUpdateTimeout);
+    batchUpdateTimeout = null;
+    if (pendingCellUpdates.size === 0) {
+      return;
+    }
+    const updates = Array.from(pendingCellUpdates.values());
+    pendingCellUpdates = new Map();
+    sendBatchUpdate(updates);
+  }
+
+  /**
+   * Sends a batch of cell status updates, cells that failed are retried in the next attempt.
+   * @param {Array<{id: string, status: string, clientAt: string}>} updates
+   */
+  async function sendBatchUpdate(updates) {
+    const apiUrl = `${origin}/grid-cell/batch-update`;
+    const maxRetries = 10;
+    const retryDelay = 100; // ms
+    let attempt = 0;
+    let remaining = updates;
+
+    while (attempt < maxRetries && remaining.length > 0) {
+      attempt++;
+      if (attempt > 1) {
+        console.warn(`${new Date().toISOString()} `, `Retrying PUT to ${apiUrl} with ${remaining.length} cells`);
+        await new Promise((res) => setTimeout(res, retryDelay));
+      }
+
+      try {
+        const response = await fetch(apiUrl, {
+          method: 'PUT',
+          headers: {
+            'Content-Type': 'application/json',
+          },
+          body: JSON.stringify({ updates: remaining }),
+        });
+
+        if (response.ok) {
+          const result = await response.json();
+          const failedIds = new Set(result.results.filter((cell) => !cell.ok).map((cell) => cell.id));
+          remaining = remaining.filter((update) => failedIds.has(update.id));
+          console.info(`${new Date().toISOString()} `, `Batch update of ${result.requested} cells, ${result.updated} updated, ${result.failed} failed, ${result.elapsedMs}ms`);
+        } else {
+          const errorText = await response.text();
+          console.error(`${new Date().toISOString()} `, `HTTP error for batch update! Status: ${response.status} ${errorText}`);
+        }
+      } catch (error) {
+        console.error(`${new Date().toISOString()} `, `Error sending batch update:`, error);
+      }
+    }
+
+    if (remaining.length > 0) {
+      console.error(`${new Date().toISOString()} `, `Failed to update ${remaining.length} cells after ${maxRetries} attempts`);
+    }
+  }
+
   /**
    * Handles incoming messages from the SSE stream or a query response.
-   * @param {string} gridCellJson Raw message data string (expected JSON)
+   * @param {string} gridCellJson Raw message data string (expected JSON), one grid cell or a batched frame
    */
   function handleGridCellData(gridCellJson) {
     try {
-      const gridCell = JSON.parse(gridCellJson);
+      const data = JSON.parse(gridCellJson);
 
-      if (gridCell.id && gridCell.status !== undefined) {
-        // Server is using the 'rxc' format, just prepend 'cell-'
-        const cellId = `cell-${gridCell.id}`;
-        const gridCellElement = document.getElementById(cellId);
+      if (Array.isArray(data)) {
+        // Batched frame, the latest [id, status, elapsedMs] of each cell changed within the window
+        data.forEach(([id, status, elapsedMs]) => applyGridCell({ id, status, elapsedMs }));
+      } else {
+        applyGridCell(data);
+      }
+    } catch (error) {
+      console.error('Error parsing stream message:', error, 'Data:', gridCellJson);
+    }
+  }
 
-        if (gridCellElement) {
-          // Get the previous status before removing classes
-          const previousStatus = getCellStatus(gridCellElement);
+  /**
+   * Handles a viewport stream frame, snapshot frames of the viewport's current cells, one synced marker, then live frames.
+   * @param {string} frameJson Raw message data string, {type, cells: [[id, status, elapsedMs], ...], viewAt}
+   */
+  function handleViewportFrame(frameJson) {
+    try {
+      const frame = JSON.parse(frameJson);
+      if (frame.type === 'subscribed') {
+        handleSubscribed(frame);
+        return;
+      }
+      frame.cells.forEach(([id, status, elapsedMs]) => applyGridCell({ id, status, elapsedMs }));
 
-          // Only update if the status has changed
-          if (previousStatus !== gridCell.status) {
-            // Remove existing status classes first
-            gridCellElement.classList.remove('cell-red', 'cell-green', 'cell-blue', 'cell-orange', 'cell-predator');
+      if (frame.type === 'synced') {
+        lastViewAt = Math.max(lastViewAt, frame.viewAt);
+        viewportLoaded = true;
+        console.info(`${new Date().toISOString()} `, 'Viewport snapshot loaded, streaming live updates.');
+      }
+    } catch (error) {
+      console.error('Error parsing viewport frame:', error, 'Data:', frameJson);
+    }
+  }
 
-            // Update cell counts
-            updateCellCounts(previousStatus, gridCell.status);
+  /**
+   * Keeps the viewport stream's subscription id. A browser reconnect subscribes the area of the stream's URL, a stream
+   * for another area than the current viewport is replaced by one for the viewport, resuming after the last event.
+   * @param {object} frame {type: 'subscribed', subscriptionId, x1, y1, x2, y2}
+   */
+  function handleSubscribed(frame) {
+    const area = viewportArea();
+    if (frame.x1 === area.x1 && frame.y1 === area.y1 && frame.x2 === area.x2 && frame.y2 === area.y2) {
+      subscriptionId = frame.subscriptionId;
+      return;
+    }
+    const resumeAfter = lastEventId;
+    closeStream();
+    lastEventId = resumeAfter;
+    connectToStream();
+  }
 
-            // Add the appropriate class based on status
-            if (gridCell.status !== 'inactive') {
-              gridCellElement.classList.add(`cell-${gridCell.status}`);
-            }
+  /**
+   * Applies one grid cell, from the stream, a query response or a tile, to the grid.
+   * @param {object} gridCell Grid cell with at least id and status, updatedAt and elapsedMs when active
+   */
+  function applyGridCell(gridCell) {
+    if (gridCell.viewAt) {
+      lastViewAt = Math.max(lastViewAt, Date.parse(gridCell.viewAt));
+    }
 
-            // Calculate and display elapsed time if available
-            if (gridCell.updatedAt && gridCell.status !== 'inactive') {
-              const elapsedMs = Math.min(9999, gridCell.elapsedMs);
+    if (gridCell.id && gridCell.status !== undefined) {
+      // Server is using the 'rxc' format, just prepend 'cell-'
+      const cellId = `cell-${gridCell.id}`;
+      const gridCellElement = document.getElementById(cellId);
 
-              if (elapsedMs >= 0) {
-                gridCellElement.textContent = elapsedMs;
-                gridCellElement.classList.add('has-elapsed-time');
-              } else {
-                gridCellElement.textContent = '';
-                gridCellElement.classList.remove('has-elapsed-time');
-              }
+      if (gridCellElement) {
+        // Get the previous status before removing classes
+        const previousStatus = getCellStatus(gridCellElement);
+
+        // Only update if the status has changed
+        if (previousStatus !== gridCell.status) {
+          // Remove existing status classes first
+          gridCellElement.classList.remove('cell-red', 'cell-green', 'cell-blue', 'cell-orange', 'cell-predator');
+
+          // Update cell counts
+          updateCellCounts(previousStatus, gridCell.status);
+
+          // Add the appropriate class based on status
+          if (gridCell.status !== 'inactive') {
+            gridCellElement.classList.add(`cell-${gridCell.status}`);
+          }
+
+          // Calculate and display elapsed time if available
+          if ((gridCell.updatedAt || gridCell.elapsedMs !== undefined) && gridCell.status !== 'inactive') {
+            const elapsedMs = Math.min(9999, gridCell.elapsedMs);
+
+            if (elapsedMs >= 0) {
+              gridCellElement.textContent = elapsedMs;
+              gridCellElement.classList.add('has-elapsed-time');
             } else {
-              // Clear text content for inactive state
               gridCellElement.textContent = '';
               gridCellElement.classList.remove('has-elapsed-time');
             }
-
-            // Update the grid summary display
-            updateGridSummary();
+          } else {
+            // Clear text content for inactive state
+            gridCellElement.textContent = '';
+            gridCellElement.classList.remove('has-elapsed-time');
           }
+
+          // Update the grid summary display
+          updateGridSummary();
+        }
+      }
+    }
+  }
+
+  /**
+   * Brings the viewport up to date, a full load the first time and after the grid is rebuilt, otherwise only the
+   * cells changed since the newest viewAt seen. Used by the periodic refresh, SSE reconnects and tab resume.
+   */
+  async function syncGridCells() {
+    if (syncInProgress) {
+      return;
+    }
+    syncInProgress = true;
+    try {
+      if (viewportStream) {
+        // Loaded by the stream's snapshot, only the changes after it are fetched
+        if (viewportLoaded && lastViewAt > 0) {
+          await fetchGridCellChanges(lastViewAt - resyncMarginMs, 'start');
         }
+      } else if (!viewportLoaded || lastViewAt === 0) {
+        const loadingGrid = gridContainer.firstChild;
+        await fetchGridCellList();
+        viewportLoaded = gridContainer.firstChild === loadingGrid; // Not loaded when the grid was rebuilt meanwhile
+      } else {
+        await fetchGridCellChanges(lastViewAt - resyncMarginMs, 'start');
+      }
+    } finally {
+      syncInProgress = false;
+    }
+  }
+
+  /**
+   * Fetches a page of the viewport cells whose view row changed after sinceMs and processes them
+   * @param {number} sinceMs - Epoch ms, server clock
+   * @param {string} pageToken - The page token for pagination ('start' for first page)
+   */
+  async function fetchGridCellChanges(sinceMs, pageToken) {
+    try {
+      const x1 = viewportX;
+      const y1 = viewportY;
+      const x2 = x1 + gridCols - 1;
+      const y2 = y1 + gridRows - 1;
+      const url = `${origin}/grid-cell/changed-since/${x1}/${y1}/${x2}/${y2}/${Math.max(0, sinceMs)}/${pageToken}`;
+
+      const data = await fetchGridCellPage(url);
+      if (!data) {
+        return;
+      }
+
+      data.gridCells.forEach((cell) => applyGridCell(cell));
+
+      if (data.hasMore && data.nextPageToken) {
+        await fetchGridCellChanges(sinceMs, data.nextPageToken);
       }
     } catch (error) {
-      console.error('Error parsing stream message:', error, 'Data:', gridCellJson);
+      console.error(`Error fetching grid cell changes page ${pageToken}:`, error);
+    }
+  }
+
+  /**
+   * Fetches one page of grid cell rows in the columnar encoding, see GridCellEncoding.java, and rebuilds the row objects
+   * Falls back to the row per object json when the page URL has ?frames=rows
+   * @param {string} url - A paginated-list or changed-since URL
+   * @returns {Promise<{gridCells: Object[], nextPageToken: string, hasMore: boolean}|null>} null on an HTTP error
+   */
+  async function fetchGridCellPage(url) {
+    const columnar = new URLSearchParams(window.location.search).get('frames') !== 'rows';
+    const response = await fetch(url, {
+      headers: { Accept: columnar ? 'application/vnd.grid-cell.columnar+json' : 'application/json' },
+    });
+
+    if (!response.ok) {
+      console.error(`HTTP error! Status: ${response.status}`, await response.text());
+      return null;
+    }
+
+    const data = await response.json();
+    if (!columnar) {
+      return data;
+    }
+
+    const statuses = ['inactive', 'red', 'green', 'blue', 'orange', 'predator'];
+    const isoOrNull = (epochMs) => (epochMs ? new Date(epochMs).toISOString() : null);
+    const gridCells = [];
+    for (let i = 0; i < data.count; i++) {
+      gridCells.push({
+        id: `${data.y[i]}x${data.x[i]}`, // RxC / YxX
+        status: statuses[data.status[i]],
+        x: data.x[i],
+        y: data.y[i],
+        clientAt: isoOrNull(data.clientAt[i]),
+        endpointAt: isoOrNull(data.endpointAt[i]),
+        createdAt: isoOrNull(data.createdAt[i]),
+        updatedAt: isoOrNull(data.updatedAt[i]),
+        viewAt: isoOrNull(data.viewAt[i]),
+        elapsedMs: data.elapsedMs[i],
+        created: data.regions[data.created[i]],
+        updated: data.regions[data.updated[i]],
+        view: data.regions[data.view[i]],
+      });
     }
+    return { gridCells, nextPageToken: data.nextPageToken, hasMore: data.hasMore };
   }
 
   /**
@@ -644,6 +905,10 @@ document.addEventListener('DOMContentLoaded', () => {
   async function fetchGridCellList() {
     // await fetchGridCellData('start');
 
+    if (await fetchGridTiles()) {
+      return;
+    }
+
     const regions = subdivideGrid(viewportY, viewportX, gridRows, gridCols, 500);
 
     for (const region of regions) {
@@ -651,6 +916,60 @@ document.addEventListener('DOMContentLoaded', () => {
     }
   }
 
+  /**
+   * Loads the viewport from the tile view, a handful of packed tile rows instead of pages of cell rows.
+   * See GridTile.java for the statuses and elapsedMs layout.
+   * @returns {Promise<boolean>} false when the tiles could not be loaded and the caller should fall back to cell pages
+   */
+  async function fetchGridTiles() {
+    const statuses = ['inactive', 'red', 'green', 'blue', 'orange', 'predator'];
+    const x1 = viewportX;
+    const y1 = viewportY;
+    const x2 = x1 + gridCols - 1;
+    const y2 = y1 + gridRows - 1;
+
+    try {
+      const response = await fetch(`${origin}/grid-cell/tiles/${x1}/${y1}/${x2}/${y2}`);
+
+      if (!response.ok) {
+        console.error(`HTTP error! Status: ${response.status}`, await response.text());
+        return false;
+      }
+
+      const data = await response.json();
+      const tileSize = data.tileSize;
+
+      data.tiles.forEach((tile) => {
+        lastViewAt = Math.max(lastViewAt, Date.parse(tile.updatedAt));
+        const elapsed = Uint8Array.from(atob(tile.elapsedMs), (c) => c.charCodeAt(0));
+        const tileX1 = tile.tileX * tileSize;
+        const tileY1 = tile.tileY * tileSize;
+
+        for (let i = 0; i < tile.statuses.length; i++) {
+          const status = statuses[tile.statuses.charCodeAt(i) - 48];
+          if (status === 'inactive') {
+            continue;
+          }
+          const x = tileX1 + (i % tileSize);
+          const y = tileY1 + Math.floor(i / tileSize);
+          if (x < x1 || x > x2 || y < y1 || y > y2) {
+            continue;
+          }
+          applyGridCell({
+            id: `${y}x${x}`, // RxC / YxX
+            status: status,
+            updatedAt: tile.updatedAt,
+            elapsedMs: elapsed[i * 2] | (elapsed[i * 2 + 1] << 8),
+          });
+        }
+      });
+      return true;
+    } catch (error) {
+      console.error('Error fetching grid tiles:', error);
+      return false;
+    }
+  }
+
   /**
    * Fetches a page of grid cells and processes them
    * @param {string} pageToken - The page token for pagination ('start' for first page)
@@ -705,24 +1024,15 @@ document.addEventListener('DOMContentLoaded', () => {
       const url = `${origin}/grid-cell/paginated-list/${x1}/${y1}/${x2}/${y2}/${pageToken}`;
       // console.info(`Fetching grid cell data from ${url}...`);
 
-      const response = await fetch(url);
-
-      if (!response.ok) {
-        console.error(`HTTP error! Status: ${response.status}`, await response.text());
+      const data = await fetchGridCellPage(url);
+      if (!data) {
         return;
       }
 
-      const data = await response.json();
-
       if (data && data.gridCells && Array.isArray(data.gridCells)) {
         // console.info(`Received ${data.cells.length} cells from page ${pageToken}`);
 
-        // Process each cell through the handleStreamMessage function
-        data.gridCells.forEach((cell) => {
-          // Convert the grid cell object to a JSON string as handleStreamMessage expects
-          const gridCellJson = JSON.stringify(cell);
-          handleGridCellData(gridCellJson);
-        });
+        data.gridCells.forEach((cell) => applyGridCell(cell));
 
         // Check if there are more pages to fetch
         if (data.hasMore && data.nextPageToken) {
@@ -784,6 +1094,8 @@ document.addEventListener('DOMContentLoaded', () => {
    * Establishes and manages the Server-Sent Events (SSE) connection.
    */
   function closeStream() {
+    lastEventId = ''; // The next stream is for another viewport
+    subscriptionId = '';
     if (eventSource) {
       eventSource.close();
       eventSource = null;
@@ -818,17 +1130,61 @@ document.addEventListener('DOMContentLoaded', () => {
     };
   }
 
+  /**
+   * The area the stream subscribes for the current viewport.
+   * @returns {Object} {x1, y1, x2, y2}
+   */
+  function viewportArea() {
+    const x1 = viewportX; // Current viewport X offset
+    const y1 = viewportY; // Current viewport Y offset
+    const x2 = x1 + gridCols; // End of viewport X offset
+    const y2 = y1 + gridRows; // End of viewport Y offset
+    return { x1, y1, x2, y2 };
+  }
+
+  /**
+   * Moves the viewport stream to the current viewport, falls back to a new stream when the move fails, e.g. when the
+   * request reaches another node than the stream.
+   */
+  async function moveStream() {
+    const id = subscriptionId;
+    const area = viewportArea();
+    try {
+      const response = await fetch(`${viewportStreamUrl}/${id}`, {
+        method: 'PUT',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify(area),
+      });
+      if (!response.ok) {
+        throw new Error(`HTTP error! status: ${response.status}`);
+      }
+      const moved = await response.json();
+      console.info(`${new Date().toISOString()} `, `Viewport stream moved, ${moved.replayedRows} cells came into view.`);
+    } catch (error) {
+      console.warn(`${new Date().toISOString()} `, 'Viewport stream move failed, opening a new stream:', error);
+      if (subscriptionId === id) {
+        viewportLoaded = false;
+        lastViewAt = 0;
+        closeStream();
+        connectToStream();
+      }
+    }
+  }
+
   function connectToStream() {
     if (eventSource && eventSource.readyState !== EventSource.CLOSED) {
       console.info(`${new Date().toISOString()} `, 'EventSource already open or connecting.');
       return;
     }
 
-    const x1 = viewportX; // Current viewport X offset
-    const y1 = viewportY; // Current viewport Y offset
-    const x2 = x1 + gridCols; // End of viewport X offset
-    const y2 = y1 + gridRows; // End of viewport Y offset
-    const url = `${viewStreamUrl}/${x1}/${y1}/${x2}/${y2}`;
+    const { x1, y1, x2, y2 } = viewportArea();
+    // The viewport stream with batched frames unless the page is opened with ?frames=rows
+    const windowMs = new URLSearchParams(window.location.search).get('windowMs') || 50;
+    // The browser sends Last-Event-ID on its own reconnects, a new EventSource passes it as a query parameter
+    const resume = lastEventId ? `lastEventId=${encodeURIComponent(lastEventId)}` : '';
+    const url = viewportStream
+      ? `${viewportStreamUrl}/${x1}/${y1}/${x2}/${y2}?windowMs=${windowMs}${resume ? `&${resume}` : ''}`
+      : `${viewStreamUrl}/${x1}/${y1}/${x2}/${y2}${resume ? `?${resume}` : ''}`;
     console.info(`${new Date().toISOString()} `, `Attempting to connect SSE to ${url}...`);
     updateConnectionStatus('Connecting...', '');
     eventSource = new EventSource(url);
@@ -842,16 +1198,27 @@ document.addEventListener('DOMContentLoaded', () => {
     eventSource.onopen = (event) => {
       console.info(`${new Date().toISOString()} `, `SSE connection established, readyState: ${readyStateMap[eventSource.readyState]}.`);
       updateConnectionStatus('Connected', 'connected');
+      if (!viewportStream) {
+        syncGridCells(); // Pick up what changed while the stream was down, the viewport stream starts with a snapshot
+      }
     };
 
     eventSource.onmessage = (event) => {
+      if (event.lastEventId) {
+        lastEventId = event.lastEventId;
+      }
       if (event.data) {
         // console.debug(`${new Date().toISOString()} SSE message: ${event.data}`);
-        handleGridCellData(event.data);
+        if (viewportStream) {
+          handleViewportFrame(event.data);
+        } else {
+          handleGridCellData(event.data);
+        }
       }
     };
 
     eventSource.onerror = (event) => {
+      subscriptionId = ''; // The subscription ended with the connection, a reconnect gets a new one
       // console.error(`${new Date().toISOString()} `, `SSE error:`, event);
       console.error(`${new Date().toISOString()} `, `SSE error, EventSource readyState: ${readyStateMap[eventSource.readyState]}`);
       if (eventSource.readyState === EventSource.CONNECTING) {
@@ -978,12 +1345,8 @@ document.addEventListener('DOMContentLoaded', () => {
       // Refresh the grid
       createGrid();
 
-      // Show a notification
+      // Show a notification, the grid moved or reconnected the SSE stream to match the new viewport
       updateCommandStatus(`Viewport moved to x:${viewportX}, y:${viewportY}`, 2000);
-
-      // Close and reconnect SSE stream to match new viewport
-      closeStream();
-      connectToStream();
     }
   }
 
@@ -1099,7 +1462,11 @@ document.addEventListener('DOMContentLoaded', () => {
       } else if (hoveredCellId) {
         // Extract "RxC" from "cell-RxC"
         const id = hoveredCellId.substring(5); // Remove "cell-" prefix
-        sendCellUpdate(id, colorChar, command, radius);
+        if (command === 'update-status') {
+          queueCellUpdate(id, colorChar);
+        } else {
+          sendCellUpdate(id, colorChar, command, radius);
+        }
       }
     }
 
@@ -1761,16 +2128,23 @@ document.addEventListener('DOMContentLoaded', () => {
   createCommandDisplay(); // Add command status display to the info panel
   updateGridPositionDisplay(); // Update grid position display
   createGrid();
-  fetchGridCellList(); // Fetch initial state
+  syncGridCells(); // Fetch initial state
   connectToStream(); // Connect to stream for updates
   // connectToTimeStream(); // Connect to time stream for updates
   document.addEventListener('keydown', handleGlobalKeyDown);
   document.addEventListener('keyup', handleGlobalKeyUp);
 
-  // Set up interval to fetch grid cell list every 250ms
+  // Set up interval to sync the grid cells, only changed cells after the first load
   const urlParams = new URLSearchParams(window.location.search);
   const interval = parseInt(urlParams.get('interval'), 10) || 100;
-  gridCellListInterval = setInterval(fetchGridCellList, interval);
+  gridCellListInterval = setInterval(syncGridCells, interval);
+
+  // A hidden tab may miss updates, resync as soon as it is visible again
+  document.addEventListener('visibilitychange', () => {
+    if (document.visibilityState === 'visible') {
+      syncGridCells();
+    }
+  });
 
   // Add window resize event listener to adjust grid when window size changes
   window.addEventListener('resize', () => {
@@ -0,0 +1,99 @@
+package io.example.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import org.junit.jupiter.api.Test;
+
+import io.example.application.ClockSkew;
+
+public class ClockSkewSamplerTest {
+
+  @Test
+  void testEstimateIsTheShortestRoundTripSample() {
+    var clockSkew = clockSkew();
+    // Peer 300ms ahead, the first sample's request is queued 80ms, the second's legs take 5ms each
+    clockSkew.record("aws-us-east-2", "east", new ClockSkew.Sample(1_000, 1_380, 1_381, 1_091));
+    clockSkew.record("aws-us-east-2", "east", new ClockSkew.Sample(2_000, 2_305, 2_306, 2_011));
+
+    assertEquals(300, clockSkew.offsetMs("aws-us-east-2").getAsLong());
+    assertTrue(clockSkew.offsetMs("gcp-us-east1").isEmpty());
+
+    var estimate = clockSkew.metrics().peers().get(0);
+    assertEquals(300, estimate.offsetMs());
+    assertEquals(10, estimate.rttMs());
+    assertEquals(5, estimate.errorMs());
+    assertEquals(2, estimate.samples());
+  }
+
+  @Test
+  void testCorrectionAppliesTheOriginOffset() {
+    var clockSkew = clockSkew();
+    clockSkew.record("aws-us-east-2", "east", new ClockSkew.Sample(1_000, 900, 900, 1_000));
+
+    // Origin 100ms behind, its updatedAt is 100ms early, so the raw latency is 100ms too long
+    assertEquals(150, clockSkew.corrected("aws-us-east-2", "gcp-us-east1", 250));
+    assertEquals(250, clockSkew.corrected("gcp-us-east1", "gcp-us-east1", 250));
+    assertEquals(250, clockSkew.corrected("aws-eu-central-1", "gcp-us-east1", 250));
+  }
+
+  @Test
+  void testStandInPeerOffsetIsEstimatedWithinHalfTheRoundTrip() {
+    var clockSkew = clockSkew();
+    var standIn = ClockSkewSampler.standInPeer(
+        new ClockSkew.StandInPeer("stand-in-behind", Duration.ofMillis(-250), Duration.ofMillis(20)),
+        System::currentTimeMillis);
+    var sampler = new ClockSkewSampler(clockSkew, List.of(standIn), System::currentTimeMillis);
+
+    for (int i = 0; i < 3; i++) {
+      sampler.sample().toCompletableFuture().join();
+    }
+
+    var estimate = clockSkew.metrics().peers().get(0);
+    assertEquals("stand-in-behind", estimate.region());
+    assertEquals("stand-in:stand-in-behind", estimate.route());
+    assertEquals(3, estimate.samples());
+    assertTrue(Math.abs(estimate.offsetMs() + 250) <= estimate.errorMs() + 1, "offset " + estimate.offsetMs());
+  }
+
+  @Test
+  void testFailedAndMismatchedSamplesAreCounted() {
+    var clockSkew = clockSkew();
+    var now = new AtomicLong(10_000);
+    var failing = peer("failing", t0 -> CompletableFuture.failedFuture(new RuntimeException("unreachable")));
+    var stale = peer("stale", t0 -> CompletableFuture.completedFuture(new ClockSkew.Reading("aws-us-east-2", t0 - 1, t0, t0)));
+    var sampler = new ClockSkewSampler(clockSkew, List.of(failing, stale), now::get);
+
+    sampler.sample().toCompletableFuture().join();
+
+    var metrics = clockSkew.metrics();
+    assertTrue(metrics.peers().isEmpty());
+    assertEquals(Map.of("failing", 1L, "stale", 1L), metrics.failures());
+  }
+
+  static ClockSkew clockSkew() {
+    return new ClockSkew(new ClockSkew.Settings(false, Duration.ofSeconds(5), Duration.ofSeconds(2), 8, List.of()));
+  }
+
+  static ClockSkewSampler.Peer peer(String route, LongFunction<CompletionStage<ClockSkew.Reading>> read) {
+    return new ClockSkewSampler.Peer() {
+      @Override
+      public String route() {
+        return route;
+      }
+
+      @Override
+      public CompletionStage<ClockSkew.Reading> read(long t0) {
+        return read.apply(t0);
+      }
+    };
+  }
+}
@@ -0,0 +1,66 @@
+package io.example.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import io.example.application.GridCellView.GridCellRow;
+import io.example.application.GridCellView.PagedGridCells;
+
+public class GridCellEncodingTest {
+  static final Instant now = Instant.parse("2026-01-01T00:00:00.123Z");
+
+  static PagedGridCells page() {
+    return new PagedGridCells(List.of(
+        new GridCellRow("-3x7", "blue", 7, -3, now, now.plusMillis(1), now.plusMillis(2), now.plusMillis(3), now.plusMillis(4), 250,
+            "gcp-us-east1", "aws-us-east-2", "gcp-us-east1", ""),
+        new GridCellRow("0x0", "inactive", 0, 0, null, null, now, now, now, 0, "", "", "gcp-us-east1", ""),
+        new GridCellRow("5x-2", "predator", -2, 5, now, now, now, now, now, 65535, "aws-us-east-2", "aws-us-east-2", "aws-us-east-2", "")),
+        "next-ü", true);
+  }
+
+  @Test
+  void testNegotiateAcceptHeader() {
+    assertEquals(GridCellEncoding.Encoding.json, GridCellEncoding.negotiate(Optional.empty()));
+    assertEquals(GridCellEncoding.Encoding.json, GridCellEncoding.negotiate(Optional.of("application/json, */*")));
+    assertEquals(GridCellEncoding.Encoding.columnar,
+        GridCellEncoding.negotiate(Optional.of("application/vnd.grid-cell.columnar+json;q=0.9, application/json")));
+    assertEquals(GridCellEncoding.Encoding.binary,
+        GridCellEncoding.negotiate(Optional.of("application/json;q=0.5, application/vnd.grid-cell.binary")));
+    assertEquals(GridCellEncoding.Encoding.json,
+        GridCellEncoding.negotiate(Optional.of("application/vnd.grid-cell.binary;q=0, application/json")));
+    assertEquals(GridCellEncoding.Encoding.columnar,
+        GridCellEncoding.negotiate(Optional.of("application/vnd.grid-cell.binary; q=0.0, application/vnd.grid-cell.columnar+json;q=0.1")));
+  }
+
+  @Test
+  void testBinaryRoundTrip() {
+    var page = page();
+    var bytes = GridCellEncoding.binary(page);
+
+    assertEquals(page, GridCellEncoding.fromBinary(bytes));
+    assertEquals('G', bytes[0]);
+    assertEquals('C', bytes[1]);
+  }
+
+  @Test
+  void testColumnarShape() {
+    var columnar = GridCellEncoding.columnar(page());
+
+    assertEquals(3, columnar.count());
+    assertEquals(List.of("gcp-us-east1", "aws-us-east-2", ""), columnar.regions());
+    assertArrayEquals(new int[] { 7, 0, -2 }, columnar.x());
+    assertArrayEquals(new int[] { -3, 0, 5 }, columnar.y());
+    assertArrayEquals(new int[] { 3, 0, 5 }, columnar.status());
+    assertArrayEquals(new long[] { now.toEpochMilli(), 0, now.toEpochMilli() }, columnar.clientAt());
+    assertArrayEquals(new int[] { 0, 2, 1 }, columnar.created());
+    assertArrayEquals(new int[] { 1, 2, 1 }, columnar.updated());
+    assertArrayEquals(new int[] { 0, 0, 1 }, columnar.view());
+    assertEquals("next-ü", columnar.nextPageToken());
+  }
+}
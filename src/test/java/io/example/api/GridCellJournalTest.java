@@ -0,0 +1,77 @@
+package io.example.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import io.example.application.GridCellView.GridCellRow;
+import io.example.domain.CellKey;
+
+public class GridCellJournalTest {
+  static final GridCellStreamHub.Area everywhere = new GridCellStreamHub.Area(-100, -100, 100, 100);
+
+  static GridCellRow row(int x, int y) {
+    return new GridCellRow(CellKey.id(y, x), "red", x, y, null, null, null, null, null, 0, "", "", "", "");
+  }
+
+  static List<Long> seqs(Optional<List<GridCellJournal.Entry>> entries) {
+    return entries.orElseThrow().stream().map(GridCellJournal.Entry::seq).toList();
+  }
+
+  @Test
+  void testAppendDispatchesInSequenceOrder() {
+    var journal = new GridCellJournal(8);
+    var dispatched = new ArrayList<Long>();
+
+    for (int i = 0; i < 5; i++) {
+      journal.append(row(i, 0), entry -> dispatched.add(entry.seq()));
+    }
+
+    assertEquals(List.of(1L, 2L, 3L, 4L, 5L), dispatched);
+    assertEquals(5, journal.head());
+    assertEquals(List.of(4L, 5L), seqs(journal.since(3, everywhere)));
+    assertEquals(List.of(), seqs(journal.since(5, everywhere)));
+  }
+
+  @Test
+  void testSinceEntriesAreNotLive() {
+    var journal = new GridCellJournal(8);
+    var dispatched = new ArrayList<GridCellJournal.Entry>();
+    journal.append(row(0, 0), dispatched::add);
+    journal.append(row(1, 1), dispatched::add);
+
+    assertTrue(dispatched.stream().allMatch(GridCellJournal.Entry::live));
+    assertTrue(journal.since(0, everywhere).orElseThrow().stream().noneMatch(GridCellJournal.Entry::live));
+  }
+
+  @Test
+  void testSinceFiltersByArea() {
+    var journal = new GridCellJournal(8);
+    journal.append(row(0, 0), entry -> {});
+    journal.append(row(50, 50), entry -> {});
+    journal.append(row(1, 1), entry -> {});
+
+    assertEquals(List.of(1L, 3L), seqs(journal.since(0, new GridCellStreamHub.Area(0, 0, 10, 10))));
+  }
+
+  @Test
+  void testGapLargerThanCapacityIsNotCovered() {
+    var journal = new GridCellJournal(4);
+    for (int i = 0; i < 10; i++) {
+      journal.append(row(i, 0), entry -> {});
+    }
+
+    assertEquals(7, journal.oldest());
+    assertTrue(journal.covers(6));
+    assertEquals(List.of(7L, 8L, 9L, 10L), seqs(journal.since(6, everywhere)));
+    assertFalse(journal.covers(5));
+    assertFalse(journal.since(5, everywhere).isPresent());
+    assertFalse(journal.covers(11)); // Not yet written, a restarted node
+  }
+}
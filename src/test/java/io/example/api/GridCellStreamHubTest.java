@@ -0,0 +1,125 @@
+package io.example.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import akka.stream.BoundedSourceQueue;
+import akka.stream.QueueOfferResult;
+import io.example.application.ComponentCalls;
+import io.example.application.GridCellView.GridCellRow;
+import io.example.application.StageLatency;
+
+public class GridCellStreamHubTest {
+  static final Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+  static GridCellRow row(String id, String status, Instant viewAt) {
+    return new GridCellRow(id, status, 0, 0, null, null, null, null, viewAt, 7, "", "", "", "");
+  }
+
+  @Test
+  void testLiveRowsNotNewerThanSnapshotAreDropped() {
+    var snapshotViewAt = new HashMap<String, Instant>();
+    snapshotViewAt.put("1x1", now);
+
+    assertFalse(GridCellStreamHub.newerThanSnapshot(row("1x1", "red", now.minusMillis(5)), snapshotViewAt));
+    assertFalse(GridCellStreamHub.newerThanSnapshot(row("1x1", "red", now), snapshotViewAt));
+    assertTrue(GridCellStreamHub.newerThanSnapshot(row("1x1", "blue", now.plusMillis(1)), snapshotViewAt));
+    assertFalse(snapshotViewAt.containsKey("1x1"));
+    assertTrue(GridCellStreamHub.newerThanSnapshot(row("2x2", "green", now.minusSeconds(1)), snapshotViewAt));
+  }
+
+  static GridCellJournal.Entry entry(long seq, int x, int y) {
+    return new GridCellJournal.Entry(seq, new GridCellRow(y + "x" + x, "red", x, y, null, null, null, null, now, 7, "", "", "", ""), true);
+  }
+
+  static GridCellStreamHub hub() {
+    return new GridCellStreamHub(new GridCellStreamHub.Settings(16, 16, Duration.ofSeconds(1), Duration.ofSeconds(1),
+        Duration.ofMillis(50), Duration.ofSeconds(1), 16), null, null, StageLatency.node(),
+        new ComponentCalls(new ComponentCalls.Settings(Duration.ofSeconds(5), 12)));
+  }
+
+  static long emittedCount() {
+    return StageLatency.node().metrics(Duration.ofMinutes(1)).stages().stream()
+        .filter(stage -> stage.stage() == StageLatency.Stage.viewToEmit)
+        .mapToLong(StageLatency.StageMetrics::totalCount)
+        .sum();
+  }
+
+  @Test
+  void testOnlyLiveRowsAreRecordedAsEmitted() {
+    var hub = hub();
+    var before = emittedCount();
+    var live = entry(2, 1, 1);
+    var replayed = new GridCellJournal.Entry(1, live.row(), false);
+
+    assertEquals(live.row(), hub.emitted(replayed));
+    assertEquals(List.of(live.row(), live.row()), hub.emitted(List.of(replayed, live)));
+    assertEquals(before + 1, emittedCount());
+    hub.emitted(live);
+    assertEquals(before + 2, emittedCount());
+  }
+
+  @Test
+  void testResumeOnlyFromThisNodesCoveredIds() {
+    var hub = hub();
+
+    assertEquals(Optional.of(0L), hub.resumeFrom(Optional.of(hub.eventId(0))));
+    assertEquals(Optional.empty(), hub.resumeFrom(Optional.of(hub.eventId(1)))); // Not yet written
+    assertEquals(Optional.empty(), hub.resumeFrom(Optional.of("0-0"))); // Another node or an earlier run of this one
+    assertEquals(Optional.empty(), hub.resumeFrom(Optional.empty()));
+    assertEquals(1, hub.metrics().resumes());
+    assertEquals(2, hub.metrics().resumeFallbacks());
+  }
+
+  @Test
+  void testCompactFrameCells() {
+    assertEquals(List.of(List.of("1x1", "red", 7), List.of("-2x3", "inactive", 7)),
+        GridCellStreamHub.compact(List.of(row("1x1", "red", now), row("-2x3", "inactive", null))));
+  }
+
+  @Test
+  void testMovedSubscriberGetsTheReplayBeforeTheHeldBackRows() {
+    var queued = new ArrayList<GridCellJournal.Entry>();
+    var subscriber = hub().new Subscriber(GridCellStreamHub.Area.of(0, 0, 9, 9), new ListQueue(queued), 0);
+    subscriber.start(List.of());
+    subscriber.offer(entry(1, 5, 5));
+
+    subscriber.hold(GridCellStreamHub.Area.of(5, 0, 14, 9));
+    subscriber.offer(entry(3, 12, 3)); // Newly visible, held back
+    subscriber.offer(entry(4, 1, 1)); // No longer visible
+    assertEquals(List.of(entry(1, 5, 5)), queued);
+
+    subscriber.start(List.of(entry(2, 11, 2), entry(2, 20, 2)));
+    subscriber.offer(entry(5, 6, 6));
+    assertEquals(List.of(entry(1, 5, 5), entry(2, 11, 2), entry(3, 12, 3), entry(5, 6, 6)), queued);
+  }
+
+  record ListQueue(List<GridCellJournal.Entry> queued) implements BoundedSourceQueue<GridCellJournal.Entry> {
+    @Override
+    public QueueOfferResult offer(GridCellJournal.Entry entry) {
+      queued.add(entry);
+      return QueueOfferResult.enqueued();
+    }
+
+    @Override
+    public void complete() {}
+
+    @Override
+    public void fail(Throwable error) {}
+
+    @Override
+    public int size() {
+      return queued.size();
+    }
+  }
+}
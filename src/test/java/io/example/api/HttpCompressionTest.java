@@ -0,0 +1,55 @@
+package io.example.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import akka.http.javadsl.model.ContentTypes;
+import akka.http.javadsl.model.HttpHeader;
+import akka.http.javadsl.model.HttpResponse;
+
+public class HttpCompressionTest {
+
+  @Test
+  void testAcceptsGzip() {
+    assertTrue(HttpCompression.acceptsGzip(Optional.of("gzip, deflate, br")));
+    assertTrue(HttpCompression.acceptsGzip(Optional.of("br;q=1.0, GZIP;q=0.5")));
+    assertTrue(HttpCompression.acceptsGzip(Optional.of("*")));
+    assertFalse(HttpCompression.acceptsGzip(Optional.empty()));
+    assertFalse(HttpCompression.acceptsGzip(Optional.of("br, deflate")));
+    assertFalse(HttpCompression.acceptsGzip(Optional.of("gzip;q=0, br")));
+    assertFalse(HttpCompression.acceptsGzip(Optional.of("gzip; q=0.0")));
+  }
+
+  @Test
+  void testGzipRoundTrip() throws IOException {
+    var bytes = "{\"gridCells\":[]}".repeat(200).getBytes(StandardCharsets.UTF_8);
+    var gzipped = HttpCompression.gzip(bytes);
+
+    assertTrue(gzipped.length < bytes.length / 10);
+    try (var in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+      assertArrayEquals(bytes, in.readAllBytes());
+    }
+  }
+
+  @Test
+  void testVaryListsTheNegotiatedHeaders() {
+    var body = "{}".getBytes(StandardCharsets.UTF_8);
+
+    assertEquals("Accept-Encoding", vary(HttpCompression.ok(ContentTypes.APPLICATION_JSON, body, true, 0)));
+    assertEquals("Accept, Accept-Encoding", vary(HttpCompression.ok(ContentTypes.APPLICATION_JSON, body, false, 0, "Accept, Accept-Encoding")));
+  }
+
+  static String vary(HttpResponse response) {
+    return response.getHeader("Vary").map(HttpHeader::value).orElse("");
+  }
+}
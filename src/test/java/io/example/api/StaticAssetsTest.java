@@ -0,0 +1,96 @@
+package io.example.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import akka.http.javadsl.model.HttpHeader;
+import akka.http.javadsl.model.StatusCodes;
+
+public class StaticAssetsTest {
+
+  static StaticAssets.Asset asset(String path, String hash) {
+    return new StaticAssets.Asset(path, null, new byte[0], null, hash);
+  }
+
+  @Test
+  void testRewriteVersionsAssetReferences() {
+    var assets = Map.of(
+        "index.css", asset("index.css", "aaaa"),
+        "index.js", asset("index.js", "bbbb"),
+        "images/help.png", asset("images/help.png", "cccc"));
+    var html = """
+        <link rel="stylesheet" href="index.css" />
+        <a href="help.html">Help</a>
+        <img src="/static/images/help.png" />
+        <img src="missing.png" />
+        <script src="index.js" defer></script>
+        """;
+
+    assertEquals("""
+        <link rel="stylesheet" href="index.css?v=aaaa" />
+        <a href="help.html">Help</a>
+        <img src="/static/images/help.png?v=cccc" />
+        <img src="missing.png" />
+        <script src="index.js?v=bbbb" defer></script>
+        """, StaticAssets.rewrite(html, path -> Optional.ofNullable(assets.get(path))));
+  }
+
+  @Test
+  void testIfNoneMatch() {
+    var etag = "\"0123456789abcdef\"";
+
+    assertTrue(StaticAssets.matches(Optional.of(etag), etag));
+    assertTrue(StaticAssets.matches(Optional.of("\"other\", W/" + etag), etag));
+    assertTrue(StaticAssets.matches(Optional.of("*"), etag));
+    assertFalse(StaticAssets.matches(Optional.of("\"other\""), etag));
+    assertFalse(StaticAssets.matches(Optional.empty(), etag));
+  }
+
+  @Test
+  void testHashIsStable() {
+    var bytes = "console.log('grid');".getBytes(StandardCharsets.UTF_8);
+
+    assertEquals(16, StaticAssets.hash(bytes).length());
+    assertEquals(StaticAssets.hash(bytes), StaticAssets.hash(bytes.clone()));
+  }
+
+  @Test
+  void testPathsOutsideStaticResourcesAreRejected() {
+    assertFalse(StaticAssets.get("../application.conf").isPresent());
+    assertFalse(StaticAssets.get("/etc/passwd").isPresent());
+    assertFalse(StaticAssets.get("index.js.gz").isPresent());
+  }
+
+  @Test
+  void testMissesAreNotCached() {
+    var cached = StaticAssets.cached();
+
+    for (int i = 0; i < 100; i++) {
+      assertFalse(StaticAssets.get("missing-" + i + ".js").isPresent());
+    }
+
+    assertEquals(cached, StaticAssets.cached());
+  }
+
+  @Test
+  void testGzipAndIdentityBodiesHaveDistinctETags() {
+    var bytes = "body { margin: 0; }\n".repeat(100).getBytes(StandardCharsets.UTF_8);
+    var asset = new StaticAssets.Asset("index.css", StaticAssets.contentType("index.css"), bytes, HttpCompression.gzip(bytes), "0123456789abcdef");
+
+    var gzipped = StaticAssets.response(asset, Optional.empty(), Optional.empty(), Optional.of("gzip"));
+    var identity = StaticAssets.response(asset, Optional.empty(), Optional.empty(), Optional.empty());
+    assertEquals("\"0123456789abcdef-gz\"", gzipped.getHeader("ETag").map(HttpHeader::value).orElse(""));
+    assertEquals("\"0123456789abcdef\"", identity.getHeader("ETag").map(HttpHeader::value).orElse(""));
+
+    // An ETag only revalidates the representation it was sent with
+    assertEquals(StatusCodes.NOT_MODIFIED, StaticAssets.response(asset, Optional.empty(), Optional.of(asset.etag(true)), Optional.of("gzip")).status());
+    assertEquals(StatusCodes.OK, StaticAssets.response(asset, Optional.empty(), Optional.of(asset.etag(true)), Optional.empty()).status());
+  }
+}
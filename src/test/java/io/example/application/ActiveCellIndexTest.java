@@ -0,0 +1,186 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.example.application.GridCellView.GridCellRow;
+import io.example.domain.GridCell;
+
+public class ActiveCellIndexTest {
+
+  @Test
+  void testColdIndexFallsBackToViewThenServesFromIndex() {
+    var index = new ActiveCellIndex(60_000, 1024, 64);
+    var viewQueries = new AtomicInteger();
+    var viewRows = List.of(row(5, 5, "red"), row(40, 5, "blue"), row(-3, -3, "green"));
+    ActiveCellIndex.AreaQuery viewQuery = (x1, y1, x2, y2) -> {
+      viewQueries.incrementAndGet();
+      return CompletableFuture.completedFuture(viewRows.stream()
+          .filter(row -> row.x() >= x1 && row.x() <= x2 && row.y() >= y1 && row.y() <= y2)
+          .toList());
+    };
+
+    var first = activeCells(index, 0, 0, 10, 10, viewQuery);
+    assertEquals(1, viewQueries.get());
+    assertEquals(List.of("5x5"), first.stream().map(GridCellRow::id).toList());
+
+    var second = activeCells(index, 0, 0, 10, 10, viewQuery);
+    assertEquals(1, viewQueries.get());
+    assertEquals(List.of("5x5"), second.stream().map(GridCellRow::id).toList());
+    assertEquals(1, index.metrics().viewQueriesAvoided());
+  }
+
+  @Test
+  void testStatusUpdatesAreAppliedToLoadedTiles() {
+    var index = new ActiveCellIndex(60_000, 1024, 64);
+    activeCells(index, -10, -10, 10, 10, rows(row(1, 1, "red")));
+
+    index.onStatusUpdated("1x1", GridCell.Status.inactive); // RxC / YxX
+    index.onStatusUpdated("-2x3", GridCell.Status.orange);
+
+    var cells = activeCells(index, -10, -10, 10, 10, (x1, y1, x2, y2) -> {
+      throw new AssertionError("expected index to be warm");
+    });
+    assertEquals(1, cells.size());
+    assertEquals("-2x3", cells.get(0).id());
+    assertEquals(3, cells.get(0).x());
+    assertEquals(-2, cells.get(0).y());
+    assertEquals("orange", cells.get(0).status());
+  }
+
+  @Test
+  void testStaleTilesAreCold() {
+    var index = new ActiveCellIndex(0, 1024, 64);
+    var viewQueries = new AtomicInteger();
+    ActiveCellIndex.AreaQuery viewQuery = (x1, y1, x2, y2) -> {
+      viewQueries.incrementAndGet();
+      return CompletableFuture.completedFuture(List.of());
+    };
+
+    activeCells(index, 0, 0, 10, 10, viewQuery);
+    sleep(5);
+    activeCells(index, 0, 0, 10, 10, viewQuery);
+    assertEquals(2, viewQueries.get());
+  }
+
+  @Test
+  void testLargeAreasAreNotLoaded() {
+    var index = new ActiveCellIndex(60_000, 1024, 4);
+    var cells = activeCells(index, 0, 0, 500, 500, rows(row(1, 1, "red")));
+    assertEquals(1, cells.size());
+    assertTrue(index.metrics().tiles() == 0);
+  }
+
+  @Test
+  void testScentFieldFollowsLoadsAndUpdates() {
+    var index = new ActiveCellIndex(60_000, 1024, 64);
+    assertTrue(warm(index, 0, 0, 10, 10, rows(row(5, 5, "blue"), row(6, 6, "predator"))));
+
+    var scentField = index.scentField();
+    assertEquals(4, scentField.intensity(5, 5));
+    assertEquals(0, scentField.intensity(6, 6));
+
+    index.onStatusUpdated("5x5", GridCell.Status.red); // RxC / YxX
+    assertEquals(1, scentField.intensity(5, 5));
+
+    index.onStatusUpdated("500x500", GridCell.Status.blue); // Not loaded, not tracked
+    assertEquals(0, scentField.intensity(500, 500));
+
+    assertTrue(warm(index, 0, 0, 10, 10, (x1, y1, x2, y2) -> {
+      throw new AssertionError("expected index to be warm");
+    }));
+  }
+
+  @Test
+  void testTilesAreLoadedWhenTheViewQueryCompletes() {
+    var index = new ActiveCellIndex(60_000, 1024, 64);
+    var viewAnswer = new CompletableFuture<List<GridCellRow>>();
+
+    var warmed = index.warmAsync(0, 0, 10, 10, (x1, y1, x2, y2) -> viewAnswer).toCompletableFuture();
+    assertFalse(warmed.isDone());
+    assertEquals(0, index.metrics().tiles());
+
+    viewAnswer.complete(List.of(row(5, 5, "red")));
+    assertTrue(warmed.join());
+    assertEquals(1, index.metrics().tiles());
+    assertEquals(List.of("5x5"), activeCells(index, 0, 0, 10, 10, (x1, y1, x2, y2) -> {
+      throw new AssertionError("expected index to be warm");
+    }).stream().map(GridCellRow::id).toList());
+  }
+
+  @Test
+  void testUpdatesSeenWhileALoadIsInFlightAreReplayed() {
+    var index = new ActiveCellIndex(60_000, 1024, 64);
+    var viewAnswer = new CompletableFuture<List<GridCellRow>>();
+    var warmed = index.warmAsync(0, 0, 10, 10, (x1, y1, x2, y2) -> viewAnswer).toCompletableFuture();
+
+    index.onStatusUpdated("6x6", GridCell.Status.blue); // Seen by the consumer, not yet in the view
+    index.onStatusUpdated("5x5", GridCell.Status.inactive);
+    viewAnswer.complete(List.of(row(5, 5, "red")));
+
+    assertTrue(warmed.join());
+    assertEquals(List.of("6x6"), activeCells(index, 0, 0, 10, 10, (x1, y1, x2, y2) -> {
+      throw new AssertionError("expected index to be warm");
+    }).stream().map(GridCellRow::id).toList());
+    assertEquals(2, index.metrics().updatesReplayed());
+
+    index.onStatusUpdated("7x7", GridCell.Status.green); // After the load, applied to the loaded tile
+    assertEquals(2, activeCells(index, 0, 0, 10, 10, rows()).size());
+  }
+
+  @Test
+  void testTilesLoadedLongestAgoAreEvictedOverMaxTiles() {
+    var index = new ActiveCellIndex(60_000, 2, 64);
+
+    warm(index, 0, 0, 10, 10, rows());
+    sleep(2);
+    warm(index, 40, 0, 50, 10, rows());
+    sleep(2);
+    warm(index, 80, 0, 90, 10, rows());
+
+    assertEquals(2, index.metrics().tiles());
+    assertEquals(1, index.metrics().tilesEvicted());
+    assertFalse(index.fresh(0, 0, 10, 10));
+    assertTrue(index.fresh(40, 0, 50, 10) && index.fresh(80, 0, 90, 10));
+  }
+
+  @Test
+  void testLargeAreasAreNotWarmed() {
+    var index = new ActiveCellIndex(60_000, 1024, 4);
+
+    assertFalse(warm(index, 0, 0, 500, 500, (x1, y1, x2, y2) -> {
+      throw new AssertionError("expected no view query");
+    }));
+  }
+
+  static List<GridCellRow> activeCells(ActiveCellIndex index, int x1, int y1, int x2, int y2, ActiveCellIndex.AreaQuery viewQuery) {
+    return index.activeCellsAsync(x1, y1, x2, y2, viewQuery).toCompletableFuture().join();
+  }
+
+  static boolean warm(ActiveCellIndex index, int x1, int y1, int x2, int y2, ActiveCellIndex.AreaQuery viewQuery) {
+    return index.warmAsync(x1, y1, x2, y2, viewQuery).toCompletableFuture().join();
+  }
+
+  static ActiveCellIndex.AreaQuery rows(GridCellRow... rows) {
+    return (x1, y1, x2, y2) -> CompletableFuture.completedFuture(List.of(rows));
+  }
+
+  static GridCellRow row(int x, int y, String status) {
+    return new GridCellRow(y + "x" + x, status, x, y, null, null, null, null, null, 0, "", "", "", "");
+  }
+
+  static void sleep(long ms) {
+    try {
+      Thread.sleep(ms);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+public class ComponentCallsTest {
+
+  @Test
+  void testCallsErrorsAndInFlightPerComponentMethod() {
+    var calls = componentCalls();
+    var pending = new CompletableFuture<String>();
+
+    calls.call("GridCellView", "getGridCell", () -> pending);
+    calls.call("GridCellEntity", "updateStatus", () -> CompletableFuture.completedFuture("done"));
+    calls.call("GridCellEntity", "updateStatus", () -> CompletableFuture.failedFuture(new RuntimeException("timeout")));
+    calls.call("GridCellEntity", "updateStatus", () -> {
+      throw new IllegalStateException("not started");
+    });
+
+    var metrics = calls.metrics(Duration.ofMinutes(1));
+    assertEquals(2, metrics.size());
+    var update = metrics.get(0);
+    assertEquals("GridCellEntity", update.component());
+    assertEquals("updateStatus", update.method());
+    assertEquals(3, update.calls());
+    assertEquals(2, update.errors());
+    assertEquals(0, update.inFlight());
+    assertEquals(3, update.windowCount());
+
+    var view = metrics.get(1);
+    assertEquals(1, view.inFlight());
+    assertEquals(0, view.windowCount());
+
+    pending.complete("row");
+    view = calls.metrics(Duration.ofMinutes(1)).get(1);
+    assertEquals(0, view.inFlight());
+    assertEquals(1, view.maxInFlight());
+    assertEquals(1, view.windowCount());
+  }
+
+  @Test
+  void testPrometheusHistogramIsCumulative() {
+    var calls = componentCalls();
+    calls.call("GridCellEntity", "updateStatus", () -> CompletableFuture.completedFuture("done"));
+    calls.call("GridCellEntity", "updateStatus", () -> CompletableFuture.failedFuture(new RuntimeException("timeout")));
+
+    var text = calls.prometheus();
+    var labels = "{component=\"GridCellEntity\",method=\"updateStatus\"";
+    assertTrue(text.contains("# TYPE component_client_call_duration_seconds histogram\n"), text);
+    assertTrue(text.contains("component_client_calls_total" + labels + "} 2\n"), text);
+    assertTrue(text.contains("component_client_call_errors_total" + labels + "} 1\n"), text);
+    assertTrue(text.contains("component_client_calls_in_flight" + labels + "} 0\n"), text);
+    assertTrue(text.contains("component_client_call_duration_seconds_bucket" + labels + ",le=\"0.0005\"}"), text);
+    assertTrue(text.contains("component_client_call_duration_seconds_bucket" + labels + ",le=\"+Inf\"} 2\n"), text);
+    assertTrue(text.contains("component_client_call_duration_seconds_count" + labels + "} 2\n"), text);
+
+    var previous = -1L;
+    for (var line : text.split("\n")) {
+      if (line.startsWith("component_client_call_duration_seconds_bucket")) {
+        var count = Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+        assertTrue(count >= previous, line);
+        previous = count;
+      }
+    }
+    assertEquals(2, previous);
+  }
+
+  static ComponentCalls componentCalls() {
+    return new ComponentCalls(new ComponentCalls.Settings(Duration.ofSeconds(5), 12));
+  }
+}
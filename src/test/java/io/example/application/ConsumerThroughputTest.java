@@ -0,0 +1,74 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import akka.Done;
+
+public class ConsumerThroughputTest {
+
+  @Test
+  void testCallsAreTrackedUntilTheyComplete() {
+    var meter = new ConsumerThroughput().meter("lane");
+    var calls = new ArrayList<CompletableFuture<Done>>();
+
+    var results = new ArrayList<CompletableFuture<Done>>();
+    for (int i = 0; i < 3; i++) {
+      results.add(meter.call(() -> {
+        var call = new CompletableFuture<Done>();
+        calls.add(call);
+        return call;
+      }).toCompletableFuture());
+    }
+
+    assertEquals(3, calls.size());
+    assertEquals(3, meter.metrics().concurrentCalls());
+
+    calls.get(0).complete(Done.getInstance());
+    assertTrue(results.get(0).isDone());
+    calls.get(1).completeExceptionally(new RuntimeException("failed"));
+    assertTrue(results.get(1).isCompletedExceptionally());
+    calls.get(2).complete(Done.getInstance());
+
+    var metrics = meter.metrics();
+    assertEquals(0, metrics.concurrentCalls());
+    assertEquals(3, metrics.maxConcurrentCalls());
+    assertEquals(2, metrics.callsCompleted());
+    assertEquals(1, metrics.callsFailed());
+  }
+
+  @Test
+  void testCallThatThrowsIsCountedAsFailed() {
+    var meter = new ConsumerThroughput().meter("lane");
+
+    var result = meter.<Done>call(() -> {
+      throw new IllegalStateException("not started");
+    });
+
+    assertTrue(result.toCompletableFuture().isCompletedExceptionally());
+    assertEquals(1, meter.metrics().callsFailed());
+    assertEquals(0, meter.metrics().concurrentCalls());
+  }
+
+  @Test
+  void testLagIsRecorded() {
+    var meter = new ConsumerThroughput().meter("lane");
+
+    meter.lag(Optional.empty());
+    assertEquals(0, meter.metrics().maxLagMs());
+
+    meter.lag(Optional.of(Instant.now().minusSeconds(120)));
+    meter.lag(Optional.of(Instant.now().minusSeconds(5)));
+
+    var metrics = meter.metrics();
+    assertTrue(metrics.maxLagMs() >= 120_000);
+    assertTrue(metrics.lagMs() >= 5_000 && metrics.lagMs() < 120_000);
+  }
+}
@@ -0,0 +1,117 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.example.application.GridCellView.GridCellRow;
+import io.example.domain.GridCell;
+import io.example.domain.Predator;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightEventsTest {
+  static final Instant now = Instant.now();
+
+  // The events of the given name committed while run runs
+  static List<RecordedEvent> recorded(String eventName, Runnable run) throws IOException {
+    var file = Files.createTempFile("flight-events", ".jfr");
+    try (var recording = new Recording()) {
+      recording.enable(eventName).withoutThreshold();
+      recording.start();
+      run.run();
+      recording.stop();
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  static GridCell.Event.StatusUpdated statusUpdated(String id) {
+    return new GridCell.Event.StatusUpdated(id, GridCell.Status.red, now, now, now, now, "us-east", "us-east", "abc");
+  }
+
+  @Test
+  void testEntityCommand() throws Exception {
+    var command = new GridCell.Command.UpdateStatus("1x2", GridCell.Status.red, now, now, "us-east", "abc");
+    var events = recorded("io.example.EntityCommand", () -> FlightEvents.EntityCommand.start("1x2")
+        .commit(command, List.of(statusUpdated("1x2"), statusUpdated("1x2")), "us-east"));
+
+    assertEquals(1, events.size());
+    var event = events.get(0);
+    assertEquals("1x2", event.getString("entityId"));
+    assertEquals("UpdateStatus", event.getString("command"));
+    assertEquals(2, event.getInt("eventsPersisted"));
+    assertEquals("StatusUpdated,StatusUpdated", event.getString("eventTypes"));
+    assertEquals("us-east", event.getString("region"));
+  }
+
+  @Test
+  void testNoEventIsCreatedWithoutARecording() {
+    var command = new GridCell.Command.UpdateStatus("1x2", GridCell.Status.red, now, now, "us-east", "abc");
+    var entityCommand = FlightEvents.EntityCommand.start("1x2");
+    var consumerCall = FlightEvents.ConsumerCall.start("grid-cell-fill-span-consumer");
+
+    assertSame(entityCommand, FlightEvents.EntityCommand.start("1x3"));
+    assertSame(consumerCall, FlightEvents.ConsumerCall.start("grid-cell-clear-erase-consumer"));
+    entityCommand.commit(command, List.of(statusUpdated("1x2")), "us-east");
+    consumerCall.commit(statusUpdated("1x2"), "1x2", null);
+  }
+
+  @Test
+  void testViewUpdate() throws Exception {
+    var row = new GridCellRow("1x2", "red", 2, 1, now, now, now, now, now.plusMillis(12), 12, "us-east", "us-west", "eu-west", "abc");
+    var events = recorded("io.example.ViewUpdate", () -> FlightEvents.ViewUpdate.start().commit(row));
+
+    assertEquals(1, events.size());
+    var event = events.get(0);
+    assertEquals("1x2", event.getString("cellId"));
+    assertEquals("red", event.getString("status"));
+    assertEquals(12, event.getInt("elapsedMs"));
+    assertEquals(row.updated(), event.getString("originRegion"));
+    assertEquals(row.view(), event.getString("viewRegion"));
+    assertEquals("abc", event.getString("traceId"));
+  }
+
+  @Test
+  void testConsumerCall() throws Exception {
+    var events = recorded("io.example.ConsumerCall", () -> {
+      FlightEvents.ConsumerCall.start("grid-cell-fill-span-consumer").commit(statusUpdated("1x2"), "1x2", null);
+      FlightEvents.ConsumerCall.start("grid-cell-fill-span-consumer").commit(statusUpdated("1x3"), "1x3", new RuntimeException("boom"));
+    });
+
+    assertEquals(2, events.size());
+    var succeeded = events.stream().filter(event -> event.getString("cellId").equals("1x2")).findFirst().orElseThrow();
+    assertEquals("grid-cell-fill-span-consumer", succeeded.getString("consumerId"));
+    assertEquals("StatusUpdated", succeeded.getString("eventType"));
+    assertFalse(succeeded.getBoolean("failed"));
+    assertTrue(events.stream().filter(event -> event.getString("cellId").equals("1x3")).findFirst().orElseThrow().getBoolean("failed"));
+  }
+
+  @Test
+  void testPredatorDecision() throws Exception {
+    var nextCellId = new String[1];
+    var events = recorded("io.example.PredatorDecision", () -> nextCellId[0] = FlightEvents.PredatorDecision.nextGridCellId("10x5", 50,
+        () -> new Predator.Decision("kernel", 25, "short", "10x6")));
+
+    assertEquals("10x6", nextCellId[0]);
+    assertEquals(1, events.size());
+    var event = events.get(0);
+    assertEquals("10x5", event.getString("predatorCellId"));
+    assertEquals("kernel", event.getString("engine"));
+    assertEquals(50, event.getInt("range"));
+    assertEquals(25, event.getInt("cellsScanned"));
+    assertEquals("short", event.getString("foundBy"));
+    assertEquals("10x6", event.getString("nextCellId"));
+  }
+}
@@ -0,0 +1,151 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import akka.Done;
+import io.example.domain.GridCell;
+import io.example.domain.GridTile;
+
+public class GridTileBatcherTest {
+  record Write(String tileId, GridTile.Command.UpdateCells command, CompletableFuture<Done> done) {}
+
+  static GridTile.Command.UpdateCell cell(String id) {
+    var now = Instant.now();
+    return new GridTile.Command.UpdateCell(id, GridCell.Status.red, now, now);
+  }
+
+  static GridTileBatcher.TileWrite recorded(List<Write> writes) {
+    return (tileId, command) -> {
+      var recorded = new Write(tileId, command, new CompletableFuture<>());
+      synchronized (writes) {
+        writes.add(recorded);
+      }
+      return recorded.done();
+    };
+  }
+
+  static void awaitWrites(List<Write> writes, int count) throws InterruptedException {
+    for (int i = 0; i < 100 && writes.size() < count; i++) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+  }
+
+  @Test
+  void testCellsOfATileAreWrittenInOneBatch() throws Exception {
+    var batcher = new GridTileBatcher(Duration.ofMillis(50), 1024, 1024, 0);
+    var writes = new ArrayList<Write>();
+    var write = recorded(writes);
+
+    var first = batcher.update(cell("0x0"), write).toCompletableFuture();
+    var second = batcher.update(cell("1x1"), write).toCompletableFuture();
+    batcher.update(cell("40x0"), write);
+
+    awaitWrites(writes, 2);
+    assertEquals(2, writes.size());
+    var tile = writes.stream().filter(w -> w.tileId().equals("0x0")).findFirst().orElseThrow();
+    assertEquals(List.of("0x0", "1x1"), tile.command().cells().stream().map(GridTile.Command.UpdateCell::id).toList());
+
+    var metrics = batcher.metrics();
+    assertEquals(2, metrics.batches());
+    assertEquals(3, metrics.cells());
+    assertEquals(2, metrics.maxBatchCells());
+    assertEquals(3, metrics.queuedCells());
+
+    tile.done().complete(Done.getInstance());
+    assertTrue(first.isDone() && second.isDone());
+    assertEquals(1, batcher.metrics().queuedCells());
+  }
+
+  @Test
+  void testUpdatesCompleteWhenTheirBatchIsWritten() {
+    var batcher = new GridTileBatcher(Duration.ofHours(1), 2, 1024, 0);
+    var writes = new ArrayList<Write>();
+
+    var first = batcher.update(cell("0x0"), recorded(writes)).toCompletableFuture();
+    assertFalse(first.isDone());
+    assertTrue(writes.isEmpty());
+    assertEquals(1, batcher.metrics().openBatches());
+
+    var second = batcher.update(cell("1x1"), recorded(writes)).toCompletableFuture();
+    assertEquals(1, writes.size());
+    assertFalse(first.isDone() || second.isDone());
+
+    writes.get(0).done().complete(Done.getInstance());
+    assertTrue(first.isDone() && second.isDone());
+  }
+
+  @Test
+  void testBatchesAreWrittenWithoutTheWindowWhenTooManyCellsAreQueued() {
+    var batcher = new GridTileBatcher(Duration.ofHours(1), 1024, 2, 0);
+    var writes = new ArrayList<Write>();
+
+    var first = batcher.update(cell("0x0"), recorded(writes)).toCompletableFuture();
+    var second = batcher.update(cell("0x1"), recorded(writes)).toCompletableFuture();
+    assertTrue(writes.isEmpty());
+
+    var third = batcher.update(cell("0x2"), recorded(writes)).toCompletableFuture();
+    assertEquals(1, writes.size());
+    assertEquals(3, writes.get(0).command().cells().size());
+
+    writes.get(0).done().complete(Done.getInstance());
+    assertTrue(first.isDone() && second.isDone() && third.isDone());
+    assertEquals(0, batcher.metrics().queuedCells());
+  }
+
+  @Test
+  void testNextBatchOfATileIsWrittenAfterThePreviousOne() {
+    var batcher = new GridTileBatcher(Duration.ofHours(1), 1, 1024, 0);
+    var writes = new ArrayList<Write>();
+
+    batcher.update(cell("0x0"), recorded(writes));
+    batcher.update(cell("0x0"), recorded(writes));
+    batcher.update(cell("0x1"), recorded(writes));
+
+    assertEquals(1, writes.size());
+    writes.get(0).done().complete(Done.getInstance());
+    assertEquals(2, writes.size());
+    writes.get(1).done().complete(Done.getInstance());
+    assertEquals(3, writes.size());
+    assertEquals("0x1", writes.get(2).command().cells().get(0).id());
+  }
+
+  @Test
+  void testFailedWriteIsRetried() throws Exception {
+    var batcher = new GridTileBatcher(Duration.ofMillis(10), 1, 0, 2);
+    var attempts = new AtomicInteger();
+
+    var written = batcher.update(cell("0x0"), (tileId, command) -> attempts.incrementAndGet() < 3
+        ? CompletableFuture.failedFuture(new IllegalStateException("write failed"))
+        : CompletableFuture.completedFuture(Done.getInstance())).toCompletableFuture();
+
+    written.get(5, TimeUnit.SECONDS);
+    assertEquals(3, attempts.get());
+    assertEquals(2, batcher.metrics().retries());
+    assertEquals(0, batcher.metrics().failedBatches());
+  }
+
+  @Test
+  void testFailedWriteFailsTheBatch() {
+    var batcher = new GridTileBatcher(Duration.ofHours(1), 1, 0, 0);
+
+    var failed = batcher.update(cell("0x0"), (tileId, command) -> {
+      throw new IllegalStateException("write failed");
+    }).toCompletableFuture();
+
+    assertTrue(failed.isCompletedExceptionally());
+    assertEquals(1, batcher.metrics().failedBatches());
+    assertEquals(0, batcher.metrics().queuedCells());
+  }
+}
@@ -0,0 +1,134 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class ReplicationLatencyTest {
+
+  @Test
+  void testHistogramBucketsKeepThreePercentPrecision() {
+    for (long value : new long[] { 0, 1, 31, 32, 33, 63, 64, 65, 1000, 123_456, LatencyHistogram.MAX_VALUE }) {
+      var highest = LatencyHistogram.highestValue(LatencyHistogram.bucket(value));
+      assertTrue(highest >= value, "bucket of %d ends at %d".formatted(value, highest));
+      assertTrue(highest - value <= value / LatencyHistogram.SUB_BUCKETS, "bucket of %d ends at %d".formatted(value, highest));
+    }
+    assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(LatencyHistogram.MAX_VALUE));
+  }
+
+  @Test
+  void testHistogramPercentiles() {
+    var histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+    var snapshot = histogram.snapshot();
+
+    assertEquals(1000, snapshot.count());
+    assertEquals(1000, snapshot.max());
+    assertEquals(500, snapshot.percentile(0.50), 500 / LatencyHistogram.SUB_BUCKETS);
+    assertEquals(950, snapshot.percentile(0.95), 950 / LatencyHistogram.SUB_BUCKETS);
+    assertEquals(990, snapshot.percentile(0.99), 990 / LatencyHistogram.SUB_BUCKETS);
+    assertEquals(0, new LatencyHistogram().snapshot().percentile(0.99));
+  }
+
+  @Test
+  void testWindowSlidesPastOldSlots() {
+    var now = new AtomicLong(100_000);
+    var window = new LatencyWindow(Duration.ofSeconds(1), 3, now::get);
+
+    window.record(900);
+    now.addAndGet(1_000);
+    window.record(10);
+    window.record(20);
+
+    assertEquals(3, window.snapshot(Duration.ofSeconds(3)).count());
+    assertEquals(2, window.snapshot(Duration.ofSeconds(1)).count());
+    assertEquals(20, window.snapshot(Duration.ofSeconds(1)).max());
+
+    now.addAndGet(3_000); // The 900 slot is out of the window and is reused
+    window.record(5);
+    var snapshot = window.snapshot(Duration.ofSeconds(3));
+    assertEquals(1, snapshot.count());
+    assertEquals(5, snapshot.max());
+    assertEquals(4, window.count());
+    assertEquals(900, window.max());
+  }
+
+  @Test
+  void testMetricsPerRegionPairAndEventType() {
+    var latency = new ReplicationLatency(new ReplicationLatency.Settings(Duration.ofSeconds(5), 12, Duration.ofSeconds(5)));
+    latency.record("aws-us-east-2", "gcp-us-east1", "status-updated", Instant.now(), 120);
+    latency.record("aws-us-east-2", "gcp-us-east1", "status-updated", Instant.now(), -15);
+    latency.record("gcp-us-east1", "gcp-us-east1", "status-updated", Instant.now(), 3);
+    latency.record(null, "gcp-us-east1", "status-updated", Instant.now(), 3);
+
+    var metrics = latency.metrics(Duration.ofHours(1));
+    assertEquals(3, metrics.size());
+
+    var remote = metrics.get(0);
+    assertEquals("aws-us-east-2", remote.originRegion());
+    assertEquals(60_000, remote.windowMs());
+    assertEquals(2, remote.windowCount());
+    assertEquals(120, remote.p99Ms());
+    assertEquals(0, remote.p50Ms());
+    assertEquals(1, remote.negativeCount());
+    assertEquals("gcp-us-east1", metrics.get(1).originRegion());
+    assertEquals("unknown", metrics.get(2).originRegion());
+  }
+
+  @Test
+  void testRowsOfUpdatesFromBeforeTheNodeStartedAreNotRecorded() {
+    var startedAt = Instant.parse("2026-10-16T12:00:00Z");
+    var latency = new ReplicationLatency(new ReplicationLatency.Settings(Duration.ofSeconds(5), 12, Duration.ofSeconds(5)),
+        new ClockSkew(ClockSkew.Settings.defaults), startedAt);
+    latency.record("aws-us-east-2", "gcp-us-east1", "status-updated", startedAt.plusSeconds(10), 80);
+    latency.record("aws-us-east-2", "gcp-us-east1", "status-updated", startedAt.minus(Duration.ofDays(3)), Duration.ofDays(3).toMillis()); // View rebuild
+    latency.record("aws-us-east-2", "gcp-us-east1", "status-updated", startedAt.minusMillis(1), 60_001);
+
+    var remote = latency.metrics().get(0);
+    assertEquals(1, remote.windowCount());
+    assertEquals(80, remote.maxMs());
+    assertEquals(2, remote.replayedCount());
+  }
+
+  @Test
+  void testLagLongerThanTheWindowIsRecorded() {
+    var startedAt = Instant.parse("2026-10-16T12:00:00Z");
+    var latency = new ReplicationLatency(new ReplicationLatency.Settings(Duration.ofSeconds(5), 12, Duration.ofSeconds(5)),
+        new ClockSkew(ClockSkew.Settings.defaults), startedAt);
+    latency.record("aws-us-east-2", "gcp-us-east1", "status-updated", startedAt.plusSeconds(10), 80);
+    latency.record("aws-us-east-2", "gcp-us-east1", "status-updated", startedAt.plusSeconds(20), 300_000); // A partition
+
+    var remote = latency.metrics().get(0);
+    assertEquals(2, remote.windowCount());
+    assertEquals(300_000, remote.maxMs(), 300_000 / LatencyHistogram.SUB_BUCKETS);
+    assertEquals(0, remote.replayedCount());
+  }
+
+  @Test
+  void testCorrectedLatencyAppliesTheOriginClockOffset() {
+    var clockSkew = new ClockSkew(new ClockSkew.Settings(false, Duration.ofSeconds(5), Duration.ofSeconds(2), 8, List.of()));
+    clockSkew.record("aws-us-east-2", "east", new ClockSkew.Sample(1_000, 1_040, 1_040, 1_020)); // 30ms ahead
+    var latency = new ReplicationLatency(new ReplicationLatency.Settings(Duration.ofSeconds(5), 12, Duration.ofSeconds(5)), clockSkew);
+    latency.record("aws-us-east-2", "gcp-us-east1", "status-updated", Instant.now(), -10);
+    latency.record("gcp-us-east1", "gcp-us-east1", "status-updated", Instant.now(), 4);
+
+    var remote = latency.metrics().get(0);
+    assertEquals(30, remote.offsetMs());
+    assertEquals(0, remote.p99Ms());
+    assertEquals(1, remote.negativeCount());
+    assertEquals(20, remote.correctedP99Ms());
+    assertEquals(0, remote.correctedNegativeCount());
+
+    var local = latency.metrics().get(1);
+    assertEquals(0, local.offsetMs());
+    assertEquals(4, local.correctedP99Ms());
+  }
+}
@@ -0,0 +1,79 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import io.example.application.GridCellView.GridCellRow;
+
+public class StageLatencyTest {
+  static final Instant clientAt = Instant.now();
+
+  static GridCellRow row(String id, String traceId, long endpointMs, long persistMs, long viewMs) {
+    return new GridCellRow(id, "red", 0, 0, clientAt, clientAt.plusMillis(endpointMs), clientAt, clientAt.plusMillis(persistMs),
+        clientAt.plusMillis(viewMs), (int) (viewMs - persistMs), "us-east", "us-east", "us-east", traceId);
+  }
+
+  static StageLatency.StageMetrics stage(StageLatency.Metrics metrics, StageLatency.Stage stage) {
+    return metrics.stages().stream().filter(stageMetrics -> stageMetrics.stage() == stage).findFirst().orElseThrow();
+  }
+
+  @Test
+  void testViewRecordsTheTracedStages() {
+    var latency = new StageLatency(StageLatency.Settings.defaults);
+    latency.viewed(row("1x1", "abc", 20, 50, 80));
+    latency.viewed(row("1x2", "", 20, 50, 90)); // Untraced, the client and endpoint times are not this update's
+
+    var metrics = latency.metrics(Duration.ofMinutes(1));
+    assertEquals(1, stage(metrics, StageLatency.Stage.clientToEndpoint).windowCount());
+    assertEquals(20, stage(metrics, StageLatency.Stage.clientToEndpoint).p99Ms());
+    assertEquals(30, stage(metrics, StageLatency.Stage.endpointToPersist).p50Ms());
+    assertEquals(2, stage(metrics, StageLatency.Stage.persistToView).windowCount());
+    assertEquals(40, stage(metrics, StageLatency.Stage.persistToView).windowMaxMs());
+    assertEquals(0, stage(metrics, StageLatency.Stage.viewToEmit).windowCount());
+  }
+
+  @Test
+  void testRowsOlderThanTheWindowAreNotRecorded() {
+    var latency = new StageLatency(StageLatency.Settings.defaults);
+    var rebuilt = row("1x1", "abc", 20, 50, Duration.ofDays(2).toMillis()); // Written again by a view rebuild
+    latency.viewed(rebuilt);
+    latency.emitted(rebuilt, rebuilt.viewAt().plusMillis(5));
+    latency.viewed(row("1x2", "def", 20, 50, 80));
+
+    var metrics = latency.metrics(Duration.ofMinutes(1));
+    assertEquals(1, metrics.staleRows());
+    assertEquals(1, stage(metrics, StageLatency.Stage.clientToEndpoint).windowCount());
+    assertEquals(1, stage(metrics, StageLatency.Stage.persistToView).totalCount());
+    assertEquals(30, stage(metrics, StageLatency.Stage.persistToView).maxMs());
+    assertEquals(0, metrics.slowTraces().size());
+  }
+
+  @Test
+  void testSlowTracesAreKeptOncePerCell() {
+    var latency = new StageLatency(new StageLatency.Settings(Duration.ofSeconds(5), 12, Duration.ofSeconds(1), 2));
+    var slow = row("1x1", "abc", 900, 950, 980);
+    latency.emitted(slow, clientAt.plusMillis(1_200));
+    latency.emitted(slow, clientAt.plusMillis(1_300)); // The same row to another subscriber
+    latency.emitted(row("1x2", "def", 10, 20, 30), clientAt.plusMillis(40)); // Fast
+
+    var metrics = latency.metrics(Duration.ofMinutes(1));
+    assertEquals(3, stage(metrics, StageLatency.Stage.viewToEmit).windowCount());
+    assertEquals(1, metrics.slowTraces().size());
+    var trace = metrics.slowTraces().get(0);
+    assertEquals("abc", trace.traceId());
+    assertEquals(900, trace.clientToEndpointMs());
+    assertEquals(50, trace.endpointToPersistMs());
+    assertEquals(30, trace.persistToViewMs());
+    assertEquals(220, trace.viewToEmitMs());
+    assertEquals(1_200, trace.totalMs());
+
+    latency.emitted(row("1x3", "ghi", 900, 950, 980), clientAt.plusMillis(1_100));
+    latency.emitted(row("1x4", "jkl", 900, 950, 980), clientAt.plusMillis(1_100));
+    assertEquals("jkl", latency.metrics(Duration.ofMinutes(1)).slowTraces().get(0).traceId());
+    assertEquals(2, latency.metrics(Duration.ofMinutes(1)).slowTraces().size());
+  }
+}
@@ -0,0 +1,47 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+public class WaveLaneCutoverTest {
+
+  @Test
+  void testEventsAreSplitByTheirEventTime() {
+    var cutover = cutover("2026-10-16T12:00:00Z");
+
+    assertFalse(cutover.lanesHandle(Optional.of(Instant.parse("2026-10-16T11:59:59.999Z"))));
+    assertFalse(cutover.lanesHandle(Optional.of(Instant.parse("2025-01-01T00:00:00Z"))));
+    assertTrue(cutover.lanesHandle(Optional.of(Instant.parse("2026-10-16T12:00:00Z"))));
+    assertTrue(cutover.lanesHandle(Optional.of(Instant.parse("2026-10-16T12:00:00.001Z"))));
+  }
+
+  @Test
+  void testEventsWithoutEventTimeGoToTheLanes() {
+    assertTrue(cutover("2026-10-16T12:00:00Z").lanesHandle(Optional.empty()));
+  }
+
+  @Test
+  void testNoCutoverLeavesEveryEventToTheOriginalConsumer() {
+    var cutover = cutover("");
+
+    assertTrue(cutover.cutover().isEmpty());
+    assertFalse(cutover.lanesHandle(Optional.of(Instant.now())));
+    assertFalse(cutover.lanesHandle(Optional.empty()));
+  }
+
+  @Test
+  void testInvalidCutoverFailsAtStartup() {
+    assertThrows(DateTimeParseException.class, () -> cutover("yesterday"));
+  }
+
+  static WaveLaneCutover cutover(String cutover) {
+    return new WaveLaneCutover(WaveLaneCutover.parse(cutover));
+  }
+}
@@ -0,0 +1,64 @@
+package io.example.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class CellKeyTest {
+
+  @Test
+  void testParseAndFormatRoundTrip() {
+    for (var id : List.of("0x0", "1x2", "-3x4", "5x-6", "-7x-8", "1000000x-1000000")) {
+      var cellKey = CellKey.fromId(id);
+      assertEquals(id, cellKey.id());
+      assertEquals(id, CellKey.fromPacked(cellKey.packed()).id());
+      assertEquals(cellKey, CellKey.of(cellKey.row(), cellKey.col()));
+    }
+  }
+
+  @Test
+  void testRowIsYAndColIsX() {
+    var cellKey = CellKey.fromId("-12x34"); // RxC / YxX
+    assertEquals(-12, cellKey.row());
+    assertEquals(-12, cellKey.y());
+    assertEquals(34, cellKey.col());
+    assertEquals(34, cellKey.x());
+    assertEquals(cellKey, CellKey.fromXy(34, -12));
+  }
+
+  @Test
+  void testNeighborIdsMatchFormattedIds() {
+    var y = -1;
+    var x = 0;
+    var expected = List.of(
+        String.format("%dx%d", y - 1, x - 1),
+        String.format("%dx%d", y - 1, x),
+        String.format("%dx%d", y - 1, x + 1),
+        String.format("%dx%d", y, x - 1),
+        String.format("%dx%d", y, x + 1),
+        String.format("%dx%d", y + 1, x - 1),
+        String.format("%dx%d", y + 1, x),
+        String.format("%dx%d", y + 1, x + 1));
+    assertEquals(expected, GridCell.State.neighborIds("-1x0"));
+  }
+
+  @Test
+  void testInsideRadiusIsLimitedTo50() {
+    assertTrue(CellKey.fromXy(3, 4).insideRadius(0, 0, 5));
+    assertFalse(CellKey.fromXy(3, 4).insideRadius(0, 0, 4));
+    assertTrue(CellKey.fromXy(50, 0).insideRadius(0, 0, 100));
+    assertFalse(CellKey.fromXy(51, 0).insideRadius(0, 0, 100));
+  }
+
+  @Test
+  void testInvalidId() {
+    assertThrows(IllegalArgumentException.class, () -> CellKey.parse("12"));
+    assertThrows(IllegalArgumentException.class, () -> CellKey.parse("x12"));
+    assertThrows(IllegalArgumentException.class, () -> CellKey.parse("12x"));
+  }
+}
@@ -0,0 +1,148 @@
+package io.example.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.example.application.GridCellView.GridCellRow;
+
+public class FloodFillTest {
+  static final GridCell.Status[] statuses = GridCell.Status.values();
+
+  @Test
+  void testFillMatchesNeighborWave() {
+    var random = new Random(42);
+    for (int round = 0; round < 50; round++) {
+      var states = randomStates(random, 0.3);
+      var start = CellKey.id(random.nextInt(21) - 10, random.nextInt(21) - 10);
+      var radius = 5 + random.nextInt(10);
+
+      var snapshot = activeRows(states);
+      var expected = fillWave(states, start, GridCell.Status.green, 0, 0, radius);
+      var actual = FloodFill.fill(start, GridCell.Status.green, 0, 0, radius, snapshot);
+
+      assertEquals(expected, Set.copyOf(actual));
+      assertEquals(expected.size(), actual.size());
+    }
+  }
+
+  @Test
+  void testSpanMatchesNeighborWave() {
+    var random = new Random(7);
+    for (int round = 0; round < 50; round++) {
+      var states = randomStates(random, 0.7);
+      var start = CellKey.id(random.nextInt(21) - 10, random.nextInt(21) - 10);
+      var radius = 5 + random.nextInt(10);
+
+      var snapshot = activeRows(states);
+      var expected = spanWave(states, start, GridCell.Status.blue, 0, 0, radius);
+      var actual = FloodFill.span(start, GridCell.Status.blue, 0, 0, radius, snapshot);
+
+      assertEquals(expected, Set.copyOf(actual));
+      assertEquals(expected.size(), actual.size());
+    }
+  }
+
+  @Test
+  void testFillStopsAtWallsAndRadius() {
+    // A vertical wall at x = 2 with the fill starting left of it, the radius 3 circle has 23 cells left of the wall
+    var rows = IntStream.rangeClosed(-3, 3).mapToObj(y -> row(2, y, "red")).toList();
+    var cells = FloodFill.fill("0x0", GridCell.Status.blue, 0, 0, 3, rows); // RxC / YxX
+
+    assertEquals(23, cells.size());
+    assertTrue(cells.contains("0x-3"));
+    assertTrue(!cells.contains("0x2"));
+    assertTrue(!cells.contains("0x3"));
+  }
+
+  @Test
+  void testFillFromActiveCellChangesNothing() {
+    assertEquals(List.of(), FloodFill.fill("0x0", GridCell.Status.blue, 0, 0, 5, List.of(row(0, 0, "red"))));
+    assertEquals(List.of(), FloodFill.fill("0x0", GridCell.Status.inactive, 0, 0, 5, List.of()));
+  }
+
+  @Test
+  void testWaveCost() {
+    var waveCost = FloodFill.waveCost(100);
+    assertEquals(900, waveCost.journalEvents());
+    assertEquals(801, waveCost.entityCalls());
+  }
+
+  // Runs the entity fill rules cell by cell, the way the consumer relays FillToNeighbor events
+  static Set<String> fillWave(Map<String, GridCell.State> states, String start, GridCell.Status status, int cx, int cy, int radius) {
+    var changed = new HashSet<String>();
+    var queue = new ArrayDeque<String>(List.of(start));
+    while (!queue.isEmpty()) {
+      var id = queue.poll();
+      var state = states.getOrDefault(id, GridCell.State.empty());
+      var events = state.onCommand(new GridCell.Command.FillStatus(id, status, Instant.now(), Instant.now(), cx, cy, radius, "test", ""));
+      apply(states, changed, queue, events);
+    }
+    return changed;
+  }
+
+  static Set<String> spanWave(Map<String, GridCell.State> states, String start, GridCell.Status status, int cx, int cy, int radius) {
+    var changed = new HashSet<String>();
+    var queue = new ArrayDeque<String>(List.of(start));
+    while (!queue.isEmpty()) {
+      var id = queue.poll();
+      var state = states.getOrDefault(id, GridCell.State.empty());
+      var events = state.onCommand(new GridCell.Command.SpanStatus(id, status, Instant.now(), Instant.now(), cx, cy, radius, "test", ""));
+      apply(states, changed, queue, events);
+    }
+    return changed;
+  }
+
+  static void apply(Map<String, GridCell.State> states, Set<String> changed, ArrayDeque<String> queue, List<GridCell.Event> events) {
+    for (var event : events) {
+      switch (event) {
+        case GridCell.Event.StatusUpdated e -> {
+          states.put(e.id(), states.getOrDefault(e.id(), GridCell.State.empty()).onEvent(e));
+          changed.add(e.id());
+        }
+        case GridCell.Event.FillToNeighbor e -> queue.add(e.id());
+        case GridCell.Event.SpanToNeighbor e -> queue.add(e.id());
+        default -> {}
+      }
+    }
+  }
+
+  static Map<String, GridCell.State> randomStates(Random random, double density) {
+    var states = new HashMap<String, GridCell.State>();
+    for (int y = -20; y <= 20; y++) {
+      for (int x = -20; x <= 20; x++) {
+        if (random.nextDouble() < density) {
+          var id = CellKey.id(y, x);
+          var status = statuses[random.nextInt(statuses.length)];
+          states.put(id, new GridCell.State(id, status, Instant.EPOCH, Instant.EPOCH, Instant.EPOCH, Instant.EPOCH, "", "", ""));
+        }
+      }
+    }
+    return states;
+  }
+
+  static List<GridCellRow> activeRows(Map<String, GridCell.State> states) {
+    return states.values().stream()
+        .filter(state -> state.status() != GridCell.Status.inactive)
+        .map(state -> {
+          var cellKey = CellKey.fromId(state.id());
+          return row(cellKey.x(), cellKey.y(), state.status().name());
+        })
+        .toList();
+  }
+
+  static GridCellRow row(int x, int y, String status) {
+    return new GridCellRow(CellKey.id(y, x), status, x, y, null, null, null, null, null, 0, "", "", "", "");
+  }
+}
@@ -0,0 +1,104 @@
+package io.example.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class GridBlockTest {
+
+  @Test
+  void testBlockIdsFollowCellIdConvention() {
+    assertEquals("0x0", GridBlock.blockIdOfTile(0, 0));
+    assertEquals("0x0", GridBlock.blockIdOfTile(7, 7));
+    assertEquals("0x1", GridBlock.blockIdOfTile(8, 0));
+    assertEquals("-1x-1", GridBlock.blockIdOfTile(-1, -8));
+    assertEquals(-1, GridBlock.blockOf(-1, 3));
+    assertEquals(-2, GridBlock.blockOf(-9, 3));
+  }
+
+  @Test
+  void testTileUpdatesReplaceCounts() {
+    var now = Instant.now();
+    var block = GridBlock.State.empty("local-development", 0, 0)
+        .onCommand(new GridBlock.Command.UpdateTile(1, 2, List.of(3, 0, 0, 0, 1)), now)
+        .onCommand(new GridBlock.Command.UpdateTile(1, 2, List.of(1, 2, 0, 0, 0)), now)
+        .onCommand(new GridBlock.Command.UpdateTile(1, 2, List.of(1, 2, 0, 0, 0)), now);
+
+    assertEquals(3, block.activeCells());
+    assertEquals(List.of(new GridBlock.ZoomCell(0, 0, new int[] { 1, 2, 0, 0, 0 })), block.zoomCells(8, 0, 0, 255, 255));
+  }
+
+  @Test
+  void testEveryLevelMatchesDirectCount() {
+    var random = new Random(12);
+    var cells = new HashMap<String, GridCell.Status>();
+    var tiles = new HashMap<String, GridTile.State>();
+    var now = Instant.now();
+
+    // Cells in block -1x-1 and 0x0, around the origin so floor division is exercised
+    for (int i = 0; i < 3000; i++) {
+      var x = random.nextInt(512) - 256;
+      var y = random.nextInt(512) - 256;
+      var status = GridCell.Status.values()[random.nextInt(GridCell.Status.values().length)];
+      var cellId = CellKey.id(y, x);
+      cells.put(cellId, status);
+      tiles.merge(GridTile.tileIdOfCell(cellId),
+          GridTile.State.empty("local-development", GridTile.tileOf(x), GridTile.tileOf(y))
+              .onCommand(new GridTile.Command.UpdateCell(cellId, status, now, now), now),
+          (tile, ignored) -> tile.onCommand(new GridTile.Command.UpdateCell(cellId, status, now, now), now));
+    }
+
+    var blocks = new HashMap<String, GridBlock.State>();
+    tiles.values().forEach(tile -> {
+      var command = new GridBlock.Command.UpdateTile(tile.tileX(), tile.tileY(), GridBlock.counts(tile.statuses()));
+      blocks.compute(GridBlock.blockIdOfTile(tile.tileX(), tile.tileY()),
+          (id, block) -> (block == null ? GridBlock.State.empty() : block).onCommand(command, now));
+    });
+
+    var x1 = -200;
+    var y1 = -150;
+    var x2 = 180;
+    var y2 = 220;
+    for (int level = 1; level <= GridBlock.MAX_LEVEL; level++) {
+      var expected = directCounts(cells, level, x1, y1, x2, y2);
+      var actual = new HashMap<String, List<Integer>>();
+      var zoomLevel = level;
+      var zoomCells = level < GridBlock.TILE_LEVEL
+          ? tiles.values().stream()
+              .flatMap(tile -> GridBlock.zoomCells(tile.tileX(), tile.tileY(), tile.statuses(), zoomLevel, x1, y1, x2, y2).stream())
+              .toList()
+          : blocks.values().stream()
+              .flatMap(block -> block.zoomCells(zoomLevel, x1, y1, x2, y2).stream())
+              .toList();
+      zoomCells.forEach(cell -> actual.put(CellKey.id(cell.blockY(), cell.blockX()), Arrays.stream(cell.counts()).boxed().toList()));
+
+      assertEquals(expected, actual, "level " + level);
+    }
+  }
+
+  static Map<String, List<Integer>> directCounts(Map<String, GridCell.Status> cells, int level, int x1, int y1, int x2, int y2) {
+    var counts = new HashMap<String, int[]>();
+    cells.forEach((id, status) -> {
+      if (status == GridCell.Status.inactive) {
+        return;
+      }
+      var blockX = Math.floorDiv(CellKey.x(id), 1 << level);
+      var blockY = Math.floorDiv(CellKey.y(id), 1 << level);
+      if (!GridBlock.overlaps(blockX, blockY, level, x1, y1, x2, y2)) {
+        return;
+      }
+      counts.computeIfAbsent(CellKey.id(blockY, blockX), key -> new int[GridBlock.STATUSES])[status.ordinal() - 1]++;
+    });
+
+    var result = new HashMap<String, List<Integer>>();
+    counts.forEach((id, blockCounts) -> result.put(id, Arrays.stream(blockCounts).boxed().toList()));
+    return result;
+  }
+}
@@ -21,7 +21,7 @@ public class GridCellEntityTest {
     var status = GridCell.Status.green;
     var now = Instant.now();
     var region = "test";
-    var command = new GridCell.Command.UpdateStatus(id, status, now, now, region);
+    var command = new GridCell.Command.UpdateStatus(id, status, now, now, region, "trace-1");
     var result = testKit.method(GridCellEntity::updateStatus).invoke(command);
 
     assertTrue(result.isReply());
@@ -29,9 +29,11 @@ public class GridCellEntityTest {
     var event = result.getNextEventOfType(GridCell.Event.StatusUpdated.class);
     assertEquals(id, event.id());
     assertEquals(status, event.status());
+    assertEquals("trace-1", event.traceId());
     var state = testKit.getState();
     assertEquals(id, state.id());
     assertEquals(status, state.status());
+    assertEquals("trace-1", state.traceId());
   }
 
   @Test
@@ -43,7 +45,7 @@ public class GridCellEntityTest {
       var status = GridCell.Status.red;
       var now = Instant.now();
       var region = "test";
-      var command = new GridCell.Command.UpdateStatus(id, status, now, now, region);
+      var command = new GridCell.Command.UpdateStatus(id, status, now, now, region, "trace-1");
       var result = testKit.method(GridCellEntity::updateStatus).invoke(command);
 
       assertTrue(result.isReply());
@@ -58,7 +60,7 @@ public class GridCellEntityTest {
       var clientAt = Instant.now();
       var endpointAt = Instant.now();
       var region = "test";
-      var command = new GridCell.Command.SpanStatus(id, status, clientAt, endpointAt, centerX, centerY, radius, region);
+      var command = new GridCell.Command.SpanStatus(id, status, clientAt, endpointAt, centerX, centerY, radius, region, "trace-1");
       var result = testKit.method(GridCellEntity::updateSpanStatus).invoke(command);
 
       assertTrue(result.isReply());
@@ -96,7 +98,7 @@ public class GridCellEntityTest {
     var region = "test";
 
     {
-      var command = new GridCell.Command.UpdateStatus(id, status, now, now, region);
+      var command = new GridCell.Command.UpdateStatus(id, status, now, now, region, "trace-1");
       var result = testKit.method(GridCellEntity::updateStatus).invoke(command);
 
       assertTrue(result.isReply());
@@ -104,7 +106,7 @@ public class GridCellEntityTest {
     }
 
     { // then, attempt to span with the same status
-      var command = new GridCell.Command.SpanStatus(id, status, now, now, 2, 3, 5, region);
+      var command = new GridCell.Command.SpanStatus(id, status, now, now, 2, 3, 5, region, "trace-1");
       var result = testKit.method(GridCellEntity::updateSpanStatus).invoke(command);
 
       assertTrue(result.isReply());
@@ -122,7 +124,7 @@ public class GridCellEntityTest {
 
     { // first, create a grid cell with default status
       var status = GridCell.Status.inactive;
-      var command = new GridCell.Command.UpdateStatus(id, status, now, now, region);
+      var command = new GridCell.Command.UpdateStatus(id, status, now, now, region, "trace-1");
       var result = testKit.method(GridCellEntity::updateStatus).invoke(command);
 
       assertTrue(result.isReply());
@@ -136,7 +138,7 @@ public class GridCellEntityTest {
       var radius = 2;
       var clientAt = Instant.now();
       var endpointAt = Instant.now();
-      var command = new GridCell.Command.FillStatus(id, status, clientAt, endpointAt, centerX, centerY, radius, region);
+      var command = new GridCell.Command.FillStatus(id, status, clientAt, endpointAt, centerX, centerY, radius, region, "trace-1");
       var result = testKit.method(GridCellEntity::updateFillStatus).invoke(command);
 
       assertTrue(result.isReply());
@@ -161,7 +163,7 @@ public class GridCellEntityTest {
 
     {
       var status = GridCell.Status.green;
-      var command = new GridCell.Command.UpdateStatus(id, status, now, now, region);
+      var command = new GridCell.Command.UpdateStatus(id, status, now, now, region, "trace-1");
       var result = testKit.method(GridCellEntity::updateStatus).invoke(command);
 
       assertTrue(result.isReply());
@@ -175,7 +177,7 @@ public class GridCellEntityTest {
       var radius = 2;
       var clientAt = Instant.now();
       var endpointAt = Instant.now();
-      var command = new GridCell.Command.FillStatus(id, status, clientAt, endpointAt, centerX, centerY, radius, region);
+      var command = new GridCell.Command.FillStatus(id, status, clientAt, endpointAt, centerX, centerY, radius, region, "trace-1");
       var result = testKit.method(GridCellEntity::updateFillStatus).invoke(command);
 
       assertTrue(result.isReply());
@@ -184,6 +186,59 @@ public class GridCellEntityTest {
     }
   }
 
+  @Test
+  void testFloodStatusFillsOnlyEmptyOrInactiveCells() {
+    var testKit = EventSourcedTestKit.of(GridCellEntity::new);
+    var id = "7x8";
+    var now = Instant.now();
+    var region = "test";
+
+    { // an empty cell is filled
+      var command = new GridCell.Command.FloodStatus(id, GridCell.Status.red, GridCell.FloodRule.fill, now, now, region, "trace-1");
+      var result = testKit.method(GridCellEntity::updateFloodStatus).invoke(command);
+
+      assertEquals(1, result.getReply()); // events persisted
+      assertEquals(1, result.getAllEvents().size()); // no neighbor events
+      assertEquals(GridCell.Status.red, result.getNextEventOfType(GridCell.Event.StatusUpdated.class).status());
+    }
+
+    { // the cell is active now, as if it changed after the endpoint's view snapshot, and keeps its status
+      var command = new GridCell.Command.FloodStatus(id, GridCell.Status.blue, GridCell.FloodRule.fill, now, now, region, "trace-2");
+      var result = testKit.method(GridCellEntity::updateFloodStatus).invoke(command);
+
+      assertEquals(0, result.getReply());
+      assertEquals(0, result.getAllEvents().size());
+      assertEquals(GridCell.Status.red, testKit.getState().status());
+    }
+  }
+
+  @Test
+  void testFloodStatusSpansOnlyActiveCells() {
+    var testKit = EventSourcedTestKit.of(GridCellEntity::new);
+    var id = "8x9";
+    var now = Instant.now();
+    var region = "test";
+
+    { // an empty cell is not spanned
+      var command = new GridCell.Command.FloodStatus(id, GridCell.Status.green, GridCell.FloodRule.span, now, now, region, "trace-1");
+      var result = testKit.method(GridCellEntity::updateFloodStatus).invoke(command);
+
+      assertEquals(0, result.getReply());
+      assertEquals(0, result.getAllEvents().size());
+    }
+
+    testKit.method(GridCellEntity::updateStatus).invoke(new GridCell.Command.UpdateStatus(id, GridCell.Status.red, now, now, region, "trace-2"));
+
+    { // an active cell with another status is spanned
+      var command = new GridCell.Command.FloodStatus(id, GridCell.Status.green, GridCell.FloodRule.span, now, now, region, "trace-3");
+      var result = testKit.method(GridCellEntity::updateFloodStatus).invoke(command);
+
+      assertEquals(1, result.getReply());
+      assertEquals(1, result.getAllEvents().size());
+      assertEquals(GridCell.Status.green, testKit.getState().status());
+    }
+  }
+
   @Test
   void testGetOnEmptyState() {
     var testKit = EventSourcedTestKit.of(GridCellEntity::new);
@@ -200,7 +255,7 @@ public class GridCellEntityTest {
     var now = Instant.now();
     var region = "test";
 
-    var command = new GridCell.Command.UpdateStatus(id, status, now, now, region);
+    var command = new GridCell.Command.UpdateStatus(id, status, now, now, region, "trace-1");
     testKit.method(GridCellEntity::updateStatus).invoke(command);
 
     var result = testKit.method(GridCellEntity::get).invoke();
@@ -222,7 +277,7 @@ public class GridCellEntityTest {
     var nextCellId = "7x9";
     var region = "test";
 
-    var command = new GridCell.Command.CreatePredator(id, predatorId, status, now, now, range, nextCellId, region);
+    var command = new GridCell.Command.CreatePredator(id, predatorId, status, now, now, range, nextCellId, region, "trace-1");
     var result = testKit.method(GridCellEntity::createPredator).invoke(command);
 
     assertTrue(result.isReply());
@@ -261,7 +316,7 @@ public class GridCellEntityTest {
     var region = "test";
 
     {
-      var command = new GridCell.Command.MovePredator(id, predatorId, status, now, now, range, nextCellId, tail, region);
+      var command = new GridCell.Command.MovePredator(id, predatorId, status, now, now, range, nextCellId, tail, region, "trace-1");
       var result = testKit.method(GridCellEntity::movePredator).invoke(command);
       assertTrue(result.isReply());
       assertEquals(done(), result.getReply());
@@ -304,7 +359,7 @@ public class GridCellEntityTest {
     var region = "test";
 
     {
-      var command = new GridCell.Command.MovePredator(id, predatorId, status, now, now, range, nextCellId, tail, region);
+      var command = new GridCell.Command.MovePredator(id, predatorId, status, now, now, range, nextCellId, tail, region, "trace-1");
       var result = testKit.method(GridCellEntity::movePredator).invoke(command);
       assertTrue(result.isReply());
       assertEquals(done(), result.getReply());
@@ -0,0 +1,122 @@
+package io.example.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class GridTileTest {
+
+  @Test
+  void testTileIdsFollowCellIdConvention() {
+    assertEquals("0x0", GridTile.tileIdOfCell("0x0"));
+    assertEquals("0x0", GridTile.tileIdOfCell("31x31"));
+    assertEquals("1x0", GridTile.tileIdOfCell("32x0"));
+    assertEquals("0x1", GridTile.tileIdOfCell("0x32"));
+    assertEquals("-1x-1", GridTile.tileIdOfCell("-1x-1"));
+    assertEquals("-1x-2", GridTile.tileIdOfCell("-32x-33"));
+  }
+
+  @Test
+  void testEntityIdsAreRegionCopies() {
+    var entityId = GridTile.entityId("aws-us-east-2", "-1x-2");
+
+    assertEquals("-1x-2@aws-us-east-2", entityId);
+    assertEquals("-1x-2", GridTile.idOfEntityId(entityId));
+    assertEquals("aws-us-east-2", GridTile.regionOfEntityId(entityId));
+    assertEquals("-1x-2", GridTile.State.empty(GridTile.regionOfEntityId(entityId), -2, -1).id());
+  }
+
+  @Test
+  void testUpdateCellPacksStatusAndElapsedMs() {
+    var now = Instant.parse("2026-01-01T00:00:00Z");
+    var tile = GridTile.State.empty("local-development", -1, 2);
+
+    tile = tile.onCommand(new GridTile.Command.UpdateCell("70x-5", GridCell.Status.blue, now.minusMillis(250), now), now);
+    tile = tile.onCommand(new GridTile.Command.UpdateCell("64x-32", GridCell.Status.red, now.minusMillis(1), now), now);
+
+    assertEquals("2x-1", tile.id());
+    assertEquals(2, tile.activeCells());
+    assertEquals(GridCell.Status.blue, tile.status(-5, 70));
+    assertEquals(250, tile.elapsedMs(-5, 70));
+    assertEquals(GridCell.Status.red, tile.status(-32, 64));
+    assertEquals(GridCell.Status.inactive, tile.status(-1, 95));
+    assertEquals('3', tile.statuses().charAt((70 - 64) * GridTile.SIZE + (-5 + 32)));
+    assertEquals(GridTile.CELLS, tile.statuses().length());
+  }
+
+  @Test
+  void testElapsedMsEndsWhenTheUpdateIsSeen() {
+    var seenAt = Instant.parse("2026-01-01T00:00:00Z");
+    var tile = GridTile.State.empty("local-development", 0, 0)
+        .onCommand(new GridTile.Command.UpdateCell("0x0", GridCell.Status.red, seenAt.minusMillis(40), seenAt), seenAt.plusMillis(100));
+
+    assertEquals(40, tile.elapsedMs(0, 0)); // The batch window before the write is not counted
+    assertEquals(seenAt.plusMillis(100), tile.updatedAt());
+  }
+
+  @Test
+  void testActiveCellsCountsTransitions() {
+    var now = Instant.now();
+    var tile = GridTile.State.empty("local-development", 0, 0);
+
+    tile = tile.onCommand(new GridTile.Command.UpdateCell("1x1", GridCell.Status.red, now, now), now);
+    tile = tile.onCommand(new GridTile.Command.UpdateCell("1x1", GridCell.Status.green, now, now), now);
+    assertEquals(1, tile.activeCells());
+
+    tile = tile.onCommand(new GridTile.Command.UpdateCell("1x1", GridCell.Status.inactive, now, now), now);
+    assertEquals(0, tile.activeCells());
+  }
+
+  @Test
+  void testElapsedMsSaturates() {
+    var now = Instant.now();
+    var tile = GridTile.State.empty("local-development", 0, 0)
+        .onCommand(new GridTile.Command.UpdateCell("0x0", GridCell.Status.red, now.minusSeconds(3600), now), now);
+
+    assertEquals(GridTile.MAX_ELAPSED_MS, tile.elapsedMs(0, 0));
+  }
+
+  @Test
+  void testUpdateCellsAppliesCellsInOrder() {
+    var now = Instant.parse("2026-01-01T00:00:00Z");
+    var tile = GridTile.State.empty("local-development", 0, 0).onCommand(new GridTile.Command.UpdateCells(List.of(
+        new GridTile.Command.UpdateCell("1x1", GridCell.Status.red, now.minusMillis(30), now),
+        new GridTile.Command.UpdateCell("31x31", GridCell.Status.blue, now.minusMillis(500), now),
+        new GridTile.Command.UpdateCell("1x1", GridCell.Status.green, now.minusMillis(20), now),
+        new GridTile.Command.UpdateCell("2x2", GridCell.Status.inactive, now, now))), now);
+
+    assertEquals("0x0", tile.id());
+    assertEquals(2, tile.activeCells());
+    assertEquals(GridCell.Status.green, tile.status(1, 1));
+    assertEquals(20, tile.elapsedMs(1, 1));
+    assertEquals(GridCell.Status.blue, tile.status(31, 31));
+    assertEquals(500, tile.elapsedMs(31, 31)); // The last cell, in the padded base64 quantum
+  }
+
+  @Test
+  void testElapsedMsOfEveryCellMatchesUpdates() {
+    var now = Instant.parse("2026-01-01T00:00:00Z");
+    var cells = new ArrayList<GridTile.Command.UpdateCell>();
+    for (int i = 0; i < GridTile.CELLS; i++) {
+      cells.add(new GridTile.Command.UpdateCell(CellKey.id(i / GridTile.SIZE, i % GridTile.SIZE), GridCell.Status.red, now.minusMillis(i * 61), now));
+    }
+    var tile = GridTile.State.empty("local-development", 0, 0).onCommand(new GridTile.Command.UpdateCells(cells), now);
+
+    for (int i = 0; i < GridTile.CELLS; i++) {
+      assertEquals(i * 61, tile.elapsedMs(i % GridTile.SIZE, i / GridTile.SIZE));
+    }
+  }
+
+  @Test
+  void testCellOutsideTileIsRejected() {
+    var tile = GridTile.State.empty("local-development", 0, 0);
+
+    assertThrows(IllegalArgumentException.class,
+        () -> tile.onCommand(new GridTile.Command.UpdateCell("32x0", GridCell.Status.red, Instant.now(), Instant.now()), Instant.now()));
+  }
+}
@@ -0,0 +1,76 @@
+package io.example.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.example.application.GridCellView;
+
+// Runs all PredatorTest cases against the PredatorKernel engine
+public class PredatorKernelTest extends PredatorTest {
+
+  @Override
+  Predator.Engine engine() {
+    return Predator.Engine.kernel;
+  }
+
+  @Test
+  void testKernelMatchesReferenceOnRandomGrids() {
+    var random = new Random(42);
+    var statuses = List.of("inactive", "red", "orange", "green", "blue");
+
+    for (int round = 0; round < 500; round++) {
+      var gridCells = IntStream.range(0, random.nextInt(200))
+          .mapToObj(i -> createGridCell(random.nextInt(120) - 60, random.nextInt(120) - 60, statuses.get(random.nextInt(statuses.size()))))
+          .toList();
+      var predatorXy = Point.fromXy(random.nextInt(40) - 20, random.nextInt(40) - 20);
+      var predatorRange = 1 + random.nextInt(100);
+
+      var expected = referenceWithoutNeighbors(predatorXy, gridCells, predatorRange);
+      if (expected == null) {
+        continue; // A random neighbor is picked, compared by testKernelPicksTopIntensityNeighbor
+      }
+      var actual = PredatorKernel.nextGridCellId(predatorXy.x(), predatorXy.y(), PreyCells.from(gridCells), predatorRange);
+      assertEquals(expected, actual, "round " + round);
+    }
+  }
+
+  @Test
+  void testKernelPicksTopIntensityNeighbor() {
+    var predatorXy = Point.fromXy(0, 0);
+    var gridCells = List.of(
+        createGridCell(1, 0, "red"),
+        createGridCell(-1, 1, "blue"),
+        createGridCell(0, -1, "blue"),
+        createGridCell(3, 3, "blue"));
+
+    for (int i = 0; i < 20; i++) {
+      var nextGridCellId = PredatorKernel.nextGridCellId(predatorXy.x(), predatorXy.y(), PreyCells.from(gridCells), 10);
+      var next = Point.fromId(nextGridCellId);
+      assertEquals(true, next.equals(Point.fromXy(-1, 1)) || next.equals(Point.fromXy(0, -1)), nextGridCellId);
+    }
+  }
+
+  // Reference result, or null when the reference picks one of several neighbors at random
+  String referenceWithoutNeighbors(Point predatorXy, List<GridCellView.GridCellRow> gridCells, int predatorRange) {
+    var inShortRange = Predator.getPreyCells(Predator.getGridCellsInCircle(gridCells, predatorXy.x(), predatorXy.y(), Math.min(predatorRange, 10)));
+    var topIntensity = inShortRange.stream().mapToInt(PreyGridCell::maxIntensity).max().orElse(0);
+    var topNeighbors = inShortRange.stream()
+        .filter(cell -> cell.maxIntensity() == topIntensity)
+        .filter(cell -> Point.fromXy(cell.x(), cell.y()).isNeighborOf(predatorXy))
+        .count();
+    if (topNeighbors > 1) {
+      return null;
+    }
+    Predator.engine(Predator.Engine.reference);
+    try {
+      return Predator.nextGridCellId(predatorXy.id(), gridCells, predatorRange);
+    } finally {
+      Predator.engine(engine());
+    }
+  }
+}
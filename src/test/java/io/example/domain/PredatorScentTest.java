@@ -0,0 +1,59 @@
+package io.example.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+// Runs all PredatorTest cases with the scent engine on, decided from the view rows as when the index is cold
+public class PredatorScentTest extends PredatorTest {
+
+  @Override
+  Predator.Engine engine() {
+    return Predator.Engine.scent;
+  }
+
+  @Override
+  String decisionEngine() {
+    return Predator.scentCold;
+  }
+
+  @Test
+  void testScentFieldFindsLongRangePrey() {
+    var scentField = new ScentField();
+    scentField.set(40, 0, 4);
+    var predatorXy = Point.fromXy(0, 0);
+    var decision = Predator.decide(predatorXy.id(), List.of(), scentField, 100);
+
+    var next = Point.fromId(decision.nextGridCellId());
+    assertTrue(next.isNeighborOf(predatorXy));
+    assertEquals(1, next.x());
+    assertEquals("scent", decision.engine());
+    assertEquals(0, decision.cellsScanned());
+    assertEquals("long", decision.foundBy());
+  }
+
+  @Test
+  void testShortRangePreyIsFoundBeforeTheScentField() {
+    var scentField = new ScentField();
+    scentField.set(-40, 0, 4);
+    var predatorXy = Point.fromXy(10, 5);
+    var decision = Predator.decide(predatorXy.id(), createGridCells(8, "blue", 5, 5), scentField, 50);
+
+    assertTrue(Point.fromId(decision.nextGridCellId()).isNeighborOf(predatorXy));
+    assertEquals("scent", decision.engine());
+    assertEquals("short", decision.foundBy());
+    assertEquals(25, decision.cellsScanned());
+  }
+
+  @Test
+  void testNoPreyIsDecidedAsNone() {
+    var decision = Predator.decide(Point.fromXy(0, 0).id(), List.of(), new ScentField(), 100);
+
+    assertEquals("", decision.nextGridCellId());
+    assertEquals("scent", decision.engine());
+    assertEquals("none", decision.foundBy());
+  }
+}
@@ -8,6 +8,8 @@ import java.util.List;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
@@ -15,6 +17,23 @@ import io.example.application.GridCellView;
 
 public class PredatorTest {
 
+  Predator.Engine engine() {
+    return Predator.Engine.reference;
+  }
+
+  Predator.Engine previousEngine;
+
+  @BeforeEach
+  void selectEngine() {
+    previousEngine = Predator.engine();
+    Predator.engine(engine());
+  }
+
+  @AfterEach
+  void restoreEngine() {
+    Predator.engine(previousEngine);
+  }
+
   @Test
   // @Disabled
   void testNextCellNorth() {
@@ -202,6 +221,22 @@ public class PredatorTest {
     assertTrue(Point.fromId(nextGridCellId).isNeighborOf(Point.fromId(predatorId)));
   }
 
+  @Test
+  void testDecisionTellsHowTheCellWasFound() {
+    var predatorXy = Point.fromXy(10, 5);
+    var decision = Predator.decide(predatorXy.id(), createGridCells(8, "blue", 5, 5), 50);
+
+    assertEquals(decisionEngine(), decision.engine());
+    assertEquals(25, decision.cellsScanned());
+    assertEquals("short", decision.foundBy());
+    assertTrue(Point.fromId(decision.nextGridCellId()).isNeighborOf(predatorXy));
+  }
+
+  // The engine a decision from view rows is made by
+  String decisionEngine() {
+    return engine().name();
+  }
+
   // Create a cluster of prey cells
   List<GridCellView.GridCellRow> createGridCells(int xyTopLeft, String color, int rows, int cols) {
     var gridCells = IntStream.range(xyTopLeft, rows + xyTopLeft)
@@ -236,6 +271,7 @@ public class PredatorTest {
         0,
         "",
         "",
+        "",
         "");
   }
 
@@ -0,0 +1,138 @@
+package io.example.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ScentFieldTest {
+
+  @Test
+  void testIncrementalUpdatesMatchRebuild() {
+    var random = new Random(7);
+    var incremental = new ScentField();
+    var cells = new int[64][64];
+
+    for (int i = 0; i < 5_000; i++) {
+      var x = random.nextInt(64) - 32;
+      var y = random.nextInt(64) - 32;
+      var intensity = random.nextInt(5);
+      incremental.set(x, y, intensity);
+      cells[y + 32][x + 32] = intensity;
+    }
+
+    var rebuilt = new ScentField();
+    for (int y = 0; y < 64; y++) {
+      for (int x = 0; x < 64; x++) {
+        rebuilt.set(x - 32, y - 32, cells[y][x]);
+      }
+    }
+
+    for (int py = -40; py <= 40; py += 8) {
+      for (int px = -40; px <= 40; px += 8) {
+        assertEquals(rebuilt.nextGridCellIdLongRange(px, py, 100), incremental.nextGridCellIdLongRange(px, py, 100));
+      }
+    }
+    assertEquals(cells[10][20], incremental.intensity(-12, -22));
+  }
+
+  @Test
+  void testNearFieldMatchesKernel() {
+    var random = new Random(42);
+    for (int round = 0; round < 200; round++) {
+      var scentField = new ScentField();
+      var preyCells = new PreyCells(64);
+      var predatorX = 8; // Center of tile 0, so every cell within 16 is in a near tile
+      var predatorY = 8;
+      for (int i = 0; i < 20; i++) {
+        var x = predatorX + random.nextInt(33) - 16;
+        var y = predatorY + random.nextInt(33) - 16;
+        if (scentField.intensity(x, y) != 0) {
+          continue;
+        }
+        var intensity = 1 + random.nextInt(4);
+        scentField.set(x, y, intensity);
+        preyCells.add(x, y, intensity);
+      }
+
+      var range = 12 + random.nextInt(10);
+      assertEquals(PredatorKernel.nextGridCellIdLongRange(predatorX, predatorY, preyCells, range),
+          scentField.nextGridCellIdLongRange(predatorX, predatorY, range));
+    }
+  }
+
+  @Test
+  void testFarPreyPullsTowardsCluster() {
+    var scentField = new ScentField();
+    for (int y = 60; y < 64; y++) {
+      for (int x = 60; x < 64; x++) {
+        scentField.set(x, y, GridCell.Status.blue);
+      }
+    }
+
+    assertEquals("1x1", scentField.nextGridCellIdLongRange(0, 0, 1000)); // RxC / YxX
+    assertEquals("", scentField.nextGridCellIdLongRange(0, 0, 50));
+    assertEquals("", scentField.nextGridCellIdLongRange(-500, -500, 1000));
+  }
+
+  @Test
+  void testClearRemovesScent() {
+    var scentField = new ScentField();
+    scentField.set(5, 5, 4);
+    scentField.set(40, 5, 4);
+
+    scentField.clear(0, 0, 31, 31);
+
+    assertEquals(0, scentField.intensity(5, 5));
+    assertEquals(4, scentField.intensity(40, 5));
+    assertNull(scentField.direction(5, 5, 20));
+    assertTrue(scentField.direction(30, 5, 20) != null);
+  }
+
+  @Test
+  void testReplaceSwapsScentOnCommit() {
+    var scentField = new ScentField();
+    scentField.set(5, 5, 4);
+    scentField.set(40, 5, 4);
+
+    var replacement = scentField.replace(0, 0, 31, 31);
+    replacement.set(6, 6, GridCell.Status.green);
+    replacement.set(40, 6, GridCell.Status.green); // Outside the replaced area
+
+    assertEquals(4, scentField.intensity(5, 5));
+    assertEquals(0, scentField.intensity(6, 6));
+
+    replacement.commit();
+
+    assertEquals(0, scentField.intensity(5, 5));
+    assertEquals(3, scentField.intensity(6, 6));
+    assertEquals(4, scentField.intensity(40, 5));
+    assertEquals(0, scentField.intensity(40, 6));
+  }
+
+  @Test
+  void testReplaceKeepsCellsOutsideAPartialTile() {
+    var scentField = new ScentField();
+    scentField.set(2, 2, 4);
+    scentField.set(12, 12, 4);
+
+    scentField.replace(0, 0, 7, 7).commit();
+
+    assertEquals(0, scentField.intensity(2, 2));
+    assertEquals(4, scentField.intensity(12, 12));
+    assertEquals(1, scentField.tiles());
+
+    scentField.replace(8, 8, 15, 15).commit();
+    assertEquals(0, scentField.tiles());
+  }
+
+  @Test
+  void testReachIsBounded() {
+    assertEquals(10, ScentField.reach(10));
+    assertEquals(ScentField.REACH, ScentField.reach(1000));
+    assertEquals(0, ScentField.reach(-1));
+  }
+}